@@ -480,6 +480,11 @@ public interface Status
         DatabaseUnavailable( TransientError,
                 "The database is not currently available to serve your request, refer to the database logs for more " +
                 "details. Retrying your request at a later time may succeed." ),
+        TransactionOutOfMemoryError( TransientError,
+                "There is not enough memory to hold the state of the current transaction. The transaction state is " +
+                "limited by 'dbms.tx_state.max_off_heap_memory_per_transaction' when " +
+                "'dbms.tx_state.memory_allocation' is set to 'OFF_HEAP'. Please try splitting the work into smaller " +
+                "transactions, or increase the limit in the neo4j configuration and restart the database." ),
 
         ;
 
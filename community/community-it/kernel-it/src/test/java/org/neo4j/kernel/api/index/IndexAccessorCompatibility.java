@@ -225,7 +225,8 @@ public abstract class IndexAccessorCompatibility extends IndexProviderCompatibil
         {
             IndexQuery predicate = predicates[i];
             if ( predicate.valueGroup() == ValueGroup.GEOMETRY || predicate.valueGroup() == ValueGroup.GEOMETRY_ARRAY ||
-                    (predicate.valueGroup() == ValueGroup.NUMBER && !testSuite.supportFullValuePrecisionForNumbers()) )
+                    (predicate.valueGroup() == ValueGroup.NUMBER && !testSuite.supportFullValuePrecisionForNumbers()) ||
+                    (isStringSearch( predicate ) && !testSuite.supportFullValuePrecisionForStringSearch()) )
             {
                 if ( !predicates[i].acceptsValue( values[i] ) )
                 {
@@ -238,6 +239,11 @@ public abstract class IndexAccessorCompatibility extends IndexProviderCompatibil
         return true;
     }
 
+    private static boolean isStringSearch( IndexQuery predicate )
+    {
+        return predicate.type() == IndexQuery.IndexQueryType.stringContains || predicate.type() == IndexQuery.IndexQueryType.stringSuffix;
+    }
+
     /**
      * Commit these updates to the index. Also store the values, which currently are stored for all types except geometry,
      * so therefore it's done explicitly here so that we can filter on them later.
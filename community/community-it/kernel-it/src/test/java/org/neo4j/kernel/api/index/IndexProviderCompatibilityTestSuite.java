@@ -101,6 +101,15 @@ public abstract class IndexProviderCompatibilityTestSuite
         return true;
     }
 
+    /**
+     * @return false if the index may return candidates for {@code CONTAINS} and {@code ENDS WITH} queries which don't match,
+     * leaving it to the caller to filter them, like the kernel does when the reader says it doesn't have full value precision.
+     */
+    public boolean supportFullValuePrecisionForStringSearch()
+    {
+        return true;
+    }
+
     public ValueType[] supportedValueTypes()
     {
         if ( !supportsSpatial() )
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+import java.io.File;
+
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.factory.OperationalMode;
+import org.neo4j.kernel.impl.index.schema.ConsistencyCheckableIndexPopulator;
+import org.neo4j.kernel.impl.index.schema.NativeIndexAccessor;
+import org.neo4j.kernel.impl.index.schema.TrigramIndexAccessor;
+import org.neo4j.kernel.impl.index.schema.TrigramIndexProviderFactory;
+
+public class TrigramIndexProviderCompatibilitySuiteTest extends IndexProviderCompatibilityTestSuite
+{
+    @Override
+    protected IndexProvider createIndexProvider( PageCache pageCache, FileSystemAbstraction fs, File graphDbDir )
+    {
+        IndexProvider.Monitor monitor = IndexProvider.Monitor.EMPTY;
+        Config config = Config.defaults();
+        OperationalMode mode = OperationalMode.single;
+        RecoveryCleanupWorkCollector recoveryCleanupWorkCollector = RecoveryCleanupWorkCollector.immediate();
+        return TrigramIndexProviderFactory.create( pageCache, graphDbDir, fs, monitor, config, mode, recoveryCleanupWorkCollector );
+    }
+
+    @Override
+    public boolean supportsSpatial()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean supportsGranularCompositeQueries()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean supportsBooleanRangeQueries()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean supportFullValuePrecisionForStringSearch()
+    {
+        return false;
+    }
+
+    @Override
+    public void consistencyCheck( IndexAccessor accessor )
+    {
+        if ( accessor instanceof TrigramIndexAccessor )
+        {
+            ((TrigramIndexAccessor) accessor).consistencyCheck();
+        }
+        else
+        {
+            ((NativeIndexAccessor) accessor).consistencyCheck();
+        }
+    }
+
+    @Override
+    public void consistencyCheck( IndexPopulator populator )
+    {
+        ((ConsistencyCheckableIndexPopulator) populator).consistencyCheck();
+    }
+}
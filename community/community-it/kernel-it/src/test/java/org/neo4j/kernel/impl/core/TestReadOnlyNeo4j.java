@@ -23,6 +23,9 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.RuleChain;
 
+import java.io.File;
+import java.io.IOException;
+
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
@@ -33,13 +36,16 @@ import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.graphdb.mockfs.UncloseableDelegatingFileSystemAbstraction;
 import org.neo4j.graphdb.security.WriteOperationsNotAllowedException;
+import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.kernel.configuration.Settings;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmer;
 import org.neo4j.test.DbRepresentation;
 import org.neo4j.test.TestGraphDatabaseFactory;
 import org.neo4j.test.rule.TestDirectory;
 import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.neo4j.graphdb.RelationshipType.withName;
@@ -77,6 +83,29 @@ public class TestReadOnlyNeo4j
         readGraphDb.shutdown();
     }
 
+    @Test
+    public void shouldNotWritePageCacheProfiles() throws IOException
+    {
+        createSomeData();
+        File profiles = new File( testDirectory.databaseDir(), PageCacheWarmer.PROFILES_DIRECTORY );
+        fs.get().deleteRecursively( profiles );
+
+        GraphDatabaseService readGraphDb = new TestGraphDatabaseFactory()
+                .setFileSystem( new UncloseableDelegatingFileSystemAbstraction( fs.get() ) )
+                .newImpermanentDatabaseBuilder( testDirectory.databaseDir() )
+                .setConfig( GraphDatabaseSettings.read_only, Settings.TRUE )
+                .setConfig( GraphDatabaseSettings.pagecache_warmup_profiling_interval, "1ms" )
+                .newGraphDatabase();
+        try ( Transaction tx = readGraphDb.beginTx() )
+        {
+            assertEquals( 101, Iterables.count( readGraphDb.getAllNodes() ) );
+            tx.success();
+        }
+        readGraphDb.shutdown();
+
+        assertFalse( fs.get().fileExists( profiles ) );
+    }
+
     private DbRepresentation createSomeData()
     {
         RelationshipType type = withName( "KNOWS" );
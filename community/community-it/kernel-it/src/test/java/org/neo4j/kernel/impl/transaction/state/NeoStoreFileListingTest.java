@@ -200,6 +200,8 @@ public class NeoStoreFileListingTest
         Set<File> expectedFiles = layout.storeFiles();
         // there was no rotation
         expectedFiles.remove( layout.countStoreB() );
+        // counts are kept in the key/value store files by default
+        expectedFiles.remove( layout.countStore() );
         ResourceIterator<StoreFileMetadata> storeFiles = neoStoreDataSource.listStoreFiles( false );
         Set<File> listedStoreFiles = storeFiles.stream()
                 .map( StoreFileMetadata::file )
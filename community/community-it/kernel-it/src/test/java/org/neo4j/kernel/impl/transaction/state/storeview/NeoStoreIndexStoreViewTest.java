@@ -25,6 +25,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.InOrder;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -67,6 +68,7 @@ import static java.util.Collections.emptySet;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -76,6 +78,7 @@ import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.neo4j.helpers.collection.Iterators.asSet;
+import static org.neo4j.kernel.impl.transaction.state.storeview.NeoStoreIndexStoreView.MINIMUM_NODES_PER_PARTITION;
 
 public class NeoStoreIndexStoreViewTest
 {
@@ -297,6 +300,63 @@ public class NeoStoreIndexStoreViewTest
                 containsInAnyOrder( index1, index2, index3 ) );
     }
 
+    @Test
+    public void shouldSplitNodeIdsIntoPartitionsWithOpenEndedLastPartition()
+    {
+        assertArrayEquals( new long[]{0, 25_000, 50_000, 75_000, Long.MAX_VALUE},
+                NeoStoreIndexStoreView.partitionBoundaries( 4, 100_000 ) );
+        assertArrayEquals( new long[]{0, 12_500, Long.MAX_VALUE},
+                NeoStoreIndexStoreView.partitionBoundaries( 4, 25_000 ) );
+    }
+
+    @Test
+    public void shouldNotPartitionScanOfFewNodes()
+    {
+        assertEquals( 0, NeoStoreIndexStoreView.partitionBoundaries( 1, 100_000 ).length );
+        assertEquals( 0, NeoStoreIndexStoreView.partitionBoundaries( 4, 2 * MINIMUM_NODES_PER_PARTITION - 1 ).length );
+        assertEquals( 0, storeView.visitNodesInPartitions( 4, new int[]{labelId}, id -> id == propertyKeyId,
+                partition -> new EntityUpdateCollectingVisitor() ).size() );
+    }
+
+    @Test
+    public void shouldScanAllNodesInPartitionsIncludingNodesCreatedAfterPartitioning() throws Exception
+    {
+        // given
+        Set<Long> expectedNodes = new HashSet<>( Arrays.asList( alistair.getId(), stefan.getId() ) );
+        expectedNodes.addAll( createNamedNodes( (int) (2 * MINIMUM_NODES_PER_PARTITION) ) );
+        List<EntityUpdateCollectingVisitor> visitors = new ArrayList<>();
+        List<StoreScan<Exception>> scans = storeView.visitNodesInPartitions( 4, new int[]{labelId}, id -> id == propertyKeyId,
+                partition ->
+                {
+                    EntityUpdateCollectingVisitor visitor = new EntityUpdateCollectingVisitor();
+                    visitors.add( visitor );
+                    return visitor;
+                } );
+        assertEquals( 2, scans.size() );
+        Set<Long> createdAfterPartitioning = createNamedNodes( 10 );
+        expectedNodes.addAll( createdAfterPartitioning );
+
+        // when
+        for ( StoreScan<Exception> scan : scans )
+        {
+            scan.run();
+        }
+
+        // then
+        Set<Long> scannedNodes = new HashSet<>();
+        for ( EntityUpdateCollectingVisitor visitor : visitors )
+        {
+            for ( EntityUpdates updates : visitor.getUpdates() )
+            {
+                assertTrue( "Node " + updates.getEntityId() + " scanned twice", scannedNodes.add( updates.getEntityId() ) );
+            }
+        }
+        assertEquals( expectedNodes, scannedNodes );
+        Set<Long> scannedByLastPartition = new HashSet<>();
+        visitors.get( 1 ).getUpdates().forEach( updates -> scannedByLastPartition.add( updates.getEntityId() ) );
+        assertTrue( scannedByLastPartition.containsAll( createdAfterPartitioning ) );
+    }
+
     @Test
     public void processAllRelationshipProperties() throws Exception
     {
@@ -351,6 +411,25 @@ public class NeoStoreIndexStoreViewTest
         }
     }
 
+    private Set<Long> createNamedNodes( int count )
+    {
+        Set<Long> nodes = new HashSet<>();
+        for ( int i = 0; i < count; i += 1_000 )
+        {
+            try ( Transaction tx = graphDb.beginTx() )
+            {
+                for ( int j = i; j < Math.min( count, i + 1_000 ); j++ )
+                {
+                    Node node = graphDb.createNode( label );
+                    node.setProperty( "name", "Node" + j );
+                    nodes.add( node.getId() );
+                }
+                tx.success();
+            }
+        }
+        return nodes;
+    }
+
     private void deleteAlistairAndStefanNodes()
     {
         try ( Transaction tx = graphDb.beginTx() )
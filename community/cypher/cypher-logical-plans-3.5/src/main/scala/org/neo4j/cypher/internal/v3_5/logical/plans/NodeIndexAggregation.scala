@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.v3_5.logical.plans
+
+import org.neo4j.cypher.internal.v3_5.expressions.{LabelToken, PropertyKeyToken}
+import org.neo4j.cypher.internal.v3_5.util.attribution.IdGen
+
+/**
+  * Produce a single row with the contents of argument and a new value 'idName'. The value is the result of the
+  * given aggregation over the values of 'property' of all nodes with 'label', computed from the index on
+  * 'label' and 'property' alone, without loading any nodes or properties.
+  */
+case class NodeIndexAggregation(idName: String,
+                                label: LabelToken,
+                                property: PropertyKeyToken,
+                                aggregation: IndexAggregation,
+                                argumentIds: Set[String])
+                               (implicit idGen: IdGen)
+  extends LogicalLeafPlan(idGen) {
+
+  override val availableSymbols = Set(idName)
+}
+
+/**
+  * The aggregation that a [[NodeIndexAggregation]] computes from an index
+  */
+sealed trait IndexAggregation
+
+/**
+  * min(n.prop), from the first entries of the index in ascending order
+  */
+case object IndexMin extends IndexAggregation
+
+/**
+  * max(n.prop), from the first entries of the index in descending order
+  */
+case object IndexMax extends IndexAggregation
+
+/**
+  * count(n.prop), the number of entries in the index
+  */
+case object IndexCount extends IndexAggregation
+
+/**
+  * count(DISTINCT n.prop), the number of distinct values in the index
+  */
+case object IndexCountDistinct extends IndexAggregation
@@ -19,6 +19,7 @@
  */
 package org.neo4j.cypher.internal.compiler.v3_5
 
+import java.io.File
 import java.time.Clock
 
 import org.neo4j.cypher.internal.compiler.v3_5.phases.PlannerContext
@@ -113,4 +114,6 @@ case class CypherPlannerConfiguration(queryCacheSize: Int,
                                       csvBufferSize: Int,
                                       nonIndexedLabelWarningThreshold: Long,
                                       planWithMinimumCardinalityEstimates: Boolean,
-                                      lenientCreateRelationship: Boolean)
+                                      lenientCreateRelationship: Boolean,
+                                      spillThreshold: Long,
+                                      spillDirectory: Option[File])
@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.compiler.v3_5.planner.logical
 
 import org.neo4j.cypher.internal.compiler.v3_5.planner.logical.steps.alignGetValueFromIndexBehavior
 import org.neo4j.cypher.internal.compiler.v3_5.planner.logical.steps.countStorePlanner
+import org.neo4j.cypher.internal.compiler.v3_5.planner.logical.steps.indexAggregationPlanner
 import org.neo4j.cypher.internal.compiler.v3_5.planner.logical.steps.verifyBestPlan
 import org.neo4j.cypher.internal.ir.v3_5.PlannerQuery
 import org.neo4j.cypher.internal.v3_5.logical.plans.LogicalPlan
@@ -38,7 +39,7 @@ case class PlanSingleQuery(planPart: PartPlanner = planPart,
 
   override def apply(in: PlannerQuery, context: LogicalPlanningContext, idGen: IdGen): (LogicalPlan, LogicalPlanningContext) = {
     val (completePlan, ctx) =
-      countStorePlanner(in, context) match {
+      countStorePlanner(in, context).orElse(indexAggregationPlanner(in, context)) match {
         case Some(plan) =>
           (plan, context.withUpdatedCardinalityInformation(plan))
         case None =>
@@ -500,6 +500,12 @@ case class LogicalPlanProducer(cardinalityModel: CardinalityModel, planningAttri
     annotate(NodeCountFromCountStore(projectedColumn, labels, argumentIds), solved, ProvidedOrder.empty, context)
   }
 
+  def planIndexAggregation(query: PlannerQuery, projectedColumn: String, label: LabelToken, property: PropertyKeyToken,
+                           aggregation: IndexAggregation, argumentIds: Set[String], context: LogicalPlanningContext): LogicalPlan = {
+    val solved = RegularPlannerQuery(query.queryGraph, query.interestingOrder, query.horizon)
+    annotate(NodeIndexAggregation(projectedColumn, label, property, aggregation, argumentIds), solved, ProvidedOrder.empty, context)
+  }
+
   def planCountStoreRelationshipAggregation(query: PlannerQuery, idName: String, startLabel: Option[LabelName],
                                             typeNames: Seq[RelTypeName], endLabel: Option[LabelName], argumentIds: Set[String], context: LogicalPlanningContext): LogicalPlan = {
     val solved: PlannerQuery = RegularPlannerQuery(query.queryGraph, query.interestingOrder, query.horizon)
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v3_5.planner.logical.steps
+
+import org.neo4j.cypher.internal.compiler.v3_5.planner.logical.LogicalPlanningContext
+import org.neo4j.cypher.internal.ir.v3_5._
+import org.neo4j.cypher.internal.planner.v3_5.spi.{IndexDescriptor, IndexOrderCapability}
+import org.neo4j.cypher.internal.v3_5.expressions._
+import org.neo4j.cypher.internal.v3_5.logical.plans._
+import org.neo4j.cypher.internal.v3_5.util.symbols._
+
+/*
+ * Plans a single aggregation over an indexed property of all nodes with a label, e.g. MATCH (n:A) RETURN max(n.prop),
+ * such that it is answered by the index alone instead of by scanning the label and loading the property of every node.
+ */
+case object indexAggregationPlanner {
+
+  // All types that can be ordered by an index. min/max and count(DISTINCT) need the index to return the values in order.
+  private val orderableTypes = Seq(CTInteger, CTFloat, CTString, CTDate, CTDateTime, CTLocalDateTime, CTTime, CTLocalTime, CTDuration)
+
+  def apply(query: PlannerQuery, context: LogicalPlanningContext): Option[LogicalPlan] = {
+    query.horizon match {
+      case AggregatingQueryProjection(groupingKeys, aggregatingExpressions, _, _)
+        if groupingKeys.isEmpty && aggregatingExpressions.size == 1 =>
+        val (columnName, exp) = aggregatingExpressions.head
+        val indexAggregationPlan = checkForValidQueryGraph(query, columnName, exp, context)
+        indexAggregationPlan.map(p => projection(p, groupingKeys, groupingKeys, query.interestingOrder, context))
+
+      case _ => None
+    }
+  }
+
+  private def checkForValidQueryGraph(query: PlannerQuery, columnName: String, exp: Expression, context: LogicalPlanningContext): Option[LogicalPlan] = query.queryGraph match {
+    case QueryGraph(patternRelationships, patternNodes, argumentIds, selections, Seq(), hints, shortestPathPatterns, _)
+      if patternRelationships.isEmpty && patternNodes.size == 1 && hints.isEmpty && shortestPathPatterns.isEmpty && query.queryGraph.readOnly &&
+        !argumentIds.contains(patternNodes.head) && countStorePlanner.noWrongPredicates(patternNodes, selections) => // MATCH (n:A)
+      val variableName = patternNodes.head
+      for {
+        labelName <- countStorePlanner.findLabel(variableName, selections)
+        (aggregation, propertyKeyName) <- checkForValidAggregation(variableName, exp)
+        labelId <- context.semanticTable.id(labelName)
+        propertyKeyId <- context.semanticTable.id(propertyKeyName)
+        index <- context.planContext.indexGetForLabelAndProperties(labelName.name, Seq(propertyKeyName.name))
+        if canAggregate(index, aggregation)
+      } yield {
+        context.logicalPlanProducer.planIndexAggregation(query, columnName, LabelToken(labelName, labelId),
+                                                         PropertyKeyToken(propertyKeyName, propertyKeyId), aggregation, argumentIds, context)
+      }
+
+    case _ => None
+  }
+
+  private def checkForValidAggregation(variableName: String, exp: Expression): Option[(IndexAggregation, PropertyKeyName)] = exp match {
+    case // MIN(n.prop), MIN(DISTINCT n.prop)
+      func@FunctionInvocation(_, _, _, Vector(Property(Variable(`variableName`), propertyKeyName))) if func.function == functions.Min =>
+      Some(IndexMin -> propertyKeyName)
+
+    case // MAX(n.prop), MAX(DISTINCT n.prop)
+      func@FunctionInvocation(_, _, _, Vector(Property(Variable(`variableName`), propertyKeyName))) if func.function == functions.Max =>
+      Some(IndexMax -> propertyKeyName)
+
+    case // COUNT(n.prop)
+      func@FunctionInvocation(_, _, false, Vector(Property(Variable(`variableName`), propertyKeyName))) if func.function == functions.Count =>
+      Some(IndexCount -> propertyKeyName)
+
+    case // COUNT(DISTINCT n.prop)
+      func@FunctionInvocation(_, _, true, Vector(Property(Variable(`variableName`), propertyKeyName))) if func.function == functions.Count =>
+      Some(IndexCountDistinct -> propertyKeyName)
+
+    case _ => None
+  }
+
+  private def canAggregate(index: IndexDescriptor, aggregation: IndexAggregation): Boolean = aggregation match {
+    case IndexCount =>
+      // Any index has exactly one entry per node with the label and the property
+      !index.isComposite
+
+    case IndexMin | IndexMax | IndexCountDistinct =>
+      !index.isComposite &&
+        index.valueCapability(Seq(CTAny)) == Seq(CanGetValue) &&
+        orderableTypes.forall(t => index.orderCapability(Seq(t)) == IndexOrderCapability.BOTH)
+  }
+}
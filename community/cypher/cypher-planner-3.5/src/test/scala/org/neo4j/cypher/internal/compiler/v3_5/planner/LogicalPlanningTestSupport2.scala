@@ -82,7 +82,9 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
     csvBufferSize = Configuration.DEFAULT_BUFFER_SIZE_4MB,
     nonIndexedLabelWarningThreshold = 10000,
     planWithMinimumCardinalityEstimates = true,
-    lenientCreateRelationship = false
+    lenientCreateRelationship = false,
+    spillThreshold = 0,
+    spillDirectory = None
   )
   val realConfig = RealLogicalPlanningConfiguration(cypherCompilerConfig)
 
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v3_5.planner.logical
+
+import org.neo4j.cypher.internal.compiler.v3_5.planner.LogicalPlanningTestSupport2
+import org.neo4j.cypher.internal.planner.v3_5.spi.IndexOrderCapability.BOTH
+import org.neo4j.cypher.internal.v3_5.expressions.{LabelToken, PropertyKeyToken}
+import org.neo4j.cypher.internal.v3_5.logical.plans._
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+
+class IndexAggregationPlanningIntegrationTest extends CypherFunSuite with LogicalPlanningTestSupport2 {
+
+  test("should plan max of an indexed property from the index") {
+    val plan = new given {
+      indexOn("Awesome", "prop").providesValues().providesOrder(BOTH)
+    } getLogicalPlanFor "MATCH (n:Awesome) RETURN max(n.prop)"
+
+    plan._2 should matchPattern {
+      case NodeIndexAggregation("max(n.prop)", LabelToken("Awesome", _), PropertyKeyToken("prop", _), IndexMax, _) =>
+    }
+  }
+
+  test("should plan count(DISTINCT) of an indexed property from the index") {
+    val plan = new given {
+      indexOn("Awesome", "prop").providesValues().providesOrder(BOTH)
+    } getLogicalPlanFor "MATCH (n:Awesome) RETURN count(DISTINCT n.prop)"
+
+    plan._2 should matchPattern {
+      case NodeIndexAggregation(_, LabelToken("Awesome", _), PropertyKeyToken("prop", _), IndexCountDistinct, _) =>
+    }
+  }
+
+  test("should plan count of an indexed property from any index") {
+    val plan = new given {
+      indexOn("Awesome", "prop")
+    } getLogicalPlanFor "MATCH (n:Awesome) RETURN count(n.prop)"
+
+    plan._2 should matchPattern {
+      case NodeIndexAggregation(_, LabelToken("Awesome", _), PropertyKeyToken("prop", _), IndexCount, _) =>
+    }
+  }
+
+  test("should not plan min from an index that does not provide order") {
+    val plan = new given {
+      indexOn("Awesome", "prop").providesValues()
+    } getLogicalPlanFor "MATCH (n:Awesome) RETURN min(n.prop)"
+
+    plan._2 shouldBe an[Aggregation]
+  }
+
+  test("should not plan min from the index when there are other predicates") {
+    val plan = new given {
+      indexOn("Awesome", "prop").providesValues().providesOrder(BOTH)
+    } getLogicalPlanFor "MATCH (n:Awesome) WHERE n.other = 42 RETURN min(n.prop)"
+
+    plan._2 shouldBe an[Aggregation]
+  }
+
+  test("should not plan min from the index when grouping") {
+    val plan = new given {
+      indexOn("Awesome", "prop").providesValues().providesOrder(BOTH)
+    } getLogicalPlanFor "MATCH (n:Awesome) RETURN n.other, min(n.prop)"
+
+    plan._2 shouldBe an[Aggregation]
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.compiled.expressions;
+
+import scala.Option;
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.values.AnyValue;
+import org.neo4j.values.storable.Value;
+
+import static org.neo4j.values.storable.Values.FALSE;
+import static org.neo4j.values.storable.Values.NO_VALUE;
+import static org.neo4j.values.storable.Values.TRUE;
+
+/**
+ * This class contains static helper methods used by the classes generated by {@link ExpressionCompiler}
+ */
+@SuppressWarnings( "unused" )
+public final class CompiledHelpers
+{
+    private CompiledHelpers()
+    {
+        throw new UnsupportedOperationException( "Do not instantiate" );
+    }
+
+    public static AnyValue variable( ExecutionContext context, String name )
+    {
+        Option<AnyValue> value = context.get( name );
+        if ( value.isEmpty() )
+        {
+            throw new NotFoundException( String.format( "Unknown variable `%s`.", name ) );
+        }
+        return value.get();
+    }
+
+    public static Value not( AnyValue in )
+    {
+        if ( in == NO_VALUE )
+        {
+            return NO_VALUE;
+        }
+        return in == TRUE ? FALSE : TRUE;
+    }
+
+    public static Value isNull( AnyValue in )
+    {
+        return in == NO_VALUE ? TRUE : FALSE;
+    }
+
+    /**
+     * Folds the value of one more operand into the result so far of an AND ({@code exit} being {@code FALSE})
+     * or an OR ({@code exit} being {@code TRUE}).
+     */
+    public static AnyValue compositeStep( AnyValue result, AnyValue operand, AnyValue exit )
+    {
+        if ( operand == exit || operand == NO_VALUE )
+        {
+            return operand;
+        }
+        return result;
+    }
+
+    /**
+     * An exit value supersedes any error thrown by the operands, otherwise the first error is rethrown.
+     */
+    public static AnyValue compositeResult( AnyValue result, AnyValue exit, RuntimeException error )
+    {
+        if ( result != exit && error != null )
+        {
+            throw error;
+        }
+        return result;
+    }
+
+    public static RuntimeException firstError( RuntimeException error, RuntimeException next )
+    {
+        return error != null ? error : next;
+    }
+}
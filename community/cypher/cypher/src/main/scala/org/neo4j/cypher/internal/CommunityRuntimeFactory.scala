@@ -26,6 +26,8 @@ object CommunityRuntimeFactory {
 
   val interpreted = new FallbackRuntime[RuntimeContext](List(InterpretedRuntime), CypherRuntimeOption.interpreted)
   val default = new FallbackRuntime[RuntimeContext](List(InterpretedRuntime), CypherRuntimeOption.default)
+  val slotted = new FallbackRuntime[RuntimeContext](List(SlottedRuntime, InterpretedRuntime), CypherRuntimeOption.slotted)
+  val slottedWithoutFallback = new FallbackRuntime[RuntimeContext](List(SlottedRuntime), CypherRuntimeOption.slotted)
 
   def getRuntime(cypherRuntime: CypherRuntimeOption, disallowFallback: Boolean): CypherRuntime[RuntimeContext] =
     cypherRuntime match {
@@ -33,6 +35,10 @@ object CommunityRuntimeFactory {
 
       case CypherRuntimeOption.default => default
 
+      case CypherRuntimeOption.slotted if disallowFallback => slottedWithoutFallback
+
+      case CypherRuntimeOption.slotted => slotted
+
       case unsupported if disallowFallback =>
         throw new InvalidArgumentException(s"This version of Neo4j does not support requested runtime: $unsupported")
 
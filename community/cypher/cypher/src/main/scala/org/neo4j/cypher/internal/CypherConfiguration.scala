@@ -114,6 +114,8 @@ case class CypherConfiguration(version: CypherVersion,
       csvBufferSize = csvBufferSize,
       nonIndexedLabelWarningThreshold = config.get(GraphDatabaseSettings.query_non_indexed_label_warning_threshold).longValue(),
       planWithMinimumCardinalityEstimates = planWithMinimumCardinalityEstimates,
-      lenientCreateRelationship = lenientCreateRelationship
+      lenientCreateRelationship = lenientCreateRelationship,
+      spillThreshold = config.get(GraphDatabaseSettings.cypher_spill_threshold).longValue(),
+      spillDirectory = Option(config.get(GraphDatabaseSettings.cypher_spill_directory))
     )
 }
@@ -24,6 +24,7 @@ import org.neo4j.cypher.internal.compatibility.v3_5.runtime.executionplan._
 import org.neo4j.cypher.internal.compatibility.v3_5.runtime.profiler.{InterpretedProfileInformation, Profiler}
 import org.neo4j.cypher.internal.compiler.v3_5.phases.LogicalPlanState
 import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.compiled.expressions.ExpressionCompiler
 import org.neo4j.cypher.internal.runtime.interpreted.UpdateCountingQueryContext
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{CommunityExpressionConverter, ExpressionConverters}
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.PipeExecutionBuilderContext
@@ -40,7 +41,7 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
     val converters = new ExpressionConverters(CommunityExpressionConverter(context.tokenContext))
     val executionPlanBuilder = new PipeExecutionPlanBuilder(
       expressionConverters = converters,
-      pipeBuilderFactory = InterpretedPipeBuilderFactory)
+      pipeBuilderFactory = new InterpretedPipeBuilderFactory(ExpressionCompiler.compileIf(context.compileExpressions)))
     val pipeBuildContext = PipeExecutionBuilderContext(state.semanticTable(), context.readOnly)
     val pipe = executionPlanBuilder.build(logicalPlan)(pipeBuildContext, context.tokenContext)
     val periodicCommitInfo = state.periodicCommit.map(x => PeriodicCommitInfo(x.batchSize))
@@ -49,7 +50,9 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
                                                                         context.readOnly,
                                                                         columns,
                                                                         logicalPlan,
-                                                                        context.config.lenientCreateRelationship)
+                                                                        context.config.lenientCreateRelationship,
+                                                                        context.config.spillThreshold,
+                                                                        context.config.spillDirectory)
 
     new InterpretedExecutionPlan(periodicCommitInfo,
                                  resultBuilderFactory,
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility
+
+import org.neo4j.cypher.internal.compatibility.InterpretedRuntime.InterpretedExecutionPlan
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime._
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.executionplan._
+import org.neo4j.cypher.internal.compiler.v3_5.phases.LogicalPlanState
+import org.neo4j.cypher.internal.compiler.v3_5.planner.CantCompileQueryException
+import org.neo4j.cypher.internal.runtime.compiled.expressions.ExpressionCompiler
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{CommunityExpressionConverter, ExpressionConverters}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.PipeExecutionBuilderContext
+import org.neo4j.cypher.internal.runtime.slotted.SlottedPipeBuilderFactory
+import org.neo4j.cypher.internal.runtime.slotted.expressions.SlottedExpressionConverters
+
+/**
+  * Runs the same logical plans as the [[InterpretedRuntime]], but over rows where every variable has been assigned a
+  * fixed slot at plan time: node and relationship ids in a long array, other values in a reference array.
+  *
+  * Plans that cannot be slot allocated throw [[CantCompileQueryException]], so that they fall back to the interpreted runtime.
+  * When the context asks for compiled expressions, the expressions of filters, projections, groupings and aggregations
+  * are compiled by the [[ExpressionCompiler]], also when falling back to the [[InterpretedRuntime]].
+  */
+object SlottedRuntime extends CypherRuntime[RuntimeContext] {
+  override def compileToExecutable(state: LogicalPlanState, context: RuntimeContext): ExecutionPlan = {
+    if (state.periodicCommit.isDefined)
+      throw new CantCompileQueryException("Periodic commit is not supported by the slotted runtime")
+
+    val logicalPlan = state.logicalPlan
+    val slotConfigurations = SlotAllocation.allocateSlots(logicalPlan)
+    val converters = new ExpressionConverters(SlottedExpressionConverters(slotConfigurations),
+                                              CommunityExpressionConverter(context.tokenContext))
+    val executionPlanBuilder = new PipeExecutionPlanBuilder(
+      expressionConverters = converters,
+      pipeBuilderFactory = SlottedPipeBuilderFactory(slotConfigurations, ExpressionCompiler.compileIf(context.compileExpressions)))
+    val pipeBuildContext = PipeExecutionBuilderContext(state.semanticTable(), context.readOnly)
+    val pipe = executionPlanBuilder.build(logicalPlan)(pipeBuildContext, context.tokenContext)
+    val columns = state.statement().returnColumns
+    val resultBuilderFactory = InterpretedExecutionResultBuilderFactory(pipe,
+                                                                        context.readOnly,
+                                                                        columns,
+                                                                        logicalPlan,
+                                                                        context.config.lenientCreateRelationship,
+                                                                        context.config.spillThreshold,
+                                                                        context.config.spillDirectory)
+
+    new InterpretedExecutionPlan(None,
+                                 resultBuilderFactory,
+                                 SlottedRuntimeName,
+                                 context.readOnly)
+  }
+}
@@ -22,6 +22,7 @@ package org.neo4j.cypher.internal.compatibility.v3_5.runtime
 import org.neo4j.cypher.internal.planner.v3_5.spi.TokenContext
 import org.neo4j.cypher.internal.runtime.interpreted.InterpretedPipeBuilder
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.ExpressionConverters
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.{Pipe, PipeBuilderFactory, PipeExecutionBuilderContext}
 import org.neo4j.cypher.internal.v3_5.logical.plans.{LogicalPlan, LogicalPlans}
 
@@ -41,11 +42,17 @@ class PipeExecutionPlanBuilder(pipeBuilderFactory: PipeBuilderFactory,
   }
 }
 
-object InterpretedPipeBuilderFactory extends PipeBuilderFactory {
+/**
+  * Builds pipes passing the expressions evaluated per row through `compileExpression`, see [[InterpretedPipeBuilder]].
+  */
+class InterpretedPipeBuilderFactory(compileExpression: Expression => Expression) extends PipeBuilderFactory {
   def apply(recurse: LogicalPlan => Pipe,
             readOnly: Boolean,
             expressionConverters: ExpressionConverters)
            (implicit context: PipeExecutionBuilderContext, tokenContext: TokenContext): InterpretedPipeBuilder = {
-    InterpretedPipeBuilder(recurse, readOnly, expressionConverters, recursePipes(recurse), tokenContext)(context.semanticTable)
+    InterpretedPipeBuilder(recurse, readOnly, expressionConverters, recursePipes(recurse), tokenContext,
+                           compileExpression)(context.semanticTable)
   }
 }
+
+object InterpretedPipeBuilderFactory extends InterpretedPipeBuilderFactory(identity)
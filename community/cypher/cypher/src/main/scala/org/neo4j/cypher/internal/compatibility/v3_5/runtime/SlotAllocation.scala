@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_5.runtime
+
+import org.neo4j.cypher.internal.compiler.v3_5.planner.CantCompileQueryException
+import org.neo4j.cypher.internal.v3_5.expressions._
+import org.neo4j.cypher.internal.v3_5.logical.plans._
+import org.neo4j.cypher.internal.v3_5.util.Foldable._
+import org.neo4j.cypher.internal.v3_5.util.symbols.{CTAny, CTNode, CTRelationship}
+
+/**
+  * Assigns every variable of a logical plan a fixed slot in the rows the slotted runtime operates on.
+  *
+  * Only plans where every row has the same shape from leaf to result are supported, i.e. a single leaf followed by
+  * one-child plans that never discard variables. All plans of such a tree share one [[SlotConfiguration]].
+  * Anything else throws a [[CantCompileQueryException]], so that the query can fall back to the interpreted runtime.
+  */
+object SlotAllocation {
+
+  def allocateSlots(lp: LogicalPlan): SlotConfigurations = {
+    checkExpressions(lp)
+    val allocations = new SlotConfigurations
+    allocate(lp, allocations)
+    allocations
+  }
+
+  private def allocate(lp: LogicalPlan, allocations: SlotConfigurations): SlotConfiguration = {
+    val slots = (lp.lhs, lp.rhs) match {
+      case (None, None) =>
+        allocateLeaf(lp)
+
+      case (Some(source), None) =>
+        allocateOneChild(lp, allocate(source, allocations))
+
+      case _ =>
+        throw unsupported(lp)
+    }
+    allocations.set(lp.id, slots)
+    slots
+  }
+
+  private def allocateLeaf(lp: LogicalPlan): SlotConfiguration = lp match {
+    case Argument(argumentIds) if argumentIds.isEmpty =>
+      SlotConfiguration.empty
+
+    case AllNodesScan(node, argumentIds) if argumentIds.isEmpty =>
+      SlotConfiguration.empty.newLong(node, nullable = false, CTNode)
+
+    case NodeByLabelScan(node, _, argumentIds) if argumentIds.isEmpty =>
+      SlotConfiguration.empty.newLong(node, nullable = false, CTNode)
+
+    case _ =>
+      throw unsupported(lp)
+  }
+
+  private def allocateOneChild(lp: LogicalPlan, slots: SlotConfiguration): SlotConfiguration = lp match {
+    case _: Selection | _: Limit | _: Skip | _: Sort | _: Top | _: ProduceResult =>
+      slots
+
+    case Expand(_, from, _, _, to, relationship, ExpandAll) if slots.get(from).exists(_.isInstanceOf[LongSlot]) =>
+      slots.newLong(relationship, nullable = false, CTRelationship)
+      slots.newLong(to, nullable = false, CTNode)
+
+    case Projection(_, expressions) =>
+      expressions.foreach {
+        case (key, Variable(ident)) if key == ident =>
+          // Projecting a variable onto itself, nothing to allocate
+
+        case (key, _) if slots.get(key).exists(_.isInstanceOf[LongSlot]) =>
+          // Shadowing a node or relationship, which cannot be done in place
+          throw unsupported(lp)
+
+        case (key, Variable(ident)) if slots.get(ident).exists(_.isInstanceOf[LongSlot]) =>
+          if (slots.contains(key))
+            throw unsupported(lp)
+          slots.addAlias(key, ident)
+
+        case (key, _) if !slots.contains(key) =>
+          slots.newReference(key, nullable = true, CTAny)
+
+        case _ =>
+          // Re-projecting a value, the existing reference slot is overwritten
+      }
+      slots
+
+    case _ =>
+      throw unsupported(lp)
+  }
+
+  /**
+    * Some expressions introduce variables of their own, or look up variables by name on their own, bypassing the slots.
+    */
+  private def checkExpressions(lp: LogicalPlan): Unit = {
+    val unsupportedExpression = lp.treeExists {
+      case _: ScopeExpression |
+           _: PatternExpression |
+           _: PatternComprehension |
+           _: PathExpression |
+           _: ShortestPathExpression |
+           _: MapProjection |
+           _: DesugaredMapProjection |
+           _: CachedNodeProperty |
+           _: NestedPlanExpression => true
+    }
+    if (unsupportedExpression)
+      throw new CantCompileQueryException("Expression not supported in slotted runtime")
+  }
+
+  private def unsupported(lp: LogicalPlan) =
+    new CantCompileQueryException(s"Plan not supported in slotted runtime: ${lp.getClass.getSimpleName}")
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_5.runtime
+
+import org.neo4j.cypher.internal.v3_5.util.InternalException
+import org.neo4j.cypher.internal.v3_5.util.attribution.Attribute
+import org.neo4j.cypher.internal.v3_5.util.symbols.CypherType
+
+import scala.collection.mutable
+
+/**
+  * A place in a slotted row where the value of a variable is kept. Nodes and relationships are kept as ids in long slots,
+  * everything else is kept as values in reference slots.
+  */
+sealed trait Slot {
+  def offset: Int
+  def nullable: Boolean
+  def typ: CypherType
+}
+
+case class LongSlot(offset: Int, nullable: Boolean, typ: CypherType) extends Slot
+
+case class RefSlot(offset: Int, nullable: Boolean, typ: CypherType) extends Slot
+
+object SlotConfiguration {
+  def empty = new SlotConfiguration(mutable.Map.empty, 0, 0)
+}
+
+/**
+  * The layout of a slotted row, i.e. which slot each variable has been assigned to. Allocated at plan time,
+  * and shared by all plans that operate on rows of the same shape.
+  */
+class SlotConfiguration(private val slots: mutable.Map[String, Slot],
+                        var numberOfLongs: Int,
+                        var numberOfReferences: Int) {
+
+  def get(key: String): Option[Slot] = slots.get(key)
+
+  def apply(key: String): Slot = slots.getOrElse(key, throw new InternalException(s"Tried to access non-existing variable `$key`"))
+
+  def contains(key: String): Boolean = slots.contains(key)
+
+  def newLong(key: String, nullable: Boolean, typ: CypherType): SlotConfiguration = {
+    checkNotAlreadyTaken(key)
+    slots.put(key, LongSlot(numberOfLongs, nullable, typ))
+    numberOfLongs = numberOfLongs + 1
+    this
+  }
+
+  def newReference(key: String, nullable: Boolean, typ: CypherType): SlotConfiguration = {
+    checkNotAlreadyTaken(key)
+    slots.put(key, RefSlot(numberOfReferences, nullable, typ))
+    numberOfReferences = numberOfReferences + 1
+    this
+  }
+
+  /**
+    * Makes `newKey` refer to the same slot as the already allocated `existingKey`.
+    */
+  def addAlias(newKey: String, existingKey: String): SlotConfiguration = {
+    checkNotAlreadyTaken(newKey)
+    slots.put(newKey, apply(existingKey))
+    this
+  }
+
+  def foreachSlot[U](f: ((String, Slot)) => U): Unit = slots.foreach(f)
+
+  def copy(): SlotConfiguration = new SlotConfiguration(slots.clone(), numberOfLongs, numberOfReferences)
+
+  private def checkNotAlreadyTaken(key: String): Unit =
+    if (slots.contains(key))
+      throw new InternalException(s"Tried to allocate a new slot for an already allocated variable `$key`")
+
+  override def equals(other: Any): Boolean = other match {
+    case that: SlotConfiguration =>
+      slots == that.slots && numberOfLongs == that.numberOfLongs && numberOfReferences == that.numberOfReferences
+    case _ => false
+  }
+
+  override def hashCode(): Int = slots.hashCode()
+
+  override def toString = s"SlotConfiguration(longs=$numberOfLongs, refs=$numberOfReferences, slots=$slots)"
+}
+
+/**
+  * The slot configuration of the rows produced by each logical plan.
+  */
+class SlotConfigurations extends Attribute[SlotConfiguration]
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.compiled.expressions
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.values.AnyValue
+
+/**
+  * An expression evaluated by a class generated by [[ExpressionCompiler]]. Equality only considers the original
+  * expression, and the original is kept as the only argument, so that its nodes are still visited, e.g. when
+  * registering the owning pipe for profiling.
+  */
+case class CompiledExpression(original: Expression)(val evaluator: ExpressionEvaluator) extends Expression {
+
+  override def apply(ctx: ExecutionContext, state: QueryState): AnyValue = evaluator.evaluate(ctx, state)
+
+  // The generated class is tied to the original tree, so any rewritten tree is interpreted
+  override def rewrite(f: Expression => Expression): Expression = original.rewrite(f)
+
+  override def arguments: Seq[Expression] = Seq(original)
+
+  override def symbolTableDependencies: Set[String] = original.symbolTableDependencies
+
+  override def toString: String = original.toString
+}
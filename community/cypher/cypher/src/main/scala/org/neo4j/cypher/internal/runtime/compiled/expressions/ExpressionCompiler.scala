@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.compiled.expressions
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.function.Consumer
+
+import org.neo4j.codegen.Expression.{constant, constantInt, equal, get, getStatic, invoke, load, notEqual, or}
+import org.neo4j.codegen.FieldReference.staticField
+import org.neo4j.codegen.MethodReference.methodReference
+import org.neo4j.codegen.Parameter.param
+import org.neo4j.codegen.TypeReference.typeReference
+import org.neo4j.codegen.bytecode.ByteCode.BYTECODE
+import org.neo4j.codegen.{ClassGenerator, CodeBlock, CodeGenerationNotSupportedException, CodeGenerator, CompilationFailureException, FieldReference, MethodReference, Expression => IntermediateExpression}
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{Add, Divide, Expression, Literal, Modulo, Multiply, Pow, Property, Subtract, Variable}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.{Ands, Equals, GreaterThan, GreaterThanOrEqual, IsNull, LessThan, LessThanOrEqual, Not, Ors, True}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.internal.runtime.slotted.expressions.ReferenceFromSlot
+import org.neo4j.cypher.operations.{CypherBoolean, CypherMath}
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{BooleanValue, Value, Values}
+
+import scala.collection.mutable
+
+/**
+  * Compiles expression trees into classes evaluating the whole tree in one go, instead of walking it node by node.
+  *
+  * Every supported node becomes a method of the generated class, calling the methods of its operands directly and
+  * computing its value with the same helpers as the interpreted expressions, e.g. [[CypherMath]] and [[CypherBoolean]].
+  * Nodes that are not supported are kept as they are and called from the generated code, so that any tree compiles.
+  */
+object ExpressionCompiler {
+
+  private val PACKAGE_NAME = "org.neo4j.cypher.internal.runtime.compiled.expressions.generated"
+  private val classCounter = new AtomicLong()
+
+  /**
+    * Compiles the given expression, or returns it as it is if compiling would not pay off or code generation fails.
+    */
+  def compileOrInterpret(expression: Expression): Expression =
+    if (!worthCompiling(expression)) expression
+    else try {
+      CompiledExpression(expression)(compile(expression))
+    } catch {
+      case _: CompilationFailureException | _: CodeGenerationNotSupportedException => expression
+    }
+
+  /**
+    * The function to pass the expressions of pipes through, compiling them only if compiled expressions are asked for.
+    */
+  def compileIf(compileExpressions: Boolean): Expression => Expression =
+    if (compileExpressions) compileOrInterpret else identity
+
+  def compile(expression: Expression): ExpressionEvaluator = {
+    val generator = CodeGenerator.generateCode(classOf[ExpressionEvaluator].getClassLoader, BYTECODE)
+    val clazz = generator.generateClass(PACKAGE_NAME, "Expression" + classCounter.incrementAndGet(), classOf[ExpressionEvaluator])
+    val methods = new ExpressionMethods(clazz)
+    try {
+      val root = methods.compile(expression)
+      using(clazz.generateMethod(classOf[AnyValue], "evaluate", CONTEXT, STATE)) { block =>
+        block.returns(methods.call(block, root))
+      }
+    } finally {
+      clazz.close()
+    }
+
+    val evaluator = clazz.handle().newInstance().asInstanceOf[ExpressionEvaluator]
+    methods.fieldValues.foreach {
+      case (name, value) => evaluator.getClass.getField(name).set(evaluator, value)
+    }
+    evaluator
+  }
+
+  /**
+    * Compiling only pays off for operators, leaves are as fast interpreted. Unsupported roots would be called as they
+    * are from the generated code, which does not pay off either.
+    */
+  private def worthCompiling(expression: Expression): Boolean = expression match {
+    case _: Property |
+         _: Add | _: Subtract | _: Multiply | _: Divide | _: Modulo | _: Pow |
+         _: Equals | _: LessThan | _: LessThanOrEqual | _: GreaterThan | _: GreaterThanOrEqual |
+         _: Not | _: IsNull | _: Ands | _: Ors => true
+    case _ => false
+  }
+
+  private def using[T <: AutoCloseable](resource: T)(f: T => Unit): Unit =
+    try f(resource) finally resource.close()
+
+  private def consumer(f: CodeBlock => Unit): Consumer[CodeBlock] = new Consumer[CodeBlock] {
+    override def accept(block: CodeBlock): Unit = f(block)
+  }
+
+  private val CONTEXT = param(classOf[ExecutionContext], "context")
+  private val STATE = param(classOf[QueryState], "state")
+
+  private val NO_VALUE = getStatic(staticField(classOf[Values], classOf[Value], "NO_VALUE"))
+  private val TRUE = staticField(classOf[Values], classOf[BooleanValue], "TRUE")
+  private val FALSE = staticField(classOf[Values], classOf[BooleanValue], "FALSE")
+
+  private val APPLY = methodReference(classOf[Expression], classOf[AnyValue], "apply", classOf[ExecutionContext], classOf[QueryState])
+  private val PROPERTY_OF = methodReference(classOf[Property], classOf[AnyValue], "propertyOf", classOf[AnyValue], classOf[QueryState])
+  private val GET_REF_AT = methodReference(classOf[ExecutionContext], classOf[AnyValue], "getRefAt", classOf[Int])
+
+  private val VARIABLE = methodReference(classOf[CompiledHelpers], classOf[AnyValue], "variable", classOf[ExecutionContext], classOf[String])
+  private val NOT = methodReference(classOf[CompiledHelpers], classOf[Value], "not", classOf[AnyValue])
+  private val IS_NULL = methodReference(classOf[CompiledHelpers], classOf[Value], "isNull", classOf[AnyValue])
+  private val COMPOSITE_STEP =
+    methodReference(classOf[CompiledHelpers], classOf[AnyValue], "compositeStep", classOf[AnyValue], classOf[AnyValue], classOf[AnyValue])
+  private val COMPOSITE_RESULT =
+    methodReference(classOf[CompiledHelpers], classOf[AnyValue], "compositeResult", classOf[AnyValue], classOf[AnyValue], classOf[RuntimeException])
+  private val FIRST_ERROR =
+    methodReference(classOf[CompiledHelpers], classOf[RuntimeException], "firstError", classOf[RuntimeException], classOf[RuntimeException])
+
+  private val DIVIDE_CHECK_FOR_NULL = methodReference(classOf[CypherMath], classOf[Boolean], "divideCheckForNull", classOf[AnyValue], classOf[AnyValue])
+
+  private def math(name: String) = methodReference(classOf[CypherMath], classOf[AnyValue], name, classOf[AnyValue], classOf[AnyValue])
+
+  private def comparison(name: String) = methodReference(classOf[CypherBoolean], classOf[Value], name, classOf[AnyValue], classOf[AnyValue])
+
+  /**
+    * Generates one method per expression node, each taking the row and the query state, and returning the value of the node.
+    * Values the generated code needs, like literals and unsupported nodes, are kept in public fields, set once the
+    * class has been loaded.
+    */
+  private class ExpressionMethods(clazz: ClassGenerator) {
+    private var methodCount = 0
+    private val fields = mutable.ArrayBuffer.empty[(String, AnyRef)]
+
+    def fieldValues: Seq[(String, AnyRef)] = fields
+
+    /**
+      * Generates the method evaluating the given expression, after the methods evaluating its operands.
+      */
+    def compile(expression: Expression): MethodReference = expression match {
+      case literal: Literal =>
+        val value = field(classOf[AnyValue], literal.anyVal)
+        method(block => block.returns(get(block.self(), value)))
+
+      case Variable(name) =>
+        method(block => block.returns(invoke(VARIABLE, block.load("context"), constant(name))))
+
+      case ReferenceFromSlot(offset, _) =>
+        method(block => block.returns(invoke(block.load("context"), GET_REF_AT, constantInt(offset))))
+
+      case True() =>
+        method(block => block.returns(getStatic(TRUE)))
+
+      case property@Property(mapExpr, _) =>
+        val container = compile(mapExpr)
+        val lookup = field(classOf[Property], property)
+        method(block => block.returns(invoke(get(block.self(), lookup), PROPERTY_OF, call(block, container), block.load("state"))))
+
+      case Add(lhs, rhs) => nullInNullOut(lhs, rhs, math("add"))
+      case Subtract(lhs, rhs) => nullInNullOut(lhs, rhs, math("subtract"))
+      case Multiply(lhs, rhs) => nullInNullOut(lhs, rhs, math("multiply"))
+      case Modulo(lhs, rhs) => nullInNullOut(lhs, rhs, math("modulo"))
+      case Pow(lhs, rhs) => nullInNullOut(lhs, rhs, math("pow"))
+      case Divide(lhs, rhs) => divide(lhs, rhs)
+
+      case Equals(lhs, rhs) =>
+        // Equality is ternary already, NO_VALUE compared to anything is NO_VALUE
+        val (l, r) = (compile(lhs), compile(rhs))
+        method(block => block.returns(invoke(comparison("equals"), call(block, l), call(block, r))))
+      case LessThan(lhs, rhs) => nullInNullOut(lhs, rhs, comparison("lessThan"))
+      case LessThanOrEqual(lhs, rhs) => nullInNullOut(lhs, rhs, comparison("lessThanOrEqual"))
+      case GreaterThan(lhs, rhs) => nullInNullOut(lhs, rhs, comparison("greaterThan"))
+      case GreaterThanOrEqual(lhs, rhs) => nullInNullOut(lhs, rhs, comparison("greaterThanOrEqual"))
+
+      case Not(inner) => unary(inner, NOT)
+      case IsNull(inner) => unary(inner, IS_NULL)
+      case ands: Ands => composite(ands.predicates.toIndexedSeq, exit = FALSE, initial = TRUE)
+      case ors: Ors => composite(ors.predicates.toIndexedSeq, exit = TRUE, initial = FALSE)
+
+      case _ =>
+        val interpreted = field(classOf[Expression], expression)
+        method(block => block.returns(invoke(get(block.self(), interpreted), APPLY, block.load("context"), block.load("state"))))
+    }
+
+    def call(block: CodeBlock, method: MethodReference): IntermediateExpression =
+      invoke(block.self(), method, block.load("context"), block.load("state"))
+
+    private def unary(inner: Expression, operation: MethodReference): MethodReference = {
+      val operand = compile(inner)
+      method(block => block.returns(invoke(operation, call(block, operand))))
+    }
+
+    private def nullInNullOut(lhs: Expression, rhs: Expression, operation: MethodReference): MethodReference = {
+      val (l, r) = (compile(lhs), compile(rhs))
+      method { block =>
+        block.assign(classOf[AnyValue], "lhs", call(block, l))
+        block.assign(classOf[AnyValue], "rhs", call(block, r))
+        using(block.ifStatement(or(equal(block.load("lhs"), NO_VALUE), equal(block.load("rhs"), NO_VALUE)))) { isNull =>
+          isNull.returns(NO_VALUE)
+        }
+        block.returns(invoke(operation, block.load("lhs"), block.load("rhs")))
+      }
+    }
+
+    private def divide(lhs: Expression, rhs: Expression): MethodReference = {
+      val (l, r) = (compile(lhs), compile(rhs))
+      method { block =>
+        block.assign(classOf[AnyValue], "lhs", call(block, l))
+        block.assign(classOf[AnyValue], "rhs", call(block, r))
+        // Checks for division by zero before checking for NO_VALUE
+        using(block.ifStatement(invoke(DIVIDE_CHECK_FOR_NULL, block.load("lhs"), block.load("rhs")))) { isNull =>
+          isNull.returns(NO_VALUE)
+        }
+        block.returns(invoke(math("divide"), block.load("lhs"), block.load("rhs")))
+      }
+    }
+
+    /**
+      * AND and OR stop evaluating operands once the result is known. Errors thrown by operands are held until all
+      * operands have been evaluated, since a later operand may still decide the result.
+      */
+    private def composite(operands: Seq[Expression], exit: FieldReference, initial: FieldReference): MethodReference = {
+      val operandMethods = operands.map(compile)
+      method { block =>
+        val result = block.declare(typeReference(classOf[AnyValue]), "result")
+        block.assign(result, getStatic(initial))
+        val error = block.declare(typeReference(classOf[RuntimeException]), "error")
+        block.assign(error, constant(null))
+        operandMethods.zipWithIndex.foreach {
+          case (operand, i) =>
+            val exception = "e" + i
+            using(block.ifStatement(notEqual(load(result), getStatic(exit)))) { undecided =>
+              undecided.tryCatch(
+                consumer(body => body.assign(result, invoke(COMPOSITE_STEP, load(result), call(body, operand), getStatic(exit)))),
+                consumer(handler => handler.assign(error, invoke(FIRST_ERROR, load(error), handler.load(exception)))),
+                param(classOf[RuntimeException], exception))
+            }
+        }
+        block.returns(invoke(COMPOSITE_RESULT, load(result), getStatic(exit), load(error)))
+      }
+    }
+
+    private def field(typ: Class[_], value: AnyRef): FieldReference = {
+      val name = "f" + fields.size
+      fields += name -> value
+      clazz.field(typ, name)
+    }
+
+    private def method(body: CodeBlock => Unit): MethodReference = {
+      val name = "e" + methodCount
+      methodCount += 1
+      using(clazz.generateMethod(classOf[AnyValue], name, CONTEXT, STATE))(body)
+      methodReference(clazz.handle(), typeReference(classOf[AnyValue]), name, typeReference(classOf[ExecutionContext]),
+                      typeReference(classOf[QueryState]))
+    }
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.slotted
+
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.{LongSlot, RefSlot, SlotConfiguration}
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.v3_5.logical.plans.CachedNodeProperty
+import org.neo4j.cypher.internal.v3_5.util.InternalException
+import org.neo4j.cypher.internal.v3_5.util.symbols.{CTNode, CTRelationship}
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{Value, Values}
+import org.neo4j.values.virtual._
+
+import scala.collection.mutable
+
+object SlottedExecutionContext {
+  def empty = new SlottedExecutionContext(SlotConfiguration.empty)
+}
+
+/**
+  * Execution context backed by primitive arrays instead of a map. Nodes and relationships are kept as ids in
+  * [[longs]], all other values in [[refs]], at the offsets given by the [[SlotConfiguration]] allocated at plan time.
+  *
+  * Accessing the context by variable name, as interpreted pipes and expressions do, is supported through a slot lookup,
+  * but slotted pipes and expressions should access the slots directly by offset.
+  */
+case class SlottedExecutionContext(slots: SlotConfiguration) extends ExecutionContext {
+
+  private val longs = new Array[Long](slots.numberOfLongs)
+  private val refs = new Array[AnyValue](slots.numberOfReferences)
+
+  override def copyTo(target: ExecutionContext, fromLongOffset: Int = 0, fromRefOffset: Int = 0, toLongOffset: Int = 0, toRefOffset: Int = 0): Unit =
+    target match {
+      case other: SlottedExecutionContext =>
+        if (slots.numberOfLongs - fromLongOffset > other.slots.numberOfLongs - toLongOffset ||
+          slots.numberOfReferences - fromRefOffset > other.slots.numberOfReferences - toRefOffset)
+          throw new InternalException("A bug has occurred in the slotted runtime: The target slotted execution context cannot hold the data to copy.")
+        System.arraycopy(longs, fromLongOffset, other.longs, toLongOffset, slots.numberOfLongs - fromLongOffset)
+        System.arraycopy(refs, fromRefOffset, other.refs, toRefOffset, slots.numberOfReferences - fromRefOffset)
+      case _ =>
+        fail()
+    }
+
+  override def copyFrom(input: ExecutionContext, nLongs: Int, nRefs: Int): Unit = input match {
+    case other: SlottedExecutionContext =>
+      if (nLongs > slots.numberOfLongs || nRefs > slots.numberOfReferences)
+        throw new InternalException("A bug has occurred in the slotted runtime: The target slotted execution context cannot hold the data to copy.")
+      System.arraycopy(other.longs, 0, longs, 0, nLongs)
+      System.arraycopy(other.refs, 0, refs, 0, nRefs)
+    case _ =>
+      fail()
+  }
+
+  // Plans using cached node properties are never slot allocated, so there is never anything to copy
+  override def copyCachedFrom(input: ExecutionContext): Unit = {}
+
+  override def setLongAt(offset: Int, value: Long): Unit = longs(offset) = value
+
+  override def getLongAt(offset: Int): Long = longs(offset)
+
+  override def setRefAt(offset: Int, value: AnyValue): Unit = refs(offset) = value
+
+  override def getRefAt(offset: Int): AnyValue = refs(offset)
+
+  override def get(key: String): Option[AnyValue] = slots.get(key) match {
+    case Some(LongSlot(offset, _, CTNode)) =>
+      Some(if (longs(offset) == -1L) Values.NO_VALUE else VirtualValues.node(longs(offset)))
+    case Some(LongSlot(offset, _, CTRelationship)) =>
+      Some(if (longs(offset) == -1L) Values.NO_VALUE else VirtualValues.relationship(longs(offset)))
+    case Some(RefSlot(offset, _, _)) =>
+      Option(refs(offset))
+    case _ =>
+      None
+  }
+
+  override def iterator: Iterator[(String, AnyValue)] = {
+    val entries = mutable.ArrayBuffer.empty[(String, AnyValue)]
+    slots.foreachSlot {
+      case (key, _) => get(key).foreach(value => entries += key -> value)
+    }
+    entries.iterator
+  }
+
+  override def +=(kv: (String, AnyValue)): this.type = {
+    set(kv._1, kv._2)
+    this
+  }
+
+  override def -=(key: String): this.type = throw new UnsupportedOperationException("Cannot remove variables from a slotted execution context")
+
+  override def set(newEntries: Seq[(String, AnyValue)]): Unit = newEntries.foreach {
+    case (key, value) => set(key, value)
+  }
+
+  override def set(key: String, value: AnyValue): Unit = slots(key) match {
+    case LongSlot(offset, nullable, _) =>
+      longs(offset) = value match {
+        case n: VirtualNodeValue => n.id()
+        case r: VirtualRelationshipValue => r.id()
+        case Values.NO_VALUE if nullable => -1L
+        case _ => throw new InternalException(s"Expected to find a node or relationship for `$key` but found $value instead")
+      }
+    case RefSlot(offset, _, _) =>
+      refs(offset) = value
+  }
+
+  override def set(key1: String, value1: AnyValue, key2: String, value2: AnyValue): Unit = {
+    set(key1, value1)
+    set(key2, value2)
+  }
+
+  override def set(key1: String, value1: AnyValue, key2: String, value2: AnyValue, key3: String, value3: AnyValue): Unit = {
+    set(key1, value1)
+    set(key2, value2)
+    set(key3, value3)
+  }
+
+  override def mergeWith(other: ExecutionContext): Unit = fail()
+
+  override def createClone(): ExecutionContext = {
+    val clone = SlottedExecutionContext(slots)
+    copyTo(clone)
+    clone
+  }
+
+  override def setCachedProperty(key: CachedNodeProperty, value: Value): Unit = fail()
+
+  override def setCachedPropertyAt(offset: Int, value: Value): Unit = fail()
+
+  override def getCachedProperty(key: CachedNodeProperty): Value = fail()
+
+  override def getCachedPropertyAt(offset: Int): Value = fail()
+
+  // Plans using cached node properties are never slot allocated, so there is never anything to invalidate
+  override def invalidateCachedProperties(node: Long): Unit = {}
+
+  override def copyWith(key: String, value: AnyValue): ExecutionContext = {
+    val clone = createClone()
+    clone.set(key, value)
+    clone
+  }
+
+  override def copyWith(key1: String, value1: AnyValue, key2: String, value2: AnyValue): ExecutionContext = {
+    val clone = createClone()
+    clone.set(key1, value1, key2, value2)
+    clone
+  }
+
+  override def copyWith(key1: String, value1: AnyValue, key2: String, value2: AnyValue, key3: String, value3: AnyValue): ExecutionContext = {
+    val clone = createClone()
+    clone.set(key1, value1, key2, value2, key3, value3)
+    clone
+  }
+
+  override def copyWith(newEntries: Seq[(String, AnyValue)]): ExecutionContext = {
+    val clone = createClone()
+    clone.set(newEntries)
+    clone
+  }
+
+  override def boundEntities(materializeNode: Long => AnyValue, materializeRelationship: Long => AnyValue): Map[String, AnyValue] = {
+    val entities = Map.newBuilder[String, AnyValue]
+    slots.foreachSlot {
+      case (key, LongSlot(offset, _, CTNode)) if longs(offset) != -1L =>
+        entities += key -> materializeNode(longs(offset))
+      case (key, LongSlot(offset, _, CTRelationship)) if longs(offset) != -1L =>
+        entities += key -> materializeRelationship(longs(offset))
+      case (key, RefSlot(offset, _, _)) =>
+        refs(offset) match {
+          case n: NodeValue => entities += key -> n
+          case r: RelationshipValue => entities += key -> r
+          case _ =>
+        }
+      case _ =>
+    }
+    entities.result()
+  }
+
+  override def isNull(key: String): Boolean = get(key) match {
+    case Some(Values.NO_VALUE) => true
+    case _ => false
+  }
+
+  override def equals(obj: Any): Boolean = obj match {
+    case other: SlottedExecutionContext =>
+      (this eq other) || (slots == other.slots && java.util.Arrays.equals(longs, other.longs) &&
+        java.util.Arrays.equals(refs.asInstanceOf[Array[AnyRef]], other.refs.asInstanceOf[Array[AnyRef]]))
+    case _ => false
+  }
+
+  override def hashCode(): Int = 31 * java.util.Arrays.hashCode(longs) + java.util.Arrays.hashCode(refs.asInstanceOf[Array[AnyRef]])
+
+  override def toString: String = s"SlottedExecutionContext(longs=${longs.mkString("[", ", ", "]")}, refs=${refs.mkString("[", ", ", "]")})"
+
+  private def fail(): Nothing = throw new InternalException("Tried using a slotted context in a way only a map context supports")
+}
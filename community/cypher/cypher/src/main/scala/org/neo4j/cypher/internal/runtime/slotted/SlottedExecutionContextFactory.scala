@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.slotted
+
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.SlotConfiguration
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ExecutionContextFactory
+import org.neo4j.values.AnyValue
+
+import scala.collection.mutable
+
+/**
+  * Creates [[SlottedExecutionContext]]s with the slot configuration of the pipe it has been given to, so that
+  * interpreted pipes can run unchanged in the slotted runtime.
+  */
+case class SlottedExecutionContextFactory(slots: SlotConfiguration) extends ExecutionContextFactory {
+
+  override def newExecutionContext(m: mutable.Map[String, AnyValue]): ExecutionContext = {
+    val context = SlottedExecutionContext(slots)
+    m.foreach {
+      case (key, value) => context.set(key, value)
+    }
+    context
+  }
+
+  override def newExecutionContext(): ExecutionContext = SlottedExecutionContext(slots)
+
+  override def copyWith(init: ExecutionContext): ExecutionContext = init match {
+    case context: SlottedExecutionContext =>
+      val newContext = SlottedExecutionContext(slots)
+      context.copyTo(newContext)
+      newContext
+    case _ =>
+      newExecutionContext(init)
+  }
+
+  override def copyWith(row: ExecutionContext, newEntries: Seq[(String, AnyValue)]): ExecutionContext = {
+    val newContext = copyWith(row)
+    newContext.set(newEntries)
+    newContext
+  }
+
+  override def copyWith(row: ExecutionContext, key: String, value: AnyValue): ExecutionContext = {
+    val newContext = copyWith(row)
+    newContext.set(key, value)
+    newContext
+  }
+
+  override def copyWith(row: ExecutionContext, key1: String, value1: AnyValue, key2: String, value2: AnyValue): ExecutionContext = {
+    val newContext = copyWith(row)
+    newContext.set(key1, value1, key2, value2)
+    newContext
+  }
+
+  override def copyWith(row: ExecutionContext,
+                        key1: String, value1: AnyValue,
+                        key2: String, value2: AnyValue,
+                        key3: String, value3: AnyValue): ExecutionContext = {
+    val newContext = copyWith(row)
+    newContext.set(key1, value1, key2, value2, key3, value3)
+    newContext
+  }
+}
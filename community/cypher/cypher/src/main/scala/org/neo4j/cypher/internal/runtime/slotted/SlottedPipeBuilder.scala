@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.slotted
+
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.{RefSlot, SlotConfigurations}
+import org.neo4j.cypher.internal.planner.v3_5.spi.TokenContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.KeyTokenResolver
+import org.neo4j.cypher.internal.runtime.interpreted.InterpretedPipeBuilder
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.ExpressionConverters
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{LazyLabel, LazyTypes, Pipe, PipeBuilder, PipeBuilderFactory, PipeExecutionBuilderContext, ProjectionPipe}
+import org.neo4j.cypher.internal.runtime.slotted.expressions.{SlottedCommandProjection, SlottedExpressionConverters}
+import org.neo4j.cypher.internal.runtime.slotted.pipes.{AllNodesScanSlottedPipe, ExpandAllSlottedPipe, NodesByLabelScanSlottedPipe, ProduceResultsSlottedPipe}
+import org.neo4j.cypher.internal.v3_5.ast.semantics.SemanticTable
+import org.neo4j.cypher.internal.v3_5.expressions.{Expression => ASTExpression}
+import org.neo4j.cypher.internal.v3_5.logical.plans.{AllNodesScan, Expand, ExpandAll, LogicalPlan, NodeByLabelScan, ProduceResult, Projection}
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+
+/**
+  * Builds slotted pipes for the plans where knowing the slots pays off, and delegates everything else to the
+  * interpreted pipe builder. Either way, every pipe is handed a factory creating rows of its slot configuration.
+  */
+class SlottedPipeBuilder(fallback: PipeBuilder,
+                         expressionConverters: ExpressionConverters,
+                         rewriteAstExpression: ASTExpression => ASTExpression,
+                         tokenContext: TokenContext,
+                         slotConfigurations: SlotConfigurations,
+                         compileExpression: Expression => Expression)
+                        (implicit semanticTable: SemanticTable) extends PipeBuilder {
+
+  private def getBuildExpression(id: Id) = rewriteAstExpression andThen
+    ((e: ASTExpression) => expressionConverters.toCommandExpression(id, e)) andThen
+    (expression => expression.rewrite(KeyTokenResolver.resolveExpressions(_, tokenContext)))
+
+  override def onLeaf(plan: LogicalPlan): Pipe = {
+    val id = plan.id
+    val slots = slotConfigurations(id)
+    val pipe = plan match {
+      case AllNodesScan(ident, _) =>
+        AllNodesScanSlottedPipe(ident, slots)(id)
+
+      case NodeByLabelScan(ident, label, _) =>
+        NodesByLabelScanSlottedPipe(ident, LazyLabel(label), slots)(id)
+
+      case _ =>
+        fallback.onLeaf(plan)
+    }
+    pipe.setExecutionContextFactory(SlottedExecutionContextFactory(slots))
+    pipe
+  }
+
+  override def onOneChildPlan(plan: LogicalPlan, source: Pipe): Pipe = {
+    val id = plan.id
+    val slots = slotConfigurations(id)
+    val buildExpression = getBuildExpression(id)
+    val pipe = plan match {
+      case Expand(_, from, dir, types, to, relName, ExpandAll) =>
+        ExpandAllSlottedPipe(source, slots(from).offset, slots(relName).offset, slots(to).offset, dir, LazyTypes(types.toArray), slots)(id)
+
+      case Projection(_, expressions) =>
+        val introducedExpressions = expressions.collect {
+          case (key, expression) if !SlottedExpressionConverters.isIdentity(key, expression) && slots(key).isInstanceOf[RefSlot] =>
+            slots(key).offset -> compileExpression(buildExpression(expression))
+        }
+        ProjectionPipe(source, SlottedCommandProjection(introducedExpressions))(id)
+
+      case ProduceResult(_, columns) =>
+        ProduceResultsSlottedPipe(source, columns.map(column => column -> SlottedExpressionConverters.slotExpression(column, slots(column))))(id)
+
+      case _ =>
+        fallback.onOneChildPlan(plan, source)
+    }
+    pipe.setExecutionContextFactory(SlottedExecutionContextFactory(slots))
+    pipe
+  }
+
+  override def onTwoChildPlan(plan: LogicalPlan, lhs: Pipe, rhs: Pipe): Pipe = {
+    val pipe = fallback.onTwoChildPlan(plan, lhs, rhs)
+    pipe.setExecutionContextFactory(SlottedExecutionContextFactory(slotConfigurations(plan.id)))
+    pipe
+  }
+}
+
+case class SlottedPipeBuilderFactory(slotConfigurations: SlotConfigurations,
+                                     compileExpression: Expression => Expression) extends PipeBuilderFactory {
+  def apply(recurse: LogicalPlan => Pipe,
+            readOnly: Boolean,
+            expressionConverters: ExpressionConverters)
+           (implicit context: PipeExecutionBuilderContext, tokenContext: TokenContext): SlottedPipeBuilder = {
+    val fallback = InterpretedPipeBuilder(recurse, readOnly, expressionConverters, recursePipes(recurse), tokenContext,
+                                          compileExpression)(context.semanticTable)
+    new SlottedPipeBuilder(fallback, expressionConverters, recursePipes(recurse), tokenContext, slotConfigurations,
+                           compileExpression)(context.semanticTable)
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.slotted.expressions
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.KeyToken
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Values
+
+/**
+  * Property of a node kept in a long slot, read without materializing the node first.
+  */
+case class NodeProperty(offset: Int, propertyKey: KeyToken) extends Expression {
+
+  override def apply(ctx: ExecutionContext, state: QueryState): AnyValue = {
+    val nodeId = ctx.getLongAt(offset)
+    if (nodeId == -1L)
+      Values.NO_VALUE
+    else propertyKey.getOptId(state.query) match {
+      case None => Values.NO_VALUE
+      case Some(propertyKeyId) => state.query.nodeOps.getProperty(nodeId, propertyKeyId)
+    }
+  }
+
+  override def rewrite(f: Expression => Expression): Expression = f(NodeProperty(offset, propertyKey.rewrite(f)))
+
+  override def children = Seq(propertyKey)
+
+  override def arguments: Seq[Expression] = Seq.empty
+
+  override def symbolTableDependencies: Set[String] = Set.empty
+}
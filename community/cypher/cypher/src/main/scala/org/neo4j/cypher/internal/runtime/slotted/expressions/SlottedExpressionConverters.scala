@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.slotted.expressions
+
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.{LongSlot, RefSlot, Slot, SlotConfigurations}
+import org.neo4j.cypher.internal.runtime.interpreted.CommandProjection
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{ExpressionConverter, ExpressionConverters}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{Expression => CommandExpression}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.UnresolvedProperty
+import org.neo4j.cypher.internal.v3_5.util.InternalException
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+import org.neo4j.cypher.internal.v3_5.util.symbols.{CTNode, CTRelationship}
+import org.neo4j.cypher.internal.v3_5.{expressions => ast}
+
+/**
+  * Converts variable and property accesses into expressions reading slots directly by offset. Everything else is left
+  * to the converters following this one.
+  */
+case class SlottedExpressionConverters(slotConfigurations: SlotConfigurations) extends ExpressionConverter {
+
+  override def toCommandProjection(id: Id, projections: Map[String, ast.Expression],
+                                   self: ExpressionConverters): Option[CommandProjection] = {
+    val slots = slotConfigurations(id)
+    val introducedExpressions = projections.collect {
+      // Projections onto long slots are aliases of nodes or relationships that are already there
+      case (key, expression) if !SlottedExpressionConverters.isIdentity(key, expression) && slots(key).isInstanceOf[RefSlot] =>
+        slots(key).offset -> self.toCommandExpression(id, expression)
+    }
+    Some(SlottedCommandProjection(introducedExpressions))
+  }
+
+  override def toCommandExpression(id: Id, expression: ast.Expression, self: ExpressionConverters): Option[CommandExpression] = {
+    if (!slotConfigurations.isDefinedAt(id))
+      return None
+
+    val slots = slotConfigurations(id)
+    expression match {
+      case ast.Variable(name) =>
+        slots.get(name).map(SlottedExpressionConverters.slotExpression(name, _))
+
+      case ast.Property(ast.Variable(name), ast.PropertyKeyName(key)) =>
+        slots.get(name) collect {
+          case LongSlot(offset, _, CTNode) => NodeProperty(offset, UnresolvedProperty(key))
+          case LongSlot(offset, _, CTRelationship) => RelationshipProperty(offset, UnresolvedProperty(key))
+        }
+
+      case _ =>
+        None
+    }
+  }
+}
+
+object SlottedExpressionConverters {
+
+  def slotExpression(name: String, slot: Slot): CommandExpression = slot match {
+    case LongSlot(offset, _, CTNode) => NodeFromSlot(offset)
+    case LongSlot(offset, _, CTRelationship) => RelationshipFromSlot(offset)
+    case LongSlot(_, _, typ) => throw new InternalException(s"Unexpected type $typ in long slot of `$name`")
+    case RefSlot(offset, _, _) => ReferenceFromSlot(offset, name)
+  }
+
+  /**
+    * Whether the projection of `expression` onto `key` just projects a variable onto itself.
+    */
+  def isIdentity(key: String, expression: ast.Expression): Boolean = expression match {
+    case ast.Variable(name) => name == key
+    case _ => false
+  }
+}
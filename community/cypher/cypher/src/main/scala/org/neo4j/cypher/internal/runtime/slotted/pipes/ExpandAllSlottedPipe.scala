@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.slotted.pipes
+
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.SlotConfiguration
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.helpers.PrimitiveLongHelper
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{LazyTypes, Pipe, PipeWithSource, QueryState}
+import org.neo4j.cypher.internal.runtime.slotted.SlottedExecutionContext
+import org.neo4j.cypher.internal.v3_5.expressions.SemanticDirection
+import org.neo4j.cypher.internal.v3_5.util.InternalException
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+import org.neo4j.storageengine.api.RelationshipVisitor
+
+/**
+  * Expands from a node id in a long slot, writing relationship and neighbour ids straight into the long slots of the
+  * new row without materializing any nodes or relationships.
+  */
+case class ExpandAllSlottedPipe(source: Pipe,
+                                fromOffset: Int,
+                                relOffset: Int,
+                                toOffset: Int,
+                                dir: SemanticDirection,
+                                types: LazyTypes,
+                                slots: SlotConfiguration)
+                               (val id: Id = Id.INVALID_ID) extends PipeWithSource(source) {
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    input.flatMap {
+      inputRow =>
+        val fromNode = inputRow.getLongAt(fromOffset)
+        if (fromNode == -1L) {
+          Iterator.empty
+        } else {
+          val relationships = state.query.getRelationshipsForIdsPrimitive(fromNode, dir, types.types(state.query))
+          var otherSide: Long = 0
+
+          val relVisitor = new RelationshipVisitor[InternalException] {
+            override def visit(relationshipId: Long, typeId: Int, startNodeId: Long, endNodeId: Long): Unit =
+              otherSide = if (fromNode == startNodeId) endNodeId else startNodeId
+          }
+
+          PrimitiveLongHelper.map(relationships, { relId =>
+            relationships.relationshipVisit(relId, relVisitor)
+            val outputRow = SlottedExecutionContext(slots)
+            inputRow.copyTo(outputRow)
+            outputRow.setLongAt(relOffset, relId)
+            outputRow.setLongAt(toOffset, otherSide)
+            outputRow
+          })
+        }
+    }
+  }
+}
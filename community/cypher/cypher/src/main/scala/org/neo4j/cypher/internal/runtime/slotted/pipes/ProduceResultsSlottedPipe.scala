@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.slotted.pipes
+
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{Pipe, PipeWithSource, QueryState}
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, MutableMaps}
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+import org.neo4j.values.AnyValue
+
+/**
+  * Reads the result columns out of their slots into the map rows handed to the result.
+  */
+case class ProduceResultsSlottedPipe(source: Pipe, columns: Seq[(String, Expression)])
+                                    (val id: Id = Id.INVALID_ID) extends PipeWithSource(source) {
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    // do not register this pipe as parent as it does not do anything except filtering of already fetched
+    // key-value pairs and thus should not have any stats
+
+    input.map {
+      original =>
+        val m = MutableMaps.create[String, AnyValue](columns.size)
+        columns.foreach {
+          case (name, expression) => m.put(name, expression(original, state))
+        }
+
+        ExecutionContext(m)
+    }
+  }
+}
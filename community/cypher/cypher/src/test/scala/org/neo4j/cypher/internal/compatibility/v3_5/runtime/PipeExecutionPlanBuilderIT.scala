@@ -23,6 +23,7 @@ import org.mockito.Mockito.{atLeastOnce, verify, when}
 import org.neo4j.cypher.internal.compiler.v3_5.planner._
 import org.neo4j.cypher.internal.ir.v3_5._
 import org.neo4j.cypher.internal.planner.v3_5.spi.{PlanContext, TokenContext}
+import org.neo4j.cypher.internal.runtime.compiled.expressions.{CompiledExpression, ExpressionCompiler}
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{CommunityExpressionConverter, ExpressionConverters}
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Literal
 import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.True
@@ -199,6 +200,39 @@ class PipeExecutionPlanBuilderIT extends CypherFunSuite with LogicalPlanningTest
           Resolved("prop", token, TokenType.PropertyKey))))())
   }
 
+  test("Aggregation with compiled expressions => grouping keys and aggregation arguments are compiled") {
+    // GIVEN
+    val compilingPlanBuilder = new PipeExecutionPlanBuilder(expressionConverters = converters,
+      pipeBuilderFactory = new InterpretedPipeBuilderFactory(ExpressionCompiler.compileOrInterpret))
+    val property = Property(Variable("n")(pos), PropertyKeyName("prop")(pos))(pos)
+    val groupingExpressions = Map("key" -> Add(property, SignedDecimalIntegerLiteral("1")(pos))(pos))
+    val aggregatingExpressions = Map("total" -> FunctionInvocation(FunctionName("sum")(pos), distinct = false, IndexedSeq(property))(pos))
+    val aggregation = Aggregation(AllNodesScan("n", Set.empty), groupingExpressions, aggregatingExpressions)
+
+    // WHEN
+    val pipe = compilingPlanBuilder.build(aggregation)(pipeBuildContext, planContext)
+
+    // THEN
+    val aggregationPipe = pipe.asInstanceOf[EagerAggregationPipe]
+    aggregationPipe.keyExpressions("key") shouldBe a[CompiledExpression]
+    val legacy.Sum(argument) = aggregationPipe.aggregations("total")
+    argument shouldBe a[CompiledExpression]
+  }
+
+  test("Distinct with compiled expressions => distinct expressions are compiled") {
+    // GIVEN
+    val compilingPlanBuilder = new PipeExecutionPlanBuilder(expressionConverters = converters,
+      pipeBuilderFactory = new InterpretedPipeBuilderFactory(ExpressionCompiler.compileOrInterpret))
+    val property = Property(Variable("n")(pos), PropertyKeyName("prop")(pos))(pos)
+    val distinct = Distinct(AllNodesScan("n", Set.empty), Map("n.prop" -> property))
+
+    // WHEN
+    val pipe = compilingPlanBuilder.build(distinct)(pipeBuildContext, planContext)
+
+    // THEN
+    pipe.asInstanceOf[DistinctPipe].expressions("n.prop") shouldBe a[CompiledExpression]
+  }
+
   def pipeExecutionPlanBuilderContext: PipeExecutionBuilderContext = {
     val semanticTable = new SemanticTable(resolvedRelTypeNames =
                                             mutable.Map("existing1" -> RelTypeId(1),
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_5.runtime
+
+import org.neo4j.cypher.internal.compiler.v3_5.planner.{CantCompileQueryException, LogicalPlanningTestSupport}
+import org.neo4j.cypher.internal.v3_5.expressions.{LabelName, RelTypeName, SemanticDirection}
+import org.neo4j.cypher.internal.v3_5.logical.plans._
+import org.neo4j.cypher.internal.v3_5.util.symbols.{CTAny, CTNode, CTRelationship}
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+
+class SlotAllocationTest extends CypherFunSuite with LogicalPlanningTestSupport {
+
+  test("only single all nodes scan") {
+    // given
+    val plan = AllNodesScan("x", Set.empty)
+
+    // when
+    val allocations = SlotAllocation.allocateSlots(plan)
+
+    // then
+    allocations.size should equal(1)
+    allocations(plan.id) should equal(SlotConfiguration.empty.newLong("x", nullable = false, CTNode))
+  }
+
+  test("expand allocates relationship and target node, sharing the slots of its source") {
+    // given
+    val labelScan = NodeByLabelScan("x", LabelName("L")(pos), Set.empty)
+    val expand = Expand(labelScan, "x", SemanticDirection.OUTGOING, Seq(RelTypeName("R")(pos)), "z", "r", ExpandAll)
+
+    // when
+    val allocations = SlotAllocation.allocateSlots(expand)
+
+    // then
+    allocations(expand.id) should equal(SlotConfiguration.empty
+      .newLong("x", nullable = false, CTNode)
+      .newLong("r", nullable = false, CTRelationship)
+      .newLong("z", nullable = false, CTNode))
+    allocations(labelScan.id) should be theSameInstanceAs allocations(expand.id)
+  }
+
+  test("projection allocates reference slots for values and aliases nodes") {
+    // given
+    val leaf = AllNodesScan("x", Set.empty)
+    val projection = Projection(leaf, Map("x" -> varFor("x"), "y" -> varFor("x"), "p" -> prop("x", "prop")))
+    val produceResult = ProduceResult(projection, Seq("x", "y", "p"))
+
+    // when
+    val allocations = SlotAllocation.allocateSlots(produceResult)
+
+    // then
+    val slots = allocations(produceResult.id)
+    slots("x") should equal(LongSlot(0, nullable = false, CTNode))
+    slots("y") should equal(slots("x"))
+    slots("p") should equal(RefSlot(0, nullable = true, CTAny))
+    slots.numberOfLongs should equal(1)
+    slots.numberOfReferences should equal(1)
+  }
+
+  test("projection shadowing a node is not supported") {
+    // given
+    val leaf = AllNodesScan("x", Set.empty)
+    val projection = Projection(leaf, Map("x" -> prop("x", "prop")))
+
+    // when/then
+    intercept[CantCompileQueryException](SlotAllocation.allocateSlots(projection))
+  }
+
+  test("plans with more than one child are not supported") {
+    // given
+    val lhs = AllNodesScan("x", Set.empty)
+    val rhs = AllNodesScan("y", Set.empty)
+    val product = CartesianProduct(lhs, rhs)
+
+    // when/then
+    intercept[CantCompileQueryException](SlotAllocation.allocateSlots(product))
+  }
+
+  test("leaves with arguments are not supported") {
+    // given
+    val leaf = AllNodesScan("y", Set("x"))
+
+    // when/then
+    intercept[CantCompileQueryException](SlotAllocation.allocateSlots(leaf))
+  }
+}
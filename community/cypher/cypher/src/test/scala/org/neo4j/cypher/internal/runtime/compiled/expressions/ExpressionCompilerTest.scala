@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.compiled.expressions
+
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions._
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.{Ands, Equals, GreaterThan, IsNull, Not, Ors, Predicate, True}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.TokenType.PropertyKey
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, QueryStateHelper}
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.cypher.internal.v3_5.util.{ArithmeticException, NonEmptyList}
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Values.{FALSE, NO_VALUE, TRUE, intValue, stringValue}
+import org.neo4j.values.virtual.VirtualValues
+
+class ExpressionCompilerTest extends CypherFunSuite {
+
+  private val state = QueryStateHelper.empty
+  private val row = ExecutionContext.from(
+    "x" -> intValue(10),
+    "y" -> intValue(3),
+    "s" -> stringValue("hello"),
+    "m" -> VirtualValues.map(Array("age"), Array[AnyValue](intValue(42))),
+    "null" -> NO_VALUE)
+
+  private def evaluate(expression: Expression): AnyValue = ExpressionCompiler.compile(expression).evaluate(row, state)
+
+  private def shouldEvaluateLikeInterpreted(expression: Expression) =
+    evaluate(expression) should equal(expression(row, state))
+
+  private val failing: Predicate = Equals(Divide(Literal(1), Literal(0)), Literal(1))
+
+  test("should evaluate arithmetic") {
+    shouldEvaluateLikeInterpreted(Add(Variable("x"), Literal(5)))
+    shouldEvaluateLikeInterpreted(Subtract(Variable("x"), Variable("y")))
+    shouldEvaluateLikeInterpreted(Multiply(Variable("x"), Literal(2.5)))
+    shouldEvaluateLikeInterpreted(Divide(Variable("x"), Variable("y")))
+    shouldEvaluateLikeInterpreted(Modulo(Variable("x"), Variable("y")))
+    shouldEvaluateLikeInterpreted(Pow(Variable("x"), Variable("y")))
+    shouldEvaluateLikeInterpreted(Add(Variable("s"), Literal(" world")))
+  }
+
+  test("should evaluate arithmetic on null to null") {
+    evaluate(Add(Variable("null"), Literal(5))) should equal(NO_VALUE)
+    evaluate(Multiply(Literal(5), Variable("null"))) should equal(NO_VALUE)
+    evaluate(Divide(Variable("null"), Literal(5))) should equal(NO_VALUE)
+  }
+
+  test("should throw on division by zero, even for null") {
+    an[ArithmeticException] should be thrownBy evaluate(Divide(Variable("x"), Literal(0)))
+    an[ArithmeticException] should be thrownBy evaluate(Divide(Variable("null"), Literal(0)))
+  }
+
+  test("should evaluate comparisons") {
+    evaluate(Equals(Variable("x"), Literal(10))) should equal(TRUE)
+    evaluate(Equals(Variable("x"), Variable("null"))) should equal(NO_VALUE)
+    evaluate(GreaterThan(Variable("x"), Variable("y"))) should equal(TRUE)
+    evaluate(GreaterThan(Variable("null"), Variable("y"))) should equal(NO_VALUE)
+    shouldEvaluateLikeInterpreted(GreaterThan(Variable("s"), Variable("y")))
+  }
+
+  test("should evaluate boolean operators with three valued logic") {
+    evaluate(Not(True())) should equal(FALSE)
+    evaluate(Not(Equals(Variable("null"), Literal(1)))) should equal(NO_VALUE)
+    evaluate(IsNull(Variable("null"))) should equal(TRUE)
+    evaluate(IsNull(Variable("x"))) should equal(FALSE)
+    evaluate(Ands(NonEmptyList(True(), Equals(Variable("null"), Literal(1))))) should equal(NO_VALUE)
+    evaluate(Ands(NonEmptyList(Equals(Variable("null"), Literal(1)), Not(True())))) should equal(FALSE)
+    evaluate(Ors(NonEmptyList(Equals(Variable("null"), Literal(1)), True()))) should equal(TRUE)
+    evaluate(Ors(NonEmptyList(Not(True()), Equals(Variable("null"), Literal(1))))) should equal(NO_VALUE)
+  }
+
+  test("should let the result of AND and OR supersede errors") {
+    evaluate(Ands(NonEmptyList(failing, Not(True())))) should equal(FALSE)
+    evaluate(Ors(NonEmptyList(failing, True()))) should equal(TRUE)
+    evaluate(Ands(NonEmptyList(Not(True()), failing))) should equal(FALSE)
+    an[ArithmeticException] should be thrownBy evaluate(Ands(NonEmptyList(failing, True())))
+    an[ArithmeticException] should be thrownBy evaluate(Ors(NonEmptyList(Equals(Variable("null"), Literal(1)), failing)))
+  }
+
+  test("should evaluate properties of maps") {
+    evaluate(Property(Variable("m"), PropertyKey("age"))) should equal(intValue(42))
+    evaluate(Property(Variable("m"), PropertyKey("name"))) should equal(NO_VALUE)
+    evaluate(Property(Variable("null"), PropertyKey("age"))) should equal(NO_VALUE)
+  }
+
+  test("should call expressions it does not support") {
+    val expression = Add(CoalesceFunction(Variable("null"), Variable("y")), Literal(1))
+    shouldEvaluateLikeInterpreted(expression)
+  }
+
+  test("should only compile expressions worth compiling") {
+    ExpressionCompiler.compileOrInterpret(Variable("x")) should equal(Variable("x"))
+    ExpressionCompiler.compileOrInterpret(CoalesceFunction(Variable("x"))) should equal(CoalesceFunction(Variable("x")))
+
+    val compiled = ExpressionCompiler.compileOrInterpret(Add(Variable("x"), Literal(1)))
+    compiled shouldBe a[CompiledExpression]
+    compiled should equal(CompiledExpression(Add(Variable("x"), Literal(1)))(null))
+    compiled(row, state) should equal(Add(Variable("x"), Literal(1))(row, state))
+  }
+}
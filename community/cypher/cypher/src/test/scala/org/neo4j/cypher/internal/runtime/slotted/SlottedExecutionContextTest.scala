@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.slotted
+
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.SlotConfiguration
+import org.neo4j.cypher.internal.v3_5.util.InternalException
+import org.neo4j.cypher.internal.v3_5.util.symbols.{CTAny, CTNode}
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.values.storable.Values.{NO_VALUE, stringValue}
+import org.neo4j.values.virtual.VirtualValues
+
+class SlottedExecutionContextTest extends CypherFunSuite {
+
+  private def slots(longs: Int, refs: Int): SlotConfiguration = {
+    val slots = SlotConfiguration.empty
+    (0 until longs).foreach(i => slots.newLong(s"n$i", nullable = true, CTNode))
+    (0 until refs).foreach(i => slots.newReference(s"r$i", nullable = true, CTAny))
+    slots
+  }
+
+  test("should expose slots by variable name") {
+    // given
+    val context = SlottedExecutionContext(slots(2, 1))
+    context.setLongAt(0, 42)
+    context.setLongAt(1, -1)
+    context.setRefAt(0, stringValue("hello"))
+
+    // then
+    context("n0") should equal(VirtualValues.node(42))
+    context("n1") should equal(NO_VALUE)
+    context("r0") should equal(stringValue("hello"))
+    context.get("unknown") should equal(None)
+  }
+
+  test("should set slots by variable name") {
+    // given
+    val context = SlottedExecutionContext(slots(1, 1))
+
+    // when
+    context.set("n0", VirtualValues.node(7), "r0", stringValue("x"))
+
+    // then
+    context.getLongAt(0) should equal(7)
+    context.getRefAt(0) should equal(stringValue("x"))
+  }
+
+  test("copy with should not change the original") {
+    // given
+    val context = SlottedExecutionContext(slots(1, 1))
+    context.setLongAt(0, 1)
+
+    // when
+    val copy = context.copyWith("r0", stringValue("x"))
+
+    // then
+    copy.getLongAt(0) should equal(1)
+    copy.getRefAt(0) should equal(stringValue("x"))
+    context.getRefAt(0) should equal(null)
+  }
+
+  test("copy to should fail if the target is too small") {
+    val source = SlottedExecutionContext(slots(2, 0))
+    val target = SlottedExecutionContext(slots(1, 0))
+
+    intercept[InternalException](source.copyTo(target))
+  }
+}
@@ -123,6 +123,8 @@ class MapExecutionContext(private val m: MutableMap[String, AnyValue], private v
 
   private def fail(): Nothing = throw new InternalException("Tried using a map context as a slotted context")
 
+  def hasCachedProperties: Boolean = cachedProperties != null && cachedProperties.nonEmpty
+
   override def get(key: String): Option[AnyValue] = m.get(key)
 
   override def iterator: Iterator[(String, AnyValue)] = m.iterator
@@ -25,7 +25,7 @@ import org.neo4j.cypher.internal.runtime.ProcedureCallMode
 import org.neo4j.cypher.internal.runtime.interpreted.commands.KeyTokenResolver
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.PatternConverters._
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{ExpressionConverters, InterpretedCommandProjection}
-import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{AggregationExpression, Literal, ShortestPathExpression}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{AggregationExpression, Literal, ShortestPathExpression, Expression => CommandExpression}
 import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.{Predicate, True}
 import org.neo4j.cypher.internal.runtime.interpreted.pipes._
 import org.neo4j.cypher.internal.v3_5.logical.plans
@@ -40,12 +40,16 @@ import org.neo4j.cypher.internal.v3_5.util.{Eagerly, InternalException}
 /**
  * Responsible for turning a logical plan with argument pipes into a new pipe.
  * When adding new Pipes and LogicalPlans, this is where you should be looking.
+ *
+ * The expressions evaluated once per row by filters, projections, groupings and the arguments of aggregations are passed
+ * through `compileExpression`, which may replace them with a faster equivalent.
  */
 case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
                                   readOnly: Boolean,
                                   expressionConverters: ExpressionConverters,
                                   rewriteAstExpression: ASTExpression => ASTExpression,
-                                  tokenContext: TokenContext)
+                                  tokenContext: TokenContext,
+                                  compileExpression: CommandExpression => CommandExpression = identity)
                                  (implicit semanticTable: SemanticTable) extends PipeBuilder {
 
   private def getBuildExpression(id: Id) = rewriteAstExpression andThen
@@ -65,6 +69,9 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
       case NodeCountFromCountStore(ident, labels, _) =>
         NodeCountFromCountStorePipe(ident, labels.map(l => l.map(LazyLabel.apply)))(id = id)
 
+      case NodeIndexAggregation(ident, label, property, aggregation, _) =>
+        NodeIndexAggregationPipe(ident, label, property, aggregation)(id = id)
+
       case RelationshipCountFromCountStore(ident, startLabel, typeNames, endLabel, _) =>
         RelationshipCountFromCountStorePipe(ident, startLabel.map(LazyLabel.apply),
                                             new LazyTypes(typeNames.map(_.name).toArray), endLabel.map(LazyLabel.apply))(id = id)
@@ -100,12 +107,25 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
     }
   }
 
+  /**
+    * Aggregations are not evaluated per row themselves, their aggregation functions evaluate their arguments,
+    * so it is the arguments that are passed through `compileExpression`.
+    */
+  private def compileArguments(aggregation: AggregationExpression): AggregationExpression = {
+    val arguments = aggregation.arguments
+    aggregation.rewrite {
+      case argument if arguments.contains(argument) => compileExpression(argument)
+      case other => other
+    }.asInstanceOf[AggregationExpression]
+  }
+
   def onOneChildPlan(plan: LogicalPlan, source: Pipe): Pipe = {
     val id = plan.id
     val buildExpression = getBuildExpression(id)
+    val buildCompiledExpression = buildExpression andThen compileExpression
     plan match {
       case Projection(_, expressions) =>
-        ProjectionPipe(source,  InterpretedCommandProjection(Eagerly.immutableMapValues(expressions, buildExpression)))(id = id)
+        ProjectionPipe(source,  InterpretedCommandProjection(Eagerly.immutableMapValues(expressions, buildCompiledExpression)))(id = id)
 
       case ProjectEndpoints(_, rel, start, startInScope, end, endInScope, types, directed, length) =>
         ProjectEndpointsPipe(source, rel,
@@ -121,7 +141,7 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
 
       case Selection(predicate, _) =>
         val predicateExpression =
-          if (predicate.exprs.size == 1) buildExpression(predicate.exprs.head) else buildExpression(predicate)
+          if (predicate.exprs.size == 1) buildCompiledExpression(predicate.exprs.head) else buildCompiledExpression(predicate)
         FilterPipe(source, predicateExpression)(id = id)
 
       case Expand(_, fromName, dir, types: Seq[RelTypeName], toName, relName, ExpandAll) =>
@@ -198,7 +218,7 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
         }
 
       case Aggregation(_, groupingExpressions, aggregatingExpressions) if aggregatingExpressions.isEmpty =>
-        val commandExpressions = Eagerly.immutableMapValues(groupingExpressions, buildExpression)
+        val commandExpressions = Eagerly.immutableMapValues(groupingExpressions, buildCompiledExpression)
         val projection = InterpretedCommandProjection(commandExpressions)
         source match {
           case ProjectionPipe(inner, p) if p == projection =>
@@ -208,7 +228,7 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
         }
 
       case Distinct(_, groupingExpressions) =>
-        val commandExpressions = Eagerly.immutableMapValues(groupingExpressions, buildExpression)
+        val commandExpressions = Eagerly.immutableMapValues(groupingExpressions, buildCompiledExpression)
         source match {
           case ProjectionPipe(inner, es) if es == commandExpressions =>
             DistinctPipe(inner, commandExpressions)(id = id)
@@ -219,8 +239,9 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
       case Aggregation(_, groupingExpressions, aggregatingExpressions) =>
         EagerAggregationPipe(
           source,
-          Eagerly.immutableMapValues(groupingExpressions, buildExpression),
-          Eagerly.immutableMapValues[String, ASTExpression, AggregationExpression](aggregatingExpressions, buildExpression(_).asInstanceOf[AggregationExpression])
+          Eagerly.immutableMapValues(groupingExpressions, buildCompiledExpression),
+          Eagerly.immutableMapValues[String, ASTExpression, AggregationExpression](aggregatingExpressions,
+            expression => compileArguments(buildExpression(expression).asInstanceOf[AggregationExpression]))
         )(id = id)
 
       case FindShortestPaths(_, shortestPathPattern, predicates, withFallBack, disallowSameNode) =>
@@ -32,7 +32,12 @@ import scala.util.{Failure, Success, Try}
 case class Property(mapExpr: Expression, propertyKey: KeyToken)
   extends Expression with Product with Serializable
 {
-  def apply(ctx: ExecutionContext, state: QueryState): AnyValue = mapExpr(ctx, state) match {
+  def apply(ctx: ExecutionContext, state: QueryState): AnyValue = propertyOf(mapExpr(ctx, state), state)
+
+  /**
+    * Looks up this property on an already evaluated map, node, relationship or value with components.
+    */
+  def propertyOf(container: AnyValue, state: QueryState): AnyValue = container match {
     case Values.NO_VALUE => Values.NO_VALUE
     case n: VirtualNodeValue =>
       propertyKey.getOptId(state.query) match {
@@ -19,15 +19,19 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import java.io.File
+
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap
+import org.neo4j.cypher.internal.runtime.QueryContext
 import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, MutableMaps}
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{AggregationExpression, Expression}
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.AggregationFunction
 import org.neo4j.cypher.internal.v3_5.util.attribution.Id
 import org.neo4j.values.AnyValue
-import org.neo4j.values.virtual.{ListValue, MapValue, VirtualValues}
+import org.neo4j.values.virtual._
 
 import scala.collection.{immutable, mutable}
-import scala.collection.mutable.{Map => MutableMap}
+import scala.collection.mutable.{ArrayBuffer, Map => MutableMap}
 
 // Eager aggregation means that this pipe will eagerly load the whole resulting sub graphs before starting
 // to emit aggregated results.
@@ -88,7 +92,6 @@ case class EagerAggregationPipe(source: Pipe, keyExpressions: Map[String, Expres
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
 
-    val result = mutable.LinkedHashMap[AnyValue, Seq[AggregationFunction]]()
     val keyNames = keyExpressions.keySet.toList
     val aggregationNames: IndexedSeq[String] = aggregations.keys.toIndexedSeq
     val keyNamesSize = keyNames.size
@@ -115,21 +118,153 @@ case class EagerAggregationPipe(source: Pipe, keyExpressions: Map[String, Expres
       ExecutionContext(newMap)
     }
 
-    input.foreach(ctx => {
-      val groupingValue: AnyValue = groupingFunction(ctx, state)
-      val functions = result.getOrElseUpdate(groupingValue, {
-        val aggregateFunctions: Seq[AggregationFunction] = aggregations.map(_._2.createAggregationFunction).toIndexedSeq
-        aggregateFunctions
-      })
-      functions.foreach(func => func(ctx, state))
-    })
+    val result = aggregate(input, state, level = 0)
 
     if (result.isEmpty && keyNames.isEmpty) {
       createEmptyResult(state.params)
     } else {
       result.map {
         case (key, aggregator) => createResults(key, aggregator)
-      }.toIterator
+      }
+    }
+  }
+
+  /*
+   * Aggregates the input into groups. With a spill threshold, groups are kept in memory up to an estimated size of that
+   * many bytes, see [[RowSpillFormat.estimatedHeapSize]], not counting values collected by aggregation functions. Once full,
+   * rows of groups that are not in memory are partitioned on their grouping value and written to disk, and each
+   * partition is aggregated on its own after the in memory groups have been emitted. All rows of a group end up in
+   * the same partition, so no group is emitted twice.
+   */
+  private def aggregate(input: Iterator[ExecutionContext], state: QueryState,
+                        level: Int): Iterator[(AnyValue, Seq[AggregationFunction])] = {
+    val groups = new Groups
+    val maxBytes = if (state.spillThreshold > 0 && level < EagerAggregationPipe.MAX_SPILL_LEVELS) state.spillThreshold else Long.MaxValue
+    var partitions: SpilledPartitions = null
+
+    input.foreach(ctx => {
+      val groupingValue: AnyValue = groupingFunction(ctx, state)
+      val functions = groups.get(groupingValue, create = groups.estimatedHeapSize < maxBytes)
+      if (functions != null) {
+        functions.foreach(func => func(ctx, state))
+      } else {
+        if (partitions == null) {
+          partitions = new SpilledPartitions(level, state.spillDirectory, state.query)
+          state.query.resources.trace(partitions)
+        }
+        partitions.add(groupingValue, ctx)
+      }
+    })
+
+    if (partitions == null) {
+      groups.iterator
+    } else {
+      groups.iterator ++ partitions.iterator.flatMap(partition => aggregate(partition, state, level + 1))
+    }
+  }
+
+  private def newAggregationFunctions(): Seq[AggregationFunction] = aggregations.map(_._2.createAggregationFunction).toIndexedSeq
+
+  /*
+   * The aggregation functions of each group, in order of first appearance. Groups on a single node or relationship are
+   * looked up by id in primitive tables, avoiding hashing and comparing the values, all other groups by grouping value.
+   */
+  private class Groups {
+    private val keys = new ArrayBuffer[AnyValue]()
+    private val functions = new ArrayBuffer[Seq[AggregationFunction]]()
+    private val nodeGroups = new LongIntHashMap()
+    private val relationshipGroups = new LongIntHashMap()
+    private val valueGroups = mutable.HashMap[AnyValue, Int]()
+    private val groupSize = EagerAggregationPipe.GROUP_SIZE + EagerAggregationPipe.AGGREGATION_FUNCTION_SIZE * aggregations.size
+    private var _estimatedHeapSize = 0L
+
+    def size: Int = keys.size
+
+    def estimatedHeapSize: Long = _estimatedHeapSize
+
+    /**
+      * The aggregation functions of the group, or null if the group does not exist and should not be created.
+      */
+    def get(groupingValue: AnyValue, create: Boolean): Seq[AggregationFunction] = groupingValue match {
+      case node: VirtualNodeValue => getById(nodeGroups, node.id(), groupingValue, create)
+      case relationship: VirtualRelationshipValue => getById(relationshipGroups, relationship.id(), groupingValue, create)
+      case _ =>
+        valueGroups.get(groupingValue) match {
+          case Some(group) => functions(group)
+          case None if create =>
+            valueGroups.put(groupingValue, size)
+            newGroup(groupingValue)
+          case None => null
+        }
+    }
+
+    def iterator: Iterator[(AnyValue, Seq[AggregationFunction])] = keys.iterator zip functions.iterator
+
+    private def getById(groupsById: LongIntHashMap, id: Long, groupingValue: AnyValue, create: Boolean): Seq[AggregationFunction] = {
+      val group = groupsById.getIfAbsent(id, -1)
+      if (group >= 0) {
+        functions(group)
+      } else if (create) {
+        groupsById.put(id, size)
+        newGroup(groupingValue)
+      } else {
+        null
+      }
+    }
+
+    private def newGroup(groupingValue: AnyValue): Seq[AggregationFunction] = {
+      val aggregateFunctions = newAggregationFunctions()
+      _estimatedHeapSize += groupSize + RowSpillFormat.estimatedHeapSize(groupingValue)
+      keys += groupingValue
+      functions += aggregateFunctions
+      aggregateFunctions
+    }
+  }
+
+  /*
+   * Rows of groups that did not fit in memory, partitioned on a hash of their grouping value that differs per level.
+   * Rows that can not be written to disk are kept in memory with their partition.
+   */
+  private class SpilledPartitions(level: Int, directory: Option[File], query: QueryContext) extends AutoCloseable {
+    private val files = new Array[SpillFile](EagerAggregationPipe.PARTITIONS)
+    private val inMemory = Array.fill(EagerAggregationPipe.PARTITIONS)(new ArrayBuffer[ExecutionContext]())
+
+    def add(groupingValue: AnyValue, row: ExecutionContext): Unit = {
+      val partition = partitionOf(groupingValue)
+      if (RowSpillFormat.canSpill(row)) {
+        if (files(partition) == null) {
+          files(partition) = new SpillFile("cypher-aggregation-", directory, query)
+        }
+        files(partition).add(row)
+      } else {
+        inMemory(partition) += row
+      }
+    }
+
+    def iterator: Iterator[Iterator[ExecutionContext]] = (0 until EagerAggregationPipe.PARTITIONS).iterator.map { partition =>
+      val rows = inMemory(partition).iterator
+      inMemory(partition) = null
+      if (files(partition) == null) rows else files(partition).rows() ++ rows
+    }
+
+    override def close(): Unit = files.foreach(file => if (file != null) file.close())
+
+    private def partitionOf(groupingValue: AnyValue): Int = {
+      var hash = groupingValue.hashCode()
+      hash ^= hash >>> 16
+      hash *= 0x85ebca6b
+      hash ^= hash >>> 13
+      (hash >>> (level * EagerAggregationPipe.PARTITION_BITS)) & (EagerAggregationPipe.PARTITIONS - 1)
     }
   }
 }
+
+object EagerAggregationPipe {
+  private val PARTITION_BITS = 4
+  private val PARTITIONS = 1 << PARTITION_BITS
+  // Each level uses different hash bits for partitioning, after the last level all groups are kept in memory
+  private val MAX_SPILL_LEVELS = 32 / PARTITION_BITS - 1
+  // Rough sizes in bytes of a group, i.e. its entries in the group tables, and of each of its aggregation functions
+  private val GROUP_SIZE = 96
+  private val AGGREGATION_FUNCTION_SIZE = 32
+}
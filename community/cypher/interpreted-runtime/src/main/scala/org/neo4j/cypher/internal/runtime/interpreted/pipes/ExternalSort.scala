@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.io.File
+import java.util.{Comparator, PriorityQueue}
+
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * Sorts rows keeping rows of at most an estimated `maxBytesInMemory` on the heap, see
+  * [[RowSpillFormat.estimatedHeapSize]]. Whenever the buffered rows reach that size, they are sorted and written to a
+  * temporary file in `directory` as a sorted run. The sorted result is a k-way merge of all runs and the rows still in
+  * memory. If there are more than `mergeFactor` runs, groups of runs are first merged into longer runs, so that no
+  * more than `mergeFactor` files are open at any time.
+  *
+  * Rows that can not be spilled, see [[RowSpillFormat.canSpill]], are kept in memory until the final merge and do not
+  * count towards `maxBytesInMemory`.
+  */
+class ExternalSort(comparator: Comparator[ExecutionContext],
+                   maxBytesInMemory: Long,
+                   query: QueryContext,
+                   directory: Option[File] = None,
+                   mergeFactor: Int = ExternalSort.DEFAULT_MERGE_FACTOR) extends AutoCloseable {
+  require(maxBytesInMemory > 0)
+  require(mergeFactor > 1)
+
+  private val buffer = new ArrayBuffer[ExecutionContext]()
+  private var bufferedBytes = 0L
+  private val unspillable = new ArrayBuffer[ExecutionContext]()
+  private var runs = new ArrayBuffer[SpillFile]()
+  private val files = new ArrayBuffer[SpillFile]()
+
+  def add(row: ExecutionContext): Unit = {
+    if (RowSpillFormat.canSpill(row)) {
+      buffer += row
+      bufferedBytes += RowSpillFormat.estimatedHeapSize(row)
+      if (bufferedBytes >= maxBytesInMemory) {
+        spill()
+      }
+    } else {
+      unspillable += row
+    }
+  }
+
+  def hasSpilled: Boolean = files.nonEmpty
+
+  /**
+    * The sorted rows. Temporary files are deleted as soon as they have been read, or when this sort is closed.
+    */
+  def sortedIterator(): Iterator[ExecutionContext] = {
+    val inMemory = (buffer ++ unspillable).toArray
+    buffer.clear()
+    unspillable.clear()
+    java.util.Arrays.sort(inMemory, comparator)
+    if (runs.isEmpty) {
+      inMemory.iterator
+    } else {
+      // Leave room for the rows in memory in the final merge
+      while (runs.size >= mergeFactor) {
+        val merged = new ArrayBuffer[SpillFile]()
+        runs.grouped(mergeFactor).foreach { group =>
+          merged += writeRun(merge(group.map(_.rows())))
+        }
+        runs = merged
+      }
+      val inputs = runs.map(_.rows()) :+ inMemory.iterator
+      runs = new ArrayBuffer[SpillFile]()
+      merge(inputs)
+    }
+  }
+
+  override def close(): Unit = {
+    files.foreach(_.close())
+    files.clear()
+    runs.clear()
+    buffer.clear()
+    unspillable.clear()
+  }
+
+  private def spill(): Unit = {
+    val rows = buffer.toArray
+    buffer.clear()
+    bufferedBytes = 0
+    java.util.Arrays.sort(rows, comparator)
+    runs += writeRun(rows.iterator)
+  }
+
+  private def writeRun(rows: Iterator[ExecutionContext]): SpillFile = {
+    val run = new SpillFile("cypher-sort-", directory, query)
+    files += run
+    rows.foreach(run.add)
+    run
+  }
+
+  private def merge(inputs: Seq[Iterator[ExecutionContext]]): Iterator[ExecutionContext] = {
+    val heads = new PriorityQueue[BufferedIterator[ExecutionContext]](inputs.size, new Comparator[BufferedIterator[ExecutionContext]] {
+      override def compare(a: BufferedIterator[ExecutionContext], b: BufferedIterator[ExecutionContext]): Int =
+        comparator.compare(a.head, b.head)
+    })
+    inputs.map(_.buffered).filter(_.hasNext).foreach(heads.add)
+
+    new Iterator[ExecutionContext] {
+      override def hasNext: Boolean = !heads.isEmpty
+
+      override def next(): ExecutionContext = {
+        val input = heads.poll()
+        if (input == null) throw new NoSuchElementException
+        val row = input.next()
+        if (input.hasNext) heads.add(input)
+        row
+      }
+    }
+  }
+}
+
+object ExternalSort {
+  val DEFAULT_MERGE_FACTOR = 64
+
+  /**
+    * Sorts the input within the spill threshold of the query. If any rows had to be spilled, the sort is registered
+    * with the query resources so that its temporary files are removed even if the result is not fully consumed.
+    * If reading the input fails, the temporary files are removed right away.
+    */
+  def sort(input: Iterator[ExecutionContext], comparator: Comparator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    val sort = new ExternalSort(comparator, state.spillThreshold, state.query, state.spillDirectory)
+    try {
+      input.foreach(sort.add)
+    } catch {
+      case t: Throwable =>
+        sort.close()
+        throw t
+    }
+    if (sort.hasSpilled) {
+      state.query.resources.trace(sort)
+    }
+    sort.sortedIterator()
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.v3_5.expressions.{LabelToken, PropertyKeyToken}
+import org.neo4j.cypher.internal.v3_5.logical.plans.{IndexAggregation, IndexCount, IndexCountDistinct, IndexMax, IndexMin, IndexOrder, IndexOrderAscending, IndexOrderDescending, IndexOrderNone}
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+import org.neo4j.internal.kernel.api.{IndexReference, NodeValueIndexCursor}
+import org.neo4j.values.AnyValues
+import org.neo4j.values.storable.{ArrayValue, Value, ValueGroup, Values}
+
+import scala.collection.mutable
+
+/**
+  * Computes min, max or count of a single indexed property by reading the index instead of the nodes.
+  *
+  * The index keeps values in the same order as Cypher for most value groups, so min and max only need to
+  * read from one end of the index. Points, durations and arrays are kept in an order of their own, so values
+  * from those groups are collected and compared the way the regular aggregation functions would.
+  */
+case class NodeIndexAggregationPipe(ident: String,
+                                    label: LabelToken,
+                                    property: PropertyKeyToken,
+                                    aggregation: IndexAggregation)
+                                   (val id: Id = Id.INVALID_ID) extends Pipe {
+
+  private var reference: IndexReference = IndexReference.NO_INDEX
+
+  private def reference(context: QueryContext): IndexReference = {
+    if (reference == IndexReference.NO_INDEX) {
+      reference = context.indexReference(label.nameId.id, property.nameId.id)
+    }
+    reference
+  }
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
+    val index = reference(state.query)
+    val result = aggregation match {
+      case IndexMin => minOrMax(state.query, index, IndexOrderAscending, _ > 0)
+      case IndexMax => minOrMax(state.query, index, IndexOrderDescending, _ < 0)
+      case IndexCount => Values.longValue(count(state.query, index))
+      case IndexCountDistinct => Values.longValue(countDistinct(state.query, index))
+    }
+
+    val baseContext = state.newExecutionContext(executionContextFactory)
+    Iterator(executionContextFactory.copyWith(baseContext, ident, result))
+  }
+
+  private def minOrMax(query: QueryContext, index: IndexReference, order: IndexOrder, keep: Int => Boolean): Value = {
+    val cursor = query.indexScan(index, needsValues = true, order)
+    try {
+      var seen: Value = Values.NO_VALUE
+      var done = false
+      while (!done && cursor.next()) {
+        val value = cursor.propertyValue(0)
+        if (seen == Values.NO_VALUE || keep(AnyValues.COMPARATOR.compare(seen, value))) {
+          seen = value
+        }
+        // the first value that the index orders like Cypher does is as far as we need to read
+        done = inCypherOrder(value)
+      }
+      seen
+    } finally {
+      cursor.close()
+    }
+  }
+
+  private def count(query: QueryContext, index: IndexReference): Long = {
+    val cursor = query.indexScan(index, needsValues = false, IndexOrderNone)
+    try {
+      var count = 0L
+      while (cursor.next()) {
+        count += 1
+      }
+      count
+    } finally {
+      cursor.close()
+    }
+  }
+
+  private def countDistinct(query: QueryContext, index: IndexReference): Long = {
+    val cursor: NodeValueIndexCursor = query.indexScan(index, needsValues = true, IndexOrderAscending)
+    try {
+      var count = 0L
+      var previous: Value = Values.NO_VALUE
+      val unordered = mutable.Set.empty[Value]
+      while (cursor.next()) {
+        val value = cursor.propertyValue(0)
+        if (!inCypherOrder(value)) {
+          unordered += value
+        } else if (!value.equals(previous)) {
+          count += 1
+          previous = value
+        }
+      }
+      count + unordered.size
+    } finally {
+      cursor.close()
+    }
+  }
+
+  private def inCypherOrder(value: Value): Boolean = value.valueGroup() match {
+    case ValueGroup.GEOMETRY | ValueGroup.DURATION => false
+    case _ => !value.isInstanceOf[ArrayValue]
+  }
+}
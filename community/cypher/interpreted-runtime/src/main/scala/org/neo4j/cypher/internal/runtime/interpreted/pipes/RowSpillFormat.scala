@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.io.{DataInput, DataOutput}
+import java.nio.charset.StandardCharsets.UTF_8
+import java.time._
+import java.time.temporal.ChronoUnit
+
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, MapExecutionContext, MutableMaps}
+import org.neo4j.cypher.internal.v3_5.util.InternalException
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable._
+import org.neo4j.values.virtual._
+
+import scala.collection.JavaConverters._
+import scala.reflect.ClassTag
+
+/**
+  * Binary format used by eager pipes when spilling rows to disk.
+  *
+  * Only map based rows without cached properties can be spilled, i.e. rows of the interpreted runtime, with any
+  * property values, nodes, relationships, paths and lists and maps of those. Nodes and relationships are written as
+  * ids and read back as references, paths are written as the ids of their nodes and relationships and read back
+  * through the query context.
+  */
+object RowSpillFormat {
+  private final val NULL = 0
+  private final val FALSE = 1
+  private final val TRUE = 2
+  private final val LONG = 3
+  private final val INT = 4
+  private final val SHORT = 5
+  private final val BYTE = 6
+  private final val DOUBLE = 7
+  private final val FLOAT = 8
+  private final val CHAR = 9
+  private final val STRING = 10
+  private final val NODE = 11
+  private final val RELATIONSHIP = 12
+  private final val LIST = 13
+  private final val MAP = 14
+  private final val DATE = 15
+  private final val LOCAL_TIME = 16
+  private final val TIME = 17
+  private final val LOCAL_DATE_TIME = 18
+  private final val DATE_TIME = 19
+  private final val DURATION = 20
+  private final val POINT = 21
+  private final val PATH = 22
+  private final val BOOLEAN_ARRAY = 23
+  private final val BYTE_ARRAY = 24
+  private final val SHORT_ARRAY = 25
+  private final val INT_ARRAY = 26
+  private final val LONG_ARRAY = 27
+  private final val FLOAT_ARRAY = 28
+  private final val DOUBLE_ARRAY = 29
+  private final val CHAR_ARRAY = 30
+  private final val STRING_ARRAY = 31
+  private final val DATE_ARRAY = 32
+  private final val LOCAL_TIME_ARRAY = 33
+  private final val TIME_ARRAY = 34
+  private final val LOCAL_DATE_TIME_ARRAY = 35
+  private final val DATE_TIME_ARRAY = 36
+  private final val DURATION_ARRAY = 37
+  private final val POINT_ARRAY = 38
+
+  // Rough sizes in bytes of objects on a 64-bit JVM with compressed references, for estimating heap usage of rows
+  private final val ROW_SIZE = 64
+  private final val ENTRY_SIZE = 40
+  private final val VALUE_SIZE = 24
+  private final val STRING_SIZE = 64
+  private final val COLLECTION_SIZE = 48
+  private final val REFERENCE_SIZE = 4
+
+  def canSpill(row: ExecutionContext): Boolean = row match {
+    case mapRow: MapExecutionContext if !mapRow.hasCachedProperties => mapRow.forall { case (_, value) => canSpill(value) }
+    case _ => false
+  }
+
+  def canSpill(value: AnyValue): Boolean = value match {
+    case _: Value | _: VirtualNodeValue | _: VirtualRelationshipValue | _: PathValue => true
+    case list: ListValue => list.asScala.forall(canSpill)
+    case map: MapValue => map.keySet.asScala.forall(key => canSpill(map.get(key)))
+    case _ => false
+  }
+
+  /**
+    * Roughly estimates the heap memory used by a row, for deciding when to spill. Column names are shared by all rows
+    * of a query and are not counted.
+    */
+  def estimatedHeapSize(row: ExecutionContext): Long =
+    row.foldLeft(ROW_SIZE.toLong) { case (size, (_, value)) => size + ENTRY_SIZE + estimatedHeapSize(value) }
+
+  /**
+    * Roughly estimates the heap memory used by a value, nested values included.
+    */
+  def estimatedHeapSize(value: AnyValue): Long = value match {
+    case Values.NO_VALUE | _: BooleanValue => 0 // shared instances
+    case t: TextValue => STRING_SIZE + 2L * t.length()
+    case bytes: ByteArray => COLLECTION_SIZE + bytes.length()
+    case array: ArrayValue =>
+      array.asScala.foldLeft(COLLECTION_SIZE.toLong + REFERENCE_SIZE * array.length()) { (size, v) => size + estimatedHeapSize(v) }
+    case path: PathValue => 2 * COLLECTION_SIZE + (REFERENCE_SIZE + VALUE_SIZE) * (2L * path.size() + 1)
+    case list: ListValue => list.asScala.foldLeft(COLLECTION_SIZE.toLong + REFERENCE_SIZE * list.size()) { (size, v) => size + estimatedHeapSize(v) }
+    case map: MapValue =>
+      map.keySet.asScala.foldLeft(COLLECTION_SIZE.toLong) { (size, key) => size + ENTRY_SIZE + STRING_SIZE + 2L * key.length + estimatedHeapSize(map.get(key)) }
+    case _ => VALUE_SIZE
+  }
+
+  def writeRow(row: ExecutionContext, out: DataOutput): Unit = {
+    out.writeInt(row.size)
+    row.foreach {
+      case (key, value) =>
+        writeString(key, out)
+        writeValue(value, out)
+    }
+  }
+
+  /**
+    * Reads a row written by [[writeRow]], using the query context to look up the nodes and relationships of paths.
+    */
+  def readRow(in: DataInput, query: QueryContext): ExecutionContext = {
+    val size = in.readInt()
+    val m = MutableMaps.create[String, AnyValue](size)
+    var i = 0
+    while (i < size) {
+      m.put(readString(in), readValue(in, query))
+      i += 1
+    }
+    ExecutionContext(m)
+  }
+
+  private def writeValue(value: AnyValue, out: DataOutput): Unit = value match {
+    case Values.NO_VALUE => out.writeByte(NULL)
+    case b: BooleanValue => out.writeByte(if (b.booleanValue()) TRUE else FALSE)
+    case l: LongValue => out.writeByte(LONG); out.writeLong(l.value())
+    case i: IntValue => out.writeByte(INT); out.writeInt(i.value())
+    case s: ShortValue => out.writeByte(SHORT); out.writeShort(s.value())
+    case b: ByteValue => out.writeByte(BYTE); out.writeByte(b.value())
+    case d: DoubleValue => out.writeByte(DOUBLE); out.writeDouble(d.value())
+    case f: FloatValue => out.writeByte(FLOAT); out.writeFloat(f.value())
+    case c: CharValue => out.writeByte(CHAR); out.writeChar(c.value())
+    case t: TextValue => out.writeByte(STRING); writeString(t.stringValue(), out)
+    case n: VirtualNodeValue => out.writeByte(NODE); out.writeLong(n.id())
+    case r: VirtualRelationshipValue => out.writeByte(RELATIONSHIP); out.writeLong(r.id())
+    case d: DateValue => out.writeByte(DATE); out.writeLong(d.asObjectCopy().toEpochDay)
+    case t: LocalTimeValue => out.writeByte(LOCAL_TIME); out.writeLong(t.asObjectCopy().toNanoOfDay)
+    case t: TimeValue =>
+      val time = t.asObjectCopy()
+      out.writeByte(TIME)
+      out.writeLong(time.toLocalTime.toNanoOfDay)
+      out.writeInt(time.getOffset.getTotalSeconds)
+    case dt: LocalDateTimeValue =>
+      val dateTime = dt.asObjectCopy()
+      out.writeByte(LOCAL_DATE_TIME)
+      out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC))
+      out.writeInt(dateTime.getNano)
+    case dt: DateTimeValue =>
+      val dateTime = dt.asObjectCopy()
+      out.writeByte(DATE_TIME)
+      out.writeLong(dateTime.toEpochSecond)
+      out.writeInt(dateTime.getNano)
+      writeString(dateTime.getZone.getId, out)
+    case d: DurationValue =>
+      out.writeByte(DURATION)
+      out.writeLong(d.get(ChronoUnit.MONTHS))
+      out.writeLong(d.get(ChronoUnit.DAYS))
+      out.writeLong(d.get(ChronoUnit.SECONDS))
+      out.writeLong(d.get(ChronoUnit.NANOS))
+    case p: PointValue =>
+      val crs = p.getCoordinateReferenceSystem
+      val coordinate = p.coordinate()
+      out.writeByte(POINT)
+      out.writeInt(crs.getTable.getTableId)
+      out.writeInt(crs.getCode)
+      out.writeInt(coordinate.length)
+      coordinate.foreach(out.writeDouble(_))
+    case p: PathValue =>
+      out.writeByte(PATH)
+      out.writeInt(p.size())
+      p.nodes().foreach(n => out.writeLong(n.id()))
+      p.relationships().foreach(r => out.writeLong(r.id()))
+    case bytes: ByteArray =>
+      val array = bytes.asObjectCopy()
+      out.writeByte(BYTE_ARRAY)
+      out.writeInt(array.length)
+      out.write(array)
+    case array: ArrayValue =>
+      out.writeByte(arrayType(array))
+      out.writeInt(array.length())
+      array.asScala.foreach(writeValue(_, out))
+    case list: ListValue =>
+      out.writeByte(LIST)
+      out.writeInt(list.size())
+      list.asScala.foreach(writeValue(_, out))
+    case map: MapValue =>
+      out.writeByte(MAP)
+      out.writeInt(map.size())
+      map.keySet.asScala.foreach { key =>
+        writeString(key, out)
+        writeValue(map.get(key), out)
+      }
+    case _ => throw new InternalException(s"Can not spill value $value to disk")
+  }
+
+  private def arrayType(array: ArrayValue): Int = array match {
+    case _: BooleanArray => BOOLEAN_ARRAY
+    case _: ShortArray => SHORT_ARRAY
+    case _: IntArray => INT_ARRAY
+    case _: LongArray => LONG_ARRAY
+    case _: FloatArray => FLOAT_ARRAY
+    case _: DoubleArray => DOUBLE_ARRAY
+    case _: CharArray => CHAR_ARRAY
+    case _: StringArray => STRING_ARRAY
+    case _: DateArray => DATE_ARRAY
+    case _: LocalTimeArray => LOCAL_TIME_ARRAY
+    case _: TimeArray => TIME_ARRAY
+    case _: LocalDateTimeArray => LOCAL_DATE_TIME_ARRAY
+    case _: DateTimeArray => DATE_TIME_ARRAY
+    case _: DurationArray => DURATION_ARRAY
+    case _: PointArray => POINT_ARRAY
+    case _ => throw new InternalException(s"Can not spill value $array to disk")
+  }
+
+  private def readValue(in: DataInput, query: QueryContext): AnyValue = in.readByte().toInt match {
+    case NULL => Values.NO_VALUE
+    case FALSE => Values.FALSE
+    case TRUE => Values.TRUE
+    case LONG => Values.longValue(in.readLong())
+    case INT => Values.intValue(in.readInt())
+    case SHORT => Values.shortValue(in.readShort())
+    case BYTE => Values.byteValue(in.readByte())
+    case DOUBLE => Values.doubleValue(in.readDouble())
+    case FLOAT => Values.floatValue(in.readFloat())
+    case CHAR => Values.charValue(in.readChar())
+    case STRING => Values.stringValue(readString(in))
+    case NODE => VirtualValues.node(in.readLong())
+    case RELATIONSHIP => VirtualValues.relationship(in.readLong())
+    case DATE => DateValue.epochDate(in.readLong())
+    case LOCAL_TIME => LocalTimeValue.localTime(in.readLong())
+    case TIME =>
+      val nanoOfDay = in.readLong()
+      TimeValue.time(OffsetTime.of(LocalTime.ofNanoOfDay(nanoOfDay), ZoneOffset.ofTotalSeconds(in.readInt())))
+    case LOCAL_DATE_TIME =>
+      val epochSecond = in.readLong()
+      LocalDateTimeValue.localDateTime(epochSecond, in.readInt())
+    case DATE_TIME =>
+      val epochSecond = in.readLong()
+      val nano = in.readInt()
+      DateTimeValue.datetime(epochSecond, nano, ZoneId.of(readString(in)))
+    case DURATION =>
+      val months = in.readLong()
+      val days = in.readLong()
+      val seconds = in.readLong()
+      DurationValue.duration(months, days, seconds, in.readLong())
+    case POINT =>
+      val tableId = in.readInt()
+      val crs = CoordinateReferenceSystem.get(tableId, in.readInt())
+      Values.pointValue(crs, readArray(in)(in.readDouble()): _*)
+    case PATH =>
+      val size = in.readInt()
+      val nodes = new Array[NodeValue](size + 1)
+      val relationships = new Array[RelationshipValue](size)
+      var i = 0
+      while (i < nodes.length) {
+        nodes(i) = query.nodeOps.getById(in.readLong())
+        i += 1
+      }
+      i = 0
+      while (i < relationships.length) {
+        relationships(i) = query.relationshipOps.getById(in.readLong())
+        i += 1
+      }
+      VirtualValues.path(nodes, relationships)
+    case BYTE_ARRAY =>
+      val bytes = new Array[Byte](in.readInt())
+      in.readFully(bytes)
+      Values.byteArray(bytes)
+    case BOOLEAN_ARRAY => Values.booleanArray(readArray(in)(readValue(in, query).asInstanceOf[BooleanValue].booleanValue()))
+    case SHORT_ARRAY => Values.shortArray(readArray(in)(readValue(in, query).asInstanceOf[ShortValue].value()))
+    case INT_ARRAY => Values.intArray(readArray(in)(readValue(in, query).asInstanceOf[IntValue].value()))
+    case LONG_ARRAY => Values.longArray(readArray(in)(readValue(in, query).asInstanceOf[LongValue].value()))
+    case FLOAT_ARRAY => Values.floatArray(readArray(in)(readValue(in, query).asInstanceOf[FloatValue].value()))
+    case DOUBLE_ARRAY => Values.doubleArray(readArray(in)(readValue(in, query).asInstanceOf[DoubleValue].value()))
+    case CHAR_ARRAY => Values.charArray(readArray(in)(readValue(in, query).asInstanceOf[CharValue].value()))
+    case STRING_ARRAY => Values.stringArray(readArray(in)(readValue(in, query).asInstanceOf[TextValue].stringValue()): _*)
+    case DATE_ARRAY => Values.dateArray(readArray(in)(readValue(in, query).asInstanceOf[DateValue].asObjectCopy()))
+    case LOCAL_TIME_ARRAY => Values.localTimeArray(readArray(in)(readValue(in, query).asInstanceOf[LocalTimeValue].asObjectCopy()))
+    case TIME_ARRAY => Values.timeArray(readArray(in)(readValue(in, query).asInstanceOf[TimeValue].asObjectCopy()))
+    case LOCAL_DATE_TIME_ARRAY => Values.localDateTimeArray(readArray(in)(readValue(in, query).asInstanceOf[LocalDateTimeValue].asObjectCopy()))
+    case DATE_TIME_ARRAY => Values.dateTimeArray(readArray(in)(readValue(in, query).asInstanceOf[DateTimeValue].asObjectCopy()))
+    case DURATION_ARRAY => Values.durationArray(readArray(in)(readValue(in, query).asInstanceOf[DurationValue]))
+    case POINT_ARRAY => Values.pointArray(readArray(in)(readValue(in, query).asInstanceOf[PointValue]))
+    case LIST =>
+      val values = new Array[AnyValue](in.readInt())
+      var i = 0
+      while (i < values.length) {
+        values(i) = readValue(in, query)
+        i += 1
+      }
+      VirtualValues.list(values: _*)
+    case MAP =>
+      val size = in.readInt()
+      val keys = new Array[String](size)
+      val values = new Array[AnyValue](size)
+      var i = 0
+      while (i < size) {
+        keys(i) = readString(in)
+        values(i) = readValue(in, query)
+        i += 1
+      }
+      VirtualValues.map(keys, values)
+    case tag => throw new InternalException(s"Unknown value type $tag in spilled row")
+  }
+
+  // Reads the length of an array, and then each of its elements by evaluating readElement
+  private def readArray[T: ClassTag](in: DataInput)(readElement: => T): Array[T] = {
+    val array = new Array[T](in.readInt())
+    var i = 0
+    while (i < array.length) {
+      array(i) = readElement
+      i += 1
+    }
+    array
+  }
+
+  // DataOutput.writeUTF is limited to 64k bytes, so write the length ourselves
+  private def writeString(string: String, out: DataOutput): Unit = {
+    val bytes = string.getBytes(UTF_8)
+    out.writeInt(bytes.length)
+    out.write(bytes)
+  }
+
+  private def readString(in: DataInput): String = {
+    val bytes = new Array[Byte](in.readInt())
+    in.readFully(bytes)
+    new String(bytes, UTF_8)
+  }
+}
@@ -33,9 +33,13 @@ case class SortPipe(source: Pipe, orderBy: Seq[ColumnOrder])
   private val comparator = ExecutionContextOrdering.asComparator(orderBy)
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
-    val array = input.toArray
-    java.util.Arrays.sort(array, comparator)
-    array.toIterator
+    if (state.spillThreshold > 0) {
+      ExternalSort.sort(input, comparator, state)
+    } else {
+      val array = input.toArray
+      java.util.Arrays.sort(array, comparator)
+      array.toIterator
+    }
   }
 }
 
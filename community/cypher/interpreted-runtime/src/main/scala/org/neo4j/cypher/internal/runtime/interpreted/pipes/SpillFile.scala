@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.io._
+import java.nio.file.{Files, Path}
+
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+
+/**
+  * Temporary file of rows written in the [[RowSpillFormat]], in the given directory or else the temporary directory of
+  * the JVM. Rows are appended until the file is read back, which can only be done once. The file is deleted when all
+  * rows have been read, or when it is closed.
+  */
+class SpillFile(prefix: String, directory: Option[File], query: QueryContext) extends AutoCloseable {
+  private val file: Path = directory match {
+    case Some(dir) => Files.createTempFile(Files.createDirectories(dir.toPath), prefix, ".spill")
+    case None => Files.createTempFile(prefix, ".spill")
+  }
+  private var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))
+  private var in: DataInputStream = _
+  private var closed = false
+
+  def add(row: ExecutionContext): Unit = {
+    out.writeBoolean(true)
+    RowSpillFormat.writeRow(row, out)
+  }
+
+  def rows(): Iterator[ExecutionContext] = {
+    if (out == null) throw new IllegalStateException(s"Rows of $file have already been read")
+    out.writeBoolean(false)
+    out.close()
+    out = null
+    in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))
+
+    new Iterator[ExecutionContext] {
+      private var more = readMore()
+
+      override def hasNext: Boolean = more
+
+      override def next(): ExecutionContext = {
+        if (!more) throw new NoSuchElementException
+        val row = RowSpillFormat.readRow(in, query)
+        more = readMore()
+        row
+      }
+
+      private def readMore(): Boolean = {
+        val more = in.readBoolean()
+        if (!more) close()
+        more
+      }
+    }
+  }
+
+  override def close(): Unit = {
+    if (!closed) {
+      closed = true
+      if (out != null) out.close()
+      if (in != null) in.close()
+      Files.deleteIfExists(file)
+    }
+  }
+}
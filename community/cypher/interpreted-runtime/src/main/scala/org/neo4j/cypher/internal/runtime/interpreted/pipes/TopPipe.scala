@@ -51,6 +51,11 @@ case class TopNPipe(source: Pipe, countExpression: Expression, comparator: Compa
       if (longCount <= 0) {
         Iterator.empty
       }
+      else if (state.spillThreshold > 0 && longCount > state.spillThreshold / math.max(1, RowSpillFormat.estimatedHeapSize(first))) {
+        // The top table would hold more rows than fit in the memory we may use, judging by the first row, so sort externally instead
+        var c: Long = 0
+        ExternalSort.sort(Iterator(first) ++ input, comparator, state).takeWhile { _ => c = c + 1; c <= longCount }
+      }
       else if (longCount > Int.MaxValue) {
         // For count values larger than the maximum 32-bit integer we fallback on a full sort instead of allocating a huge top table
         // (Instead of throw new IllegalArgumentException(s"ORDER BY + LIMIT $longCount exceeds the maximum value of ${Int.MaxValue}"))
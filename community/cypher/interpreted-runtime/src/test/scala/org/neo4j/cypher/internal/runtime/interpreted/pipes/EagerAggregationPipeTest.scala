@@ -19,15 +19,19 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
-import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
+import org.mockito.Mockito.when
+import org.neo4j.cypher.internal.runtime.{QueryContext, ResourceManager}
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, QueryStateHelper}
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions._
 import org.neo4j.cypher.internal.runtime.interpreted.commands.values.TokenType.PropertyKey
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
 import org.neo4j.cypher.internal.v3_5.util.symbols._
 import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
 import org.neo4j.values.AnyValue
 import org.neo4j.values.storable.Values
 import org.neo4j.values.storable.Values.{intValue, longValue, stringValue}
 import org.neo4j.values.virtual.VirtualValues
+import org.neo4j.values.virtual.VirtualValues.node
 
 class EagerAggregationPipeTest extends CypherFunSuite {
 
@@ -144,6 +148,44 @@ class EagerAggregationPipeTest extends CypherFunSuite {
     getResults(aggregationPipe) should equal(List(Map("count(name)" -> longValue(3))))
   }
 
+  test("should aggregate count(*) grouped on nodes") {
+    val source = sourceOf(Seq(node(1), node(2), node(1), node(3), node(1), node(3)).map(n => ExecutionContext.from("n" -> n)))
+
+    val aggregationPipe = EagerAggregationPipe(source, createReturnItemsFor("n"), Map("count(*)" -> CountStar()))()
+
+    getResults(aggregationPipe) should be(List(
+      Map[String, AnyValue]("n" -> node(1), "count(*)" -> longValue(3)),
+      Map[String, AnyValue]("n" -> node(2), "count(*)" -> longValue(1)),
+      Map[String, AnyValue]("n" -> node(3), "count(*)" -> longValue(2))
+    ))
+  }
+
+  test("should spill groups exceeding the spill threshold to disk") {
+    val keys: Seq[AnyValue] = (0 until 500).map(i => if (i % 2 == 0) node(i) else longValue(i))
+    val rows = (0 until 3).flatMap(round => keys.map(key => ExecutionContext.from("k" -> key, "x" -> longValue(round))))
+
+    val aggregation = Map("count(*)" -> CountStar(), "sum(x)" -> Sum(Variable("x")))
+    val aggregationPipe = EagerAggregationPipe(sourceOf(rows), createReturnItemsFor("k"), aggregation)()
+    val resources = new ResourceManager
+    val query = mock[QueryContext]
+    when(query.resources).thenReturn(resources)
+    // Room for a handful of groups
+    val state = new QueryState(query, null, VirtualValues.EMPTY_MAP, spillThreshold = 1000)
+
+    val results = aggregationPipe.createResults(state).map(_.toMap).toList
+
+    results should have size keys.size
+    results.toSet should equal(keys.map(key => Map[String, AnyValue]("k" -> key, "count(*)" -> longValue(3), "sum(x)" -> longValue(3))).toSet)
+    resources.allResources should not be empty
+    resources.close(success = true)
+  }
+
+  private def sourceOf(rows: Seq[ExecutionContext]): Pipe = new Pipe {
+    override protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = rows.iterator
+
+    override def id: Id = Id.INVALID_ID
+  }
+
   private def createSymbolTableFor(name: String): (String, CypherType) = name -> CTNode
 
   private def getResults(p: Pipe) = p.createResults(QueryStateHelper.empty).map(_.toMap).toList
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.nio.file.Files
+import java.time._
+
+import org.mockito.Mockito.when
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.{Operations, QueryContext}
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Values._
+import org.neo4j.values.storable._
+import org.neo4j.values.virtual.VirtualValues.{EMPTY_MAP, nodeValue, relationshipValue}
+import org.neo4j.values.virtual.{NodeValue, RelationshipValue, VirtualValues}
+
+import scala.util.Random
+
+class ExternalSortTest extends CypherFunSuite {
+
+  private val comparator = ExecutionContextOrdering.asComparator(List(Ascending("x")))
+  private val query = mock[QueryContext]
+  private val nodeOps = mock[Operations[NodeValue]]
+  private val relationshipOps = mock[Operations[RelationshipValue]]
+  when(query.nodeOps).thenReturn(nodeOps)
+  when(query.relationshipOps).thenReturn(relationshipOps)
+
+  test("should sort in memory when below the threshold") {
+    val sort = new ExternalSort(comparator, 10 * rowSize, query)
+    Seq(3, 1, 2).foreach(x => sort.add(row(intValue(x))))
+
+    sort.hasSpilled should be(false)
+    sort.sortedIterator().map(_("x")).toList should equal(List(intValue(1), intValue(2), intValue(3)))
+  }
+
+  test("should spill sorted runs and merge them") {
+    val values = Random.shuffle((0 until 1000).toList)
+    val sort = new ExternalSort(comparator, 100 * rowSize, query)
+    values.foreach(x => sort.add(row(longValue(x))))
+
+    sort.hasSpilled should be(true)
+    sort.sortedIterator().map(_("x")).toList should equal((0 until 1000).map(x => longValue(x)).toList)
+    sort.close()
+  }
+
+  test("should merge in several passes when there are more runs than the merge factor") {
+    val values = Random.shuffle((0 until 500).toList)
+    val sort = new ExternalSort(comparator, 7 * rowSize, query, mergeFactor = 3)
+    values.foreach(x => sort.add(row(longValue(x))))
+
+    sort.sortedIterator().map(_("x")).toList should equal((0 until 500).map(x => longValue(x)).toList)
+    sort.close()
+  }
+
+  test("should restore spilled values") {
+    val spilled: Seq[AnyValue] = Seq(
+      NO_VALUE,
+      TRUE,
+      byteValue(1),
+      shortValue(2),
+      intValue(3),
+      longValue(4),
+      floatValue(5.5f),
+      doubleValue(6.5),
+      charValue('c'),
+      stringValue("string"),
+      VirtualValues.node(7),
+      VirtualValues.relationship(8),
+      VirtualValues.list(intValue(9), stringValue("ten")),
+      VirtualValues.map(Array("eleven"), Array(longValue(11))),
+      DateValue.date(2018, 1, 12),
+      LocalTimeValue.localTime(13, 14, 15, 16),
+      TimeValue.time(17, 18, 19, 20, "+01:00"),
+      LocalDateTimeValue.localDateTime(2018, 1, 21, 22, 23, 24, 25),
+      DateTimeValue.datetime(2018, 1, 26, 3, 28, 29, 30, "Europe/Stockholm"),
+      DateTimeValue.datetime(2018, 1, 31, 12, 0, 0, 0, "-05:00"),
+      DurationValue.duration(32, 33, 34, 35),
+      pointValue(CoordinateReferenceSystem.Cartesian, 36, 37),
+      pointValue(CoordinateReferenceSystem.WGS84_3D, 38, 39, 40),
+      byteArray(Array[Byte](41, 42)),
+      booleanArray(Array(true, false)),
+      shortArray(Array[Short](43)),
+      intArray(Array(44, 45)),
+      longArray(Array(46L)),
+      floatArray(Array(47.5f)),
+      doubleArray(Array(48.5)),
+      charArray(Array('a', 'b')),
+      stringArray("forty", "nine"),
+      dateArray(Array(LocalDate.of(2018, 1, 31))),
+      localTimeArray(Array(LocalTime.of(5, 1))),
+      timeArray(Array(OffsetTime.of(5, 2, 0, 0, ZoneOffset.ofHours(2)))),
+      localDateTimeArray(Array(LocalDateTime.of(2018, 1, 5, 3, 0))),
+      dateTimeArray(Array(ZonedDateTime.of(2018, 1, 5, 4, 0, 0, 0, ZoneId.of("Europe/Stockholm")))),
+      durationArray(Array(DurationValue.duration(0, 55, 0, 0))),
+      pointArray(Array(pointValue(CoordinateReferenceSystem.WGS84, 56, 57))),
+      VirtualValues.path(Array(node(58), node(59)), Array(relationship(60, 58, 59))))
+    val sort = new ExternalSort(comparator, 2 * rowSize, query)
+    spilled.zipWithIndex.foreach {
+      case (value, i) => sort.add(ExecutionContext.from("x" -> intValue(i), "y" -> value))
+    }
+
+    sort.hasSpilled should be(true)
+    sort.sortedIterator().map(_("y")).toList should equal(spilled.toList)
+    sort.close()
+  }
+
+  test("should keep rows that can not be spilled in memory and spill the others") {
+    val sort = new ExternalSort(comparator, 2 * rowSize, query)
+    val unspillable = ExecutionContext.from("x" -> intValue(3), "y" -> VirtualValues.error(new IllegalStateException))
+    sort.add(unspillable)
+    Seq(5, 4, 2, 1).foreach(x => sort.add(row(intValue(x))))
+
+    sort.hasSpilled should be(true)
+    val sorted = sort.sortedIterator().toList
+    sorted.map(_("x")) should equal((1 to 5).map(x => intValue(x)).toList)
+    sorted(2) should be theSameInstanceAs unspillable
+    sort.close()
+  }
+
+  test("should spill based on the estimated size of rows rather than their number") {
+    val small = new ExternalSort(comparator, 10 * rowSize, query)
+    (0 until 5).foreach(x => small.add(row(longValue(x))))
+    small.hasSpilled should be(false)
+
+    val large = new ExternalSort(comparator, 10 * rowSize, query)
+    (0 until 5).foreach(x => large.add(ExecutionContext.from("x" -> longValue(x), "y" -> stringValue("y" * 1000))))
+    large.hasSpilled should be(true)
+    large.sortedIterator().map(_("x")).toList should equal((0 until 5).map(x => longValue(x)).toList)
+    large.close()
+  }
+
+  test("should write temporary files to the spill directory") {
+    val directory = Files.createTempDirectory("spill-test").toFile
+    try {
+      val sort = new ExternalSort(comparator, rowSize, query, Some(directory))
+      (0 until 10).foreach(x => sort.add(row(longValue(x))))
+
+      sort.hasSpilled should be(true)
+      directory.list() should not be empty
+      sort.close()
+      directory.list() shouldBe empty
+    } finally {
+      directory.delete()
+    }
+  }
+
+  test("should remove temporary files when reading the input fails") {
+    val directory = Files.createTempDirectory("spill-test").toFile
+    try {
+      val state = new QueryState(null, null, VirtualValues.EMPTY_MAP, spillThreshold = rowSize, spillDirectory = Some(directory))
+      val input = (0 until 10).iterator.map(x => if (x < 5) row(longValue(x)) else throw new IllegalStateException("input failed"))
+
+      an[IllegalStateException] should be thrownBy ExternalSort.sort(input, comparator, state)
+      directory.list() shouldBe empty
+    } finally {
+      directory.delete()
+    }
+  }
+
+  private def node(id: Long): NodeValue = {
+    val node = nodeValue(id, stringArray(), EMPTY_MAP)
+    when(nodeOps.getById(id)).thenReturn(node)
+    node
+  }
+
+  private def relationship(id: Long, start: Long, end: Long): RelationshipValue = {
+    val relationship = relationshipValue(id, node(start), node(end), stringValue("R"), EMPTY_MAP)
+    when(relationshipOps.getById(id)).thenReturn(relationship)
+    relationship
+  }
+
+  private def rowSize: Long = RowSpillFormat.estimatedHeapSize(row(longValue(0)))
+
+  private def row(x: AnyValue): ExecutionContext = ExecutionContext.from("x" -> x)
+}
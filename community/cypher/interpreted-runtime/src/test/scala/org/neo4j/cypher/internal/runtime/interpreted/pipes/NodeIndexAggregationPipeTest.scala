@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.mockito.ArgumentMatchers
+import org.mockito.ArgumentMatchers.any
+import org.mockito.Mockito._
+import org.neo4j.cypher.internal.runtime.{NodeValueHit, QueryContext}
+import org.neo4j.cypher.internal.runtime.interpreted.{ImplicitDummyPos, QueryStateHelper}
+import org.neo4j.cypher.internal.v3_5.expressions.{LabelName, LabelToken, PropertyKeyName, PropertyKeyToken}
+import org.neo4j.cypher.internal.v3_5.logical.plans._
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.cypher.internal.v3_5.util.{LabelId, PropertyKeyId}
+import org.neo4j.values.storable.CoordinateReferenceSystem.Cartesian
+import org.neo4j.values.storable.Values.{doubleValue, longArray, longValue, pointValue, stringValue}
+import org.neo4j.values.storable.{Value, Values}
+
+class NodeIndexAggregationPipeTest extends CypherFunSuite with ImplicitDummyPos with IndexMockingHelp {
+
+  private val label = LabelToken(LabelName("LabelName")_, LabelId(11))
+  private val propertyKey = PropertyKeyToken(PropertyKeyName("prop")_, PropertyKeyId(10))
+  override val propertyKeys = Seq(propertyKey)
+
+  test("should return the first value of an ascending scan as min") {
+    val query = scan(IndexOrderAscending, stringValue("b"), stringValue("c"), longValue(1))
+
+    NodeIndexAggregationPipe("min", label, propertyKey, IndexMin)()
+      .createResults(QueryStateHelper.emptyWith(query = query)).map(_("min")).toList should equal(List(stringValue("b")))
+  }
+
+  test("should return the first value of a descending scan as max") {
+    val query = scan(IndexOrderDescending, longValue(3), longValue(2), longValue(1))
+
+    NodeIndexAggregationPipe("max", label, propertyKey, IndexMax)()
+      .createResults(QueryStateHelper.emptyWith(query = query)).map(_("max")).toList should equal(List(longValue(3)))
+  }
+
+  test("should compare points and arrays instead of trusting index order for min") {
+    val query = scan(IndexOrderAscending, longArray(Array(2L)), longArray(Array(1L)), pointValue(Cartesian, 2.0, 2.0), stringValue("a"))
+
+    NodeIndexAggregationPipe("min", label, propertyKey, IndexMin)()
+      .createResults(QueryStateHelper.emptyWith(query = query)).map(_("min")).toList should equal(List(longArray(Array(1L))))
+  }
+
+  test("should return null as min of an empty index") {
+    val query = scan(IndexOrderAscending)
+
+    NodeIndexAggregationPipe("min", label, propertyKey, IndexMin)()
+      .createResults(QueryStateHelper.emptyWith(query = query)).map(_("min")).toList should equal(List(Values.NO_VALUE))
+  }
+
+  test("should count index entries") {
+    val query = scan(IndexOrderNone, longValue(1), longValue(1), longValue(2))
+
+    NodeIndexAggregationPipe("count", label, propertyKey, IndexCount)()
+      .createResults(QueryStateHelper.emptyWith(query = query)).map(_("count")).toList should equal(List(longValue(3)))
+  }
+
+  test("should count distinct values, also for points that are not next to each other in the index") {
+    val query = scan(IndexOrderAscending,
+      pointValue(Cartesian, 1.0, 1.0), pointValue(Cartesian, 2.0, 2.0), pointValue(Cartesian, 1.0, 1.0),
+      stringValue("a"), stringValue("a"), longValue(1), doubleValue(1.0), longValue(2))
+
+    NodeIndexAggregationPipe("count", label, propertyKey, IndexCountDistinct)()
+      .createResults(QueryStateHelper.emptyWith(query = query)).map(_("count")).toList should equal(List(longValue(5)))
+  }
+
+  private def scan(order: IndexOrder, values: Value*): QueryContext = {
+    val query = mock[QueryContext]
+    val hits = values.zipWithIndex.map {
+      case (value, id) => new NodeValueHit(id, Array(value))
+    }
+    when(query.indexScan(any(), any(), ArgumentMatchers.eq(order))).thenReturn(PredefinedCursor(hits))
+    query
+  }
+}
@@ -91,6 +91,15 @@ case class LogicalPlan2PlanDescription(readOnly: Boolean, cardinalities: Cardina
         val arguments = Seq(CountNodesExpression(variable, labelNames.map(l => l.map(_.name))))
         PlanDescriptionImpl(id, "NodeCountFromCountStore", NoChildren, arguments, variables)
 
+      case NodeIndexAggregation(_, label, property, aggregation, _) =>
+        val name = aggregation match {
+          case IndexMin => "NodeIndexMin"
+          case IndexMax => "NodeIndexMax"
+          case IndexCount => "NodeIndexCount"
+          case IndexCountDistinct => "NodeIndexCountDistinct"
+        }
+        PlanDescriptionImpl(id, name, NoChildren, Seq(Index(label.name, Seq(property.name))), variables)
+
       case NodeIndexContainsScan(_, label, property, valueExpr, _, _) =>
         val arguments = Seq(Index(label.name, Seq(property.propertyKeyToken.name)), Expression(valueExpr))
         PlanDescriptionImpl(id, "NodeIndexContainsScan", NoChildren, arguments, variables)
@@ -31,6 +31,7 @@ import java.nio.ByteBuffer;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.StandardOpenOption;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
@@ -285,6 +286,12 @@ public class GBPTree<KEY,VALUE> implements Closeable
      */
     private final TreeNode<KEY,VALUE> bTreeNode;
 
+    /**
+     * Creates {@link TreeNode} instances of the format of this tree. Instances keep scratch state for writing,
+     * so each {@link ParallelWriter} gets its own.
+     */
+    private final TreeNodeSelector.Factory treeNodeFormat;
+
     /**
      * A free-list of released ids. Acquiring new ids involves first trying out the free-list and then,
      * as a fall-back allocate a new id at the end of the store.
@@ -319,6 +326,11 @@ public class GBPTree<KEY,VALUE> implements Closeable
      */
     private final GBPTreeLock lock = new GBPTreeLock();
 
+    /**
+     * Coordinates {@link #parallelWriter() parallel writers}, which as a group hold the writer part of {@link #lock}.
+     */
+    private final ParallelWriterCoordination parallelWriters = new ParallelWriterCoordination( lock );
+
     /**
      * Page size, i.e. tree node size, of the tree nodes in this tree. The page size is determined on
      * tree creation, stored in meta page and read when opening tree later.
@@ -491,6 +503,7 @@ public class GBPTree<KEY,VALUE> implements Closeable
                 meta.verify( layout );
                 format = TreeNodeSelector.selectByFormat( meta.getFormatIdentifier(), meta.getFormatVersion() );
             }
+            this.treeNodeFormat = format;
             this.bTreeNode = format.create( pageSize, layout );
             this.freeList = new FreeListIdProvider( pagedFile, pageSize, rootId, FreeListIdProvider.NO_MONITOR );
             this.writer = new SingleWriter( new InternalTreeLogic<>( freeList, bTreeNode, layout, monitor ) );
@@ -1064,6 +1077,40 @@ public class GBPTree<KEY,VALUE> implements Closeable
         return writer;
     }
 
+    /**
+     * Use default value for ratioToKeepInLeftOnSplit
+     * @see GBPTree#parallelWriter(double)
+     */
+    public Writer<KEY,VALUE> parallelWriter() throws IOException
+    {
+        return parallelWriter( InternalTreeLogic.DEFAULT_SPLIT_RATIO );
+    }
+
+    /**
+     * Returns a {@link Writer} able to modify the index concurrently with other parallel writers.
+     * After usage the returned writer must be closed, typically by using try-with-resource clause.
+     * <p>
+     * Any number of parallel writers can be open at the same time, each used by one thread. Changes that only affect
+     * a single leaf are made concurrently, whereas changes to the structure of the tree, i.e. splits, merges and
+     * copying of stable tree nodes, are made by one writer at a time. Parallel writers exclude the
+     * {@link #writer() single writer} and {@link #checkpoint(IOLimiter) checkpoints} for as long as any of them is open.
+     * <p>
+     * As with the single writer, a {@link ValueMerger} given to a parallel writer is asked at most once per merge.
+     *
+     * @param ratioToKeepInLeftOnSplit Decide how much to keep in left node on split, 0=keep nothing, 0.5=split 50-50, 1=keep everything.
+     * @return a new {@link Writer} for this index. The returned writer must be {@link Writer#close() closed}.
+     * @throws IOException on error accessing the index.
+     */
+    public Writer<KEY,VALUE> parallelWriter( double ratioToKeepInLeftOnSplit ) throws IOException
+    {
+        assertRecoveryCleanSuccessful();
+        ParallelWriter parallelWriter = new ParallelWriter(
+                new InternalTreeLogic<>( freeList, treeNodeFormat.create( pageSize, layout ), layout, monitor ) );
+        parallelWriter.initialize( ratioToKeepInLeftOnSplit );
+        changesSinceLastCheckpoint = true;
+        return parallelWriter;
+    }
+
     private void setRoot( long rootId, long rootGeneration )
     {
         this.root = new Root( rootId, rootGeneration );
@@ -1227,15 +1274,15 @@ public class GBPTree<KEY,VALUE> implements Closeable
          * guard so that only one writer ever exist.
          */
         private final AtomicBoolean writerTaken = new AtomicBoolean();
-        private final InternalTreeLogic<KEY,VALUE> treeLogic;
+        final InternalTreeLogic<KEY,VALUE> treeLogic;
         private final StructurePropagation<KEY> structurePropagation;
-        private PageCursor cursor;
+        PageCursor cursor;
 
         // Writer can't live past a checkpoint because of the mutex with checkpoint,
         // therefore safe to locally cache these generation fields from the volatile generation in the tree
-        private long stableGeneration;
-        private long unstableGeneration;
-        private double ratioToKeepInLeftOnSplit;
+        long stableGeneration;
+        long unstableGeneration;
+        double ratioToKeepInLeftOnSplit;
 
         SingleWriter( InternalTreeLogic<KEY,VALUE> treeLogic )
         {
@@ -1274,7 +1321,7 @@ public class GBPTree<KEY,VALUE> implements Closeable
             boolean success = false;
             try
             {
-                lock.writerLock();
+                writerLock();
                 cursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK );
                 stableGeneration = stableGeneration( generation );
                 unstableGeneration = unstableGeneration( generation );
@@ -1393,6 +1440,16 @@ public class GBPTree<KEY,VALUE> implements Closeable
                         ", but writer is already closed." );
             }
             closeCursor();
+            writerUnlock();
+        }
+
+        void writerLock()
+        {
+            lock.writerLock();
+        }
+
+        void writerUnlock()
+        {
             lock.writerUnlock();
         }
 
@@ -1406,6 +1463,185 @@ public class GBPTree<KEY,VALUE> implements Closeable
         }
     }
 
+    /**
+     * A {@link Writer} which makes changes concurrently with other parallel writers, coordinated by {@link ParallelWriterCoordination}.
+     * Changes are first tried directly in the leaf, and if that's not possible because the structure of the tree needs to change,
+     * made by the {@link SingleWriter} logic while holding the structure lock exclusively.
+     */
+    private class ParallelWriter extends SingleWriter
+    {
+        private long structureVersion = -1;
+
+        ParallelWriter( InternalTreeLogic<KEY,VALUE> treeLogic )
+        {
+            super( treeLogic );
+        }
+
+        @Override
+        void initialize( double ratioToKeepInLeftOnSplit ) throws IOException
+        {
+            // Other parallel writers may be changing the structure, e.g. creating a successor of the root
+            parallelWriters.beginLeafChange();
+            try
+            {
+                super.initialize( ratioToKeepInLeftOnSplit );
+            }
+            finally
+            {
+                parallelWriters.endLeafChange();
+            }
+        }
+
+        @Override
+        public void merge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger )
+        {
+            InternalTreeLogic.LeafChange change;
+            parallelWriters.beginLeafChange();
+            try
+            {
+                Lock leafLatch = moveToLeaf( key );
+                try
+                {
+                    change = treeLogic.insertInLeafWithoutStructureChange( cursor, key, value, valueMerger, unstableGeneration );
+                }
+                finally
+                {
+                    leafLatch.unlock();
+                }
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                appendTreeInformation( t );
+                throw t;
+            }
+            finally
+            {
+                parallelWriters.endLeafChange();
+            }
+
+            checkOutOfBounds( cursor );
+            if ( change == InternalTreeLogic.LeafChange.STRUCTURE_CHANGE_NEEDED )
+            {
+                parallelWriters.beginStructureChange();
+                try
+                {
+                    moveToRoot();
+                    super.merge( key, value, valueMerger );
+                }
+                catch ( IOException e )
+                {
+                    appendTreeInformation( e );
+                    throw new UncheckedIOException( e );
+                }
+                finally
+                {
+                    parallelWriters.endStructureChange();
+                }
+            }
+        }
+
+        @Override
+        public VALUE remove( KEY key )
+        {
+            VALUE into = layout.newValue();
+            InternalTreeLogic.LeafChange change;
+            parallelWriters.beginLeafChange();
+            try
+            {
+                Lock leafLatch = moveToLeaf( key );
+                try
+                {
+                    change = treeLogic.removeFromLeafWithoutStructureChange( cursor, key, into, unstableGeneration );
+                }
+                finally
+                {
+                    leafLatch.unlock();
+                }
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                appendTreeInformation( t );
+                throw t;
+            }
+            finally
+            {
+                parallelWriters.endLeafChange();
+            }
+
+            checkOutOfBounds( cursor );
+            switch ( change )
+            {
+            case APPLIED:
+                return into;
+            case NOT_FOUND:
+                return null;
+            default:
+                parallelWriters.beginStructureChange();
+                try
+                {
+                    moveToRoot();
+                    return super.remove( key );
+                }
+                catch ( IOException e )
+                {
+                    appendTreeInformation( e );
+                    throw new UncheckedIOException( e );
+                }
+                finally
+                {
+                    parallelWriters.endStructureChange();
+                }
+            }
+        }
+
+        /**
+         * Moves the cursor to the leaf covering the given key and latches it. Must be called while holding the structure
+         * lock shared, so that the path down the tree stays the same until the latch is released.
+         */
+        private Lock moveToLeaf( KEY key ) throws IOException
+        {
+            long currentStructureVersion = parallelWriters.structureVersion();
+            if ( currentStructureVersion != structureVersion )
+            {
+                // The path this writer knows of may no longer exist
+                moveToRoot();
+                structureVersion = currentStructureVersion;
+            }
+            treeLogic.moveToLeaf( cursor, key, stableGeneration, unstableGeneration );
+            Lock leafLatch = parallelWriters.leafLatch( cursor.getCurrentPageId() );
+            leafLatch.lock();
+            return leafLatch;
+        }
+
+        private void moveToRoot() throws IOException
+        {
+            root.goTo( cursor );
+            treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+        }
+
+        @Override
+        void writerLock()
+        {
+            parallelWriters.writerOpened();
+        }
+
+        @Override
+        void writerUnlock()
+        {
+            parallelWriters.writerClosed();
+        }
+    }
+
     public boolean wasDirtyOnStartup()
     {
         return dirtyOnStartup;
@@ -112,6 +112,19 @@ class InternalTreeLogic<KEY,VALUE>
     private int currentLevel = -1;
     private double ratioToKeepInLeftOnSplit;
 
+    /**
+     * Outcome of changing a leaf without changing the structure of the tree.
+     *
+     * @see #insertInLeafWithoutStructureChange(PageCursor, Object, Object, ValueMerger, long)
+     * @see #removeFromLeafWithoutStructureChange(PageCursor, Object, Object, long)
+     */
+    enum LeafChange
+    {
+        APPLIED,
+        NOT_FOUND,
+        STRUCTURE_CHANGE_NEEDED
+    }
+
     /**
      * Keeps information about one level in a path down the tree where the {@link PageCursor} is currently at.
      *
@@ -732,6 +745,117 @@ class InternalTreeLogic<KEY,VALUE>
         return into;
     }
 
+    /**
+     * Moves the cursor to the leaf covering {@code key}, the same leaf that an {@link #insert(PageCursor, StructurePropagation,
+     * Object, Object, ValueMerger, long, long) insert} or {@link #remove(PageCursor, StructurePropagation, Object, Object, long, long)
+     * remove} of that key would change, without changing anything.
+     *
+     * @param cursor {@link PageCursor} pinned to root of tree (if first call since {@link #initialize(PageCursor)})
+     * or at where last insert/remove/move left it.
+     * @param key key to find leaf for.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @throws IOException on cursor failure
+     */
+    void moveToLeaf( PageCursor cursor, KEY key, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        assert cursorIsAtExpectedLocation( cursor );
+        moveToCorrectLeaf( cursor, key, stableGeneration, unstableGeneration );
+    }
+
+    /**
+     * Inserts {@code key} and {@code value} into the leaf the cursor is at, or merges {@code value} into the value of an
+     * existing {@code key}, but only if that can be done without changing the structure of the tree, i.e. without
+     * creating a successor of the leaf and without splitting it. The cursor is expected to be at the leaf
+     * {@link #moveToLeaf(PageCursor, Object, long, long) covering} {@code key}.
+     * <p>
+     * If the structure would need to change then nothing is changed, {@code valueMerger} is not asked to merge values,
+     * and the change is left to {@link #insert(PageCursor, StructurePropagation, Object, Object, ValueMerger, long, long)}.
+     * Merging into an existing key of a dynamic size leaf is always left to the structure changing path since whether or not
+     * the merged value fits is only known after merging.
+     *
+     * @param cursor {@link PageCursor} pinned to the leaf covering {@code key}.
+     * @param key key to be inserted
+     * @param value value to be associated with key
+     * @param valueMerger {@link ValueMerger} for deciding what to do with existing keys
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @return {@link LeafChange#APPLIED} if the change was made, otherwise {@link LeafChange#STRUCTURE_CHANGE_NEEDED}.
+     */
+    LeafChange insertInLeafWithoutStructureChange( PageCursor cursor, KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger,
+            long unstableGeneration )
+    {
+        bTreeNode.validateKeyValueSize( key, value );
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount );
+        int pos = positionOf( search );
+        if ( isHit( search ) )
+        {
+            // Mergers are free to change the new value, so the merger must only be asked once it's certain that the
+            // merged value can be written in place. With dynamic size that depends on the size of the merged value.
+            if ( TreeNode.generation( cursor ) != unstableGeneration || !layout.fixedSize() )
+            {
+                return LeafChange.STRUCTURE_CHANGE_NEEDED;
+            }
+            bTreeNode.valueAt( cursor, readValue, pos );
+            VALUE mergedValue = valueMerger.merge( readKey, key, readValue, value );
+            if ( mergedValue != null && !bTreeNode.setValueAt( cursor, mergedValue, pos ) )
+            {
+                throw new IllegalStateException( "Expected value of fixed size to be possible to overwrite in place" );
+            }
+            return LeafChange.APPLIED;
+        }
+
+        if ( TreeNode.generation( cursor ) != unstableGeneration )
+        {
+            return LeafChange.STRUCTURE_CHANGE_NEEDED;
+        }
+        Overflow overflow = bTreeNode.leafOverflow( cursor, keyCount, key, value );
+        if ( overflow == YES )
+        {
+            return LeafChange.STRUCTURE_CHANGE_NEEDED;
+        }
+        if ( overflow == NO_NEED_DEFRAG )
+        {
+            bTreeNode.defragmentLeaf( cursor );
+        }
+        bTreeNode.insertKeyValueAt( cursor, key, value, pos, keyCount );
+        TreeNode.setKeyCount( cursor, keyCount + 1 );
+        return LeafChange.APPLIED;
+    }
+
+    /**
+     * Removes {@code key} from the leaf the cursor is at, but only if that can be done without changing the structure
+     * of the tree, i.e. without creating a successor of the leaf and without the leaf underflowing. The cursor is
+     * expected to be at the leaf {@link #moveToLeaf(PageCursor, Object, long, long) covering} {@code key}.
+     * <p>
+     * If the structure would need to change then nothing is changed and the removal is left to
+     * {@link #remove(PageCursor, StructurePropagation, Object, Object, long, long)}.
+     *
+     * @param cursor {@link PageCursor} pinned to the leaf covering {@code key}.
+     * @param key key to be removed
+     * @param into {@code VALUE} instance to write removed value to
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @return {@link LeafChange#APPLIED} if the key was removed, {@link LeafChange#NOT_FOUND} if the key doesn't exist,
+     * otherwise {@link LeafChange#STRUCTURE_CHANGE_NEEDED}.
+     */
+    LeafChange removeFromLeafWithoutStructureChange( PageCursor cursor, KEY key, VALUE into, long unstableGeneration )
+    {
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount );
+        if ( !isHit( search ) )
+        {
+            return LeafChange.NOT_FOUND;
+        }
+
+        int pos = positionOf( search );
+        if ( TreeNode.generation( cursor ) != unstableGeneration || bTreeNode.leafUnderflowOnRemove( cursor, pos, keyCount ) )
+        {
+            return LeafChange.STRUCTURE_CHANGE_NEEDED;
+        }
+        simplyRemoveFromLeaf( cursor, into, keyCount, pos );
+        return LeafChange.APPLIED;
+    }
+
     private void handleStructureChanges( PageCursor cursor, StructurePropagation<KEY> structurePropagation,
             long stableGeneration, long unstableGeneration ) throws IOException
     {
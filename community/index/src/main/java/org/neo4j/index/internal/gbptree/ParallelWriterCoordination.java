@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Coordinates the {@link GBPTree#parallelWriter() parallel writers} of a tree.
+ * <p>
+ * As a group, parallel writers hold the writer lock of the tree, which keeps out the single writer and checkpoints
+ * for as long as any parallel writer is open. Amongst themselves they coordinate using a structure lock and leaf latches:
+ * <ul>
+ *     <li>A change that can be made in a leaf alone, i.e. one that doesn't create a successor of the leaf,
+ *     nor splits or underflows it, is made while holding the structure lock shared and the latch of that leaf.
+ *     Any number of such changes can be made concurrently, as long as they are in different leaves.</li>
+ *     <li>Any other change is made while holding the structure lock exclusively, exactly like the single writer
+ *     would have made it. This is also what keeps the generation-safe pointers and successors working the same way
+ *     regardless of how many writers there are.</li>
+ * </ul>
+ * Leaf latches are striped on tree node id, so unrelated leaves may share a latch.
+ */
+class ParallelWriterCoordination
+{
+    private static final int LEAF_LATCH_STRIPES = 64;
+
+    private final GBPTreeLock lock;
+    private final ReentrantReadWriteLock structureLock = new ReentrantReadWriteLock();
+    private final Lock[] leafLatches = new Lock[LEAF_LATCH_STRIPES];
+    private volatile long structureVersion;
+    private int openWriters;
+
+    ParallelWriterCoordination( GBPTreeLock lock )
+    {
+        this.lock = lock;
+        for ( int i = 0; i < leafLatches.length; i++ )
+        {
+            leafLatches[i] = new ReentrantLock();
+        }
+    }
+
+    synchronized void writerOpened()
+    {
+        if ( openWriters++ == 0 )
+        {
+            lock.writerLock();
+        }
+    }
+
+    synchronized void writerClosed()
+    {
+        if ( --openWriters == 0 )
+        {
+            lock.writerUnlock();
+        }
+    }
+
+    void beginLeafChange()
+    {
+        structureLock.readLock().lock();
+    }
+
+    void endLeafChange()
+    {
+        structureLock.readLock().unlock();
+    }
+
+    void beginStructureChange()
+    {
+        structureLock.writeLock().lock();
+    }
+
+    @SuppressWarnings( "NonAtomicOperationOnVolatileField" )
+    void endStructureChange()
+    {
+        // Incremented while holding the structure lock exclusively, only read while holding it shared
+        structureVersion++;
+        structureLock.writeLock().unlock();
+    }
+
+    /**
+     * @return a number that changes every time the structure of the tree may have changed. Writers that have seen the
+     * same version before can keep using what they know about the path down the tree.
+     */
+    long structureVersion()
+    {
+        return structureVersion;
+    }
+
+    Lock leafLatch( long treeNodeId )
+    {
+        return leafLatches[(int) (treeNodeId & (LEAF_LATCH_STRIPES - 1))];
+    }
+}
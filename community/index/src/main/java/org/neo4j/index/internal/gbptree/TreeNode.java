@@ -342,6 +342,12 @@ abstract class TreeNode<KEY,VALUE>
 
     abstract boolean leafUnderflow( PageCursor cursor, int keyCount );
 
+    /**
+     * Will leaf underflow if removing the key and value at {@code pos}?
+     * @return true if leaf will underflow, else false.
+     */
+    abstract boolean leafUnderflowOnRemove( PageCursor cursor, int pos, int keyCount );
+
     /**
      * How do we best rebalance left and right leaf?
      * Can we move keys from underflowing left to right so that none of them underflow?
@@ -590,6 +590,22 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return availableSpace > halfSpace;
     }
 
+    @Override
+    boolean leafUnderflowOnRemove( PageCursor cursor, int pos, int keyCount )
+    {
+        placeCursorAtActualKey( cursor, pos, LEAF );
+        long keyValueSize = readKeyValueSize( cursor );
+        int keySize = extractKeySize( keyValueSize );
+        int valueSize = extractValueSize( keyValueSize );
+
+        // Removing a key and value turns its space into dead space and frees up its slot in the offset array
+        int allocSpace = getAllocSpace( cursor, keyCount - 1, LEAF );
+        int deadSpace = getDeadSpace( cursor ) + keySize + valueSize + getOverhead( keySize, valueSize );
+        int availableSpace = allocSpace + deadSpace;
+
+        return availableSpace > halfSpace;
+    }
+
     @Override
     int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
     {
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.test.Race;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static java.util.concurrent.CompletableFuture.runAsync;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+
+@ExtendWith( TestDirectoryExtension.class )
+class GBPTreeParallelWriterTest
+{
+    private static final int THREADS = 8;
+    private static final int KEYS_PER_THREAD = 5_000;
+
+    @Inject
+    TestDirectory directory;
+    private PageCache pageCache;
+    private ThreadPoolJobScheduler jobScheduler;
+
+    @BeforeEach
+    void createPageCache()
+    {
+        SingleFilePageSwapperFactory factory = new SingleFilePageSwapperFactory();
+        factory.open( new DefaultFileSystemAbstraction(), Configuration.EMPTY );
+        MemoryAllocator mman = MemoryAllocator.createAllocator( "8 MiB", new LocalMemoryTracker() );
+        jobScheduler = new ThreadPoolJobScheduler();
+        pageCache = new MuninnPageCache( factory, mman, 256, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL, EMPTY, jobScheduler );
+    }
+
+    @AfterEach
+    void tearDownPageCache()
+    {
+        pageCache.close();
+        jobScheduler.close();
+    }
+
+    @Test
+    void shouldInsertAndRemoveConcurrentlyWithFixedSize() throws Throwable
+    {
+        shouldInsertAndRemoveConcurrently( true );
+    }
+
+    @Test
+    void shouldInsertAndRemoveConcurrentlyWithDynamicSize() throws Throwable
+    {
+        shouldInsertAndRemoveConcurrently( false );
+    }
+
+    private void shouldInsertAndRemoveConcurrently( boolean fixedSize ) throws Throwable
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( fixedSize ).build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // when inserting interleaved keys from all threads
+            raceWriters( tree, ( writer, key ) -> writer.put( layout.key( key ), layout.value( key ) ) );
+            // and checkpointing, so that the following changes need to copy the now stable tree nodes
+            tree.checkpoint( IOLimiter.UNLIMITED );
+            // and removing every third key from all threads
+            raceWriters( tree, ( writer, key ) ->
+            {
+                if ( key % 3 == 0 )
+                {
+                    MutableLong removed = writer.remove( layout.key( key ) );
+                    assertNotNull( removed );
+                    assertEquals( key, removed.longValue() );
+                    assertNull( writer.remove( layout.key( key ) ) );
+                }
+            } );
+
+            // then
+            assertTrue( tree.consistencyCheck() );
+            long count = 0;
+            long previousKey = -1;
+            try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = tree.seek( layout.key( 0 ), layout.key( Long.MAX_VALUE ) ) )
+            {
+                while ( seek.next() )
+                {
+                    long key = seek.get().key().longValue();
+                    assertTrue( key > previousKey );
+                    assertNotEquals( 0, key % 3 );
+                    assertEquals( key, seek.get().value().longValue() );
+                    previousKey = key;
+                    count++;
+                }
+            }
+            long totalKeys = (long) THREADS * KEYS_PER_THREAD;
+            assertEquals( totalKeys - (totalKeys + 2) / 3, count );
+        }
+    }
+
+    @Test
+    void shouldExcludeSingleWriterWhileParallelWritersAreOpen() throws Exception
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // given
+            Writer<MutableLong,MutableLong> first = tree.parallelWriter();
+            Writer<MutableLong,MutableLong> second = tree.parallelWriter();
+
+            // when
+            Future<Void> singleWriter = runAsync( () ->
+            {
+                try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+                {
+                    writer.put( layout.key( 1 ), layout.value( 1 ) );
+                }
+                catch ( IOException e )
+                {
+                    throw new RuntimeException( e );
+                }
+            } );
+
+            // then
+            assertThrows( TimeoutException.class, () -> singleWriter.get( 100, TimeUnit.MILLISECONDS ) );
+            first.close();
+            assertThrows( TimeoutException.class, () -> singleWriter.get( 100, TimeUnit.MILLISECONDS ) );
+            second.close();
+            singleWriter.get( 10, TimeUnit.SECONDS );
+        }
+    }
+
+    @Test
+    void shouldMergeOnceWhenCopyingStableLeaves() throws Throwable
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+        ValueMerger<MutableLong,MutableLong> addValues = ( existingKey, newKey, existingValue, newValue ) ->
+        {
+            newValue.add( existingValue.longValue() );
+            return newValue;
+        };
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // given
+            raceWriters( tree, ( writer, key ) -> writer.put( layout.key( key ), layout.value( 1 ) ) );
+            // so that the following merges need to create successors of the leaves
+            tree.checkpoint( IOLimiter.UNLIMITED );
+
+            // when
+            raceWriters( tree, ( writer, key ) -> writer.merge( layout.key( key ), layout.value( 10 ), addValues ) );
+
+            // then
+            assertTrue( tree.consistencyCheck() );
+            long count = 0;
+            try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = tree.seek( layout.key( 0 ), layout.key( Long.MAX_VALUE ) ) )
+            {
+                while ( seek.next() )
+                {
+                    assertEquals( 11, seek.get().value().longValue() );
+                    count++;
+                }
+            }
+            assertEquals( (long) THREADS * KEYS_PER_THREAD, count );
+        }
+    }
+
+    @Test
+    void shouldMergeOnceWhenMergedValueForcesSplit() throws Throwable
+    {
+        SimpleByteArrayLayout layout = new SimpleByteArrayLayout();
+        ValueMerger<RawBytes,RawBytes> appendValues = ( existingKey, newKey, existingValue, newValue ) ->
+        {
+            byte[] appended = Arrays.copyOf( existingValue.bytes, existingValue.bytes.length + newValue.bytes.length );
+            System.arraycopy( newValue.bytes, 0, appended, existingValue.bytes.length, newValue.bytes.length );
+            newValue.bytes = appended;
+            return newValue;
+        };
+        int keyCount = 2_000;
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // given leaves filled up with keys
+            try ( Writer<RawBytes,RawBytes> writer = tree.parallelWriter() )
+            {
+                for ( int key = 0; key < keyCount; key++ )
+                {
+                    writer.put( layout.key( key ), value( 1 ) );
+                }
+            }
+
+            // when growing every value, which will have the leaves split
+            Race race = new Race();
+            for ( int i = 0; i < THREADS; i++ )
+            {
+                int thread = i;
+                race.addContestant( Race.throwing( () ->
+                {
+                    try ( Writer<RawBytes,RawBytes> writer = tree.parallelWriter() )
+                    {
+                        for ( int key = thread; key < keyCount; key += THREADS )
+                        {
+                            writer.merge( layout.key( key ), value( 2 ), appendValues );
+                        }
+                    }
+                } ) );
+            }
+            race.go();
+
+            // then each value has been appended to exactly once
+            assertTrue( tree.consistencyCheck() );
+            long count = 0;
+            try ( RawCursor<Hit<RawBytes,RawBytes>,IOException> seek = tree.seek( layout.key( 0 ), layout.key( Long.MAX_VALUE ) ) )
+            {
+                while ( seek.next() )
+                {
+                    byte[] bytes = seek.get().value().bytes;
+                    assertEquals( 2 * Long.BYTES, bytes.length );
+                    assertEquals( 1, bytes[0] );
+                    assertEquals( 2, bytes[Long.BYTES] );
+                    count++;
+                }
+            }
+            assertEquals( keyCount, count );
+        }
+    }
+
+    private static RawBytes value( int content )
+    {
+        RawBytes value = new RawBytes();
+        value.bytes = new byte[Long.BYTES];
+        Arrays.fill( value.bytes, (byte) content );
+        return value;
+    }
+
+    private static void raceWriters( GBPTree<MutableLong,MutableLong> tree, KeyWork work ) throws Throwable
+    {
+        Race race = new Race();
+        for ( int i = 0; i < THREADS; i++ )
+        {
+            int thread = i;
+            race.addContestant( Race.throwing( () ->
+            {
+                try ( Writer<MutableLong,MutableLong> writer = tree.parallelWriter() )
+                {
+                    for ( int k = 0; k < KEYS_PER_THREAD; k++ )
+                    {
+                        work.apply( writer, (long) k * THREADS + thread );
+                    }
+                }
+            } ) );
+        }
+        race.go();
+    }
+
+    private interface KeyWork
+    {
+        void apply( Writer<MutableLong,MutableLong> writer, long key ) throws IOException;
+    }
+}
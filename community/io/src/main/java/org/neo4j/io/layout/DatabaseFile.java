@@ -70,10 +70,13 @@ public enum DatabaseFile
     COUNTS_STORES( false, DatabaseFileNames.COUNTS_STORE_A, DatabaseFileNames.COUNTS_STORE_B ),
     COUNTS_STORE_A( false, DatabaseFileNames.COUNTS_STORE_A ),
     COUNTS_STORE_B( false, DatabaseFileNames.COUNTS_STORE_B ),
+    COUNTS_STORE( false, DatabaseFileNames.COUNTS_STORE ),
 
     METADATA_STORE( DatabaseFileNames.METADATA_STORE ),
 
-    LABEL_SCAN_STORE( false, DatabaseFileNames.LABEL_SCAN_STORE );
+    LABEL_SCAN_STORE( false, DatabaseFileNames.LABEL_SCAN_STORE ),
+
+    RELATIONSHIP_TYPE_SCAN_STORE( false, DatabaseFileNames.RELATIONSHIP_TYPE_SCAN_STORE );
 
     private final List<String> names;
     private final boolean hasIdFile;
@@ -109,6 +109,17 @@ public interface PageCache extends AutoCloseable
      */
     void flushAndForce( IOLimiter limiter ) throws IOException;
 
+    /**
+     * Write out all dirty pages, in file page order, but without forcing them to the storage device.
+     * <p>
+     * This is a way of trickling dirty pages out ahead of a later {@link #flushAndForce(IOLimiter)}, which will then
+     * have less left to do.
+     *
+     * @param limiter The {@link IOLimiter} that determines if pauses or sleeps should be injected into the flushing
+     * process to keep the IO rate down.
+     */
+    void flush( IOLimiter limiter ) throws IOException;
+
     /**
      * Close the page cache to prevent any future mapping of files.
      * This also releases any internal resources, including the {@link PageSwapperFactory} through its
@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+/**
+ * A {@link SingleFilePageSwapper} that does its vectored reads and writes through an {@link AsynchronousFileChannel}.
+ * <p>
+ * Instead of one blocking positional transfer for the whole vector, every page of a vectored read or write is submitted
+ * as its own I/O, and the call then waits for all of them to complete. This way the evictor, the flusher and page faults
+ * reading ahead keep many I/Os in flight at once, which fast storage devices need to reach their throughput.
+ * Single page reads and writes, forcing, truncation and locking are left to the {@link SingleFilePageSwapper}.
+ * <p>
+ * Unlike the channels of {@link SingleFilePageSwapper}, the asynchronous channel is not closed by thread interrupts.
+ * Waiting for the submitted I/Os is not interruptible, but the interrupted status is retained.
+ */
+public class AsyncFilePageSwapper extends SingleFilePageSwapper
+{
+    private final int filePageSize;
+    private final AsynchronousFileChannel asyncChannel;
+
+    AsyncFilePageSwapper( File file, FileSystemAbstraction fs, int filePageSize, PageEvictionCallback onEviction, boolean noChannelStriping,
+            ExecutorService ioExecutor ) throws IOException
+    {
+        super( file, fs, filePageSize, onEviction, noChannelStriping );
+        this.filePageSize = filePageSize;
+        try
+        {
+            this.asyncChannel = AsynchronousFileChannel.open( file.toPath(), EnumSet.of( StandardOpenOption.READ, StandardOpenOption.WRITE ),
+                    ioExecutor );
+        }
+        catch ( IOException e )
+        {
+            try
+            {
+                super.close();
+            }
+            catch ( IOException closeException )
+            {
+                e.addSuppressed( closeException );
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public long read( long startFilePageId, long[] bufferAddresses, int bufferSize, int arrayOffset, int length ) throws IOException
+    {
+        long fileSize = getCurrentFileSize();
+        @SuppressWarnings( "unchecked" )
+        Future<Integer>[] reads = new Future[length];
+        ByteBuffer[] buffers = new ByteBuffer[length];
+        try
+        {
+            for ( int i = 0; i < length; i++ )
+            {
+                long fileOffset = pageIdToPosition( startFilePageId + i );
+                if ( fileOffset < fileSize )
+                {
+                    buffers[i] = buffer( bufferAddresses[arrayOffset + i] );
+                    reads[i] = asyncChannel.read( buffers[i], fileOffset );
+                }
+            }
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            awaitSubmitted( reads );
+            throw e;
+        }
+
+        long bytesRead = 0;
+        IOException failure = null;
+        for ( int i = 0; i < length; i++ )
+        {
+            long address = bufferAddresses[arrayOffset + i];
+            int pageBytesRead = 0;
+            if ( reads[i] != null )
+            {
+                try
+                {
+                    pageBytesRead = completeRead( reads[i], buffers[i], pageIdToPosition( startFilePageId + i ) );
+                }
+                catch ( IOException e )
+                {
+                    // Keep waiting for the other reads, the buffers must not be written to once we return
+                    failure = chain( failure, e );
+                }
+            }
+            UnsafeUtil.setMemory( address + pageBytesRead, filePageSize - pageBytesRead, MuninnPageCache.ZERO_BYTE );
+            bytesRead += pageBytesRead;
+        }
+        if ( failure != null )
+        {
+            throw failure;
+        }
+        return bytesRead;
+    }
+
+    @Override
+    public long write( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length ) throws IOException
+    {
+        increaseFileSizeTo( pageIdToPosition( startFilePageId + length ) );
+        @SuppressWarnings( "unchecked" )
+        Future<Integer>[] writes = new Future[length];
+        ByteBuffer[] buffers = new ByteBuffer[length];
+        try
+        {
+            for ( int i = 0; i < length; i++ )
+            {
+                buffers[i] = buffer( bufferAddresses[arrayOffset + i] );
+                writes[i] = asyncChannel.write( buffers[i], pageIdToPosition( startFilePageId + i ) );
+            }
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            awaitSubmitted( writes );
+            throw e;
+        }
+
+        long bytesWritten = 0;
+        IOException failure = null;
+        for ( int i = 0; i < length; i++ )
+        {
+            try
+            {
+                bytesWritten += completeWrite( writes[i], buffers[i], pageIdToPosition( startFilePageId + i ) );
+            }
+            catch ( IOException e )
+            {
+                failure = chain( failure, e );
+            }
+        }
+        if ( failure != null )
+        {
+            throw failure;
+        }
+        return bytesWritten;
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        try
+        {
+            asyncChannel.close();
+        }
+        finally
+        {
+            super.close();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "AsyncFilePageSwapper{" +
+                "filePageSize=" + filePageSize +
+                ", file=" + file() +
+                '}';
+    }
+
+    private ByteBuffer buffer( long address ) throws IOException
+    {
+        try
+        {
+            return UnsafeUtil.newDirectByteBuffer( address, filePageSize );
+        }
+        catch ( Exception e )
+        {
+            throw new IOException( e );
+        }
+    }
+
+    /**
+     * Waits for the read of a page, continuing it if it was short. Returns the number of bytes read, which is less than
+     * the page size only if the end of the file was reached.
+     */
+    private int completeRead( Future<Integer> read, ByteBuffer buffer, long fileOffset ) throws IOException
+    {
+        int readTotal = 0;
+        int bytesRead = await( read );
+        while ( bytesRead != -1 && (readTotal += bytesRead) < filePageSize )
+        {
+            bytesRead = await( asyncChannel.read( buffer, fileOffset + readTotal ) );
+        }
+        return readTotal;
+    }
+
+    private int completeWrite( Future<Integer> write, ByteBuffer buffer, long fileOffset ) throws IOException
+    {
+        int writtenTotal = await( write );
+        while ( writtenTotal < filePageSize )
+        {
+            writtenTotal += await( asyncChannel.write( buffer, fileOffset + writtenTotal ) );
+        }
+        return writtenTotal;
+    }
+
+    private static int await( Future<Integer> io ) throws IOException
+    {
+        boolean interrupted = false;
+        try
+        {
+            while ( true )
+            {
+                try
+                {
+                    return io.get();
+                }
+                catch ( InterruptedException e )
+                {
+                    // The I/O can not be abandoned half way, since the page memory is still being transferred
+                    interrupted = true;
+                }
+                catch ( ExecutionException e )
+                {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof IOException ? (IOException) cause : new IOException( cause );
+                }
+            }
+        }
+        finally
+        {
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Waits for the I/Os submitted before a submission failed, since they still use the page memory.
+     */
+    private static void awaitSubmitted( Future<Integer>[] ios )
+    {
+        for ( Future<Integer> io : ios )
+        {
+            if ( io != null )
+            {
+                try
+                {
+                    await( io );
+                }
+                catch ( IOException ignore )
+                {
+                    // The submission failure is what gets reported
+                }
+            }
+        }
+    }
+
+    private static IOException chain( IOException first, IOException next )
+    {
+        if ( first == null )
+        {
+            return next;
+        }
+        first.addSuppressed( next );
+        return first;
+    }
+}
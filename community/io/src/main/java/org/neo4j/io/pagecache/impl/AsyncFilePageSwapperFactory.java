@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+
+/**
+ * A factory for {@link AsyncFilePageSwapper} instances, selected by configuring the page cache swapper as "async".
+ * <p>
+ * All swappers share one pool of I/O threads, whose size bounds the number of I/Os in flight. Asynchronous channels
+ * can only be opened on the real file system, so for any other file system plain {@link SingleFilePageSwapper
+ * SingleFilePageSwappers} are created instead.
+ *
+ * @see org.neo4j.io.pagecache.impl.AsyncFilePageSwapper
+ */
+public class AsyncFilePageSwapperFactory implements PageSwapperFactory
+{
+    private static final int ioThreads = Integer.getInteger(
+            "org.neo4j.io.pagecache.impl.AsyncFilePageSwapper.ioThreads", 4 * Runtime.getRuntime().availableProcessors() );
+
+    private FileSystemAbstraction fs;
+    private ExecutorService ioExecutor;
+
+    @Override
+    public void open( FileSystemAbstraction fs, Configuration config )
+    {
+        this.fs = fs;
+    }
+
+    @Override
+    public PageSwapper createPageSwapper(
+            File file,
+            int filePageSize,
+            PageEvictionCallback onEviction,
+            boolean createIfNotExist,
+            boolean noChannelStriping ) throws IOException
+    {
+        if ( !fs.fileExists( file ) )
+        {
+            if ( createIfNotExist )
+            {
+                fs.create( file ).close();
+            }
+            else
+            {
+                throw new NoSuchFileException( file.getPath(), null, "Cannot map non-existing file" );
+            }
+        }
+        if ( fs instanceof DefaultFileSystemAbstraction )
+        {
+            return new AsyncFilePageSwapper( file, fs, filePageSize, onEviction, noChannelStriping, ioExecutor() );
+        }
+        return new SingleFilePageSwapper( file, fs, filePageSize, onEviction, noChannelStriping );
+    }
+
+    private synchronized ExecutorService ioExecutor()
+    {
+        if ( ioExecutor == null )
+        {
+            AtomicInteger threadCounter = new AtomicInteger();
+            ioExecutor = Executors.newFixedThreadPool( ioThreads, runnable ->
+            {
+                Thread thread = new Thread( runnable, "PageCacheAsyncIO-" + threadCounter.incrementAndGet() );
+                thread.setDaemon( true );
+                return thread;
+            } );
+        }
+        return ioExecutor;
+    }
+
+    @Override
+    public void syncDevice()
+    {
+        // Nothing do to, since we `fsync` files individually in `force()`.
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        if ( ioExecutor != null )
+        {
+            ioExecutor.shutdown();
+            ioExecutor = null;
+        }
+    }
+
+    @Override
+    public String implementationName()
+    {
+        return "async";
+    }
+
+    @Override
+    public long getRequiredBufferAlignment()
+    {
+        return 1;
+    }
+}
@@ -185,7 +185,7 @@ public class SingleFilePageSwapper implements PageSwapper
                 && StoreFileChannelUnwrapper.unwrap( channels[0] ).getClass() == sun.nio.ch.FileChannelImpl.class;
     }
 
-    private void increaseFileSizeTo( long newFileSize )
+    void increaseFileSizeTo( long newFileSize )
     {
         long currentFileSize;
         do
@@ -196,7 +196,7 @@ public class SingleFilePageSwapper implements PageSwapper
                 this, fileSizeOffset, currentFileSize, newFileSize ) );
     }
 
-    private long getCurrentFileSize()
+    long getCurrentFileSize()
     {
         return UnsafeUtil.getLongVolatile( this, fileSizeOffset );
     }
@@ -610,7 +610,7 @@ public class SingleFilePageSwapper implements PageSwapper
         return file;
     }
 
-    private long pageIdToPosition( long pageId )
+    long pageIdToPosition( long pageId )
     {
         return filePageSize * pageId;
     }
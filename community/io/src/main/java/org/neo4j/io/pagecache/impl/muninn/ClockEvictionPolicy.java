@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The classic clock-sweep: a page is evicted when the clock arm has decremented its usage counter down to zero.
+ * Every pin increments the usage counter, up to a maximum of 4.
+ */
+final class ClockEvictionPolicy extends EvictionPolicy
+{
+    private final PageList pages;
+
+    ClockEvictionPolicy( PageList pages )
+    {
+        this.pages = pages;
+    }
+
+    @Override
+    void pageFaulted( long pageRef, int swapperId, long filePageId )
+    {
+    }
+
+    @Override
+    boolean shouldEvict( long pageRef )
+    {
+        return pages.decrementUsage( pageRef );
+    }
+
+    @Override
+    void pageEvicted( long pageRef )
+    {
+    }
+}
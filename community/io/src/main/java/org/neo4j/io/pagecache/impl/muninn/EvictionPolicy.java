@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+
+/**
+ * The eviction policy decides which of the loaded pages the page cache should evict, when it needs free pages for
+ * page faults. Pages are visited in clock order, by the background eviction thread and by page faulting threads
+ * that do cooperative eviction, and the policy is told about every page that is faulted in and every page that is
+ * evicted.
+ * <p>
+ * The policy is selected with the {@code MuninnPageCache.evictionPolicy} feature toggle, which is either
+ * {@value #CLOCK} (the default) or {@value #SCAN_RESISTANT}.
+ *
+ * @see ClockEvictionPolicy
+ * @see ScanResistantEvictionPolicy
+ */
+abstract class EvictionPolicy
+{
+    static final String CLOCK = "clock";
+    static final String SCAN_RESISTANT = "scan-resistant";
+
+    static EvictionPolicy create( String name, PageList pages, PageCacheTracer tracer )
+    {
+        switch ( name )
+        {
+        case CLOCK:
+            return new ClockEvictionPolicy( pages );
+        case SCAN_RESISTANT:
+            return new ScanResistantEvictionPolicy( pages, tracer );
+        default:
+            throw new IllegalArgumentException( "Unknown page cache eviction policy '" + name + "'. Valid policies are '" +
+                    CLOCK + "' and '" + SCAN_RESISTANT + "'." );
+        }
+    }
+
+    /**
+     * A file page has been faulted into the given page. This is called by the faulting thread, while it still holds
+     * the exclusive lock on the page.
+     */
+    abstract void pageFaulted( long pageRef, int swapperId, long filePageId );
+
+    /**
+     * The clock arm has reached the given loaded page.
+     *
+     * @return {@code true} if the page should be evicted, if it can be locked.
+     */
+    abstract boolean shouldEvict( long pageRef );
+
+    /**
+     * The given page has been evicted. This is called while the page is still exclusively locked by the evicting
+     * thread, and before it is handed out as a free page.
+     */
+    abstract void pageEvicted( long pageRef );
+}
@@ -57,6 +57,7 @@ import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 import static org.neo4j.util.FeatureToggles.flag;
 import static org.neo4j.util.FeatureToggles.getInteger;
+import static org.neo4j.util.FeatureToggles.getString;
 
 /**
  * The Muninn {@link org.neo4j.io.pagecache.PageCache page cache} implementation.
@@ -126,6 +127,10 @@ public class MuninnPageCache implements PageCache
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
             MuninnPageCache.class, "cooperativeEvictionLiveLockThreshold", 100 );
 
+    // The name of the policy that decides which pages to evict. See EvictionPolicy for the available policies.
+    private static final String evictionPolicyName = getString(
+            MuninnPageCache.class, "evictionPolicy", EvictionPolicy.CLOCK );
+
     // This is a pre-allocated constant, so we can throw it without allocating any objects:
     @SuppressWarnings( "ThrowableInstanceNeverThrown" )
     private static final IOException oomException = new IOException(
@@ -158,6 +163,7 @@ public class MuninnPageCache implements PageCache
     private final PageCursorTracerSupplier pageCursorTracerSupplier;
     private final VersionContextSupplier versionContextSupplier;
     final PageList pages;
+    final EvictionPolicy evictionPolicy;
     // All PageCursors are initialised with their pointers pointing to the victim page. This way, we don't have to throw
     // exceptions on bounds checking failures; we can instead return the victim page pointer, and permit the page
     // accesses to take place without fear of segfaulting newly allocated cursors.
@@ -288,6 +294,7 @@ public class MuninnPageCache implements PageCache
         long alignment = swapperFactory.getRequiredBufferAlignment();
         this.victimPage = VictimPageReference.getVictimPage( cachePageSize, memoryTracker );
         this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, alignment );
+        this.evictionPolicy = EvictionPolicy.create( evictionPolicyName, pages, pageCacheTracer );
         this.scheduler = jobScheduler;
 
         setFreelistHead( new AtomicInteger() );
@@ -605,6 +612,25 @@ public class MuninnPageCache implements PageCache
         clearEvictorException();
     }
 
+    @Override
+    public void flush( IOLimiter limiter ) throws IOException
+    {
+        if ( limiter == null )
+        {
+            throw new IllegalArgumentException( "IOLimiter cannot be null" );
+        }
+        List<PagedFile> files = listExistingMappings();
+
+        try ( MajorFlushEvent ignored = pageCacheTracer.beginCacheFlush() )
+        {
+            for ( PagedFile file : files )
+            {
+                flushFile( (MuninnPagedFile) file, limiter, false );
+            }
+        }
+        clearEvictorException();
+    }
+
     private void flushAllPages( List<PagedFile> files, IOLimiter limiter ) throws IOException
     {
         for ( PagedFile file : files )
@@ -648,11 +674,23 @@ public class MuninnPageCache implements PageCache
     }
 
     private void flushFile( MuninnPagedFile muninnPagedFile,  IOLimiter limiter ) throws IOException
+    {
+        flushFile( muninnPagedFile, limiter, true );
+    }
+
+    private void flushFile( MuninnPagedFile muninnPagedFile, IOLimiter limiter, boolean force ) throws IOException
     {
         try ( MajorFlushEvent fileFlush = pageCacheTracer.beginFileFlush( muninnPagedFile.swapper ) )
         {
             FlushEventOpportunity flushOpportunity = fileFlush.flushEventOpportunity();
-            muninnPagedFile.flushAndForceInternal( flushOpportunity, false, limiter );
+            if ( force )
+            {
+                muninnPagedFile.flushAndForceInternal( flushOpportunity, false, limiter );
+            }
+            else
+            {
+                muninnPagedFile.flushInternal( flushOpportunity, limiter );
+            }
         }
         catch ( ClosedChannelException e )
         {
@@ -830,6 +868,52 @@ public class MuninnPageCache implements PageCache
         }
     }
 
+    /**
+     * Grab a page from the freelist, without blocking and without doing any eviction. This is used for speculative
+     * page faults, such as read-ahead, which are not worth waiting for.
+     *
+     * @return an exclusively locked free page, or {@code 0} if the freelist is empty.
+     */
+    long tryGrabFreeAndExclusivelyLockedPage()
+    {
+        for (;;)
+        {
+            Object current = getFreelistHead();
+            if ( current == null )
+            {
+                unparkEvictor();
+                return 0;
+            }
+            else if ( current instanceof AtomicInteger )
+            {
+                int pageCount = pages.getPageCount();
+                AtomicInteger counter = (AtomicInteger) current;
+                int pageId = counter.get();
+                if ( pageId < pageCount && counter.compareAndSet( pageId, pageId + 1 ) )
+                {
+                    return pages.deref( pageId );
+                }
+                if ( pageId >= pageCount )
+                {
+                    compareAndSetFreelistHead( current, null );
+                }
+            }
+            else if ( current instanceof FreePage )
+            {
+                FreePage freePage = (FreePage) current;
+                if ( freePage == shutdownSignal )
+                {
+                    return 0;
+                }
+
+                if ( compareAndSetFreelistHead( freePage, freePage.next ) )
+                {
+                    return freePage.pageRef;
+                }
+            }
+        }
+    }
+
     private long cooperativelyEvict( PageFaultEvent faultEvent ) throws IOException
     {
         int iterations = 0;
@@ -856,13 +940,14 @@ public class MuninnPageCache implements PageCache
             }
 
             pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && evictionPolicy.shouldEvict( pageRef ) )
             {
                 evicted = pages.tryEvict( pageRef, faultEvent );
             }
             clockArm++;
         }
         while ( !evicted );
+        evictionPolicy.pageEvicted( pageRef );
         return pageRef;
     }
 
@@ -915,9 +1000,9 @@ public class MuninnPageCache implements PageCache
     }
 
     /**
-     * Scan through all the pages, one by one, and decrement their usage stamps.
-     * If a usage reaches zero, we try-write-locking it, and if we get that lock,
-     * we evict the page. If we don't, we move on to the next page.
+     * Scan through all the pages, one by one, and ask the eviction policy if they should be evicted.
+     * With the default clock policy, this decrements their usage stamps, and once a usage reaches zero,
+     * we try-write-locking it, and if we get that lock, we evict the page. If we don't, we move on to the next page.
      * Once we have enough free pages, we park our thread. Page-faulting will
      * unpark our thread as needed.
      */
@@ -995,13 +1080,14 @@ public class MuninnPageCache implements PageCache
             }
 
             long pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && evictionPolicy.shouldEvict( pageRef ) )
             {
                 try
                 {
                     pageCountToEvict--;
                     if ( pages.tryEvict( pageRef, evictionRunEvent ) )
                     {
+                        evictionPolicy.pageEvicted( pageRef );
                         clearEvictorException();
                         addFreePageToFreelist( pageRef );
                     }
@@ -1084,6 +1170,7 @@ public class MuninnPageCache implements PageCache
                     {
                         if ( pages.tryEvict( pageRef, evictions ) )
                         {
+                            evictionPolicy.pageEvicted( pageRef );
                             addFreePageToFreelist( pageRef );
                             break;
                         }
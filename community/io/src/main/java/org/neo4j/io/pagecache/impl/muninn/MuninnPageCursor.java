@@ -38,9 +38,11 @@ import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 import static org.neo4j.io.pagecache.PagedFile.PF_EAGER_FLUSH;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
 import static org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.UNMAPPED_TTE;
 import static org.neo4j.util.FeatureToggles.flag;
+import static org.neo4j.util.FeatureToggles.getInteger;
 
 abstract class MuninnPageCursor extends PageCursor
 {
@@ -49,6 +51,12 @@ abstract class MuninnPageCursor extends PageCursor
 
     private static final boolean boundsCheck = flag( MuninnPageCursor.class, "boundsCheck", true );
 
+    /**
+     * The maximum number of pages, including the faulting page itself, that a {@link PagedFile#PF_READ_AHEAD} cursor
+     * will fault in with a single vectored read.
+     */
+    private static final int readAheadPages = getInteger( MuninnPageCursor.class, "readAheadPages", 16 );
+
     // Size of the respective primitive types in bytes.
     private static final int SIZE_OF_BYTE = Byte.BYTES;
     private static final int SIZE_OF_SHORT = Short.BYTES;
@@ -67,6 +75,12 @@ abstract class MuninnPageCursor extends PageCursor
     protected boolean eagerFlush;
     protected boolean noFault;
     protected boolean noGrow;
+    private boolean readAhead;
+    private boolean sequentialPin;
+    private long lastPinnedPageId;
+    private long[] readAheadPageRefs;
+    private long[] readAheadBufferAddresses;
+    private LatchMap.Latch[] readAheadLatches;
     protected long currentPageId;
     protected long nextPageId;
     protected MuninnPageCursor linkedCursor;
@@ -102,6 +116,8 @@ abstract class MuninnPageCursor extends PageCursor
         this.eagerFlush = isFlagRaised( pf_flags, PF_EAGER_FLUSH );
         this.noFault = isFlagRaised( pf_flags, PF_NO_FAULT );
         this.noGrow = noFault | isFlagRaised( pf_flags, PagedFile.PF_NO_GROW );
+        this.readAhead = !noFault && readAheadPages > 1 && isFlagRaised( pf_flags, PF_READ_AHEAD );
+        this.lastPinnedPageId = UNBOUND_PAGE_ID;
     }
 
     private boolean isFlagRaised( int flagSet, int flag )
@@ -265,6 +281,9 @@ abstract class MuninnPageCursor extends PageCursor
     protected void pin( long filePageId, boolean writeLock ) throws IOException
     {
         pinEvent = tracer.beginPin( writeLock, filePageId, swapper );
+        // Read-ahead only kicks in when this cursor is moving forward one page at a time, i.e. when it is scanning
+        sequentialPin = readAhead && lastPinnedPageId != UNBOUND_PAGE_ID && filePageId == lastPinnedPageId + 1;
+        lastPinnedPageId = filePageId;
         int chunkId = MuninnPagedFile.computeChunkId( filePageId );
         // The chunkOffset is the addressing offset into the chunk array object for the relevant array slot. Using
         // this, we can access the array slot with Unsafe.
@@ -387,9 +406,17 @@ abstract class MuninnPageCursor extends PageCursor
             // here, so the unmapping would have already happened. We do this
             // check before page.fault(), because that would otherwise reopen
             // the file channel.
-            assertPagedFileStillMappedAndGetIdOfLastPage();
+            long lastPageId = assertPagedFileStillMappedAndGetIdOfLastPage();
             pagedFile.initBuffer( pageRef );
-            pagedFile.fault( pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent );
+            if ( sequentialPin && filePageId < lastPageId )
+            {
+                faultWithReadAhead( pageRef, filePageId, lastPageId, faultEvent );
+            }
+            else
+            {
+                pagedFile.fault( pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent );
+            }
+            pagedFile.pageFaulted( pageRef, filePageId );
         }
         catch ( Throwable throwable )
         {
@@ -410,6 +437,87 @@ abstract class MuninnPageCursor extends PageCursor
         return pageRef;
     }
 
+    /**
+     * Fault in the given page, along with as many of the directly following pages as we can get without blocking, up to
+     * {@link #readAheadPages} pages in total, using a single vectored read. The following pages are only speculatively
+     * faulted: we stop at the first page that is already mapped, is being faulted by someone else, or for which there
+     * is no free page immediately available. The read-ahead pages are published and unlocked before this method returns,
+     * while the given page is left exclusively locked for the caller to deal with, as with a normal page fault.
+     */
+    private void faultWithReadAhead( long pageRef, long filePageId, long lastPageId, PageFaultEvent faultEvent ) throws IOException
+    {
+        if ( readAheadPageRefs == null )
+        {
+            readAheadPageRefs = new long[readAheadPages];
+            readAheadBufferAddresses = new long[readAheadPages];
+            readAheadLatches = new LatchMap.Latch[readAheadPages];
+        }
+        long[] pageRefs = readAheadPageRefs;
+        LatchMap.Latch[] latches = readAheadLatches;
+        int maxPages = (int) Math.min( readAheadPages, lastPageId - filePageId + 1 );
+        int[][] tt = pagedFile.translationTable;
+        pageRefs[0] = pageRef;
+        int pages = 1;
+        while ( pages < maxPages )
+        {
+            long nextFilePageId = filePageId + pages;
+            int chunkId = MuninnPagedFile.computeChunkId( nextFilePageId );
+            if ( chunkId >= tt.length )
+            {
+                break;
+            }
+            int[] chunk = tt[chunkId];
+            long chunkOffset = MuninnPagedFile.computeChunkOffset( nextFilePageId );
+            if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+            {
+                break;
+            }
+            LatchMap.Latch latch = pagedFile.pageFaultLatches.tryTakeLatch( nextFilePageId );
+            if ( latch == null )
+            {
+                break;
+            }
+            long nextPageRef;
+            if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE ||
+                 (nextPageRef = pagedFile.tryGrabFreeAndExclusivelyLockedPage()) == 0 )
+            {
+                latch.release();
+                break;
+            }
+            pagedFile.initBuffer( nextPageRef );
+            pageRefs[pages] = nextPageRef;
+            latches[pages] = latch;
+            pages++;
+        }
+
+        try
+        {
+            pagedFile.fault( pageRefs, readAheadBufferAddresses, pages, swapper, pagedFile.swapperId, filePageId, faultEvent );
+        }
+        catch ( Throwable throwable )
+        {
+            // The read-ahead pages are not in the translation table, so we just need to let go of them.
+            // They will be considered loaded but unbound, and eventually return to the freelist.
+            for ( int i = 1; i < pages; i++ )
+            {
+                pagedFile.unlockExclusive( pageRefs[i] );
+                latches[i].release();
+                latches[i] = null;
+            }
+            throw throwable;
+        }
+        for ( int i = 1; i < pages; i++ )
+        {
+            long readAheadFilePageId = filePageId + i;
+            int[] chunk = tt[MuninnPagedFile.computeChunkId( readAheadFilePageId )];
+            pagedFile.pageFaulted( pageRefs[i], readAheadFilePageId );
+            UnsafeUtil.putIntVolatile( chunk, MuninnPagedFile.computeChunkOffset( readAheadFilePageId ), pagedFile.toId( pageRefs[i] ) );
+            pagedFile.unlockExclusive( pageRefs[i] );
+            latches[i].release();
+            latches[i] = null;
+        }
+    }
+
     private void abortPageFault( Throwable throwable, int[] chunk, long chunkOffset,
                                  LatchMap.Latch latch,
                                  PageFaultEvent faultEvent )
@@ -349,7 +349,8 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     {
         try
         {
-            doFlushAndForceInternal( flushes, forClosing, limiter );
+            doFlushInternal( flushes, forClosing, limiter );
+            swapper.force();
         }
         catch ( ClosedChannelException e )
         {
@@ -358,7 +359,24 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         }
     }
 
-    private void doFlushAndForceInternal( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter )
+    /**
+     * Write out the dirty pages of this file, like {@link #flushAndForceInternal(FlushEventOpportunity, boolean,
+     * IOLimiter)}, but without forcing the file afterwards.
+     */
+    void flushInternal( FlushEventOpportunity flushes, IOLimiter limiter ) throws IOException
+    {
+        try
+        {
+            doFlushInternal( flushes, false, limiter );
+        }
+        catch ( ClosedChannelException e )
+        {
+            e.addSuppressed( closeStackTrace );
+            throw e;
+        }
+    }
+
+    private void doFlushInternal( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter )
             throws IOException
     {
         // TODO it'd be awesome if, on Linux, we'd call sync_file_range(2) instead of fsync
@@ -437,8 +455,6 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                 limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
             }
         }
-
-        swapper.force();
     }
 
     private void vectoredFlush(
@@ -663,6 +679,24 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         return pageCache.grabFreeAndExclusivelyLockedPage( faultEvent );
     }
 
+    /**
+     * Grab a free page for the purpose of a speculative page fault, without blocking.
+     * @return the free page, or {@code 0} if none are immediately available.
+     */
+    long tryGrabFreeAndExclusivelyLockedPage()
+    {
+        return pageCache.tryGrabFreeAndExclusivelyLockedPage();
+    }
+
+    /**
+     * Tell the eviction policy that the given file page of this file has been faulted into the given page.
+     * Must be called while the page is still exclusively locked by the faulting thread.
+     */
+    void pageFaulted( long pageRef, long filePageId )
+    {
+        pageCache.evictionPolicy.pageFaulted( pageRef, swapperId, filePageId );
+    }
+
     /**
      * Remove the mapping of the given filePageId from the translation table, and return the evicted page object.
      * @param filePageId The id of the file page to evict.
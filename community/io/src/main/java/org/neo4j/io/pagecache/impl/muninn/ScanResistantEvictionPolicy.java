@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A clock-sweep eviction policy that keeps large scans from flushing out the working set, in the spirit of 2Q and
+ * TinyLFU.
+ * <p>
+ * Pages are split into a probationary and a protected part of the cache. A page that is faulted in is admitted on
+ * probation, unless a frequency sketch of recent page faults says that the same file page has been faulted in before,
+ * in which case it was evicted too early and is admitted as protected right away. A probationary page is evicted the
+ * first time the clock arm reaches it, unless it has been pinned again since it was faulted in, in which case it is
+ * promoted to the protected part of the cache. While more than {@code probationPercentage} percent of the cache is on
+ * probation, the clock arm passes over the protected pages without decrementing their usage counters. This way a
+ * scan, which faults in many pages that are each only used once, will mostly compete with itself for free pages.
+ * <p>
+ * The frequency sketch is a count-min sketch of 4-bit counters, which are halved every time ten times as many page
+ * faults as there are pages in the cache have been recorded, so that the admission filter ages with the workload.
+ */
+final class ScanResistantEvictionPolicy extends EvictionPolicy
+{
+    private static final int probationPercentage = getInteger(
+            ScanResistantEvictionPolicy.class, "probationPercentage", 25 );
+
+    private static final int MIN_SKETCH_SIZE = 64;
+    private static final int MAX_SKETCH_SIZE = 1 << 24;
+    private static final long COUNTER_MASK = 0xFL;
+    private static final long HALVING_MASK = 0x7777777777777777L;
+    private static final int MAX_FREQUENCY = 15;
+    private static final int PROMOTION_USAGE = 2;
+
+    private final PageList pages;
+    private final PageCacheTracer tracer;
+    private final AtomicLongArray probation;
+    private final AtomicInteger probationaryPages;
+    private final int probationTarget;
+    private final int pageCount;
+    private final long[] sketch;
+    private final int sketchMask;
+    private final long sampleSize;
+    private final AtomicLong samples;
+
+    // The number of protected pages the clock arm has passed over since it last evicted a probationary page.
+    // If the arm makes a full revolution without finding anything to evict on probation, then the probationary pages
+    // are all locked by someone, and we let the protected pages age to make sure that eviction makes progress.
+    // Only ever updated by the evicting threads, and intentionally racy.
+    private int protectedPagesPassed;
+
+    ScanResistantEvictionPolicy( PageList pages, PageCacheTracer tracer )
+    {
+        this.pages = pages;
+        this.tracer = tracer;
+        this.pageCount = pages.getPageCount();
+        this.probation = new AtomicLongArray( (pageCount + Long.SIZE - 1) / Long.SIZE );
+        this.probationaryPages = new AtomicInteger();
+        this.probationTarget = Math.max( 1, (int) ((long) pageCount * probationPercentage / 100) );
+        int sketchSize = Integer.highestOneBit( Math.min( Math.max( pageCount, MIN_SKETCH_SIZE ), MAX_SKETCH_SIZE ) );
+        this.sketch = new long[sketchSize];
+        this.sketchMask = sketchSize - 1;
+        this.sampleSize = 10L * pageCount;
+        this.samples = new AtomicLong();
+    }
+
+    @Override
+    void pageFaulted( long pageRef, int swapperId, long filePageId )
+    {
+        int frequency = recordFault( swapperId, filePageId );
+        if ( frequency == 0 )
+        {
+            int pageId = pages.toId( pageRef );
+            long mask = 1L << pageId;
+            int index = pageId >>> 6;
+            long word;
+            do
+            {
+                word = probation.get( index );
+            }
+            while ( !probation.compareAndSet( index, word, word | mask ) );
+            if ( (word & mask) == 0 )
+            {
+                probationaryPages.incrementAndGet();
+            }
+            tracer.probationaryFaults( 1 );
+        }
+    }
+
+    @Override
+    boolean shouldEvict( long pageRef )
+    {
+        if ( isOnProbation( pageRef ) )
+        {
+            if ( pages.getUsageCounter( pageRef ) < PROMOTION_USAGE )
+            {
+                protectedPagesPassed = 0;
+                return true;
+            }
+            if ( clearProbation( pageRef ) )
+            {
+                tracer.promotions( 1 );
+            }
+        }
+        else if ( probationaryPages.get() > probationTarget && protectedPagesPassed < pageCount )
+        {
+            protectedPagesPassed++;
+            return false;
+        }
+        return pages.decrementUsage( pageRef );
+    }
+
+    @Override
+    void pageEvicted( long pageRef )
+    {
+        clearProbation( pageRef );
+    }
+
+    boolean isOnProbation( long pageRef )
+    {
+        int pageId = pages.toId( pageRef );
+        return (probation.get( pageId >>> 6 ) & (1L << pageId)) != 0;
+    }
+
+    int probationaryPages()
+    {
+        return probationaryPages.get();
+    }
+
+    private boolean clearProbation( long pageRef )
+    {
+        int pageId = pages.toId( pageRef );
+        long mask = 1L << pageId;
+        int index = pageId >>> 6;
+        long word;
+        do
+        {
+            word = probation.get( index );
+            if ( (word & mask) == 0 )
+            {
+                return false;
+            }
+        }
+        while ( !probation.compareAndSet( index, word, word & ~mask ) );
+        probationaryPages.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Record a fault of the given file page in the frequency sketch.
+     *
+     * @return the estimated number of times the file page has been faulted in before.
+     */
+    int recordFault( int swapperId, long filePageId )
+    {
+        // The sketch is updated without any synchronisation. Lost updates only make the estimates slightly less
+        // accurate, which is fine for an admission filter.
+        long hash = mix( ((long) swapperId << 40) ^ filePageId );
+        int frequency = MAX_FREQUENCY;
+        for ( int i = 0; i < 4; i++ )
+        {
+            int index = (int) (mix( hash + i ) & sketchMask);
+            int shift = (int) ((hash >>> (i << 2)) & 0xF) << 2;
+            long word = sketch[index];
+            int count = (int) ((word >>> shift) & COUNTER_MASK);
+            frequency = Math.min( frequency, count );
+            if ( count < MAX_FREQUENCY )
+            {
+                sketch[index] = word + (1L << shift);
+            }
+        }
+        if ( samples.incrementAndGet() == sampleSize )
+        {
+            halveSketch();
+            samples.addAndGet( -sampleSize / 2 );
+        }
+        return frequency;
+    }
+
+    private void halveSketch()
+    {
+        for ( int i = 0; i < sketch.length; i++ )
+        {
+            sketch[i] = (sketch[i] >>> 1) & HALVING_MASK;
+        }
+    }
+
+    private static long mix( long key )
+    {
+        // The MurmurHash3 64-bit finaliser.
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
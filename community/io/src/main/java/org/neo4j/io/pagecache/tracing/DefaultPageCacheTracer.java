@@ -43,6 +43,9 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder filesMapped = new LongAdder();
     protected final LongAdder filesUnmapped = new LongAdder();
     protected final LongAdder evictionExceptions = new LongAdder();
+    protected final LongAdder pagesWarmedUp = new LongAdder();
+    protected final LongAdder probationaryFaults = new LongAdder();
+    protected final LongAdder promotions = new LongAdder();
     protected final AtomicLong maxPages = new AtomicLong();
 
     private final FlushEvent flushEvent = new FlushEvent()
@@ -137,6 +140,20 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         }
     };
 
+    private final WarmupEvent warmupEvent = new WarmupEvent()
+    {
+        @Override
+        public void warmedUpFile( File file, long pagesLoaded )
+        {
+            pagesWarmedUp.add( pagesLoaded );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    };
+
     @Override
     public void mappedFile( File file )
     {
@@ -167,6 +184,36 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return majorFlushEvent;
     }
 
+    @Override
+    public WarmupEvent beginWarmup()
+    {
+        return warmupEvent;
+    }
+
+    /**
+     * @return the number of pages loaded into the page cache by warmup runs.
+     */
+    public long pagesWarmedUp()
+    {
+        return pagesWarmedUp.sum();
+    }
+
+    /**
+     * @return the number of page faults where the eviction policy admitted the faulted page on probation.
+     */
+    public long probationaryFaults()
+    {
+        return probationaryFaults.sum();
+    }
+
+    /**
+     * @return the number of pages the eviction policy has promoted from probation.
+     */
+    public long promotions()
+    {
+        return promotions.sum();
+    }
+
     @Override
     public long faults()
     {
@@ -299,6 +346,18 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         this.flushes.add( flushes );
     }
 
+    @Override
+    public void probationaryFaults( long probationaryFaults )
+    {
+        this.probationaryFaults.add( probationaryFaults );
+    }
+
+    @Override
+    public void promotions( long promotions )
+    {
+        this.promotions.add( promotions );
+    }
+
     @Override
     public void maxPages( long maxPages )
     {
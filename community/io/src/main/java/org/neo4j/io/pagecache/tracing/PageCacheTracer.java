@@ -64,6 +64,12 @@ public interface PageCacheTracer extends PageCacheCounters
             return MajorFlushEvent.NULL;
         }
 
+        @Override
+        public WarmupEvent beginWarmup()
+        {
+            return WarmupEvent.NULL;
+        }
+
         @Override
         public long faults()
         {
@@ -187,6 +193,16 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void probationaryFaults( long probationaryFaults )
+        {
+        }
+
+        @Override
+        public void promotions( long promotions )
+        {
+        }
+
         @Override
         public void maxPages( long maxPages )
         {
@@ -228,6 +244,11 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     MajorFlushEvent beginCacheFlush();
 
+    /**
+     * The page cache is about to warm up, by loading the pages that were recorded as resident in a previous profile.
+     */
+    WarmupEvent beginWarmup();
+
     /**
      * Report number of observed pins
      * @param pins number of pins
@@ -282,6 +303,19 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void flushes( long flushes );
 
+    /**
+     * Report number of page faults where the eviction policy admitted the faulted page on probation, because it had
+     * not recently been in the cache.
+     * @param probationaryFaults number of probationary faults
+     */
+    void probationaryFaults( long probationaryFaults );
+
+    /**
+     * Report number of pages that the eviction policy promoted from probation, because they were used again.
+     * @param promotions number of promotions
+     */
+    void promotions( long promotions );
+
     /**
      * Sets the number of available pages.
      * @param maxPages the total number of available pages.
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+import java.io.File;
+
+/**
+ * A warmup run is started when the page cache is asked to bring back the pages that were resident in a previous run,
+ * as recorded in a page cache profile. Warmup runs in the background, concurrently with normal page cache usage.
+ */
+public interface WarmupEvent extends AutoCloseablePageCacheTracerEvent
+{
+    /**
+     * A WarmupEvent that does nothing.
+     */
+    WarmupEvent NULL = new WarmupEvent()
+    {
+        @Override
+        public void warmedUpFile( File file, long pagesLoaded )
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    };
+
+    /**
+     * The profiled pages of the given file have been touched, loading the given number of pages into the page cache.
+     */
+    void warmedUpFile( File file, long pagesLoaded );
+}
@@ -88,4 +88,10 @@ public class DelegatingPageCache implements PageCache
         delegate.flushAndForce();
     }
 
+    @Override
+    public void flush( IOLimiter limiter ) throws IOException
+    {
+        delegate.flush( limiter );
+    }
+
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PageSwapperTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class AsyncFilePageSwapperIT extends PageSwapperTest
+{
+    private DefaultFileSystemAbstraction fileSystem;
+
+    @BeforeEach
+    void setUp()
+    {
+        fileSystem = new DefaultFileSystemAbstraction();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException
+    {
+        fileSystem.close();
+    }
+
+    @Override
+    protected PageSwapperFactory swapperFactory()
+    {
+        AsyncFilePageSwapperFactory factory = new AsyncFilePageSwapperFactory();
+        factory.open( fileSystem, Configuration.EMPTY );
+        return factory;
+    }
+
+    @Override
+    protected void mkdirs( File dir ) throws IOException
+    {
+        fileSystem.mkdirs( dir );
+    }
+
+    @Test
+    void mustCreateAsyncSwappersOnlyForTheRealFileSystem() throws Exception
+    {
+        PageSwapperFactory factory = createSwapperFactory();
+        PageSwapper swapper = createSwapper( factory, testDir.file( "a" ), 32, NO_CALLBACK, true, false );
+        assertThat( swapper, instanceOf( AsyncFilePageSwapper.class ) );
+
+        try ( EphemeralFileSystemAbstraction ephemeralFileSystem = new EphemeralFileSystemAbstraction() )
+        {
+            AsyncFilePageSwapperFactory ephemeralFactory = new AsyncFilePageSwapperFactory();
+            ephemeralFactory.open( ephemeralFileSystem, Configuration.EMPTY );
+            PageSwapper ephemeralSwapper = ephemeralFactory.createPageSwapper( new File( "a" ), 32, NO_CALLBACK, true, false );
+            assertThat( ephemeralSwapper, is( not( instanceOf( AsyncFilePageSwapper.class ) ) ) );
+            ephemeralSwapper.close();
+            ephemeralFactory.close();
+        }
+    }
+}
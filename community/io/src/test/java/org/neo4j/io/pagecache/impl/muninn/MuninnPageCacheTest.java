@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.IntSupplier;
 import java.util.function.LongSupplier;
 
@@ -66,7 +67,9 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTimeout;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
 import static org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer.Evict;
@@ -251,6 +254,59 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test
+    void flushMustWriteDirtyPagesWithoutForcingThem() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        AtomicInteger forces = new AtomicInteger();
+        FileSystemAbstraction fs = new DelegatingFileSystemAbstraction( this.fs )
+        {
+            @Override
+            public StoreChannel open( File fileName, OpenMode openMode ) throws IOException
+            {
+                return new DelegatingStoreChannel( super.open( fileName, openMode ) )
+                {
+                    @Override
+                    public void force( boolean metaData ) throws IOException
+                    {
+                        forces.incrementAndGet();
+                        super.force( metaData );
+                    }
+                };
+            }
+        };
+        AtomicInteger flushedPages = new AtomicInteger();
+        IOLimiter limiter = ( previousStamp, recentlyCompletedIOs, flushable ) ->
+        {
+            flushedPages.addAndGet( recentlyCompletedIOs );
+            return previousStamp;
+        };
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK | PF_NO_GROW ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( 0L );
+                assertTrue( cursor.next() );
+                cursor.putLong( 0L );
+            }
+
+            pageCache.flush( limiter );
+
+            assertEquals( 2, flushedPages.get() );
+            assertEquals( 0, forces.get() );
+            ByteBuffer buf = readIntoBuffer( "a" );
+            assertThat( buf.getLong(), is( 0L ) );
+            assertThat( buf.getLong(), is( 0L ) );
+
+            // The pages are clean now, so there's nothing more to flush
+            pageCache.flush( limiter );
+            assertEquals( 2, flushedPages.get() );
+        }
+    }
+
     @Test
     void trackPageModificationTransactionId() throws Exception
     {
@@ -711,6 +767,62 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         } );
     }
 
+    @Test
+    void readAheadCursorMustFaultFollowingPagesInBatchesWhenScanning() throws Exception
+    {
+        int pages = 64;
+        writePageIdsTo( file( "a" ), pages );
+        RecordingPageCursorTracer cursorTracer = new RecordingPageCursorTracer();
+        ConfigurablePageCursorTracerSupplier<RecordingPageCursorTracer> cursorTracerSupplier = new ConfigurablePageCursorTracerSupplier<>( cursorTracer );
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 100, PageCacheTracer.NULL, cursorTracerSupplier );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+            {
+                for ( long pageId = 0; pageId < pages; pageId++ )
+                {
+                    assertTrue( cursor.next() );
+                    long value;
+                    do
+                    {
+                        value = cursor.getLong();
+                    }
+                    while ( cursor.shouldRetry() );
+                    assertEquals( pageId, value );
+                }
+                assertFalse( cursor.next() );
+            }
+            // The first page is faulted on its own, and the rest in batches of 16 pages
+            assertEquals( 5, cursorTracer.faults() );
+        }
+    }
+
+    @Test
+    void readAheadCursorMustNotReadAheadOnRandomAccess() throws Exception
+    {
+        writePageIdsTo( file( "a" ), 64 );
+        RecordingPageCursorTracer cursorTracer = new RecordingPageCursorTracer();
+        ConfigurablePageCursorTracerSupplier<RecordingPageCursorTracer> cursorTracerSupplier = new ConfigurablePageCursorTracerSupplier<>( cursorTracer );
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 100, PageCacheTracer.NULL, cursorTracerSupplier );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+            {
+                assertTrue( cursor.next( 10 ) );
+                assertTrue( cursor.next( 30 ) );
+                assertTrue( cursor.next( 20 ) );
+            }
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+            {
+                assertTrue( cursor.next( 11 ) );
+                assertEquals( PageCursor.UNBOUND_PAGE_ID, cursor.getCurrentPageId() );
+            }
+            assertEquals( 3, cursorTracer.faults() );
+        }
+    }
+
     private static class FlushRendezvousTracer extends DefaultPageCacheTracer
     {
         private final CountDownLatch latch;
@@ -766,6 +878,20 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    private void writePageIdsTo( File file, int pages ) throws IOException
+    {
+        try ( StoreChannel channel = fs.create( file ) )
+        {
+            ByteBuffer buf = ByteBuffer.allocate( pages * Long.BYTES );
+            for ( long pageId = 0; pageId < pages; pageId++ )
+            {
+                buf.putLong( pageId );
+            }
+            buf.flip();
+            channel.writeAll( buf );
+        }
+    }
+
     private ByteBuffer readIntoBuffer( String fileName ) throws IOException
     {
         ByteBuffer buffer = ByteBuffer.allocate( 16 );
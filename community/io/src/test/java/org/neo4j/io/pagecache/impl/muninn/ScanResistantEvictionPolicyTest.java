@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.memory.GlobalMemoryTracker;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ScanResistantEvictionPolicyTest
+{
+    private static final int PAGE_COUNT = 100;
+
+    private MemoryAllocator mman;
+    private PageList pages;
+    private DefaultPageCacheTracer tracer;
+    private ScanResistantEvictionPolicy policy;
+
+    @Before
+    public void setUp()
+    {
+        int pageSize = UnsafeUtil.pageSize();
+        mman = MemoryAllocator.createAllocator( "1 MiB", GlobalMemoryTracker.INSTANCE );
+        long victimPage = VictimPageReference.getVictimPage( pageSize, GlobalMemoryTracker.INSTANCE );
+        pages = new PageList( PAGE_COUNT, pageSize, mman, new SwapperSet(), victimPage, 8 );
+        tracer = new DefaultPageCacheTracer();
+        policy = new ScanResistantEvictionPolicy( pages, tracer );
+    }
+
+    @After
+    public void tearDown()
+    {
+        mman.close();
+    }
+
+    @Test
+    public void pagesFaultedForTheFirstTimeMustBeAdmittedOnProbation()
+    {
+        long pageRef = pages.deref( 0 );
+        policy.pageFaulted( pageRef, 1, 42 );
+
+        assertTrue( policy.isOnProbation( pageRef ) );
+        assertThat( policy.probationaryPages(), is( 1 ) );
+        assertThat( tracer.probationaryFaults(), is( 1L ) );
+    }
+
+    @Test
+    public void pagesFaultedAgainMustBeAdmittedAsProtected()
+    {
+        long pageRef = pages.deref( 0 );
+        policy.pageFaulted( pageRef, 1, 42 );
+        policy.pageEvicted( pageRef );
+        assertFalse( policy.isOnProbation( pageRef ) );
+
+        policy.pageFaulted( pageRef, 1, 42 );
+        assertFalse( policy.isOnProbation( pageRef ) );
+        assertThat( policy.probationaryPages(), is( 0 ) );
+        assertThat( tracer.probationaryFaults(), is( 1L ) );
+    }
+
+    @Test
+    public void probationaryPagesUsedOnlyOnceMustBeEvictedOnFirstVisit()
+    {
+        long pageRef = pages.deref( 0 );
+        policy.pageFaulted( pageRef, 1, 42 );
+        pages.incrementUsage( pageRef );
+
+        assertTrue( policy.shouldEvict( pageRef ) );
+    }
+
+    @Test
+    public void probationaryPagesUsedAgainMustBePromoted()
+    {
+        long pageRef = pages.deref( 0 );
+        policy.pageFaulted( pageRef, 1, 42 );
+        pages.incrementUsage( pageRef );
+        pages.incrementUsage( pageRef );
+        pages.incrementUsage( pageRef );
+
+        assertFalse( policy.shouldEvict( pageRef ) );
+        assertFalse( policy.isOnProbation( pageRef ) );
+        assertThat( policy.probationaryPages(), is( 0 ) );
+        assertThat( tracer.promotions(), is( 1L ) );
+    }
+
+    @Test
+    public void protectedPagesMustNotAgeWhileScanFillsProbation()
+    {
+        long protectedPageRef = pages.deref( 0 );
+        policy.pageFaulted( protectedPageRef, 1, 0 );
+        pages.incrementUsage( protectedPageRef );
+        pages.incrementUsage( protectedPageRef );
+        assertFalse( policy.shouldEvict( protectedPageRef ) ); // Promoted.
+
+        for ( int i = 1; i < PAGE_COUNT; i++ )
+        {
+            long pageRef = pages.deref( i );
+            policy.pageFaulted( pageRef, 1, 1000 + i );
+            pages.incrementUsage( pageRef );
+        }
+
+        assertThat( policy.probationaryPages(), greaterThan( PAGE_COUNT / 2 ) );
+        for ( int i = 0; i < 10; i++ )
+        {
+            assertFalse( policy.shouldEvict( protectedPageRef ) );
+        }
+        assertThat( pages.getUsageCounter( protectedPageRef ), is( (byte) 1 ) );
+        for ( int i = 1; i < PAGE_COUNT; i++ )
+        {
+            long pageRef = pages.deref( i );
+            if ( policy.isOnProbation( pageRef ) )
+            {
+                assertTrue( policy.shouldEvict( pageRef ) );
+            }
+        }
+    }
+
+    @Test
+    public void protectedPagesMustAgeWhenNoProbationaryPageCanBeEvicted()
+    {
+        long protectedPageRef = pages.deref( 0 );
+        policy.pageFaulted( protectedPageRef, 1, 0 );
+        pages.incrementUsage( protectedPageRef );
+        pages.incrementUsage( protectedPageRef );
+        assertFalse( policy.shouldEvict( protectedPageRef ) ); // Promoted, with a usage counter of 1.
+
+        for ( int i = 1; i < PAGE_COUNT; i++ )
+        {
+            policy.pageFaulted( pages.deref( i ), 1, 1000 + i );
+        }
+
+        // Pretend that the clock arm keeps missing all the probationary pages, because they are locked.
+        boolean evicted = false;
+        for ( int i = 0; i <= PAGE_COUNT && !evicted; i++ )
+        {
+            evicted = policy.shouldEvict( protectedPageRef );
+        }
+        assertTrue( evicted );
+    }
+}
@@ -79,6 +79,12 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.beginCacheFlush();
     }
 
+    @Override
+    public WarmupEvent beginWarmup()
+    {
+        return delegate.beginWarmup();
+    }
+
     @Override
     public long bytesWritten()
     {
@@ -175,6 +181,18 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.flushes( flushes );
     }
 
+    @Override
+    public void probationaryFaults( long probationaryFaults )
+    {
+        delegate.probationaryFaults( probationaryFaults );
+    }
+
+    @Override
+    public void promotions( long promotions )
+    {
+        delegate.promotions( promotions );
+    }
+
     @Override
     public void maxPages( long maxPages )
     {
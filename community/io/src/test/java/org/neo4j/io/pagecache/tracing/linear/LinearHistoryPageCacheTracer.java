@@ -25,6 +25,7 @@ import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.WarmupEvent;
 
 import static org.neo4j.io.pagecache.tracing.linear.HEvents.EvictionRunHEvent;
 import static org.neo4j.io.pagecache.tracing.linear.HEvents.MajorFlushHEvent;
@@ -78,6 +79,12 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return tracer.add( new MajorFlushHEvent( tracer, null ) );
     }
 
+    @Override
+    public WarmupEvent beginWarmup()
+    {
+        return WarmupEvent.NULL;
+    }
+
     @Override
     public long faults()
     {
@@ -201,6 +208,16 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     {
     }
 
+    @Override
+    public void probationaryFaults( long probationaryFaults )
+    {
+    }
+
+    @Override
+    public void promotions( long promotions )
+    {
+    }
+
     @Override
     public void maxPages( long maxPages )
     {
@@ -29,6 +29,7 @@ import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.WarmupEvent;
 
 public class RecordingPageCacheTracer extends RecordingTracer implements PageCacheTracer
 {
@@ -83,6 +84,12 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return MajorFlushEvent.NULL;
     }
 
+    @Override
+    public WarmupEvent beginWarmup()
+    {
+        return WarmupEvent.NULL;
+    }
+
     @Override
     public long faults()
     {
@@ -209,6 +216,16 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public void probationaryFaults( long probationaryFaults )
+    {
+    }
+
+    @Override
+    public void promotions( long promotions )
+    {
+    }
+
     @Override
     public void maxPages( long maxPages )
     {
@@ -21,11 +21,24 @@ package org.neo4j.internal.kernel.api;
 
 /**
  * Initializer for spreading a scan operator over multiple cursors for use from different threads in parallel.
+ * <p>
+ * The scan is split up into batches, which are handed out to cursors on demand. Batches are disjoint, so a set of
+ * cursors, each {@link #reserveBatch(org.neo4j.internal.kernel.api.Cursor, int) reserving} batches until the scan is
+ * exhausted, will together see every entity of the scan exactly once. Changes made in the current transaction are
+ * taken into account as of the time the scan was created.
  *
  * @param <Cursor>
  *         the type of cursor this object initializes.
  */
 public interface Scan<Cursor extends org.neo4j.internal.kernel.api.Cursor>
 {
-    void initialize( Cursor cursor );
+    /**
+     * Reserves the next batch of this scan and initializes the given cursor to iterate over it.
+     * A reserved batch may turn out to be empty, it's only when this method returns {@code false} that the scan is exhausted.
+     *
+     * @param cursor the cursor to initialize with the reserved batch.
+     * @param sizeHint the approximate number of entities, or entity ids, to include in the batch. Must be positive.
+     * @return {@code true} if a batch was reserved and the cursor initialized, or {@code false} if there are no more batches.
+     */
+    boolean reserveBatch( Cursor cursor, int sizeHint );
 }
@@ -29,6 +29,15 @@ public interface StorageNodeCursor extends StorageEntityScanCursor
      */
     long[] labels();
 
+    /**
+     * Initializes this cursor so that it will scan over the next batch of existing nodes reserved from the given {@code scan}.
+     *
+     * @param scan the scan to reserve the batch from.
+     * @param sizeHint approximate number of node ids to include in the batch.
+     * @return {@code true} if a batch was reserved, or {@code false} if the scan is exhausted.
+     */
+    boolean scanBatch( AllNodeScan scan, int sizeHint );
+
     /**
      * @return {@code true} if the node this cursor is placed at has the given {@code label}, otherwise {@code false}.
      */
@@ -339,4 +339,15 @@ public interface StorageReader extends AutoCloseable
      * @return a new {@link StorageRelationshipScanCursor} capable of reading relationship data from the underlying storage.
      */
     StorageRelationshipScanCursor allocateRelationshipScanCursor();
+
+    /**
+     * @return a new {@link AllNodeScan} which can be split up into batches, scanned by {@link StorageNodeCursor#scanBatch(AllNodeScan, int)}.
+     */
+    AllNodeScan allNodeScan();
+
+    /**
+     * @return a new {@link AllRelationshipsScan} which can be split up into batches,
+     * scanned by {@link StorageRelationshipScanCursor#scanBatch(AllRelationshipsScan, int, int)}.
+     */
+    AllRelationshipsScan allRelationshipScan();
 }
@@ -31,4 +31,14 @@ public interface StorageRelationshipScanCursor extends StorageRelationshipCursor
      * @param type relationship type to scan over, or -1 for all relationships regardless of type.
      */
     void scan( int type );
+
+    /**
+     * Initializes this cursor so that it will scan over the next batch of existing relationships reserved from the given {@code scan}.
+     *
+     * @param scan the scan to reserve the batch from.
+     * @param type relationship type to scan over, or -1 for all relationships regardless of type.
+     * @param sizeHint approximate number of relationship ids to include in the batch.
+     * @return {@code true} if a batch was reserved, or {@code false} if the scan is exhausted.
+     */
+    boolean scanBatch( AllRelationshipsScan scan, int type, int sizeHint );
 }
@@ -46,6 +46,20 @@ public interface LabelScanReader extends Resource
      */
     void nodesWithLabel( IndexProgressor.NodeLabelClient client, int labelId );
 
+    /**
+     * @param labelId label token id.
+     * @param fromId node id to start at, inclusive.
+     * @param toId node id to stop at, exclusive.
+     * @return node ids with the given {@code labelId} in the range {@code [fromId, toId)}.
+     */
+    PrimitiveLongResourceIterator nodesWithLabelInRange( int labelId, long fromId, long toId );
+
+    /**
+     * @param labelId label token id.
+     * @return the highest node id with the given {@code labelId}, or {@link #NO_ID} if there are no nodes with it.
+     */
+    long highestNodeIdWithLabel( int labelId );
+
     /**
      * @param labelIds label token ids.
      * @return node ids with any of the given label ids.
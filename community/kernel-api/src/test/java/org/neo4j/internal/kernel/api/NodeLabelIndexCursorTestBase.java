@@ -25,6 +25,8 @@ import org.junit.Test;
 
 import org.neo4j.internal.kernel.api.exceptions.KernelException;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.neo4j.internal.kernel.api.IndexReadAsserts.assertNodeCount;
 import static org.neo4j.internal.kernel.api.IndexReadAsserts.assertNodes;
 
@@ -132,6 +134,48 @@ public abstract class NodeLabelIndexCursorTestBase<G extends KernelAPIWriteTestS
         }
     }
 
+    @Test
+    public void shouldFindNodesByLabelInBatchesInTx() throws Exception
+    {
+        long inStore;
+        long deletedInTx;
+        long createdInTx;
+
+        try ( Transaction tx = beginTransaction() )
+        {
+            inStore = createNode( tx.dataWrite(), labelOne );
+            createNode( tx.dataWrite(), labelTwo );
+            deletedInTx = createNode( tx.dataWrite(), labelOne );
+            tx.success();
+        }
+
+        try ( Transaction tx = beginTransaction() )
+        {
+            tx.dataWrite().nodeDelete( deletedInTx );
+            createdInTx = createNode( tx.dataWrite(), labelOne );
+
+            createNode( tx.dataWrite(), labelTwo );
+
+            try ( NodeLabelIndexCursor cursor = tx.cursors().allocateNodeLabelIndexCursor() )
+            {
+                MutableLongSet uniqueIds = new LongHashSet();
+
+                // when
+                Scan<NodeLabelIndexCursor> scan = tx.dataRead().nodeLabelScan( labelOne );
+                while ( scan.reserveBatch( cursor, 1 ) )
+                {
+                    while ( cursor.next() )
+                    {
+                        assertTrue( "should only see each node once", uniqueIds.add( cursor.nodeReference() ) );
+                    }
+                }
+
+                // then
+                assertEquals( LongHashSet.newSetWith( inStore, createdInTx ), uniqueIds );
+            }
+        }
+    }
+
     private long createNode( Write write, int... labels ) throws KernelException
     {
         long nodeId = write.nodeCreate();
@@ -19,6 +19,8 @@
  */
 package org.neo4j.internal.kernel.api;
 
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -182,6 +184,38 @@ public abstract class NodeTransactionStateTestBase<G extends KernelAPIWriteTestS
         }
     }
 
+    @Test
+    public void shouldScanNodesInBatchesInTransaction() throws Exception
+    {
+        long inStore, deletedInTx;
+        try ( Transaction tx = beginTransaction() )
+        {
+            inStore = tx.dataWrite().nodeCreate();
+            deletedInTx = tx.dataWrite().nodeCreate();
+            tx.success();
+        }
+
+        try ( Transaction tx = beginTransaction() )
+        {
+            assertTrue( tx.dataWrite().nodeDelete( deletedInTx ) );
+            long createdInTx = tx.dataWrite().nodeCreate();
+            try ( NodeCursor node = tx.cursors().allocateNodeCursor() )
+            {
+                Scan<NodeCursor> scan = tx.dataRead().allNodesScan();
+                MutableLongSet seen = new LongHashSet();
+                while ( scan.reserveBatch( node, 1 ) )
+                {
+                    while ( node.next() )
+                    {
+                        assertTrue( "should only see each node once", seen.add( node.nodeReference() ) );
+                    }
+                }
+                assertEquals( LongHashSet.newSetWith( inStore, createdInTx ), seen );
+            }
+            tx.success();
+        }
+    }
+
     @Test
     public void shouldHandleMultipleNodeDeletions() throws Exception
     {
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.kernel.api;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public abstract class ParallelNodeCursorTestBase<G extends KernelAPIReadTestSupport> extends KernelAPIReadTestBase<G>
+{
+    private static final int NUMBER_OF_NODES = 1280;
+    private static MutableLongSet NODE_IDS;
+
+    @Override
+    public void createTestGraph( GraphDatabaseService graphDb )
+    {
+        NODE_IDS = new LongHashSet();
+        List<Node> deleted = new ArrayList<>();
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            for ( int i = 0; i < NUMBER_OF_NODES; i++ )
+            {
+                Node node = graphDb.createNode();
+                if ( i % 3 == 0 )
+                {
+                    deleted.add( node );
+                }
+                else
+                {
+                    NODE_IDS.add( node.getId() );
+                }
+            }
+            tx.success();
+        }
+
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            for ( Node node : deleted )
+            {
+                node.delete();
+            }
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldScanASubsetOfNodes()
+    {
+        try ( NodeCursor nodes = cursors.allocateNodeCursor() )
+        {
+            // when
+            Scan<NodeCursor> scan = read.allNodesScan();
+            assertTrue( scan.reserveBatch( nodes, 32 ) );
+
+            // then
+            MutableLongSet ids = new LongHashSet();
+            while ( nodes.next() )
+            {
+                assertTrue( ids.add( nodes.nodeReference() ) );
+            }
+            assertFalse( ids.isEmpty() );
+            assertTrue( ids.allSatisfy( id -> id < 32 && NODE_IDS.contains( id ) ) );
+        }
+    }
+
+    @Test
+    public void shouldScanAllNodesInBatches()
+    {
+        try ( NodeCursor nodes = cursors.allocateNodeCursor() )
+        {
+            // when
+            Scan<NodeCursor> scan = read.allNodesScan();
+            MutableLongSet ids = new LongHashSet();
+            while ( scan.reserveBatch( nodes, 100 ) )
+            {
+                while ( nodes.next() )
+                {
+                    assertTrue( "should only see each node once", ids.add( nodes.nodeReference() ) );
+                }
+            }
+
+            // then
+            assertEquals( NODE_IDS, ids );
+        }
+    }
+
+    @Test
+    public void shouldScanAllNodesFromMultipleThreads() throws Exception
+    {
+        // given
+        int numberOfWorkers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool( numberOfWorkers );
+        List<NodeCursor> nodeCursors = new ArrayList<>();
+        for ( int i = 0; i < numberOfWorkers; i++ )
+        {
+            nodeCursors.add( cursors.allocateNodeCursor() );
+        }
+
+        try
+        {
+            // when
+            Scan<NodeCursor> scan = read.allNodesScan();
+            List<Future<MutableLongSet>> futures = new ArrayList<>();
+            for ( NodeCursor nodes : nodeCursors )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    MutableLongSet ids = new LongHashSet();
+                    while ( scan.reserveBatch( nodes, 32 ) )
+                    {
+                        while ( nodes.next() )
+                        {
+                            ids.add( nodes.nodeReference() );
+                        }
+                    }
+                    return ids;
+                } ) );
+            }
+
+            // then
+            MutableLongSet ids = new LongHashSet();
+            int seen = 0;
+            for ( Future<MutableLongSet> future : futures )
+            {
+                MutableLongSet batchIds = future.get();
+                seen += batchIds.size();
+                ids.addAll( batchIds );
+            }
+            assertEquals( "should only see each node once", NODE_IDS.size(), seen );
+            assertEquals( NODE_IDS, ids );
+        }
+        finally
+        {
+            executor.shutdown();
+            executor.awaitTermination( 1, TimeUnit.MINUTES );
+            nodeCursors.forEach( NodeCursor::close );
+        }
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void shouldFailForNonPositiveSizeHint()
+    {
+        try ( NodeCursor nodes = cursors.allocateNodeCursor() )
+        {
+            read.allNodesScan().reserveBatch( nodes, 0 );
+        }
+    }
+}
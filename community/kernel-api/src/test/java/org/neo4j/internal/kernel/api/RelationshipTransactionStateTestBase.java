@@ -186,6 +186,48 @@ public abstract class RelationshipTransactionStateTestBase<G extends KernelAPIWr
         }
     }
 
+    @Test
+    public void shouldScanRelationshipsOfTypeInBatchesInTransaction() throws Exception
+    {
+        int type, otherType;
+        long n1, n2, inStore, deletedInTx, createdInTx;
+        try ( Transaction tx = beginTransaction() )
+        {
+            n1 = tx.dataWrite().nodeCreate();
+            n2 = tx.dataWrite().nodeCreate();
+            type = tx.tokenWrite().relationshipTypeGetOrCreateForName( "R" );
+            otherType = tx.tokenWrite().relationshipTypeGetOrCreateForName( "S" );
+
+            inStore = tx.dataWrite().relationshipCreate( n1, type, n2 );
+            tx.dataWrite().relationshipCreate( n1, otherType, n2 );
+            deletedInTx = tx.dataWrite().relationshipCreate( n1, type, n2 );
+            tx.success();
+        }
+
+        try ( Transaction tx = beginTransaction() )
+        {
+            assertTrue( "should delete relationship", tx.dataWrite().relationshipDelete( deletedInTx ) );
+            createdInTx = tx.dataWrite().relationshipCreate( n2, type, n1 );
+            tx.dataWrite().relationshipCreate( n2, otherType, n1 );
+
+            try ( RelationshipScanCursor relationship = tx.cursors().allocateRelationshipScanCursor() )
+            {
+                Scan<RelationshipScanCursor> scan = tx.dataRead().relationshipTypeScan( type );
+                MutableLongSet seen = new LongHashSet();
+                while ( scan.reserveBatch( relationship, 1 ) )
+                {
+                    while ( relationship.next() )
+                    {
+                        assertEquals( type, relationship.type() );
+                        assertTrue( "should only see each relationship once", seen.add( relationship.relationshipReference() ) );
+                    }
+                }
+                assertEquals( LongHashSet.newSetWith( inStore, createdInTx ), seen );
+            }
+            tx.success();
+        }
+    }
+
     @Test
     public void shouldSeeRelationshipInTransaction() throws Exception
     {
@@ -243,6 +243,17 @@ public class GraphDatabaseSettings implements LoadableConfig
             "simply not performed and execution continues." )
     public static final Setting<Boolean> cypher_lenient_create_relationship = setting( "cypher.lenient_create_relationship", BOOLEAN, FALSE );
 
+    @Description( "The estimated amount of heap memory an eager Cypher operator may use for rows before spilling rows " +
+            "to temporary files on disk. ORDER BY spills sorted runs of rows, aggregations spill the rows of groups beyond " +
+            "those that fit within this amount. Rows that cannot be written to disk are always kept in memory. " +
+            "The default of 0 means that rows are never spilled to disk." )
+    public static final Setting<Long> cypher_spill_threshold =
+            buildSetting( "cypher.spill_threshold", BYTES, "0" ).constraint( min( 0L ) ).build();
+
+    @Description( "The directory in which eager Cypher operators write the temporary files of spilled rows. " +
+            "If not set, the temporary directory of the JVM is used." )
+    public static final Setting<File> cypher_spill_directory = pathSetting( "cypher.spill_directory", NO_DEFAULT );
+
     @Description( "Set this to specify the default runtime for the default language version." )
     @Internal
     public static final Setting<String> cypher_runtime = setting(
@@ -553,6 +564,21 @@ public class GraphDatabaseSettings implements LoadableConfig
                   "Set this to -1 to disable the IOPS limit." )
     public static final Setting<Integer> check_point_iops_limit = setting( "dbms.checkpoint.iops.limit", INTEGER, "300" );
 
+    @Description( "How often to trickle dirty pages out to the store files in between check points, so that each " +
+            "check point has fewer pages left to flush. Background flushing writes pages out without forcing them. " +
+            "Zero disables background flushing." )
+    @Internal
+    public static final Setting<Duration> check_point_background_flush_interval =
+            setting( "unsupported.dbms.checkpoint.background_flush.interval", DURATION, "0s" );
+
+    @Description( "The highest rate, in pages per second, at which dirty pages are flushed in the background in " +
+            "between check points. The actual rate is lowered while transaction log forces, and thereby commits, " +
+            "are slowed down by the flushing." )
+    @Internal
+    public static final Setting<Integer> check_point_background_flush_max_pages_per_second = buildSetting(
+            "unsupported.dbms.checkpoint.background_flush.max_pages_per_second", INTEGER, "1000" )
+            .constraint( min( 1 ) ).build();
+
     // Auto Indexing
     @Description( "Controls the auto indexing feature for nodes. Setting it to `false` shuts it down, " +
             "while `true` enables it by default for properties listed in the dbms.auto_index.nodes.keys setting." )
@@ -712,6 +738,34 @@ public class GraphDatabaseSettings implements LoadableConfig
     @Internal
     public static final Setting<Boolean> fail_on_corrupted_log_files = setting("unsupported.dbms.tx_log.fail_on_corrupted_log_files", BOOLEAN, TRUE );
 
+    @Description( "If `true`, the commands of each transaction are written to the transaction log compressed with " +
+            "zstd, whenever that makes them smaller. Transaction logs containing compressed transactions can not be " +
+            "read by versions of Neo4j that don't support log compression." )
+    @Internal
+    public static final Setting<Boolean> tx_log_compression = setting( "unsupported.dbms.tx_log.compression", BOOLEAN, FALSE );
+
+    @Description( "The longest time, in microseconds, that the committing thread about to force the transaction log " +
+            "waits for more concurrently committing transactions to join that force. The actual wait is tuned from " +
+            "the observed force latency, and only happens when transactions are committing concurrently. " +
+            "Zero means that the log is always forced right away." )
+    @Internal
+    public static final Setting<Long> tx_log_max_commit_delay = buildSetting( "unsupported.dbms.tx_log.group_commit.max_delay_us",
+            LONG, "0" ).constraint( min( 0L ) ).build();
+
+    @Description( "Number of transactions in a single transaction log force at which the committing thread stops " +
+            "waiting for more transactions to join it. Only applies when " +
+            "`unsupported.dbms.tx_log.group_commit.max_delay_us` is set." )
+    @Internal
+    public static final Setting<Integer> tx_log_group_commit_target_batch_size = buildSetting(
+            "unsupported.dbms.tx_log.group_commit.target_batch_size", INTEGER, "16" ).constraint( min( 1 ) ).build();
+
+    @Description( "If `true`, committed transactions are applied to the store in batches by whichever committing " +
+            "thread gets there first, in transaction id order, instead of each committing thread applying its own " +
+            "transaction. This amortizes the cost of store application over many concurrently committing " +
+            "transactions, at the cost of serializing store application." )
+    @Internal
+    public static final Setting<Boolean> pipelined_commit = setting( "unsupported.dbms.tx_apply.pipelined", BOOLEAN, FALSE );
+
     @Description( "Use a quick approach for rebuilding the ID generators. This give quicker recovery time, " +
             "but will limit the ability to reuse the space of deleted entities." )
     @Internal
@@ -748,22 +802,22 @@ public class GraphDatabaseSettings implements LoadableConfig
             buildSetting( "dbms.memory.pagecache.size", STRING, null ).build();
 
     @Description( "Specify which page swapper to use for doing paged IO. " +
-                  "This is only used when integrating with proprietary storage technology." )
+                  "Besides the default swapper, 'async' submits the pages of vectored reads and writes as concurrent " +
+                  "asynchronous IOs, which helps storage devices that need many IOs in flight to reach their throughput. " +
+                  "Other swappers are only used when integrating with proprietary storage technology." )
     public static final Setting<String> pagecache_swapper =
             setting( "dbms.memory.pagecache.swapper", STRING, null );
 
     @Internal
     @Description( "The profiling frequency for the page cache. Accurate profiles allow the page cache to do active " +
-                  "warmup after a restart, reducing the mean time to performance. " +
-                  "This feature available in Neo4j Enterprise Edition." )
+                  "warmup after a restart, reducing the mean time to performance." )
     public static final Setting<Duration> pagecache_warmup_profiling_interval =
             setting( "unsupported.dbms.memory.pagecache.warmup.profile.interval", DURATION, "1m" );
 
     @Internal
     @Description( "Page cache can be configured to perform usage sampling of loaded pages that can be used to construct active load profile. " +
             "According to that profile pages can be reloaded on the restart, replication, etc. " +
-            "This setting allows disabling that behavior. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "This setting allows disabling that behavior." )
     public static final Setting<Boolean> pagecache_warmup_enabled = setting( "unsupported.dbms.memory.pagecache.warmup.enable", BOOLEAN, TRUE );
 
     @Description( "Allows the enabling or disabling of the file watcher service." +
@@ -1088,6 +1142,15 @@ public class GraphDatabaseSettings implements LoadableConfig
             .constraint( min( 0L ) )
             .build();
 
+    @Description( "The maximum amount of off-heap memory that a single transaction can use to store its transaction state data. " +
+            "An operation that would go beyond it fails with an error, and the transaction is terminated. " +
+            "Zero means 'unlimited'. " +
+            "Used when dbms.tx_state.memory_allocation is set to 'OFF_HEAP'." )
+    public static final Setting<Long> tx_state_max_off_heap_memory_per_transaction = buildSetting(
+            "dbms.tx_state.max_off_heap_memory_per_transaction", BYTES, "0" )
+            .constraint( min( 0L ) )
+            .build();
+
     @Description( "Defines the maximum size of an off-heap memory block that can be cached to speed up allocations for transaction state data. " +
             "The value must be a power of 2." )
     public static final Setting<Long> tx_state_off_heap_max_cacheable_block_size = buildSetting(
@@ -59,6 +59,7 @@ import org.neo4j.kernel.impl.api.KernelAuxTransactionStateManager;
 import org.neo4j.kernel.impl.api.KernelImpl;
 import org.neo4j.kernel.impl.api.KernelTransactions;
 import org.neo4j.kernel.impl.api.KernelTransactionsSnapshot;
+import org.neo4j.kernel.impl.api.LogForceMonitor;
 import org.neo4j.kernel.impl.api.SchemaState;
 import org.neo4j.kernel.impl.api.SchemaWriteGuard;
 import org.neo4j.kernel.impl.api.StackingQueryRegistrationOperations;
@@ -83,6 +84,7 @@ import org.neo4j.kernel.impl.locking.LockService;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.ReentrantLockService;
 import org.neo4j.kernel.impl.locking.StatementLocksFactory;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmer;
 import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.impl.query.QueryEngineProvider;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
@@ -109,6 +111,7 @@ import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChanne
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
 import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.BackgroundPageFlusher;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointScheduler;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointThreshold;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerImpl;
@@ -426,6 +429,12 @@ public class NeoStoreDataSource extends LifecycleAdapter
         }
 
         life.add( new DatabaseDiagnostics( dataSourceDependencies.resolveDependency( DiagnosticsManager.class ), this, databaseInfo ) );
+        if ( config.get( GraphDatabaseSettings.pagecache_warmup_enabled ) )
+        {
+            life.add( new PageCacheWarmer( fs, pageCache, scheduler, tracers.pageCacheTracer, databaseLayout.databaseDirectory(),
+                    config.get( GraphDatabaseSettings.pagecache_warmup_profiling_interval ).toMillis(), !readOnly,
+                    logService.getInternalLog( PageCacheWarmer.class ) ) );
+        }
         life.add( databaseAvailability );
         life.setLast( lifecycleToTriggerCheckPointOnShutdown() );
 
@@ -537,7 +546,9 @@ public class NeoStoreDataSource extends LifecycleAdapter
 
         final TransactionAppender appender = life.add( new BatchingTransactionAppender(
                 logFiles, logRotation, transactionMetadataCache, transactionIdStore, explicitIndexTransactionOrdering,
-                databaseHealth ) );
+                databaseHealth, config.get( GraphDatabaseSettings.tx_log_compression ),
+                TimeUnit.MICROSECONDS.toNanos( config.get( GraphDatabaseSettings.tx_log_max_commit_delay ) ),
+                config.get( GraphDatabaseSettings.tx_log_group_commit_target_batch_size ) ) );
         final LogicalTransactionStore logicalTransactionStore =
                 new PhysicalLogicalTransactionStore( logFiles, transactionMetadataCache, logEntryReader, monitors,
                         failOnCorruptedLogFiles );
@@ -555,6 +566,17 @@ public class NeoStoreDataSource extends LifecycleAdapter
         life.add( checkPointer );
         life.add( checkPointScheduler );
 
+        long backgroundFlushInterval = config.get( GraphDatabaseSettings.check_point_background_flush_interval ).toMillis();
+        if ( backgroundFlushInterval > 0 )
+        {
+            LogForceMonitor logForceMonitor = tracers.transactionTracer instanceof LogForceMonitor
+                                              ? (LogForceMonitor) tracers.transactionTracer
+                                              : LogForceMonitor.NULL;
+            life.add( new BackgroundPageFlusher( pageCache, scheduler, backgroundFlushInterval,
+                    config.get( GraphDatabaseSettings.check_point_background_flush_max_pages_per_second ), logForceMonitor,
+                    tracers.checkPointTracer, logProvider ) );
+        }
+
         return new NeoStoreTransactionLogModule( logicalTransactionStore, logFiles,
                 logRotation, checkPointer, appender, explicitIndexTransactionOrdering );
     }
@@ -573,7 +595,7 @@ public class NeoStoreDataSource extends LifecycleAdapter
         RecoveryService recoveryService = new DefaultRecoveryService( storageEngine, tailScanner, transactionIdStore,
                 logicalTransactionStore, logVersionRepository, positionMonitor );
         CorruptedLogsTruncator logsTruncator = new CorruptedLogsTruncator( databaseLayout.databaseDirectory(), logFiles, fileSystemAbstraction );
-        ProgressReporter progressReporter = new LogProgressReporter( logService.getInternalLog( Recovery.class ) );
+        ProgressReporter progressReporter = new LogProgressReporter( logService.getInternalLog( Recovery.class ), "transactions" );
         Lifecycle schemaLife = storageEngine.schemaAndTokensLifecycle();
         Recovery recovery = new Recovery( recoveryService, logsTruncator, schemaLife, recoveryMonitor, progressReporter, failOnCorruptedLogFiles );
         life.add( recovery );
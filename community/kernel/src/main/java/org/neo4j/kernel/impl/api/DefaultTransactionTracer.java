@@ -36,7 +36,7 @@ import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.time.Clocks;
 import org.neo4j.time.SystemNanoClock;
 
-public class DefaultTransactionTracer implements TransactionTracer, LogRotationMonitor
+public class DefaultTransactionTracer implements TransactionTracer, LogRotationMonitor, LogForceMonitor
 {
     public interface Monitor
     {
@@ -49,11 +49,39 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
 
     private final AtomicLong counter = new AtomicLong();
     private final AtomicLong accumulatedTotalTimeNanos = new AtomicLong();
+    private final AtomicLong logForces = new AtomicLong();
+    private final AtomicLong forcedTransactions = new AtomicLong();
+    private final AtomicLong accumulatedCommitDelayNanos = new AtomicLong();
+    private final AtomicLong accumulatedLogForceTimeNanos = new AtomicLong();
 
     private long startTimeNanos;
+    // Log forces are serialized by the appender
+    private volatile long logForceStartTimeNanos;
 
     private final LogRotateEvent logRotateEvent = this::updateCountersAndNotifyListeners;
 
+    private final LogForceEvent logForceEvent = new LogForceEvent()
+    {
+        @Override
+        public void setBatchSize( int transactions )
+        {
+            forcedTransactions.addAndGet( transactions );
+        }
+
+        @Override
+        public void setCommitDelay( long nanos )
+        {
+            accumulatedCommitDelayNanos.addAndGet( nanos );
+        }
+
+        @Override
+        public void close()
+        {
+            accumulatedLogForceTimeNanos.addAndGet( clock.nanos() - logForceStartTimeNanos );
+            logForces.incrementAndGet();
+        }
+    };
+
     private final LogAppendEvent logAppendEvent = new LogAppendEvent()
     {
         @Override
@@ -89,7 +117,8 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
         @Override
         public LogForceEvent beginLogForce()
         {
-            return LogForceEvent.NULL;
+            logForceStartTimeNanos = clock.nanos();
+            return logForceEvent;
         }
     };
 
@@ -178,6 +207,30 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
         return TimeUnit.NANOSECONDS.toMillis( accumulatedTotalTimeNanos.get() );
     }
 
+    @Override
+    public long numberOfLogForces()
+    {
+        return logForces.get();
+    }
+
+    @Override
+    public long numberOfForcedTransactions()
+    {
+        return forcedTransactions.get();
+    }
+
+    @Override
+    public long logForceAccumulatedCommitDelayMicros()
+    {
+        return TimeUnit.NANOSECONDS.toMicros( accumulatedCommitDelayNanos.get() );
+    }
+
+    @Override
+    public long logForceAccumulatedTotalTimeMicros()
+    {
+        return TimeUnit.NANOSECONDS.toMicros( accumulatedLogForceTimeNanos.get() );
+    }
+
     private void updateCountersAndNotifyListeners()
     {
         counter.incrementAndGet();
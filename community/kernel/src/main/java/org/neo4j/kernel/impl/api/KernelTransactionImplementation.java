@@ -239,6 +239,8 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                         indexingService,
                         config );
         this.collectionsFactory = collectionsFactorySupplier.create();
+        // Running out of memory leaves the transaction state half-changed, so the transaction must not be committed
+        this.collectionsFactory.setMemoryLimitExceededListener( () -> markForTermination( Status.General.TransactionOutOfMemoryError ) );
     }
 
     /**
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+import org.neo4j.util.concurrent.Work;
+import org.neo4j.util.concurrent.WorkSync;
+
+import static java.util.Comparator.comparingLong;
+import static org.neo4j.kernel.api.exceptions.Status.Transaction.TransactionCommitFailed;
+
+/**
+ * A {@link TransactionRepresentationCommitProcess} where the store application of internally committed transactions
+ * is pipelined after the log append: transactions that have been appended to the log are handed over to an applier
+ * stage, which merges all the transactions that are waiting to be applied into a single {@link TransactionToApply}
+ * chain, in transaction id order, and applies that chain to the storage engine in one go. The applier stage is run
+ * by whichever committing thread gets to it first, with the others waiting for their transactions to be applied,
+ * much like how the {@link org.neo4j.kernel.impl.transaction.log.BatchingTransactionAppender} batches log forces.
+ * <p>
+ * Committing threads are only released once their transaction has been applied, since the transaction locks are
+ * released when the commit returns, and the next holder of those locks must see the changes in the store.
+ */
+public class PipelinedTransactionCommitProcess extends TransactionRepresentationCommitProcess
+{
+    private final WorkSync<StorageEngine,ApplyWork> applySync;
+
+    public PipelinedTransactionCommitProcess( TransactionAppender appender, StorageEngine storageEngine )
+    {
+        super( appender, storageEngine );
+        this.applySync = new WorkSync<>( storageEngine );
+    }
+
+    @Override
+    protected void applyToStore( TransactionToApply batch, CommitEvent commitEvent, TransactionApplicationMode mode )
+            throws TransactionFailureException
+    {
+        if ( mode != TransactionApplicationMode.INTERNAL )
+        {
+            super.applyToStore( batch, commitEvent, mode );
+            return;
+        }
+
+        ApplyWork work = new ApplyWork( batch );
+        try ( StoreApplyEvent storeApplyEvent = commitEvent.beginStoreApply() )
+        {
+            applySync.apply( work );
+            // Our transaction might have been applied by another thread, in which case that thread got the exception.
+            work.assertApplied();
+        }
+        catch ( Throwable cause )
+        {
+            throw new TransactionFailureException( TransactionCommitFailed, cause,
+                    "Could not apply the transaction to the store after written to log" );
+        }
+    }
+
+    private static class ApplyWork implements Work<StorageEngine,ApplyWork>
+    {
+        private final TransactionToApply first;
+        private final TransactionToApply last;
+        private List<ApplyWork> combined;
+        private volatile Throwable failure;
+
+        ApplyWork( TransactionToApply first )
+        {
+            TransactionToApply last = first;
+            while ( last.next() != null )
+            {
+                last = last.next();
+            }
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        public ApplyWork combine( ApplyWork work )
+        {
+            if ( combined == null )
+            {
+                combined = new ArrayList<>();
+                combined.add( this );
+            }
+            if ( work.combined == null )
+            {
+                combined.add( work );
+            }
+            else
+            {
+                combined.addAll( work.combined );
+            }
+            return this;
+        }
+
+        @Override
+        public void apply( StorageEngine storageEngine ) throws Exception
+        {
+            if ( combined == null )
+            {
+                applyChain( storageEngine, first );
+                return;
+            }
+
+            // Link the batches into one chain, in the order they were committed, and unlink them again afterwards,
+            // since each committing thread closes its own batch by walking its chain.
+            combined.sort( comparingLong( work -> work.first.transactionId() ) );
+            for ( int i = 1; i < combined.size(); i++ )
+            {
+                combined.get( i - 1 ).last.next( combined.get( i ).first );
+            }
+            try
+            {
+                applyChain( storageEngine, combined.get( 0 ).first );
+            }
+            catch ( Throwable cause )
+            {
+                for ( ApplyWork work : combined )
+                {
+                    work.failure = cause;
+                }
+                throw cause;
+            }
+            finally
+            {
+                for ( ApplyWork work : combined )
+                {
+                    work.last.next( null );
+                }
+            }
+        }
+
+        private void applyChain( StorageEngine storageEngine, TransactionToApply chain ) throws Exception
+        {
+            try
+            {
+                storageEngine.apply( chain, TransactionApplicationMode.INTERNAL );
+            }
+            catch ( Throwable cause )
+            {
+                failure = cause;
+                throw cause;
+            }
+        }
+
+        void assertApplied() throws Throwable
+        {
+            Throwable cause = failure;
+            if ( cause != null )
+            {
+                throw cause;
+            }
+        }
+    }
+}
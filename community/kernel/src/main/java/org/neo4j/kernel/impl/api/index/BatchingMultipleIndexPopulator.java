@@ -40,6 +40,7 @@ import org.neo4j.logging.LogProvider;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.util.FeatureToggles;
 
+import static java.lang.Integer.max;
 import static java.lang.Integer.min;
 import static java.util.stream.Collectors.joining;
 import static org.neo4j.helpers.NamedThreadFactory.daemon;
@@ -61,14 +62,19 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
     static final String TASK_QUEUE_SIZE_NAME = "task_queue_size";
     static final String AWAIT_TIMEOUT_MINUTES_NAME = "await_timeout_minutes";
     private static final String MAXIMUM_NUMBER_OF_WORKERS_NAME = "population_workers_maximum";
+    private static final String NUMBER_OF_SCAN_PARTITIONS_NAME = "scan_partitions";
 
     private static final String EOL = System.lineSeparator();
     private static final String FLUSH_THREAD_NAME_PREFIX = "Index Population Flush Thread";
 
-    // Maximum number of workers processing batches of updates from the scan. It is capped because there's only a single
-    // thread generating updates and it generally cannot saturate all the workers anyway.
+    // Maximum number of workers processing batches of updates from the scan. It is capped because there are only a few
+    // scan threads generating updates and they generally cannot saturate all the workers anyway.
     private final int MAXIMUM_NUMBER_OF_WORKERS = FeatureToggles.getInteger( getClass(), MAXIMUM_NUMBER_OF_WORKERS_NAME,
             min( 8, Runtime.getRuntime().availableProcessors() - 1 ) );
+    // Maximum number of threads scanning the nodes, each its own partition of them. Together with the workers above
+    // this keeps the number of threads populating indexes within the number of available processors.
+    private final int NUMBER_OF_SCAN_PARTITIONS = FeatureToggles.getInteger( getClass(), NUMBER_OF_SCAN_PARTITIONS_NAME,
+            max( 1, min( 8, Runtime.getRuntime().availableProcessors() / 2 ) ) );
     private final int TASK_QUEUE_SIZE = FeatureToggles.getInteger( getClass(), TASK_QUEUE_SIZE_NAME,
             getNumberOfPopulationWorkers() * 2 );
     private final int AWAIT_TIMEOUT_MINUTES = FeatureToggles.getInteger( getClass(), AWAIT_TIMEOUT_MINUTES_NAME, 30 );
@@ -114,6 +120,12 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
         return new BatchingStoreScan<>( storeScan );
     }
 
+    @Override
+    int numberOfScanPartitions()
+    {
+        return NUMBER_OF_SCAN_PARTITIONS;
+    }
+
     @Override
     protected void flushAll()
     {
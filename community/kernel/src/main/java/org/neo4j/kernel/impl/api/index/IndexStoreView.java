@@ -21,6 +21,9 @@ package org.neo4j.kernel.impl.api.index;
 
 import org.eclipse.collections.api.set.primitive.MutableIntSet;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
 import java.util.function.IntPredicate;
 
 import org.neo4j.helpers.collection.Visitor;
@@ -56,6 +59,26 @@ public interface IndexStoreView extends NodePropertyAccessor, PropertyLoader
             Visitor<NodeLabelUpdate, FAILURE> labelUpdateVisitor,
             boolean forceStoreScan );
 
+    /**
+     * Like {@link #visitNodes(int[], IntPredicate, Visitor, Visitor, boolean)}, but splits the nodes into ranges of node ids
+     * and returns one {@link StoreScan} per range, for running them in parallel, each in its own thread.
+     * Together the returned scans cover all nodes, also nodes created while scanning.
+     *
+     * @param numberOfPartitions the maximum number of scans to split the nodes into.
+     * @param labelIds array of label ids to generate updates for. Empty array means all.
+     * @param propertyKeyIdFilter property key ids to generate updates for.
+     * @param propertyUpdateVisitors creates a visitor for each partition, given the partition index, which will see
+     * all {@link EntityUpdates} generated by the scan of that partition.
+     * @return the {@link StoreScan scans} of all the partitions, or an empty list if this view cannot split the nodes into
+     * more than one partition, in which case {@link #visitNodes(int[], IntPredicate, Visitor, Visitor, boolean)} should be used instead.
+     */
+    default <FAILURE extends Exception> List<StoreScan<FAILURE>> visitNodesInPartitions( int numberOfPartitions,
+            int[] labelIds, IntPredicate propertyKeyIdFilter,
+            IntFunction<Visitor<EntityUpdates,FAILURE>> propertyUpdateVisitors )
+    {
+        return Collections.emptyList();
+    }
+
     /**
      * Retrieve all relationships in the database which has any of the the given relationship types AND
      * one or more of the given property key ids.
@@ -36,6 +36,7 @@ public class LoggingPhaseTracker implements PhaseTracker
 
     private final long periodInterval;
     private final Log log;
+    private final String messagePrefix;
     private final Clock clock;
 
     private EnumMap<Phase,Logger> times = new EnumMap<>( Phase.class );
@@ -49,11 +50,26 @@ public class LoggingPhaseTracker implements PhaseTracker
         this( PERIOD_INTERVAL, log, Clock.systemUTC() );
     }
 
+    /**
+     * @param name distinguishes the reports of this tracker from those of other trackers reporting to the same log,
+     * e.g. trackers of scans running in parallel.
+     */
+    LoggingPhaseTracker( Log log, String name )
+    {
+        this( PERIOD_INTERVAL, log, Clock.systemUTC(), MESSAGE_PREFIX + name + " " );
+    }
+
     @VisibleForTesting
     LoggingPhaseTracker( long periodIntervalInSeconds, Log log, Clock clock )
+    {
+        this( periodIntervalInSeconds, log, clock, MESSAGE_PREFIX );
+    }
+
+    private LoggingPhaseTracker( long periodIntervalInSeconds, Log log, Clock clock, String messagePrefix )
     {
         this.periodInterval = TimeUnit.SECONDS.toMillis( periodIntervalInSeconds );
         this.log = log;
+        this.messagePrefix = messagePrefix;
         this.clock = clock;
         for ( Phase phase : Phase.values() )
         {
@@ -105,14 +121,14 @@ public class LoggingPhaseTracker implements PhaseTracker
 
     private void finalReport()
     {
-        log.info( MESSAGE_PREFIX + mainReportString( "Final" ) );
+        log.info( messagePrefix + mainReportString( "Final" ) );
     }
 
     private void periodReport( long millisSinceLastPerioReport )
     {
         String periodReportString = periodReportString( millisSinceLastPerioReport );
         String mainReportString = mainReportString( "Total" );
-        log.debug( MESSAGE_PREFIX + mainReportString + ", " + periodReportString );
+        log.debug( messagePrefix + mainReportString + ", " + periodReportString );
     }
 
     private String mainReportString( String title )
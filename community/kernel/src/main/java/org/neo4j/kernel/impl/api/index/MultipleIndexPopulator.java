@@ -28,12 +28,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.IntPredicate;
 import java.util.stream.IntStream;
 
 import org.neo4j.function.ThrowingConsumer;
+import org.neo4j.helpers.Exceptions;
 import org.neo4j.helpers.collection.Pair;
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.internal.kernel.api.InternalIndexState;
@@ -57,6 +64,7 @@ import org.neo4j.util.FeatureToggles;
 
 import static java.lang.String.format;
 import static org.eclipse.collections.impl.utility.ArrayIterate.contains;
+import static org.neo4j.helpers.NamedThreadFactory.daemon;
 import static org.neo4j.kernel.impl.api.index.IndexPopulationFailure.failure;
 
 /**
@@ -88,6 +96,8 @@ public class MultipleIndexPopulator implements IndexPopulator
 {
     public static final String QUEUE_THRESHOLD_NAME = "queue_threshold";
     static final String BATCH_SIZE_NAME = "batch_size";
+    private static final String SCAN_THREAD_NAME_PREFIX = "Index Population Scan Thread";
+    private static final String SCAN_COMPLETION_THREAD_NAME_PREFIX = "Index Population Scan Completion Thread";
 
     final int QUEUE_THRESHOLD = FeatureToggles.getInteger( getClass(), QUEUE_THRESHOLD_NAME, 20_000 );
     final int BATCH_SIZE = FeatureToggles.getInteger( BatchingMultipleIndexPopulator.class, BATCH_SIZE_NAME, 10_000 );
@@ -172,7 +182,11 @@ public class MultipleIndexPopulator implements IndexPopulator
         }
         else
         {
-            storeScan = storeView.visitNodes( entityTokenIds, propertyKeyIdFilter, new EntityPopulationVisitor(), null, false );
+            storeScan = partitionedNodeScan( entityTokenIds, propertyKeyIdFilter );
+            if ( storeScan == null )
+            {
+                storeScan = storeView.visitNodes( entityTokenIds, propertyKeyIdFilter, new EntityPopulationVisitor(), null, false );
+            }
         }
         storeScan.setPhaseTracker( phaseTracker );
         return new DelegatingStoreScan<IndexPopulationFailedKernelException>( storeScan )
@@ -186,6 +200,37 @@ public class MultipleIndexPopulator implements IndexPopulator
         };
     }
 
+    private StoreScan<IndexPopulationFailedKernelException> partitionedNodeScan( int[] entityTokenIds, IntPredicate propertyKeyIdFilter )
+    {
+        int numberOfPartitions = numberOfScanPartitions();
+        if ( numberOfPartitions <= 1 )
+        {
+            return null;
+        }
+        PhaseTracker[] partitionPhaseTrackers = new PhaseTracker[numberOfPartitions];
+        List<StoreScan<IndexPopulationFailedKernelException>> partitions =
+                storeView.visitNodesInPartitions( numberOfPartitions, entityTokenIds, propertyKeyIdFilter, partition ->
+                {
+                    partitionPhaseTrackers[partition] = new LoggingPhaseTracker( log, "partition " + partition );
+                    return new PartitionPopulationVisitor( partitionPhaseTrackers[partition] );
+                } );
+        if ( partitions.isEmpty() )
+        {
+            return null;
+        }
+        log.info( "Scanning nodes in %d partitions in parallel", partitions.size() );
+        return new PartitionedStoreScan( partitions, Arrays.copyOf( partitionPhaseTrackers, partitions.size() ) );
+    }
+
+    /**
+     * @return the maximum number of partitions to split the scan of nodes into, each scanned by its own thread.
+     * The actual number of partitions is decided by the {@link IndexStoreView}.
+     */
+    int numberOfScanPartitions()
+    {
+        return 1;
+    }
+
     /**
      * Queues an update to be fed into the index populators. These updates come from changes being made
      * to storage while a concurrent scan is happening to keep populators up to date with all latest changes.
@@ -311,6 +356,11 @@ public class MultipleIndexPopulator implements IndexPopulator
 
     void flipAfterPopulation( boolean verifyBeforeFlipping )
     {
+        List<IndexPopulation> populationsToComplete = new ArrayList<>( populations );
+        if ( populationsToComplete.size() > 1 )
+        {
+            completeScansInParallel( populationsToComplete );
+        }
         for ( IndexPopulation population : populations )
         {
             try
@@ -325,6 +375,56 @@ public class MultipleIndexPopulator implements IndexPopulator
         }
     }
 
+    /**
+     * Lets the populators of all populations complete their scans, i.e. merge and build what they have collected during the scan,
+     * at the same time, each in its own thread. Populations failing to do so are failed, the others will not do it again
+     * in {@link IndexPopulation#scanCompleted()}.
+     */
+    private void completeScansInParallel( List<IndexPopulation> populationsToComplete )
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( populationsToComplete.size(), daemon( SCAN_COMPLETION_THREAD_NAME_PREFIX ) );
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( IndexPopulation population : populationsToComplete )
+            {
+                PhaseTracker populationPhaseTracker = new LoggingPhaseTracker( log, "[" + population.indexUserDescription + "]" );
+                futures.add( executor.submit( () ->
+                {
+                    try
+                    {
+                        population.scanCompleted( populationPhaseTracker );
+                    }
+                    catch ( Throwable t )
+                    {
+                        fail( population, t );
+                    }
+                    finally
+                    {
+                        populationPhaseTracker.stop();
+                    }
+                } ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        catch ( ExecutionException e )
+        {
+            throw new IllegalStateException( "Populations are failed individually, completing their scans should not fail", e.getCause() );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( "Interrupted while waiting for index populators to complete their scans", e );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
     private int[] propertyKeyIds()
     {
         return populations.stream().flatMapToInt( this::propertyKeyIds ).distinct().toArray();
@@ -507,6 +607,7 @@ public class MultipleIndexPopulator implements IndexPopulator
         private final FailedIndexProxyFactory failedIndexProxyFactory;
         private final String indexUserDescription;
         private boolean populationOngoing = true;
+        private volatile boolean scanHasCompleted;
         private final ReentrantLock populatorLock = new ReentrantLock();
 
         List<IndexEntryUpdate<?>> batchedUpdates;
@@ -582,13 +683,24 @@ public class MultipleIndexPopulator implements IndexPopulator
 
         private void onUpdate( IndexEntryUpdate<?> update )
         {
-            populator.includeSample( update );
-            if ( batch( update ) )
+            if ( includeAndBatch( update ) )
             {
                 flush( this );
             }
         }
 
+        /**
+         * Updates from parallel partitions of the scan go through here, which is why this, as well as {@link #batch(IndexEntryUpdate)}
+         * and {@link #takeCurrentBatch()}, are synchronized.
+         *
+         * @return whether or not the current batch is full and should be flushed.
+         */
+        synchronized boolean includeAndBatch( IndexEntryUpdate<?> update )
+        {
+            populator.includeSample( update );
+            return batch( update );
+        }
+
         void flip( boolean verifyBeforeFlipping ) throws FlipFailedKernelException
         {
             phaseTracker.enterPhase( PhaseTracker.Phase.FLIP );
@@ -646,13 +758,13 @@ public class MultipleIndexPopulator implements IndexPopulator
             return capableIndexDescriptor.schema();
         }
 
-        public boolean batch( IndexEntryUpdate<?> update )
+        public synchronized boolean batch( IndexEntryUpdate<?> update )
         {
             batchedUpdates.add( update );
             return batchedUpdates.size() >= BATCH_SIZE;
         }
 
-        Collection<IndexEntryUpdate<?>> takeCurrentBatch()
+        synchronized Collection<IndexEntryUpdate<?>> takeCurrentBatch()
         {
             if ( batchedUpdates.isEmpty() )
             {
@@ -665,7 +777,16 @@ public class MultipleIndexPopulator implements IndexPopulator
 
         void scanCompleted() throws IndexEntryConflictException
         {
-            populator.scanCompleted( phaseTracker );
+            scanCompleted( phaseTracker );
+        }
+
+        private void scanCompleted( PhaseTracker phaseTracker ) throws IndexEntryConflictException
+        {
+            if ( !scanHasCompleted )
+            {
+                scanHasCompleted = true;
+                populator.scanCompleted( phaseTracker );
+            }
         }
 
         PopulationProgress progress( PopulationProgress storeScanProgress )
@@ -695,6 +816,200 @@ public class MultipleIndexPopulator implements IndexPopulator
         }
     }
 
+    /**
+     * Visitor of one of several partitions of the scan running in parallel. Unlike {@link EntityPopulationVisitor} it doesn't apply
+     * external updates from the queue, that is instead done by {@link PartitionedStoreScan} while all partitions are held in between entities.
+     */
+    private class PartitionPopulationVisitor implements Visitor<EntityUpdates,IndexPopulationFailedKernelException>
+    {
+        private final PhaseTracker phaseTracker;
+
+        PartitionPopulationVisitor( PhaseTracker phaseTracker )
+        {
+            this.phaseTracker = phaseTracker;
+        }
+
+        @Override
+        public boolean visit( EntityUpdates updates )
+        {
+            for ( IndexEntryUpdate<IndexPopulation> indexUpdate : updates.forIndexKeys( populations ) )
+            {
+                IndexPopulation population = indexUpdate.indexKey();
+                if ( population.includeAndBatch( indexUpdate ) )
+                {
+                    phaseTracker.enterPhase( PhaseTracker.Phase.WRITE );
+                    doFlush( population );
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Runs the scans of all partitions of the nodes in parallel, each in its own thread. The thread running this scan applies
+     * the external updates from the queue meanwhile, pausing all partitions in between entities while doing so.
+     */
+    private class PartitionedStoreScan implements StoreScan<IndexPopulationFailedKernelException>
+    {
+        private final List<StoreScan<IndexPopulationFailedKernelException>> partitions;
+        private final PhaseTracker[] partitionPhaseTrackers;
+
+        PartitionedStoreScan( List<StoreScan<IndexPopulationFailedKernelException>> partitions, PhaseTracker[] partitionPhaseTrackers )
+        {
+            this.partitions = partitions;
+            this.partitionPhaseTrackers = partitionPhaseTrackers;
+            for ( int i = 0; i < partitions.size(); i++ )
+            {
+                partitions.get( i ).setPhaseTracker( partitionPhaseTrackers[i] );
+            }
+        }
+
+        @Override
+        public void run() throws IndexPopulationFailedKernelException
+        {
+            ExecutorService executor = Executors.newFixedThreadPool( partitions.size(), daemon( SCAN_THREAD_NAME_PREFIX ) );
+            try
+            {
+                List<Future<?>> futures = new ArrayList<>();
+                for ( int i = 0; i < partitions.size(); i++ )
+                {
+                    StoreScan<IndexPopulationFailedKernelException> partition = partitions.get( i );
+                    PhaseTracker partitionPhaseTracker = partitionPhaseTrackers[i];
+                    futures.add( executor.submit( () ->
+                    {
+                        try
+                        {
+                            partition.run();
+                        }
+                        finally
+                        {
+                            partitionPhaseTracker.stop();
+                        }
+                        return null;
+                    } ) );
+                }
+                awaitPartitions( futures );
+            }
+            finally
+            {
+                executor.shutdown();
+            }
+        }
+
+        private void awaitPartitions( List<Future<?>> futures ) throws IndexPopulationFailedKernelException
+        {
+            try
+            {
+                while ( !allDone( futures ) )
+                {
+                    if ( updatesQueue.size() >= QUEUE_THRESHOLD )
+                    {
+                        runInBetweenEntitiesOfAllPartitions( 0, () -> populateFromQueue( QUEUE_THRESHOLD, Long.MAX_VALUE ) );
+                    }
+                    else
+                    {
+                        LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 10 ) );
+                    }
+                }
+            }
+            catch ( ExecutionException e )
+            {
+                stopAndAwait( futures );
+                Throwable cause = e.getCause();
+                Exceptions.throwIfInstanceOf( cause, IndexPopulationFailedKernelException.class );
+                Exceptions.throwIfUnchecked( cause );
+                throw new RuntimeException( cause );
+            }
+            catch ( InterruptedException e )
+            {
+                stopAndAwait( futures );
+                Thread.currentThread().interrupt();
+                throw new RuntimeException( "Interrupted while scanning nodes in partitions", e );
+            }
+        }
+
+        /**
+         * @return whether or not all partitions have completed their scans.
+         * @throws ExecutionException as soon as any partition has failed.
+         */
+        private boolean allDone( List<Future<?>> futures ) throws ExecutionException, InterruptedException
+        {
+            if ( Thread.interrupted() )
+            {
+                throw new InterruptedException();
+            }
+            boolean allDone = true;
+            for ( Future<?> future : futures )
+            {
+                if ( future.isDone() )
+                {
+                    future.get();
+                }
+                else
+                {
+                    allDone = false;
+                }
+            }
+            return allDone;
+        }
+
+        private void stopAndAwait( List<Future<?>> futures )
+        {
+            // The population has failed anyway, let the other partitions stop as soon as possible
+            stop();
+            for ( Future<?> future : futures )
+            {
+                while ( !future.isDone() )
+                {
+                    LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 10 ) );
+                }
+            }
+        }
+
+        private void runInBetweenEntitiesOfAllPartitions( int fromPartition, Runnable action )
+        {
+            if ( fromPartition == partitions.size() )
+            {
+                action.run();
+            }
+            else
+            {
+                partitions.get( fromPartition ).runInBetweenEntities( () -> runInBetweenEntitiesOfAllPartitions( fromPartition + 1, action ) );
+            }
+        }
+
+        @Override
+        public void stop()
+        {
+            partitions.forEach( StoreScan::stop );
+        }
+
+        @Override
+        public void acceptUpdate( MultipleIndexUpdater updater, IndexEntryUpdate<?> update, long currentlyIndexedNodeId )
+        {
+            // Each partition only accepts updates of the nodes in its own range of node ids
+            for ( StoreScan<IndexPopulationFailedKernelException> partition : partitions )
+            {
+                partition.acceptUpdate( updater, update, currentlyIndexedNodeId );
+            }
+        }
+
+        @Override
+        public PopulationProgress getProgress()
+        {
+            long completed = 0;
+            long total = 0;
+            for ( StoreScan<IndexPopulationFailedKernelException> partition : partitions )
+            {
+                PopulationProgress progress = partition.getProgress();
+                completed += progress.getCompleted();
+                // All partitions report the total number of nodes in the store
+                total = Math.max( total, progress.getTotal() );
+            }
+            return total == 0 ? PopulationProgress.DONE : PopulationProgress.single( completed, total );
+        }
+    }
+
     protected static class DelegatingStoreScan<E extends Exception> implements StoreScan<E>
     {
         private final StoreScan<E> delegate;
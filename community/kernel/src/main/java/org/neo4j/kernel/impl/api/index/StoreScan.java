@@ -41,4 +41,15 @@ public interface StoreScan<FAILURE extends Exception>
     default void setPhaseTracker( PhaseTracker phaseTracker )
     {   // no-op
     }
+
+    /**
+     * Runs the given action at a point where this scan is in between entities, i.e. not in the middle of reading
+     * and processing an entity. Used for applying external updates while this scan is running in another thread.
+     * After the action has run the scan will see any store updates made by it.
+     * @param action the action to run while this scan is held in between entities.
+     */
+    default void runInBetweenEntities( Runnable action )
+    {
+        action.run();
+    }
 }
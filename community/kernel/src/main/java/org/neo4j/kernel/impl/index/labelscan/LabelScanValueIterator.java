@@ -44,6 +44,7 @@ import static org.neo4j.storageengine.api.schema.LabelScanReader.NO_ID;
 class LabelScanValueIterator extends LabelScanValueIndexAccessor implements PrimitiveLongResourceIterator
 {
     private long fromId;
+    private final long toId;
     private boolean hasNextDecided;
     private boolean hasNext;
     protected long next;
@@ -54,9 +55,20 @@ class LabelScanValueIterator extends LabelScanValueIndexAccessor implements Prim
      */
     LabelScanValueIterator( RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor,
             Collection<RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException>> toRemoveFromWhenClosed, long fromId )
+    {
+        this( cursor, toRemoveFromWhenClosed, fromId, Long.MAX_VALUE );
+    }
+
+    /**
+     * @param fromId entity to start from (exclusive), see {@link #LabelScanValueIterator(RawCursor, Collection, long)}.
+     * @param toId entity to stop at (exclusive). Like {@code fromId} it may be somewhere inside a bit-set range.
+     */
+    LabelScanValueIterator( RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor,
+            Collection<RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException>> toRemoveFromWhenClosed, long fromId, long toId )
     {
         super( toRemoveFromWhenClosed, cursor );
         this.fromId = fromId;
+        this.toId = toId;
     }
 
     @Override
@@ -130,6 +142,11 @@ class LabelScanValueIterator extends LabelScanValueIndexAccessor implements Prim
                 // ... and let's not do that again, only for the first idRange
                 fromId = NO_ID;
             }
+            if ( rangeOf( toId ) == hit.key().idRange )
+            {
+                // Trim off ids in the last range which are greater than or equal to the id to stop at
+                bits &= (1L << (toId % RANGE_SIZE)) - 1;
+            }
 
             //noinspection AssertWithSideEffects
             assert keysInOrder( hit.key() );
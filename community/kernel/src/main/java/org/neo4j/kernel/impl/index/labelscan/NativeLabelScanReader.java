@@ -24,9 +24,9 @@ import org.eclipse.collections.api.iterator.LongIterator;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.cursor.RawCursor;
@@ -62,7 +62,8 @@ class NativeLabelScanReader implements LabelScanReader
     NativeLabelScanReader( GBPTree<LabelScanKey,LabelScanValue> index )
     {
         this.index = index;
-        this.openCursors = new HashSet<>();
+        // Cursors may be opened and closed concurrently by scans split up over multiple threads
+        this.openCursors = ConcurrentHashMap.newKeySet();
     }
 
     /**
@@ -98,6 +99,51 @@ class NativeLabelScanReader implements LabelScanReader
         return new LabelScanValueIterator( cursor, openCursors, NO_ID );
     }
 
+    @Override
+    public PrimitiveLongResourceIterator nodesWithLabelInRange( int labelId, long fromId, long toId )
+    {
+        RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor;
+        try
+        {
+            LabelScanKey from = new LabelScanKey( labelId, rangeOf( fromId ) );
+            LabelScanKey to = new LabelScanKey( labelId, rangeOf( toId - 1 ) + 1 );
+            cursor = index.seek( from, to );
+            openCursors.add( cursor );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+
+        // The iterator treats its fromId as exclusive
+        return new LabelScanValueIterator( cursor, openCursors, fromId - 1, toId );
+    }
+
+    @Override
+    public long highestNodeIdWithLabel( int labelId )
+    {
+        // Seek backwards from the highest possible range, the first hit is the highest range with nodes having this label
+        LabelScanKey from = new LabelScanKey( labelId, Long.MAX_VALUE );
+        LabelScanKey to = new LabelScanKey( labelId, -1 );
+        try ( RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor = index.seek( from, to ) )
+        {
+            while ( cursor.next() )
+            {
+                Hit<LabelScanKey,LabelScanValue> hit = cursor.get();
+                long bits = hit.value().bits;
+                if ( bits != 0 )
+                {
+                    return hit.key().idRange * LabelScanValue.RANGE_SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros( bits );
+                }
+            }
+            return NO_ID;
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
     @Override
     public PrimitiveLongResourceIterator nodesWithAnyOfLabels( long fromId, int... labelIds )
     {
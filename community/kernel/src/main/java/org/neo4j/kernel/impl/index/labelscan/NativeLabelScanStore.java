@@ -188,16 +188,27 @@ public class NativeLabelScanStore implements LabelScanStore
     NativeLabelScanStore( PageCache pageCache, DatabaseLayout directoryStructure, FileSystemAbstraction fs,
                 FullStoreChangeStream fullStoreChangeStream, boolean readOnly, Monitors monitors,
                 RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, int pageSize )
+    {
+        this( pageCache, directoryStructure, fs, getLabelScanStoreFile( directoryStructure ), fullStoreChangeStream, readOnly, monitors,
+                monitors.newMonitor( Monitor.class ), recoveryCleanupWorkCollector, pageSize );
+    }
+
+    /*
+     * For stores using the same layout, but for other entity token mappings, see {@link NativeRelationshipTypeScanStore}.
+     */
+    NativeLabelScanStore( PageCache pageCache, DatabaseLayout directoryStructure, FileSystemAbstraction fs, File storeFile,
+            FullStoreChangeStream fullStoreChangeStream, boolean readOnly, Monitors monitors, Monitor monitor,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, int pageSize )
     {
         this.pageCache = pageCache;
         this.fs = fs;
         this.pageSize = pageSize;
         this.fullStoreChangeStream = fullStoreChangeStream;
         this.directoryStructure = directoryStructure;
-        this.storeFile = getLabelScanStoreFile( directoryStructure );
+        this.storeFile = storeFile;
         this.readOnly = readOnly;
         this.monitors = monitors;
-        this.monitor = monitors.newMonitor( Monitor.class );
+        this.monitor = monitor;
         this.recoveryCleanupWorkCollector = recoveryCleanupWorkCollector;
         this.fileSystem = fs;
     }
@@ -336,7 +347,7 @@ public class NativeLabelScanStore implements LabelScanStore
             isDirty = true;
         }
 
-        writeMonitor = LabelScanWriteMonitor.ENABLED ? new LabelScanWriteMonitor( fs, directoryStructure ) : NativeLabelScanWriter.EMPTY;
+        writeMonitor = newWriteMonitor( fs, directoryStructure );
         singleWriter = new NativeLabelScanWriter( 1_000, writeMonitor );
 
         if ( isDirty )
@@ -351,6 +362,14 @@ public class NativeLabelScanStore implements LabelScanStore
         }
     }
 
+    /**
+     * @return {@link NativeLabelScanWriter.WriteMonitor} to use for all writes going into this store.
+     */
+    NativeLabelScanWriter.WriteMonitor newWriteMonitor( FileSystemAbstraction fs, DatabaseLayout directoryStructure )
+    {
+        return LabelScanWriteMonitor.ENABLED ? new LabelScanWriteMonitor( fs, directoryStructure ) : NativeLabelScanWriter.EMPTY;
+    }
+
     @Override
     public boolean hasStore()
     {
@@ -368,8 +387,10 @@ public class NativeLabelScanStore implements LabelScanStore
      */
     private boolean instantiateTree() throws IOException
     {
-        monitors.addMonitorListener( treeMonitor() );
-        GBPTree.Monitor monitor = monitors.newMonitor( GBPTree.Monitor.class );
+        // Tag tree monitor events with the store file name to keep them apart from other trees using the same layout
+        String monitorTag = storeFile.getName();
+        monitors.addMonitorListener( treeMonitor(), monitorTag );
+        GBPTree.Monitor monitor = monitors.newMonitor( GBPTree.Monitor.class, monitorTag );
         MutableBoolean isRebuilding = new MutableBoolean();
         Header.Reader readRebuilding =
                 headerData -> isRebuilding.setValue( headerData.get() == NEEDS_REBUILDING );
@@ -333,7 +333,7 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
      */
     private void writeExternalUpdatesToTree( RecordingConflictDetector<KEY,VALUE> recordingConflictDetector ) throws IOException, IndexEntryConflictException
     {
-        try ( Writer<KEY,VALUE> writer = tree.writer();
+        try ( Writer<KEY,VALUE> writer = newWriter();
               IndexUpdateCursor<KEY,VALUE> updates = externalUpdates.reader() )
         {
             while ( updates.next() && !cancellation.cancelled() )
@@ -405,7 +405,7 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
             }
 
             int asMuchAsPossibleToTheLeft = 1;
-            try ( Writer<KEY,VALUE> writer = tree.writer( asMuchAsPossibleToTheLeft ) )
+            try ( Writer<KEY,VALUE> writer = newWriter( asMuchAsPossibleToTheLeft ) )
             {
                 while ( allEntries.next() && !cancellation.cancelled() )
                 {
@@ -30,6 +30,7 @@ import org.neo4j.storageengine.api.schema.IndexSample;
 
 /**
  * {@link NonUniqueIndexSampler} which performs a full scans of a {@link GBPTree} in {@link #result()}.
+ * If given {@link NativeIndexStatistics} they will be rebuilt from the scan, so that later samples can use them instead.
  *
  * @param <KEY> type of keys in tree.
  * @param <VALUE> type of values in tree.
@@ -39,11 +40,18 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
 {
     private final GBPTree<KEY,VALUE> gbpTree;
     private final IndexLayout<KEY,VALUE> layout;
+    private final NativeIndexStatistics statistics;
 
     FullScanNonUniqueIndexSampler( GBPTree<KEY,VALUE> gbpTree, IndexLayout<KEY,VALUE> layout )
+    {
+        this( gbpTree, layout, null );
+    }
+
+    FullScanNonUniqueIndexSampler( GBPTree<KEY,VALUE> gbpTree, IndexLayout<KEY,VALUE> layout, NativeIndexStatistics statistics )
     {
         this.gbpTree = gbpTree;
         this.layout = layout;
+        this.statistics = statistics;
     }
 
     @Override
@@ -56,7 +64,8 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
         highest.initialize( Long.MAX_VALUE );
         highest.initValuesAsHighest();
         KEY prev = layout.newKey();
-        try ( RawCursor<Hit<KEY,VALUE>,IOException> seek = gbpTree.seek( lowest, highest ) )
+        NativeIndexStatistics.Rebuild<KEY,VALUE> rebuild = statistics != null ? statistics.startRebuild( gbpTree, layout, lowest, highest ) : null;
+        try ( RawCursor<Hit<KEY,VALUE>,IOException> seek = rebuild != null ? rebuild : gbpTree.seek( lowest, highest ) )
         {
             long sampledValues = 0;
             long uniqueValues = 0;
@@ -81,6 +90,10 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
                     sampledValues++;
                 }
             }
+            if ( rebuild != null )
+            {
+                rebuild.complete();
+            }
             return new IndexSample( sampledValues, uniqueValues, sampledValues );
         }
         catch ( IOException e )
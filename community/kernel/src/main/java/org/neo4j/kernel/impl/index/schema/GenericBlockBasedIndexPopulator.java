@@ -47,6 +47,6 @@ class GenericBlockBasedIndexPopulator extends BlockBasedIndexPopulator<GenericKe
     @Override
     NativeIndexReader<GenericKey,NativeIndexValue> newReader()
     {
-        return new GenericNativeIndexReader( tree, layout, descriptor, spatialSettings, configuration );
+        return new GenericNativeIndexReader( tree, layout, descriptor, spatialSettings, configuration, statistics );
     }
 }
@@ -84,6 +84,6 @@ class GenericNativeIndexPopulator extends NativeIndexPopulator<GenericKey,Native
     @Override
     NativeIndexReader<GenericKey,NativeIndexValue> newReader()
     {
-        return new GenericNativeIndexReader( tree, layout, descriptor, spatialSettings, configuration );
+        return new GenericNativeIndexReader( tree, layout, descriptor, spatialSettings, configuration, statistics );
     }
 }
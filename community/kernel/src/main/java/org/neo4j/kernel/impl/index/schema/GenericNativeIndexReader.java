@@ -49,9 +49,9 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
 
     GenericNativeIndexReader( GBPTree<GenericKey,NativeIndexValue> tree, IndexLayout<GenericKey,NativeIndexValue> layout,
             IndexDescriptor descriptor, IndexSpecificSpaceFillingCurveSettingsCache spaceFillingCurveSettings,
-            SpaceFillingCurveConfiguration configuration )
+            SpaceFillingCurveConfiguration configuration, NativeIndexStatistics statistics )
     {
-        super( tree, layout, descriptor );
+        super( tree, layout, descriptor, statistics );
         this.spaceFillingCurveSettings = spaceFillingCurveSettings;
         this.configuration = configuration;
     }
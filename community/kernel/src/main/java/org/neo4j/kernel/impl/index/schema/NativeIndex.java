@@ -26,6 +26,7 @@ import java.util.function.Consumer;
 
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.index.internal.gbptree.Writer;
 import org.neo4j.io.IOUtils;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageCache;
@@ -33,8 +34,6 @@ import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.kernel.api.index.IndexProvider;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
 
-import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_READER;
-
 abstract class NativeIndex<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue>
 {
     final PageCache pageCache;
@@ -42,6 +41,7 @@ abstract class NativeIndex<KEY extends NativeIndexKey<KEY>, VALUE extends Native
     final IndexLayout<KEY,VALUE> layout;
     final FileSystemAbstraction fileSystem;
     final StoreIndexDescriptor descriptor;
+    final NativeIndexStatistics statistics = new NativeIndexStatistics();
     private final IndexProvider.Monitor monitor;
 
     protected GBPTree<KEY,VALUE> tree;
@@ -61,7 +61,7 @@ abstract class NativeIndex<KEY extends NativeIndexKey<KEY>, VALUE extends Native
     {
         ensureDirectoryExist();
         GBPTree.Monitor monitor = treeMonitor();
-        tree = new GBPTree<>( pageCache, storeFile, layout, 0, monitor, NO_HEADER_READER, headerWriter, recoveryCleanupWorkCollector );
+        tree = new GBPTree<>( pageCache, storeFile, layout, 0, monitor, statistics, headerWriter, recoveryCleanupWorkCollector );
         afterTreeInstantiation( tree );
     }
 
@@ -86,6 +86,43 @@ abstract class NativeIndex<KEY extends NativeIndexKey<KEY>, VALUE extends Native
         }
     }
 
+    /**
+     * @return {@link Writer} for the tree, keeping the {@link #statistics} up to date.
+     * @throws IOException on error accessing the tree.
+     */
+    Writer<KEY,VALUE> newWriter() throws IOException
+    {
+        statistics.beginWrite();
+        try
+        {
+            return new StatisticsTrackingWriter<>( tree.writer(), statistics );
+        }
+        catch ( Throwable e )
+        {
+            statistics.endWrite();
+            throw e;
+        }
+    }
+
+    /**
+     * @param ratioToKeepInLeftOnSplit see {@link GBPTree#writer(double)}.
+     * @return {@link Writer} for the tree, keeping the {@link #statistics} up to date.
+     * @throws IOException on error accessing the tree.
+     */
+    Writer<KEY,VALUE> newWriter( double ratioToKeepInLeftOnSplit ) throws IOException
+    {
+        statistics.beginWrite();
+        try
+        {
+            return new StatisticsTrackingWriter<>( tree.writer( ratioToKeepInLeftOnSplit ), statistics );
+        }
+        catch ( Throwable e )
+        {
+            statistics.endWrite();
+            throw e;
+        }
+    }
+
     void closeTree()
     {
         IOUtils.closeAllUnchecked( tree );
@@ -53,7 +53,7 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
     {
         super( pageCache, fs, storeFile, layout, monitor, descriptor );
         singleUpdater = new NativeIndexUpdater<>( layout.newKey(), layout.newValue() );
-        headerWriter = new NativeIndexHeaderWriter( BYTE_ONLINE, additionalHeaderWriter );
+        headerWriter = new NativeIndexHeaderWriter( BYTE_ONLINE, additionalHeaderWriter, statistics );
     }
 
     @Override
@@ -76,7 +76,7 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
         assertOpen();
         try
         {
-            return singleUpdater.initialize( tree.writer() );
+            return singleUpdater.initialize( newWriter() );
         }
         catch ( IOException e )
         {
@@ -87,7 +87,8 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
     @Override
     public void force( IOLimiter ioLimiter )
     {
-        tree.checkpoint( ioLimiter );
+        // The header writer is used so that the index statistics are checkpointed together with the tree.
+        tree.checkpoint( ioLimiter, headerWriter );
     }
 
     @Override
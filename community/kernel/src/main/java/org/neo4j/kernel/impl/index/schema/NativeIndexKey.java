@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.index.schema;
 
+import org.neo4j.hashing.HashFunction;
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.kernel.impl.store.TemporalValueWriterAdapter;
 import org.neo4j.values.storable.Value;
@@ -36,6 +37,7 @@ abstract class NativeIndexKey<SELF extends NativeIndexKey<SELF>> extends Tempora
     }
 
     private static final boolean DEFAULT_COMPARE_ID = true;
+    private static final long VALUE_HASH_SEED = 1;
 
     private long entityId;
     private boolean compareId = DEFAULT_COMPARE_ID;
@@ -91,6 +93,21 @@ abstract class NativeIndexKey<SELF extends NativeIndexKey<SELF>> extends Tempora
 
     abstract Value[] asValues();
 
+    /**
+     * @return 64-bit hash of the value(s) of this key, not including entity id. Keys with equal values have equal hashes.
+     * Used for estimating the number of distinct values in an index, see {@link NativeIndexStatistics}.
+     */
+    long valueHash()
+    {
+        HashFunction hashFunction = HashFunction.incrementalXXH64();
+        long hash = hashFunction.initialise( VALUE_HASH_SEED );
+        for ( Value value : asValues() )
+        {
+            hash = value.updateHash( hashFunction, hash );
+        }
+        return hashFunction.finalise( hash );
+    }
+
     abstract void initValueAsLowest( int stateSlot, ValueGroup valueGroup );
 
     abstract void initValueAsHighest( int stateSlot, ValueGroup valueGroup );
@@ -113,6 +113,7 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
         assertNotClosed();
 
         deleteFileIfPresent( fileSystem, storeFile );
+        statistics.clear();
         instantiateTree( RecoveryCleanupWorkCollector.immediate(), headerWriter );
 
         // true:  tree uniqueness is (value,entityId)
@@ -258,13 +259,13 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
 
     void markTreeAsOnline()
     {
-        tree.checkpoint( IOLimiter.UNLIMITED, new NativeIndexHeaderWriter( BYTE_ONLINE, additionalHeaderWriter ) );
+        tree.checkpoint( IOLimiter.UNLIMITED, new NativeIndexHeaderWriter( BYTE_ONLINE, additionalHeaderWriter, statistics ) );
     }
 
     private void processUpdates( Iterable<? extends IndexEntryUpdate<?>> indexEntryUpdates, ConflictDetectingValueMerger<KEY,VALUE,Value[]> conflictDetector )
             throws IndexEntryConflictException
     {
-        try ( Writer<KEY,VALUE> writer = tree.writer() )
+        try ( Writer<KEY,VALUE> writer = newWriter() )
         {
             for ( IndexEntryUpdate<?> indexEntryUpdate : indexEntryUpdates )
             {
@@ -316,7 +317,7 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
         switch ( descriptor.type() )
         {
         case GENERAL:
-            return new FullScanNonUniqueIndexSampler<>( tree, layout ).result();
+            return statistics.isUsableForSampling() ? statistics.sample( false ) : new FullScanNonUniqueIndexSampler<>( tree, layout, statistics ).result();
         case UNIQUE:
             return uniqueSampler.result();
         default:
@@ -39,6 +39,7 @@ import org.neo4j.storageengine.api.schema.IndexSampler;
 import org.neo4j.values.storable.Value;
 
 import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.NEUTRAL;
+import static org.neo4j.storageengine.api.schema.IndexDescriptor.Type.UNIQUE;
 
 abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue>
         implements IndexReader
@@ -47,12 +48,14 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
     final IndexLayout<KEY,VALUE> layout;
     final Set<RawCursor<Hit<KEY,VALUE>,IOException>> openSeekers;
     final GBPTree<KEY,VALUE> tree;
+    private final NativeIndexStatistics statistics;
 
-    NativeIndexReader( GBPTree<KEY,VALUE> tree, IndexLayout<KEY,VALUE> layout, IndexDescriptor descriptor )
+    NativeIndexReader( GBPTree<KEY,VALUE> tree, IndexLayout<KEY,VALUE> layout, IndexDescriptor descriptor, NativeIndexStatistics statistics )
     {
         this.tree = tree;
         this.layout = layout;
         this.descriptor = descriptor;
+        this.statistics = statistics;
         this.openSeekers = new HashSet<>();
     }
 
@@ -65,14 +68,17 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
     @Override
     public IndexSampler createSampler()
     {
-        // For a unique index there's an optimization, knowing that all values in it are unique, to simply count
-        // the number of indexed values and create a sample for that count. The GBPTree doesn't have an O(1)
-        // count mechanism, it will have to manually count the indexed values in it to get it.
-        // For that reason this implementation opts for keeping complexity down by just using the existing
-        // non-unique sampler which scans the index and counts (potentially duplicates, of which there will
-        // be none in a unique index).
-
-        FullScanNonUniqueIndexSampler<KEY,VALUE> sampler = new FullScanNonUniqueIndexSampler<>( tree, layout );
+        // The GBPTree doesn't have an O(1) count mechanism, but the writers of this index keep statistics about it,
+        // which are good enough for sampling big indexes. A unique index is sampled from the entry count alone,
+        // knowing that all values in it are unique. Small indexes, or indexes which haven't got any usable statistics
+        // yet, are sampled by scanning them, using the non-unique sampler which counts (potentially duplicates, of which
+        // there will be none in a unique index). The scan also rebuilds the statistics.
+        if ( statistics.isUsableForSampling() )
+        {
+            boolean unique = descriptor.type() == UNIQUE;
+            return () -> statistics.sample( unique );
+        }
+        FullScanNonUniqueIndexSampler<KEY,VALUE> sampler = new FullScanNonUniqueIndexSampler<>( tree, layout, statistics );
         return sampler::result;
     }
 
@@ -0,0 +1,464 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Header;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.storageengine.api.schema.IndexSample;
+import org.neo4j.util.FeatureToggles;
+
+/**
+ * Statistics of a native index, maintained by its writers, see {@link StatisticsTrackingWriter}, such that the index can be sampled
+ * without scanning the whole {@link GBPTree}. Keeps the number of entries and a HyperLogLog sketch of the values of the entries,
+ * which estimates the number of distinct values with a standard error of about 3%.
+ * <p>
+ * The sketch can't forget values of removed entries, so it will overestimate the number of distinct values after many removals.
+ * For this reason the statistics are only {@link #isUsableForSampling() usable for sampling} as long as the number of removals
+ * since the sketch was built is small compared to the number of entries. Small indexes are cheap to scan and so are sampled
+ * exactly by scanning them, which also {@link #startRebuild(GBPTree, IndexLayout, NativeIndexKey, NativeIndexKey) rebuilds} the statistics.
+ * <p>
+ * The statistics are written last in the {@link GBPTree} header, see {@link NativeIndexHeaderWriter}, on every checkpoint and so
+ * always match the state of the tree. Recovery replays updates made after the last checkpoint, which keeps them in sync.
+ * Indexes written before statistics were introduced have no statistics in the header and will get them the first time they are sampled.
+ */
+final class NativeIndexStatistics implements Header.Reader
+{
+    /**
+     * Indexes with fewer entries than this are sampled by scanning them, which is exact and still cheap.
+     */
+    private static final long MAX_ENTRIES_TO_SCAN = FeatureToggles.getLong( NativeIndexStatistics.class, "maxEntriesToScan", 100_000 );
+
+    /**
+     * Number of entries scanned at a time when {@link Rebuild rebuilding}, with writers excluded.
+     */
+    private static final int SCAN_CHUNK_SIZE = FeatureToggles.getInteger( NativeIndexStatistics.class, "scanChunkSize", 1_000 );
+
+    private static final int REGISTER_BITS = 10;
+    private static final int REGISTERS = 1 << REGISTER_BITS;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+    private static final long MAGIC = 0x4E4153544154535FL; // "NASTATS_"
+    static final int SIZE = REGISTERS + Long.BYTES * 3;
+
+    private final byte[] registers = new byte[REGISTERS];
+    private final LongAdder entries = new LongAdder();
+    private final LongAdder removals = new LongAdder();
+    private volatile boolean known;
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    // Guarded by rebuildLock, written under its write lock and read under either
+    private Rebuild<?,?> rebuild;
+
+    /**
+     * Resets the statistics to those of an empty index, e.g. when an index is created.
+     */
+    synchronized void clear()
+    {
+        Arrays.fill( registers, (byte) 0 );
+        entries.reset();
+        removals.reset();
+        known = true;
+    }
+
+    /**
+     * Called when an entry has been added to the index.
+     *
+     * @param valueHash 64-bit hash of the value(s) of the added entry.
+     */
+    void added( long valueHash )
+    {
+        entries.increment();
+        int register = (int) (valueHash >>> (Long.SIZE - REGISTER_BITS));
+        byte rank = (byte) (Long.numberOfLeadingZeros( (valueHash << REGISTER_BITS) | (1L << (REGISTER_BITS - 1)) ) + 1);
+        // Registers only ever grow and very rarely so once a couple of entries have been added, so check without synchronization first
+        if ( rank > registers[register] )
+        {
+            synchronized ( this )
+            {
+                if ( rank > registers[register] )
+                {
+                    registers[register] = rank;
+                }
+            }
+        }
+    }
+
+    /**
+     * Called before a writer of the index is opened, so that writers are excluded while an ongoing {@link Rebuild} scans a
+     * part of the index. Must be followed by {@link #endWrite()} by the same thread once the writer has been closed.
+     */
+    void beginWrite()
+    {
+        rebuildLock.readLock().lock();
+    }
+
+    /**
+     * Called after a writer of the index has been closed, see {@link #beginWrite()}.
+     */
+    void endWrite()
+    {
+        rebuildLock.readLock().unlock();
+    }
+
+    /**
+     * Called when an entry has been added to the index by a writer opened in between {@link #beginWrite()} and {@link #endWrite()}.
+     *
+     * @param key the key of the added entry.
+     */
+    <KEY extends NativeIndexKey<KEY>> void added( KEY key )
+    {
+        Rebuild<KEY,?> ongoing = ongoingRebuild();
+        if ( ongoing != null )
+        {
+            ongoing.added( key );
+        }
+        added( key.valueHash() );
+    }
+
+    /**
+     * Called when an entry has been removed from the index by a writer opened in between {@link #beginWrite()} and {@link #endWrite()}.
+     *
+     * @param key the key of the removed entry.
+     */
+    <KEY extends NativeIndexKey<KEY>> void removed( KEY key )
+    {
+        Rebuild<KEY,?> ongoing = ongoingRebuild();
+        if ( ongoing != null )
+        {
+            ongoing.removed( key );
+        }
+        removed();
+    }
+
+    /**
+     * Called when an entry has been removed from the index.
+     */
+    void removed()
+    {
+        entries.decrement();
+        removals.increment();
+    }
+
+    /**
+     * @return whether or not {@link #sample(boolean)} gives a good enough estimate, otherwise the index should be scanned.
+     */
+    boolean isUsableForSampling()
+    {
+        long entryCount = entries.sum();
+        return known && entryCount >= MAX_ENTRIES_TO_SCAN && removals.sum() <= entryCount / 2;
+    }
+
+    /**
+     * @param unique whether or not the index is a unique index, where all values are distinct.
+     * @return sample of the index, based on these statistics.
+     */
+    IndexSample sample( boolean unique )
+    {
+        long entryCount = Math.max( 0, entries.sum() );
+        long distinctValues = unique ? entryCount : Math.min( entryCount, Math.max( entryCount > 0 ? 1 : 0, estimateDistinctValues() ) );
+        return new IndexSample( entryCount, distinctValues, entryCount );
+    }
+
+    private synchronized long estimateDistinctValues()
+    {
+        double sum = 0;
+        int zeros = 0;
+        for ( byte register : registers )
+        {
+            sum += 1D / (1L << register);
+            if ( register == 0 )
+            {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if ( estimate <= 2.5 * REGISTERS && zeros > 0 )
+        {
+            // Small range correction, i.e. linear counting
+            estimate = REGISTERS * Math.log( (double) REGISTERS / zeros );
+        }
+        return Math.round( estimate );
+    }
+
+    /**
+     * Starts rebuilding these statistics from a scan of the whole index. The rebuild is the {@link RawCursor} making the scan
+     * and must be {@link Rebuild#complete() completed} once it has been exhausted, or else {@link Rebuild#close() closed}.
+     *
+     * @param tree the tree of the index.
+     * @param layout layout of the keys in the index.
+     * @param lowest lowest possible key.
+     * @param highest highest possible key.
+     * @return the rebuild, or {@code null} if these statistics are already being rebuilt.
+     */
+    <KEY extends NativeIndexKey<KEY>, VALUE> Rebuild<KEY,VALUE> startRebuild( GBPTree<KEY,VALUE> tree, IndexLayout<KEY,?> layout,
+            KEY lowest, KEY highest )
+    {
+        rebuildLock.writeLock().lock();
+        try
+        {
+            if ( rebuild != null )
+            {
+                return null;
+            }
+            Rebuild<KEY,VALUE> started = new Rebuild<>( tree, layout, lowest, highest );
+            rebuild = started;
+            return started;
+        }
+        finally
+        {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private <KEY extends NativeIndexKey<KEY>> Rebuild<KEY,?> ongoingRebuild()
+    {
+        return (Rebuild<KEY,?>) rebuild;
+    }
+
+    /**
+     * Statistics being rebuilt from a scan of the whole index, while writers keep changing it. The index is scanned in chunks
+     * of {@link #SCAN_CHUNK_SIZE} entries, each with a new seek from where the previous chunk ended and with writers excluded.
+     * Every change is thereby made either before the scan passes the changed key, and so is seen by the scan, or after,
+     * in which case it is added to the scanned statistics by the writer. This keeps the rebuilt statistics exactly
+     * in sync with the index, while writers are only held off for the short time it takes to scan a chunk.
+     * <p>
+     * Writers must not be opened by the thread making the scan.
+     *
+     * @param <KEY> type of keys in the index.
+     * @param <VALUE> type of values in the index.
+     */
+    final class Rebuild<KEY extends NativeIndexKey<KEY>, VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>
+    {
+        private final GBPTree<KEY,VALUE> tree;
+        private final IndexLayout<KEY,?> layout;
+        private final NativeIndexStatistics scanned = new NativeIndexStatistics();
+        private final KEY lowest;
+        private final KEY highest;
+        private final KEY position;
+        private boolean passedAny;
+        private RawCursor<Hit<KEY,VALUE>,IOException> chunk;
+        private int chunkSize;
+        private boolean exhausted;
+
+        private Rebuild( GBPTree<KEY,VALUE> tree, IndexLayout<KEY,?> layout, KEY lowest, KEY highest )
+        {
+            this.tree = tree;
+            this.layout = layout;
+            this.lowest = lowest;
+            this.highest = highest;
+            this.position = layout.newKey();
+            scanned.clear();
+        }
+
+        @Override
+        public boolean next() throws IOException
+        {
+            if ( chunk != null && chunkSize >= SCAN_CHUNK_SIZE )
+            {
+                endChunk();
+            }
+            if ( chunk == null )
+            {
+                if ( exhausted )
+                {
+                    return false;
+                }
+                beginChunk();
+            }
+            while ( chunk.next() )
+            {
+                KEY key = chunk.get().key();
+                if ( !passed( key ) )
+                {
+                    layout.copyKey( key, position );
+                    passedAny = true;
+                    scanned.added( key.valueHash() );
+                    chunkSize++;
+                    return true;
+                }
+                // else this entry was seen already, in the previous chunk
+            }
+            endChunk();
+            exhausted = true;
+            return false;
+        }
+
+        @Override
+        public Hit<KEY,VALUE> get()
+        {
+            return chunk.get();
+        }
+
+        private void beginChunk() throws IOException
+        {
+            rebuildLock.writeLock().lock();
+            try
+            {
+                chunk = tree.seek( passedAny ? position : lowest, highest );
+                chunkSize = 0;
+            }
+            catch ( Throwable e )
+            {
+                rebuildLock.writeLock().unlock();
+                throw e;
+            }
+        }
+
+        private void endChunk() throws IOException
+        {
+            try
+            {
+                chunk.close();
+            }
+            finally
+            {
+                chunk = null;
+                rebuildLock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Replaces the statistics with the scanned ones.
+         */
+        void complete()
+        {
+            rebuildLock.writeLock().lock();
+            try
+            {
+                if ( rebuild == this )
+                {
+                    synchronized ( NativeIndexStatistics.this )
+                    {
+                        System.arraycopy( scanned.registers, 0, registers, 0, REGISTERS );
+                        entries.reset();
+                        entries.add( scanned.entries.sum() );
+                        removals.reset();
+                        removals.add( scanned.removals.sum() );
+                        known = true;
+                    }
+                    rebuild = null;
+                }
+            }
+            finally
+            {
+                rebuildLock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Stops the rebuild, keeping the current statistics if it wasn't {@link #complete() completed}.
+         */
+        @Override
+        public void close() throws IOException
+        {
+            rebuildLock.writeLock().lock();
+            try
+            {
+                if ( chunk != null )
+                {
+                    endChunk();
+                }
+                if ( rebuild == this )
+                {
+                    rebuild = null;
+                }
+            }
+            finally
+            {
+                rebuildLock.writeLock().unlock();
+            }
+        }
+
+        private void added( KEY key )
+        {
+            if ( passed( key ) )
+            {
+                scanned.added( key.valueHash() );
+            }
+        }
+
+        private void removed( KEY key )
+        {
+            if ( passed( key ) )
+            {
+                scanned.removed();
+            }
+        }
+
+        private boolean passed( KEY key )
+        {
+            return passedAny && layout.compare( key, position ) <= 0;
+        }
+    }
+
+    /**
+     * Writes these statistics, to be read back by {@link #read(ByteBuffer)}. They must be written last in the header.
+     * Nothing is written if the statistics don't fit in what's left of the header page, in which case the index
+     * will have to be scanned to get statistics after it has been opened again.
+     *
+     * @param cursor {@link PageCursor} to write the statistics into.
+     */
+    synchronized void write( PageCursor cursor )
+    {
+        int availableSpace = cursor.getCurrentPageSize() - cursor.getOffset();
+        if ( availableSpace < SIZE )
+        {
+            return;
+        }
+        cursor.putBytes( registers );
+        cursor.putLong( entries.sum() );
+        cursor.putLong( removals.sum() );
+        cursor.putLong( MAGIC );
+    }
+
+    /**
+     * Reads statistics previously written with {@link #write(PageCursor)} from the end of the given header data, if there are any.
+     *
+     * @param headerData the whole header.
+     */
+    @Override
+    public synchronized void read( ByteBuffer headerData )
+    {
+        int offset = headerData.limit() - SIZE;
+        if ( offset < 0 || headerData.getLong( headerData.limit() - Long.BYTES ) != MAGIC )
+        {
+            // No statistics in this header, this index will have to be scanned to get them
+            return;
+        }
+        for ( int i = 0; i < REGISTERS; i++ )
+        {
+            registers[i] = headerData.get( offset + i );
+        }
+        entries.reset();
+        entries.add( headerData.getLong( offset + REGISTERS ) );
+        removals.reset();
+        removals.add( headerData.getLong( offset + REGISTERS + Long.BYTES ) );
+        known = true;
+    }
+}
@@ -43,6 +43,6 @@ public class NumberIndexAccessor extends NativeIndexAccessor<NumberIndexKey,Nati
     public IndexReader newReader()
     {
         assertOpen();
-        return new NumberIndexReader<>( tree, layout, descriptor );
+        return new NumberIndexReader<>( tree, layout, descriptor, statistics );
     }
 }
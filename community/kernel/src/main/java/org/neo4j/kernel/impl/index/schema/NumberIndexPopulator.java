@@ -39,6 +39,6 @@ class NumberIndexPopulator extends NativeIndexPopulator<NumberIndexKey,NativeInd
     @Override
     NativeIndexReader<NumberIndexKey, NativeIndexValue> newReader()
     {
-        return new NumberIndexReader<>( tree, layout, descriptor );
+        return new NumberIndexReader<>( tree, layout, descriptor, statistics );
     }
 }
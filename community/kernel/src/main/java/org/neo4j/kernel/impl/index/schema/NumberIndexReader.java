@@ -31,9 +31,10 @@ import org.neo4j.values.storable.Values;
 
 class NumberIndexReader<VALUE extends NativeIndexValue> extends NativeIndexReader<NumberIndexKey,VALUE>
 {
-    NumberIndexReader( GBPTree<NumberIndexKey,VALUE> tree, IndexLayout<NumberIndexKey,VALUE> layout, IndexDescriptor descriptor )
+    NumberIndexReader( GBPTree<NumberIndexKey,VALUE> tree, IndexLayout<NumberIndexKey,VALUE> layout, IndexDescriptor descriptor,
+            NativeIndexStatistics statistics )
     {
-        super( tree, layout, descriptor );
+        super( tree, layout, descriptor, statistics );
     }
 
     @Override
@@ -41,12 +41,14 @@ import org.neo4j.kernel.api.index.IndexProvider;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
+import org.neo4j.kernel.impl.index.schema.config.SpaceFillingCurveSettings;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
 
 import static org.neo4j.helpers.collection.Iterators.concatResourceIterators;
 import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_WRITER;
+import static org.neo4j.kernel.impl.index.schema.NativeIndexPopulator.BYTE_ONLINE;
 import static org.neo4j.kernel.impl.index.schema.fusion.FusionIndexBase.forAll;
 
 class SpatialIndexAccessor extends SpatialIndexCache<SpatialIndexAccessor.PartAccessor> implements IndexAccessor
@@ -184,6 +186,7 @@ class SpatialIndexAccessor extends SpatialIndexCache<SpatialIndexAccessor.PartAc
         private final IndexLayout<SpatialIndexKey,NativeIndexValue> layout;
         private final StoreIndexDescriptor descriptor;
         private final SpaceFillingCurveConfiguration searchConfiguration;
+        private final SpaceFillingCurveSettings settings;
 
         PartAccessor( PageCache pageCache, FileSystemAbstraction fs, SpatialIndexFiles.SpatialFileLayout fileLayout,
                 RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, IndexProvider.Monitor monitor, StoreIndexDescriptor descriptor,
@@ -193,14 +196,26 @@ class SpatialIndexAccessor extends SpatialIndexCache<SpatialIndexAccessor.PartAc
             this.layout = fileLayout.layout;
             this.descriptor = descriptor;
             this.searchConfiguration = searchConfiguration;
+            this.settings = fileLayout.settings;
             instantiateTree( recoveryCleanupWorkCollector, headerWriter );
         }
 
+        @Override
+        public void force( IOLimiter ioLimiter )
+        {
+            // Spatial indexes have their settings in the header, before the index statistics
+            tree.checkpoint( ioLimiter, cursor ->
+            {
+                settings.headerWriter( BYTE_ONLINE ).accept( cursor );
+                statistics.write( cursor );
+            } );
+        }
+
         @Override
         public SpatialIndexPartReader<NativeIndexValue> newReader()
         {
             assertOpen();
-            return new SpatialIndexPartReader<>( tree, layout, descriptor, searchConfiguration );
+            return new SpatialIndexPartReader<>( tree, layout, descriptor, searchConfiguration, statistics );
         }
 
         @Override
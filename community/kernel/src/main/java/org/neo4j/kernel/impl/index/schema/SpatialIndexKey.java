@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.index.schema;
 import java.util.Arrays;
 
 import org.neo4j.gis.spatial.index.curves.SpaceFillingCurve;
+import org.neo4j.hashing.HashFunction;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
 import org.neo4j.values.storable.PointValue;
 import org.neo4j.values.storable.Value;
@@ -57,6 +58,13 @@ class SpatialIndexKey extends NativeIndexSingleValueKey<SpatialIndexKey>
         return NO_VALUE;
     }
 
+    @Override
+    long valueHash()
+    {
+        // The point itself isn't kept in this key, only its position on the space filling curve
+        return HashFunction.incrementalXXH64().hashSingleValue( rawValueBits );
+    }
+
     @Override
     void initValueAsLowest( ValueGroup valueGroups )
     {
@@ -47,9 +47,9 @@ public class SpatialIndexPartReader<VALUE extends NativeIndexValue> extends Nati
     private final SpaceFillingCurveConfiguration configuration;
 
     SpatialIndexPartReader( GBPTree<SpatialIndexKey,VALUE> tree, IndexLayout<SpatialIndexKey,VALUE> layout,
-            IndexDescriptor descriptor, SpaceFillingCurveConfiguration configuration )
+            IndexDescriptor descriptor, SpaceFillingCurveConfiguration configuration, NativeIndexStatistics statistics )
     {
-        super( tree, layout, descriptor );
+        super( tree, layout, descriptor, statistics );
         spatial = (SpatialLayout) layout;
         this.configuration = configuration;
     }
@@ -181,7 +181,7 @@ class SpatialIndexPopulator extends SpatialIndexCache<WorkSyncedNativeIndexPopul
         @Override
         NativeIndexReader<SpatialIndexKey, NativeIndexValue> newReader()
         {
-            return new SpatialIndexPartReader<>( tree, layout, descriptor, configuration );
+            return new SpatialIndexPartReader<>( tree, layout, descriptor, configuration, statistics );
         }
 
         @Override
@@ -193,7 +193,11 @@ class SpatialIndexPopulator extends SpatialIndexCache<WorkSyncedNativeIndexPopul
         @Override
         void markTreeAsOnline()
         {
-            tree.checkpoint( IOLimiter.UNLIMITED, settings.headerWriter( BYTE_ONLINE ) );
+            tree.checkpoint( IOLimiter.UNLIMITED, cursor ->
+            {
+                settings.headerWriter( BYTE_ONLINE ).accept( cursor );
+                statistics.write( cursor );
+            } );
         }
     }
 
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+
+import org.neo4j.index.internal.gbptree.ValueMerger;
+import org.neo4j.index.internal.gbptree.ValueMergers;
+import org.neo4j.index.internal.gbptree.Writer;
+
+/**
+ * {@link Writer} keeping {@link NativeIndexStatistics} up to date with the entries actually added to and removed from the tree.
+ * Whether or not a key already existed is told by whether or not the tree asked the {@link ValueMerger} to merge it,
+ * so that re-applying the same updates, as done when populating an index or during recovery, doesn't skew the statistics.
+ * <p>
+ * Must be opened after {@link NativeIndexStatistics#beginWrite()} and closed by the same thread, which ends the write.
+ * Not thread-safe, just like the {@link Writer} it wraps.
+ *
+ * @param <KEY> type of keys.
+ * @param <VALUE> type of values.
+ */
+class StatisticsTrackingWriter<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> implements Writer<KEY,VALUE>, ValueMerger<KEY,VALUE>
+{
+    private final Writer<KEY,VALUE> writer;
+    private final NativeIndexStatistics statistics;
+    private final ValueMerger<KEY,VALUE> overwrite = ValueMergers.overwrite();
+    private ValueMerger<KEY,VALUE> valueMerger;
+    private boolean merged;
+
+    StatisticsTrackingWriter( Writer<KEY,VALUE> writer, NativeIndexStatistics statistics )
+    {
+        this.writer = writer;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void put( KEY key, VALUE value )
+    {
+        merge( key, value, overwrite );
+    }
+
+    @Override
+    public void merge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger )
+    {
+        this.valueMerger = valueMerger;
+        merged = false;
+        writer.merge( key, value, this );
+        if ( !merged )
+        {
+            statistics.added( key );
+        }
+    }
+
+    @Override
+    public VALUE merge( KEY existingKey, KEY newKey, VALUE existingValue, VALUE newValue )
+    {
+        merged = true;
+        return valueMerger.merge( existingKey, newKey, existingValue, newValue );
+    }
+
+    @Override
+    public VALUE remove( KEY key )
+    {
+        VALUE removed = writer.remove( key );
+        if ( removed != null )
+        {
+            statistics.removed( key );
+        }
+        return removed;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            writer.close();
+        }
+        finally
+        {
+            statistics.endWrite();
+        }
+    }
+}
@@ -58,7 +58,7 @@ public class StringIndexAccessor extends NativeIndexAccessor<StringIndexKey,Nati
     public IndexReader newReader()
     {
         assertOpen();
-        return new StringIndexReader( tree, layout, descriptor );
+        return new StringIndexReader( tree, layout, descriptor, statistics );
     }
 
     @Override
@@ -39,6 +39,6 @@ public class StringIndexPopulator extends NativeIndexPopulator<StringIndexKey,Na
     @Override
     NativeIndexReader<StringIndexKey, NativeIndexValue> newReader()
     {
-        return new StringIndexReader( tree, layout, descriptor );
+        return new StringIndexReader( tree, layout, descriptor, statistics );
     }
 }
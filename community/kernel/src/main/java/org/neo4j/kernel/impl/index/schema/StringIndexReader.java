@@ -33,9 +33,10 @@ import static org.neo4j.internal.kernel.api.IndexQuery.StringPrefixPredicate;
 
 class StringIndexReader extends NativeIndexReader<StringIndexKey,NativeIndexValue>
 {
-    StringIndexReader( GBPTree<StringIndexKey,NativeIndexValue> tree, IndexLayout<StringIndexKey,NativeIndexValue> layout, IndexDescriptor descriptor )
+    StringIndexReader( GBPTree<StringIndexKey,NativeIndexValue> tree, IndexLayout<StringIndexKey,NativeIndexValue> layout, IndexDescriptor descriptor,
+            NativeIndexStatistics statistics )
     {
-        super( tree, layout, descriptor );
+        super( tree, layout, descriptor, statistics );
     }
 
     @Override
@@ -183,7 +183,7 @@ class TemporalIndexAccessor extends TemporalIndexCache<TemporalIndexAccessor.Par
         public TemporalIndexPartReader<KEY> newReader()
         {
             assertOpen();
-            return new TemporalIndexPartReader<>( tree, layout, descriptor );
+            return new TemporalIndexPartReader<>( tree, layout, descriptor, statistics );
         }
     }
 
@@ -31,9 +31,10 @@ class TemporalIndexPartReader<KEY extends NativeIndexSingleValueKey<KEY>> extend
 {
     TemporalIndexPartReader( GBPTree<KEY,NativeIndexValue> tree,
                              IndexLayout<KEY,NativeIndexValue> layout,
-                             IndexDescriptor descriptor )
+                             IndexDescriptor descriptor,
+                             NativeIndexStatistics statistics )
     {
-        super( tree, layout, descriptor );
+        super( tree, layout, descriptor, statistics );
     }
 
     @Override
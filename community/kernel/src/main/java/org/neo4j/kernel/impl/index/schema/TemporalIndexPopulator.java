@@ -147,7 +147,7 @@ class TemporalIndexPopulator extends TemporalIndexCache<WorkSyncedNativeIndexPop
         @Override
         NativeIndexReader<KEY, NativeIndexValue> newReader()
         {
-            return new TemporalIndexPartReader<>( tree, layout, descriptor );
+            return new TemporalIndexPartReader<>( tree, layout, descriptor, statistics );
         }
     }
 
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.eclipse.collections.api.set.primitive.LongSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.io.IOUtils;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_READER;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_WRITER;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_MONITOR;
+
+/**
+ * Posting lists of trigram to entity id, kept next to a regular index by {@link TrigramIndexProvider}.
+ * A {@link TrigramKey} is added for every distinct trigram of every indexed text value.
+ * <p>
+ * All writes go through {@link GBPTree#parallelWriter() parallel writers} so that population and updates from
+ * multiple threads don't need any additional synchronization.
+ */
+class TrigramIndex
+{
+    private final PageCache pageCache;
+    private final FileSystemAbstraction fs;
+    private final File storeFile;
+    private final TrigramLayout layout = new TrigramLayout();
+    private GBPTree<TrigramKey,NativeIndexValue> tree;
+
+    TrigramIndex( PageCache pageCache, FileSystemAbstraction fs, File storeFile )
+    {
+        this.pageCache = pageCache;
+        this.fs = fs;
+        this.storeFile = storeFile;
+    }
+
+    static File trigramFile( File indexDirectory, long indexId )
+    {
+        return new File( indexDirectory, "trigram-" + indexId );
+    }
+
+    /**
+     * Creates a new empty tree, replacing any existing one.
+     */
+    void create()
+    {
+        try
+        {
+            fs.deleteFileOrThrow( storeFile );
+        }
+        catch ( NoSuchFileException e )
+        {
+            // File does not exist, we don't need to delete
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        open( RecoveryCleanupWorkCollector.immediate() );
+    }
+
+    void open( RecoveryCleanupWorkCollector recoveryCleanupWorkCollector )
+    {
+        try
+        {
+            fs.mkdirs( storeFile.getParentFile() );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        tree = new GBPTree<>( pageCache, storeFile, layout, 0, NO_MONITOR, NO_HEADER_READER, NO_HEADER_WRITER, recoveryCleanupWorkCollector );
+    }
+
+    Writer<TrigramKey,NativeIndexValue> newWriter()
+    {
+        assertOpen();
+        try
+        {
+            return tree.parallelWriter();
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * Applies the trigram changes of the given update, i.e. only the trigrams which differ between the before and after value
+     * of a changed value are touched.
+     */
+    static void process( Writer<TrigramKey,NativeIndexValue> writer, TrigramKey key, IndexEntryUpdate<?> update )
+    {
+        long entityId = update.getEntityId();
+        switch ( update.updateMode() )
+        {
+        case ADDED:
+            Trigrams.ofIndexedValue( update.values()[0] ).forEach( trigram -> writer.put( key.initialize( trigram, entityId ), NativeIndexValue.INSTANCE ) );
+            break;
+        case CHANGED:
+            LongSet before = Trigrams.ofIndexedValue( update.beforeValues()[0] );
+            LongSet after = Trigrams.ofIndexedValue( update.values()[0] );
+            before.forEach( trigram ->
+            {
+                if ( !after.contains( trigram ) )
+                {
+                    writer.remove( key.initialize( trigram, entityId ) );
+                }
+            } );
+            after.forEach( trigram ->
+            {
+                if ( !before.contains( trigram ) )
+                {
+                    writer.put( key.initialize( trigram, entityId ), NativeIndexValue.INSTANCE );
+                }
+            } );
+            break;
+        case REMOVED:
+            Trigrams.ofIndexedValue( update.values()[0] ).forEach( trigram -> writer.remove( key.initialize( trigram, entityId ) ) );
+            break;
+        default:
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * @param trigram trigram to get the posting list for.
+     * @return cursor over the entity ids, in ascending order, having values containing the given trigram.
+     */
+    RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException> postings( long trigram ) throws IOException
+    {
+        assertOpen();
+        return tree.seek( layout.newKey().initialize( trigram, Long.MIN_VALUE ), layout.newKey().initialize( trigram, Long.MAX_VALUE ) );
+    }
+
+    void force( IOLimiter ioLimiter )
+    {
+        tree.checkpoint( ioLimiter );
+    }
+
+    boolean wasDirtyOnStartup()
+    {
+        return tree.wasDirtyOnStartup();
+    }
+
+    File storeFile()
+    {
+        return storeFile;
+    }
+
+    boolean exists()
+    {
+        return fs.fileExists( storeFile );
+    }
+
+    void close()
+    {
+        IOUtils.closeAllUnchecked( tree );
+        tree = null;
+    }
+
+    void consistencyCheck()
+    {
+        try
+        {
+            tree.consistencyCheck();
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private void assertOpen()
+    {
+        if ( tree == null )
+        {
+            throw new IllegalStateException( "Index has been closed" );
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.File;
+
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.kernel.api.index.IndexAccessor;
+import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
+import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
+
+import static org.neo4j.helpers.collection.Iterators.asResourceIterator;
+import static org.neo4j.helpers.collection.Iterators.concatResourceIterators;
+import static org.neo4j.helpers.collection.Iterators.iterator;
+
+/**
+ * Accessor of a {@link TrigramIndexProvider trigram index}, keeping the trigram posting lists in sync with the regular index.
+ */
+public class TrigramIndexAccessor extends IndexAccessor.Delegator
+{
+    private final IndexAccessor delegate;
+    private final TrigramIndex trigramIndex;
+    private final StoreIndexDescriptor descriptor;
+    private final IndexDropAction dropAction;
+
+    TrigramIndexAccessor( IndexAccessor delegate, TrigramIndex trigramIndex, StoreIndexDescriptor descriptor, IndexDropAction dropAction )
+    {
+        super( delegate );
+        this.delegate = delegate;
+        this.trigramIndex = trigramIndex;
+        this.descriptor = descriptor;
+        this.dropAction = dropAction;
+    }
+
+    @Override
+    public void drop()
+    {
+        try
+        {
+            delegate.drop();
+        }
+        finally
+        {
+            trigramIndex.close();
+            dropAction.drop( descriptor.getId() );
+        }
+    }
+
+    @Override
+    public IndexUpdater newUpdater( IndexUpdateMode mode )
+    {
+        return new TrigramIndexUpdater( delegate.newUpdater( mode ), trigramIndex );
+    }
+
+    @Override
+    public void force( IOLimiter ioLimiter )
+    {
+        delegate.force( ioLimiter );
+        trigramIndex.force( ioLimiter );
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            delegate.close();
+        }
+        finally
+        {
+            trigramIndex.close();
+        }
+    }
+
+    @Override
+    public IndexReader newReader()
+    {
+        return new TrigramIndexReader( delegate.newReader(), trigramIndex, descriptor );
+    }
+
+    @Override
+    public ResourceIterator<File> snapshotFiles()
+    {
+        return concatResourceIterators( iterator( delegate.snapshotFiles(), asResourceIterator( iterator( trigramIndex.storeFile() ) ) ) );
+    }
+
+    @Override
+    public boolean isDirty()
+    {
+        return delegate.isDirty() || trigramIndex.wasDirtyOnStartup();
+    }
+
+    public void consistencyCheck()
+    {
+        if ( delegate instanceof NativeIndexAccessor )
+        {
+            ((NativeIndexAccessor<?,?>) delegate).consistencyCheck();
+        }
+        trigramIndex.consistencyCheck();
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+
+import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.index.IndexPopulator;
+import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.kernel.impl.api.index.PhaseTracker;
+import org.neo4j.storageengine.api.NodePropertyAccessor;
+import org.neo4j.storageengine.api.schema.IndexSample;
+import org.neo4j.storageengine.api.schema.PopulationProgress;
+
+/**
+ * Populates both the regular index and the trigram posting lists of a {@link TrigramIndexProvider trigram index}.
+ * The state of the index as a whole, i.e. populating, online or failed, is kept by the regular index, which is
+ * why the trigram posting lists are completed before the regular index is marked as online.
+ */
+class TrigramIndexPopulator implements IndexPopulator, ConsistencyCheckableIndexPopulator
+{
+    private final IndexPopulator delegate;
+    private final TrigramIndex trigramIndex;
+    private final IndexDropAction dropAction;
+    private final long indexId;
+
+    TrigramIndexPopulator( IndexPopulator delegate, TrigramIndex trigramIndex, IndexDropAction dropAction, long indexId )
+    {
+        this.delegate = delegate;
+        this.trigramIndex = trigramIndex;
+        this.dropAction = dropAction;
+        this.indexId = indexId;
+    }
+
+    @Override
+    public void create()
+    {
+        delegate.create();
+        trigramIndex.create();
+    }
+
+    @Override
+    public void drop()
+    {
+        try
+        {
+            delegate.drop();
+        }
+        finally
+        {
+            trigramIndex.close();
+            dropAction.drop( indexId );
+        }
+    }
+
+    @Override
+    public void add( Collection<? extends IndexEntryUpdate<?>> updates ) throws IndexEntryConflictException
+    {
+        delegate.add( updates );
+        TrigramKey treeKey = new TrigramKey();
+        try ( Writer<TrigramKey,NativeIndexValue> writer = trigramIndex.newWriter() )
+        {
+            for ( IndexEntryUpdate<?> update : updates )
+            {
+                TrigramIndex.process( writer, treeKey, update );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    @Override
+    public void verifyDeferredConstraints( NodePropertyAccessor nodePropertyAccessor ) throws IndexEntryConflictException
+    {
+        delegate.verifyDeferredConstraints( nodePropertyAccessor );
+    }
+
+    @Override
+    public IndexUpdater newPopulatingUpdater( NodePropertyAccessor accessor )
+    {
+        return new TrigramIndexUpdater( delegate.newPopulatingUpdater( accessor ), trigramIndex );
+    }
+
+    @Override
+    public void close( boolean populationCompletedSuccessfully )
+    {
+        try
+        {
+            trigramIndex.close();
+        }
+        finally
+        {
+            delegate.close( populationCompletedSuccessfully );
+        }
+    }
+
+    @Override
+    public void markAsFailed( String failure )
+    {
+        delegate.markAsFailed( failure );
+    }
+
+    @Override
+    public void includeSample( IndexEntryUpdate<?> update )
+    {
+        delegate.includeSample( update );
+    }
+
+    @Override
+    public IndexSample sampleResult()
+    {
+        return delegate.sampleResult();
+    }
+
+    @Override
+    public PopulationProgress progress( PopulationProgress scanProgress )
+    {
+        return delegate.progress( scanProgress );
+    }
+
+    @Override
+    public void scanCompleted( PhaseTracker phaseTracker ) throws IndexEntryConflictException
+    {
+        delegate.scanCompleted( phaseTracker );
+    }
+
+    @Override
+    public void consistencyCheck()
+    {
+        if ( delegate instanceof ConsistencyCheckableIndexPopulator )
+        {
+            ((ConsistencyCheckableIndexPopulator) delegate).consistencyCheck();
+        }
+        trigramIndex.consistencyCheck();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.io.IOUtils;
+import org.neo4j.storageengine.api.schema.IndexProgressor;
+
+/**
+ * Intersects the posting lists of one or more trigrams, each in ascending entity id order, and hands out the entity ids
+ * found in all of them as candidates. Candidates still need to be verified against the actual property value,
+ * since having all trigrams of a search string doesn't mean having them in the right order.
+ */
+class TrigramIndexProgressor implements IndexProgressor
+{
+    private final List<RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException>> postings;
+    private final NodeValueClient client;
+    private final Collection<RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException>> toRemoveFromOnClose;
+    private final long[] current;
+    private boolean exhausted;
+    private boolean closed;
+
+    TrigramIndexProgressor( List<RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException>> postings, NodeValueClient client,
+            Collection<RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException>> toRemoveFromOnClose )
+    {
+        this.postings = postings;
+        this.client = client;
+        this.toRemoveFromOnClose = toRemoveFromOnClose;
+        this.current = new long[postings.size()];
+        try
+        {
+            for ( int i = 0; i < current.length && !exhausted; i++ )
+            {
+                advance( i );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    @Override
+    public boolean next()
+    {
+        try
+        {
+            while ( !exhausted )
+            {
+                long candidate = nextCandidate();
+                if ( exhausted )
+                {
+                    return false;
+                }
+                advance( 0 );
+                if ( client.acceptNode( candidate, null ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * Moves the posting lists forward until all of them are on the same entity id, or one of them is exhausted.
+     */
+    private long nextCandidate() throws IOException
+    {
+        long candidate = current[0];
+        int agreeing = 1;
+        for ( int i = 1; agreeing < current.length; i = (i + 1) % current.length )
+        {
+            while ( current[i] < candidate )
+            {
+                if ( !advance( i ) )
+                {
+                    return -1;
+                }
+            }
+            if ( current[i] > candidate )
+            {
+                candidate = current[i];
+                agreeing = 1;
+            }
+            else
+            {
+                agreeing++;
+            }
+        }
+        return candidate;
+    }
+
+    private boolean advance( int i ) throws IOException
+    {
+        RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException> cursor = postings.get( i );
+        if ( cursor.next() )
+        {
+            current[i] = cursor.get().key().entityId;
+            return true;
+        }
+        exhausted = true;
+        return false;
+    }
+
+    @Override
+    public void close()
+    {
+        if ( !closed )
+        {
+            closed = true;
+            try
+            {
+                IOUtils.closeAll( postings );
+                toRemoveFromOnClose.removeAll( postings );
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.internal.kernel.api.IndexCapability;
+import org.neo4j.internal.kernel.api.IndexLimitation;
+import org.neo4j.internal.kernel.api.IndexOrder;
+import org.neo4j.internal.kernel.api.IndexValueCapability;
+import org.neo4j.internal.kernel.api.InternalIndexState;
+import org.neo4j.internal.kernel.api.schema.IndexProviderDescriptor;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.api.index.IndexAccessor;
+import org.neo4j.kernel.api.index.IndexDirectoryStructure;
+import org.neo4j.kernel.api.index.IndexPopulator;
+import org.neo4j.kernel.api.index.IndexProvider;
+import org.neo4j.kernel.impl.api.index.sampling.IndexSamplingConfig;
+import org.neo4j.kernel.impl.storemigration.StoreMigrationParticipant;
+import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
+import org.neo4j.values.storable.ValueCategory;
+
+/**
+ * Index provider for fast substring searches, i.e. {@code CONTAINS} and {@code ENDS WITH}, on a single string property.
+ * Such an index is a regular {@link GenericNativeIndexProvider native index}, answering all other queries, and next to it
+ * posting lists of trigram to entity ids in a separate {@link TrigramIndex tree}. Searches go through the posting lists
+ * of the trigrams of the search string instead of through every indexed value.
+ * <p>
+ * Indexes on multiple properties don't get any posting lists and are just regular native indexes.
+ * <p>
+ * Index files are laid out like:
+ * <pre>
+ * &lt;db&gt;/schema/index/trigram-1.0/&lt;indexId&gt;/trigram-&lt;indexId&gt;
+ * &lt;db&gt;/schema/index/trigram-1.0/&lt;indexId&gt;/native-btree-1.0/index-&lt;indexId&gt;
+ * </pre>
+ */
+public class TrigramIndexProvider extends IndexProvider
+{
+    public static final String KEY = "trigram";
+    public static final IndexProviderDescriptor DESCRIPTOR = new IndexProviderDescriptor( KEY, "1.0" );
+
+    private final GenericNativeIndexProvider generic;
+    private final PageCache pageCache;
+    private final FileSystemAbstraction fs;
+    private final Monitor monitor;
+    private final RecoveryCleanupWorkCollector recoveryCleanupWorkCollector;
+    private final IndexDropAction dropAction;
+
+    TrigramIndexProvider( GenericNativeIndexProvider generic, IndexDirectoryStructure.Factory directoryStructureFactory, PageCache pageCache,
+            FileSystemAbstraction fs, Monitor monitor, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector )
+    {
+        super( DESCRIPTOR, directoryStructureFactory );
+        this.generic = generic;
+        this.pageCache = pageCache;
+        this.fs = fs;
+        this.monitor = monitor;
+        this.recoveryCleanupWorkCollector = recoveryCleanupWorkCollector;
+        this.dropAction = new FileSystemIndexDropAction( fs, directoryStructure() );
+    }
+
+    @Override
+    public IndexPopulator getPopulator( StoreIndexDescriptor descriptor, IndexSamplingConfig samplingConfig )
+    {
+        IndexPopulator populator = generic.getPopulator( descriptor, samplingConfig );
+        if ( !hasTrigrams( descriptor ) )
+        {
+            return populator;
+        }
+        return new TrigramIndexPopulator( populator, trigramIndex( descriptor ), dropAction, descriptor.getId() );
+    }
+
+    @Override
+    public IndexAccessor getOnlineAccessor( StoreIndexDescriptor descriptor, IndexSamplingConfig samplingConfig ) throws IOException
+    {
+        IndexAccessor accessor = generic.getOnlineAccessor( descriptor, samplingConfig );
+        if ( !hasTrigrams( descriptor ) )
+        {
+            return accessor;
+        }
+        TrigramIndex trigramIndex = trigramIndex( descriptor );
+        trigramIndex.open( recoveryCleanupWorkCollector );
+        return new TrigramIndexAccessor( accessor, trigramIndex, descriptor, dropAction );
+    }
+
+    @Override
+    public String getPopulationFailure( StoreIndexDescriptor descriptor ) throws IllegalStateException
+    {
+        return generic.getPopulationFailure( descriptor );
+    }
+
+    @Override
+    public InternalIndexState getInitialState( StoreIndexDescriptor descriptor )
+    {
+        InternalIndexState state = generic.getInitialState( descriptor );
+        if ( state == InternalIndexState.ONLINE && hasTrigrams( descriptor ) && !trigramIndex( descriptor ).exists() )
+        {
+            monitor.failedToOpenIndex( descriptor, "Requesting re-population.", new IllegalStateException( "Trigram index file is missing" ) );
+            return InternalIndexState.POPULATING;
+        }
+        return state;
+    }
+
+    @Override
+    public IndexCapability getCapability( StoreIndexDescriptor descriptor )
+    {
+        IndexCapability capability = generic.getCapability( descriptor );
+        return hasTrigrams( descriptor ) ? new TrigramIndexCapability( capability ) : capability;
+    }
+
+    @Override
+    public StoreMigrationParticipant storeMigrationParticipant( FileSystemAbstraction fs, PageCache pageCache )
+    {
+        return StoreMigrationParticipant.NOT_PARTICIPATING;
+    }
+
+    private TrigramIndex trigramIndex( StoreIndexDescriptor descriptor )
+    {
+        long indexId = descriptor.getId();
+        return new TrigramIndex( pageCache, fs, TrigramIndex.trigramFile( directoryStructure().directoryForIndex( indexId ), indexId ) );
+    }
+
+    private static boolean hasTrigrams( StoreIndexDescriptor descriptor )
+    {
+        return descriptor.schema().getPropertyIds().length == 1;
+    }
+
+    /**
+     * Same capabilities as the regular index, except that substring searches are fast, but also that values of text
+     * can't always be provided since candidates from the posting lists have no values.
+     */
+    private static class TrigramIndexCapability implements IndexCapability
+    {
+        private final IndexCapability generic;
+
+        TrigramIndexCapability( IndexCapability generic )
+        {
+            this.generic = generic;
+        }
+
+        @Override
+        public IndexOrder[] orderCapability( ValueCategory... valueCategories )
+        {
+            return generic.orderCapability( valueCategories );
+        }
+
+        @Override
+        public IndexValueCapability valueCapability( ValueCategory... valueCategories )
+        {
+            for ( ValueCategory valueCategory : valueCategories )
+            {
+                if ( valueCategory == ValueCategory.TEXT || valueCategory == ValueCategory.UNKNOWN )
+                {
+                    return IndexValueCapability.PARTIAL;
+                }
+            }
+            return generic.valueCapability( valueCategories );
+        }
+
+        @Override
+        public boolean isFulltextIndex()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isEventuallyConsistent()
+        {
+            return false;
+        }
+
+        @Override
+        public IndexLimitation[] limitations()
+        {
+            return IndexCapability.LIMITIATION_NONE;
+        }
+    }
+}
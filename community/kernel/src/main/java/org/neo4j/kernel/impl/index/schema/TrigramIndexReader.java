@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.eclipse.collections.api.set.primitive.LongSet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.neo4j.collection.PrimitiveLongResourceIterator;
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.internal.kernel.api.IndexOrder;
+import org.neo4j.internal.kernel.api.IndexQuery;
+import org.neo4j.internal.kernel.api.IndexQuery.StringContainsPredicate;
+import org.neo4j.internal.kernel.api.IndexQuery.StringSuffixPredicate;
+import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotApplicableKernelException;
+import org.neo4j.io.IOUtils;
+import org.neo4j.storageengine.api.NodePropertyAccessor;
+import org.neo4j.storageengine.api.schema.IndexDescriptor;
+import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.IndexSampler;
+import org.neo4j.values.storable.Value;
+
+/**
+ * Answers {@link StringContainsPredicate contains} and {@link StringSuffixPredicate ends with} queries by intersecting
+ * the posting lists of the trigrams of the search string. All other queries, as well as searches too short to
+ * have any trigrams or which need values or order, are answered by the regular index.
+ * <p>
+ * Trigram hits are only candidates and so this reader doesn't have {@link #hasFullValuePrecision(IndexQuery...) full value precision}
+ * for those queries, leaving it to the caller to verify the candidates against the property values.
+ */
+class TrigramIndexReader implements IndexReader
+{
+    private final IndexReader delegate;
+    private final TrigramIndex trigramIndex;
+    private final IndexDescriptor descriptor;
+    private final Set<RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException>> openSeekers = new HashSet<>();
+
+    TrigramIndexReader( IndexReader delegate, TrigramIndex trigramIndex, IndexDescriptor descriptor )
+    {
+        this.delegate = delegate;
+        this.trigramIndex = trigramIndex;
+        this.descriptor = descriptor;
+    }
+
+    @Override
+    public long countIndexedNodes( long nodeId, int[] propertyKeyIds, Value... propertyValues )
+    {
+        return delegate.countIndexedNodes( nodeId, propertyKeyIds, propertyValues );
+    }
+
+    @Override
+    public IndexSampler createSampler()
+    {
+        return delegate.createSampler();
+    }
+
+    @Override
+    public PrimitiveLongResourceIterator query( IndexQuery... predicates ) throws IndexNotApplicableKernelException
+    {
+        NodeValueIterator nodeValueIterator = new NodeValueIterator();
+        query( nodeValueIterator, IndexOrder.NONE, nodeValueIterator.needsValues(), predicates );
+        return nodeValueIterator;
+    }
+
+    @Override
+    public void query( IndexProgressor.NodeValueClient client, IndexOrder indexOrder, boolean needsValues, IndexQuery... predicates )
+            throws IndexNotApplicableKernelException
+    {
+        LongSet trigrams = searchTrigrams( predicates );
+        if ( trigrams == null || indexOrder != IndexOrder.NONE || needsValues )
+        {
+            delegate.query( client, indexOrder, needsValues, predicates );
+            return;
+        }
+
+        List<RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException>> postings = new ArrayList<>( trigrams.size() );
+        try
+        {
+            for ( long trigram : trigrams.toArray() )
+            {
+                RawCursor<Hit<TrigramKey,NativeIndexValue>,IOException> seeker = trigramIndex.postings( trigram );
+                postings.add( seeker );
+                openSeekers.add( seeker );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        client.initialize( descriptor, new TrigramIndexProgressor( postings, client, openSeekers ), predicates, indexOrder, needsValues );
+    }
+
+    @Override
+    public boolean hasFullValuePrecision( IndexQuery... predicates )
+    {
+        return searchTrigrams( predicates ) == null && delegate.hasFullValuePrecision( predicates );
+    }
+
+    @Override
+    public void distinctValues( IndexProgressor.NodeValueClient client, NodePropertyAccessor propertyAccessor, boolean needsValues )
+    {
+        delegate.distinctValues( client, propertyAccessor, needsValues );
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            IOUtils.closeAll( openSeekers );
+            openSeekers.clear();
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        finally
+        {
+            delegate.close();
+        }
+    }
+
+    /**
+     * @return the trigrams to intersect the posting lists of for the given query, or {@code null} if the query can't be answered
+     * by the trigram index.
+     */
+    private static LongSet searchTrigrams( IndexQuery[] predicates )
+    {
+        if ( predicates.length != 1 )
+        {
+            return null;
+        }
+        LongSet trigrams;
+        switch ( predicates[0].type() )
+        {
+        case stringContains:
+            trigrams = Trigrams.of( ((StringContainsPredicate) predicates[0]).contains().stringValue(), false );
+            break;
+        case stringSuffix:
+            trigrams = Trigrams.of( ((StringSuffixPredicate) predicates[0]).suffix().stringValue(), true );
+            break;
+        default:
+            return null;
+        }
+        return trigrams.isEmpty() ? null : trigrams;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.io.IOUtils;
+import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.index.IndexUpdater;
+
+/**
+ * Applies updates to both the regular index and the trigram posting lists of a {@link TrigramIndexProvider trigram index}.
+ */
+class TrigramIndexUpdater implements IndexUpdater
+{
+    private final IndexUpdater delegate;
+    private final TrigramIndex trigramIndex;
+    private final TrigramKey treeKey = new TrigramKey();
+    private Writer<TrigramKey,NativeIndexValue> writer;
+
+    TrigramIndexUpdater( IndexUpdater delegate, TrigramIndex trigramIndex )
+    {
+        this.delegate = delegate;
+        this.trigramIndex = trigramIndex;
+    }
+
+    @Override
+    public void process( IndexEntryUpdate<?> update ) throws IndexEntryConflictException
+    {
+        delegate.process( update );
+        if ( writer == null )
+        {
+            writer = trigramIndex.newWriter();
+        }
+        TrigramIndex.process( writer, treeKey, update );
+    }
+
+    @Override
+    public void close() throws IndexEntryConflictException
+    {
+        try
+        {
+            delegate.close();
+        }
+        finally
+        {
+            IOUtils.closeAllUnchecked( writer );
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import static java.lang.String.format;
+
+/**
+ * Key in the posting lists of a trigram index, i.e. a trigram, as encoded by {@link Trigrams}, and an entity id
+ * having a value containing that trigram. Ordered by trigram first, which keeps the entity ids of each trigram together and sorted.
+ */
+class TrigramKey
+{
+    static final int SIZE = Long.BYTES + Long.BYTES;
+
+    long trigram;
+    long entityId;
+
+    TrigramKey initialize( long trigram, long entityId )
+    {
+        this.trigram = trigram;
+        this.entityId = entityId;
+        return this;
+    }
+
+    int compareTo( TrigramKey other )
+    {
+        int compare = Long.compare( trigram, other.trigram );
+        return compare != 0 ? compare : Long.compare( entityId, other.entityId );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "trigram=%d,entityId=%d", trigram, entityId );
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.neo4j.index.internal.gbptree.Layout;
+import org.neo4j.io.pagecache.PageCursor;
+
+/**
+ * {@link Layout} for the posting lists of a trigram index, see {@link TrigramKey}.
+ */
+class TrigramLayout extends Layout.Adapter<TrigramKey,NativeIndexValue>
+{
+    private static final long IDENTIFIER = Layout.namedIdentifier( "TRGM", NativeIndexValue.SIZE );
+
+    @Override
+    public TrigramKey newKey()
+    {
+        return new TrigramKey();
+    }
+
+    @Override
+    public TrigramKey copyKey( TrigramKey key, TrigramKey into )
+    {
+        return into.initialize( key.trigram, key.entityId );
+    }
+
+    @Override
+    public NativeIndexValue newValue()
+    {
+        return NativeIndexValue.INSTANCE;
+    }
+
+    @Override
+    public int keySize( TrigramKey key )
+    {
+        return TrigramKey.SIZE;
+    }
+
+    @Override
+    public int valueSize( NativeIndexValue value )
+    {
+        return NativeIndexValue.SIZE;
+    }
+
+    @Override
+    public void writeKey( PageCursor cursor, TrigramKey key )
+    {
+        cursor.putLong( key.trigram );
+        cursor.putLong( key.entityId );
+    }
+
+    @Override
+    public void writeValue( PageCursor cursor, NativeIndexValue value )
+    {
+        // nothing to write
+    }
+
+    @Override
+    public void readKey( PageCursor cursor, TrigramKey into, int keySize )
+    {
+        into.trigram = cursor.getLong();
+        into.entityId = cursor.getLong();
+    }
+
+    @Override
+    public void readValue( PageCursor cursor, NativeIndexValue into, int valueSize )
+    {
+        // nothing to read
+    }
+
+    @Override
+    public boolean fixedSize()
+    {
+        return true;
+    }
+
+    @Override
+    public long identifier()
+    {
+        return IDENTIFIER;
+    }
+
+    @Override
+    public int majorVersion()
+    {
+        return 0;
+    }
+
+    @Override
+    public int minorVersion()
+    {
+        return 1;
+    }
+
+    @Override
+    public int compare( TrigramKey o1, TrigramKey o2 )
+    {
+        return o1.compareTo( o2 );
+    }
+}
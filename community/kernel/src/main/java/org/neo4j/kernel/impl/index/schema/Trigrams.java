@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import org.neo4j.values.storable.TextValue;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.ValueGroup;
+
+/**
+ * Splits strings into trigrams, i.e. all sequences of three consecutive code points, each trigram encoded as a {@code long}.
+ * Indexed strings are anchored at their end with a special code point, which cannot be part of any string, such that
+ * the trigrams of a suffix, also anchored at its end, are only found in strings ending with that suffix.
+ * <p>
+ * Code points are at most 21 bits, so three of them fit in a positive {@code long}.
+ */
+final class Trigrams
+{
+    private static final int BITS_PER_CODE_POINT = 21;
+    private static final long CODE_POINT_MASK = (1L << BITS_PER_CODE_POINT) - 1;
+    private static final long TRIGRAM_MASK = (1L << (BITS_PER_CODE_POINT * 3)) - 1;
+    static final int END = (int) CODE_POINT_MASK;
+
+    private Trigrams()
+    {
+    }
+
+    /**
+     * @param value indexed value.
+     * @return distinct trigrams of the given value, if it's a text value, anchored at its end. Values of other types have no trigrams.
+     */
+    static MutableLongSet ofIndexedValue( Value value )
+    {
+        if ( value.valueGroup() != ValueGroup.TEXT )
+        {
+            return new LongHashSet();
+        }
+        return of( ((TextValue) value).stringValue(), true );
+    }
+
+    /**
+     * @param string string to split into trigrams.
+     * @param anchoredAtEnd whether or not to also include the trigrams ending with the end anchor.
+     * @return the distinct trigrams of the given string. Strings shorter than three code points, including the end anchor,
+     * have no trigrams.
+     */
+    static MutableLongSet of( String string, boolean anchoredAtEnd )
+    {
+        MutableLongSet trigrams = new LongHashSet();
+        long trigram = 0;
+        int codePoints = 0;
+        for ( int i = 0; i < string.length(); )
+        {
+            int codePoint = string.codePointAt( i );
+            i += Character.charCount( codePoint );
+            trigram = shift( trigram, codePoint );
+            if ( ++codePoints >= 3 )
+            {
+                trigrams.add( trigram );
+            }
+        }
+        if ( anchoredAtEnd && codePoints >= 2 )
+        {
+            trigrams.add( shift( trigram, END ) );
+        }
+        return trigrams;
+    }
+
+    private static long shift( long trigram, int codePoint )
+    {
+        return ((trigram << BITS_PER_CODE_POINT) | (codePoint & CODE_POINT_MASK)) & TRIGRAM_MASK;
+    }
+}
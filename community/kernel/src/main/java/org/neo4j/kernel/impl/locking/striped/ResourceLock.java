@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.storageengine.api.lock.ResourceType;
+
+/**
+ * The lock on a single resource, shared by all clients that hold or wait for it.
+ * <p>
+ * The lock state is a single int, that is only ever changed with compare-and-set. The low bits count the clients
+ * that hold the lock in shared mode, and the {@link #EXCLUSIVE} bit is set while a client holds it exclusively.
+ * A client holding the exclusive lock can also take the shared lock, and a client that is the only shared holder can
+ * take the exclusive lock, which is how downgrading and upgrading works.
+ * <p>
+ * When the last holder releases the lock, it is {@link #RETIRED} and removed from the lock table. A retired lock can
+ * never be acquired again, so clients that find one must look the resource up again.
+ * <p>
+ * Holders are also recorded in {@link #exclusiveOwner} and {@link #sharedHolders}, which are only used for deadlock
+ * detection and for describing the lock. These are updated after the lock state, and can be briefly out of date.
+ */
+final class ResourceLock
+{
+    static final int EXCLUSIVE = 1 << 30;
+    static final int RETIRED = -1;
+
+    private static final int SHARED_MASK = EXCLUSIVE - 1;
+
+    /** Result of an acquisition attempt. */
+    enum Acquisition
+    {
+        ACQUIRED,
+        CONTENDED,
+        RETIRED
+    }
+
+    final ResourceType resourceType;
+    final long resourceId;
+
+    private final AtomicInteger state = new AtomicInteger();
+    private final Set<StripedLockClient> sharedHolders = ConcurrentHashMap.newKeySet();
+    private volatile StripedLockClient exclusiveOwner;
+
+    ResourceLock( ResourceType resourceType, long resourceId )
+    {
+        this.resourceType = resourceType;
+        this.resourceId = resourceId;
+    }
+
+    Acquisition tryAcquireShared( StripedLockClient client )
+    {
+        int current;
+        do
+        {
+            current = state.get();
+            if ( current == RETIRED )
+            {
+                return Acquisition.RETIRED;
+            }
+            if ( (current & EXCLUSIVE) != 0 && exclusiveOwner != client )
+            {
+                return Acquisition.CONTENDED;
+            }
+        }
+        while ( !state.compareAndSet( current, current + 1 ) );
+        sharedHolders.add( client );
+        return Acquisition.ACQUIRED;
+    }
+
+    /**
+     * @param holdsShared whether the given client already holds this lock in shared mode, in which case the
+     * exclusive lock can be granted as long as no other client holds it in shared mode.
+     */
+    Acquisition tryAcquireExclusive( StripedLockClient client, boolean holdsShared )
+    {
+        int expected = holdsShared ? 1 : 0;
+        int current;
+        do
+        {
+            current = state.get();
+            if ( current == RETIRED )
+            {
+                return Acquisition.RETIRED;
+            }
+            if ( current != expected )
+            {
+                return Acquisition.CONTENDED;
+            }
+        }
+        while ( !state.compareAndSet( current, current | EXCLUSIVE ) );
+        exclusiveOwner = client;
+        return Acquisition.ACQUIRED;
+    }
+
+    /**
+     * @return {@code true} if this was the last holder, and the lock is now retired.
+     */
+    boolean releaseShared( StripedLockClient client )
+    {
+        sharedHolders.remove( client );
+        int current;
+        int next;
+        do
+        {
+            current = state.get();
+            next = current - 1;
+            if ( next == 0 )
+            {
+                next = RETIRED;
+            }
+        }
+        while ( !state.compareAndSet( current, next ) );
+        return next == RETIRED;
+    }
+
+    /**
+     * @return {@code true} if this was the last holder, and the lock is now retired.
+     */
+    boolean releaseExclusive()
+    {
+        exclusiveOwner = null;
+        int current;
+        int next;
+        do
+        {
+            current = state.get();
+            next = current & ~EXCLUSIVE;
+            if ( next == 0 )
+            {
+                next = RETIRED;
+            }
+        }
+        while ( !state.compareAndSet( current, next ) );
+        return next == RETIRED;
+    }
+
+    boolean isHeld()
+    {
+        int current = state.get();
+        return current != RETIRED && current != 0;
+    }
+
+    /**
+     * Collect the clients that currently prevent the given client from getting this lock in the given mode.
+     */
+    void collectBlockers( StripedLockClient client, boolean exclusive, Collection<StripedLockClient> blockers )
+    {
+        StripedLockClient owner = exclusiveOwner;
+        if ( owner != null && owner != client )
+        {
+            blockers.add( owner );
+        }
+        if ( exclusive )
+        {
+            for ( StripedLockClient holder : sharedHolders )
+            {
+                if ( holder != client )
+                {
+                    blockers.add( holder );
+                }
+            }
+        }
+    }
+
+    String describe()
+    {
+        int current = state.get();
+        StripedLockClient owner = exclusiveOwner;
+        return "ResourceLock[" + resourceType + "(" + resourceId + ")" +
+                ", shared=" + (current == RETIRED ? 0 : current & SHARED_MASK) + " " + sharedHolders +
+                (owner != null ? ", exclusive=" + owner : "") + "]";
+    }
+
+    @Override
+    public String toString()
+    {
+        return describe();
+    }
+}
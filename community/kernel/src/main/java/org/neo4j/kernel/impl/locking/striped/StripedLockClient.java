@@ -0,0 +1,558 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import org.eclipse.collections.api.block.procedure.primitive.IntObjectProcedure;
+import org.eclipse.collections.api.map.primitive.LongObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.locking.ActiveLock;
+import org.neo4j.kernel.impl.locking.LockAcquisitionTimeoutException;
+import org.neo4j.kernel.impl.locking.LockClientStateHolder;
+import org.neo4j.kernel.impl.locking.LockClientStoppedException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.ResourceTypes;
+import org.neo4j.kernel.impl.locking.striped.ResourceLock.Acquisition;
+import org.neo4j.storageengine.api.lock.AcquireLockTimeoutException;
+import org.neo4j.storageengine.api.lock.LockTracer;
+import org.neo4j.storageengine.api.lock.LockWaitEvent;
+import org.neo4j.storageengine.api.lock.ResourceType;
+import org.neo4j.storageengine.api.lock.WaitStrategy;
+
+import static java.lang.String.format;
+
+/**
+ * A client of the {@link StripedLockManager}. Keeps track of the locks it holds, and how many times it holds them,
+ * so that only the first acquisition and last release of a lock touch the shared lock table.
+ * <p>
+ * Clients that have to wait for a lock look for deadlocks once they have waited for a while. A deadlock is a cycle in
+ * the wait-for graph, where each client waits for a lock held by the next. Every client in such a cycle will find it,
+ * and the client with the highest id gives up by throwing {@link DeadlockDetectedException}.
+ */
+public class StripedLockClient implements Locks.Client
+{
+    /** The number of attempts at getting a contended lock, before we start looking for deadlocks. */
+    private static final int DEADLOCK_DETECTION_DELAY = 1024;
+    /** The number of attempts between each search for deadlocks, after the initial delay. */
+    private static final int DEADLOCK_DETECTION_INTERVAL = 64;
+
+    private final StripedLockManager manager;
+    private final Clock clock;
+    private final int clientId;
+    private final MutableIntObjectMap<MutableLongObjectMap<Hold>> sharedLocks = new IntObjectHashMap<>();
+    private final MutableIntObjectMap<MutableLongObjectMap<Hold>> exclusiveLocks = new IntObjectHashMap<>();
+    private final LockClientStateHolder stateHolder = new LockClientStateHolder();
+
+    // The lock this client is waiting for, if any. Read by other clients when looking for deadlocks.
+    private volatile ResourceLock waitingFor;
+    private volatile boolean waitingForExclusive;
+
+    StripedLockClient( StripedLockManager manager, int clientId )
+    {
+        this.manager = manager;
+        this.clock = manager.clock();
+        this.clientId = clientId;
+    }
+
+    @Override
+    public void acquireShared( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+            throws AcquireLockTimeoutException
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<Hold> localLocks = localShared( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                Hold hold = localLocks.get( resourceId );
+                if ( hold != null )
+                {
+                    hold.count++;
+                }
+                else
+                {
+                    ResourceLock lock = acquire( tracer, resourceType, resourceId, false, false );
+                    localLocks.put( resourceId, new Hold( lock ) );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void acquireExclusive( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+            throws AcquireLockTimeoutException
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<Hold> localLocks = localExclusive( resourceType );
+            MutableLongObjectMap<Hold> localSharedLocks = localShared( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                Hold hold = localLocks.get( resourceId );
+                if ( hold != null )
+                {
+                    hold.count++;
+                }
+                else
+                {
+                    boolean holdsShared = localSharedLocks.containsKey( resourceId );
+                    ResourceLock lock = acquire( tracer, resourceType, resourceId, true, holdsShared );
+                    localLocks.put( resourceId, new Hold( lock ) );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean tryExclusiveLock( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<Hold> localLocks = localExclusive( resourceType );
+            Hold hold = localLocks.get( resourceId );
+            if ( hold != null )
+            {
+                hold.count++;
+                return true;
+            }
+            boolean holdsShared = localShared( resourceType ).containsKey( resourceId );
+            ResourceLock lock = tryAcquire( resourceType, resourceId, true, holdsShared );
+            if ( lock != null )
+            {
+                localLocks.put( resourceId, new Hold( lock ) );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean trySharedLock( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<Hold> localLocks = localShared( resourceType );
+            Hold hold = localLocks.get( resourceId );
+            if ( hold != null )
+            {
+                hold.count++;
+                return true;
+            }
+            ResourceLock lock = tryAcquire( resourceType, resourceId, false, false );
+            if ( lock != null )
+            {
+                localLocks.put( resourceId, new Hold( lock ) );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterShared( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            return reEnter( localShared( resourceType ), resourceId );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterExclusive( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            return reEnter( localExclusive( resourceType ), resourceId );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private static boolean reEnter( LongObjectMap<Hold> localLocks, long resourceId )
+    {
+        Hold hold = localLocks.get( resourceId );
+        if ( hold != null )
+        {
+            hold.count++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void releaseShared( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<Hold> localLocks = localShared( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                Hold hold = held( localLocks, resourceType, resourceId );
+                if ( --hold.count == 0 )
+                {
+                    localLocks.remove( resourceId );
+                    releaseShared( hold.lock );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void releaseExclusive( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<Hold> localLocks = localExclusive( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                Hold hold = held( localLocks, resourceType, resourceId );
+                if ( --hold.count == 0 )
+                {
+                    localLocks.remove( resourceId );
+                    releaseExclusive( hold.lock );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void prepare()
+    {
+        stateHolder.prepare( this );
+    }
+
+    @Override
+    public void stop()
+    {
+        // Waiting clients notice that we are stopped the next time they check on the lock they are waiting for
+        if ( stateHolder.stopClient() )
+        {
+            waitForActiveClientsToLeave();
+            releaseLocks();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        stateHolder.closeClient();
+        waitForActiveClientsToLeave();
+        releaseLocks();
+    }
+
+    @Override
+    public int getLockSessionId()
+    {
+        return clientId;
+    }
+
+    @Override
+    public Stream<ActiveLock> activeLocks()
+    {
+        List<ActiveLock> locks = new ArrayList<>();
+        exclusiveLocks.forEachKeyValue( collectActiveLocks( locks, ActiveLock.Factory.EXCLUSIVE_LOCK ) );
+        sharedLocks.forEachKeyValue( collectActiveLocks( locks, ActiveLock.Factory.SHARED_LOCK ) );
+        return locks.stream();
+    }
+
+    @Override
+    public long activeLockCount()
+    {
+        long count = 0;
+        for ( LongObjectMap<Hold> locks : exclusiveLocks.values() )
+        {
+            count += locks.size();
+        }
+        for ( LongObjectMap<Hold> locks : sharedLocks.values() )
+        {
+            count += locks.size();
+        }
+        return count;
+    }
+
+    private ResourceLock tryAcquire( ResourceType resourceType, long resourceId, boolean exclusive,
+            boolean holdsShared )
+    {
+        while ( true )
+        {
+            ResourceLock lock = manager.lock( resourceType, resourceId );
+            Acquisition acquisition = exclusive ? lock.tryAcquireExclusive( this, holdsShared )
+                                                : lock.tryAcquireShared( this );
+            switch ( acquisition )
+            {
+            case ACQUIRED:
+                return lock;
+            case CONTENDED:
+                return null;
+            default:
+                manager.remove( lock );
+            }
+        }
+    }
+
+    private ResourceLock acquire( LockTracer tracer, ResourceType resourceType, long resourceId, boolean exclusive,
+            boolean holdsShared ) throws AcquireLockTimeoutException
+    {
+        LockWaitEvent waitEvent = null;
+        long waitStart = 0;
+        long tries = 0;
+        try
+        {
+            while ( true )
+            {
+                ResourceLock lock = manager.lock( resourceType, resourceId );
+                Acquisition acquisition = exclusive ? lock.tryAcquireExclusive( this, holdsShared )
+                                                    : lock.tryAcquireShared( this );
+                if ( acquisition == Acquisition.ACQUIRED )
+                {
+                    return lock;
+                }
+                if ( acquisition == Acquisition.RETIRED )
+                {
+                    manager.remove( lock );
+                    continue;
+                }
+
+                if ( waitEvent == null )
+                {
+                    waitEvent = tracer.waitForLock( exclusive, resourceType, resourceId );
+                    waitStart = clock.millis();
+                }
+                waitForLock( lock, exclusive, waitStart, tries++ );
+            }
+        }
+        finally
+        {
+            if ( waitEvent != null )
+            {
+                waitingFor = null;
+                waitEvent.close();
+                manager.waited( resourceType, clock.millis() - waitStart );
+            }
+        }
+    }
+
+    private void waitForLock( ResourceLock lock, boolean exclusive, long waitStart, long tries )
+            throws AcquireLockTimeoutException
+    {
+        if ( stateHolder.isStopped() )
+        {
+            throw new LockClientStoppedException( this );
+        }
+        long timeoutMillis = manager.lockAcquisitionTimeoutMillis();
+        if ( timeoutMillis > 0 && clock.millis() - waitStart > timeoutMillis )
+        {
+            throw new LockAcquisitionTimeoutException( lock.resourceType, lock.resourceId, timeoutMillis );
+        }
+
+        waitingForExclusive = exclusive;
+        waitingFor = lock;
+        if ( tries >= DEADLOCK_DETECTION_DELAY && tries % DEADLOCK_DETECTION_INTERVAL == 0 )
+        {
+            detectDeadlock( lock, exclusive );
+        }
+        waitStrategy( lock.resourceType ).apply( tries );
+    }
+
+    private void detectDeadlock( ResourceLock lock, boolean exclusive )
+    {
+        List<StripedLockClient> blockers = new ArrayList<>();
+        lock.collectBlockers( this, exclusive, blockers );
+        Set<StripedLockClient> visited = new HashSet<>();
+        for ( StripedLockClient blocker : blockers )
+        {
+            if ( leadsBackToThis( blocker, visited ) )
+            {
+                throw new DeadlockDetectedException( format(
+                        "%s can't acquire %s lock on %s(%d), because the holders of that lock are waiting for " +
+                        "locks held by %s.%n Wait list: %s", this, exclusive ? "exclusive" : "shared",
+                        lock.resourceType, lock.resourceId, this, lock.describe() ) );
+            }
+        }
+    }
+
+    /**
+     * Follow the wait-for graph from the given client, looking for a path back to this client. Clients with a higher
+     * id than this one are not followed, since that client, rather than this one, would give up in such a cycle.
+     */
+    private boolean leadsBackToThis( StripedLockClient client, Set<StripedLockClient> visited )
+    {
+        if ( client == this )
+        {
+            return true;
+        }
+        if ( client.clientId > clientId || !visited.add( client ) )
+        {
+            return false;
+        }
+        ResourceLock lock = client.waitingFor;
+        if ( lock == null )
+        {
+            return false;
+        }
+        List<StripedLockClient> blockers = new ArrayList<>();
+        lock.collectBlockers( client, client.waitingForExclusive, blockers );
+        for ( StripedLockClient blocker : blockers )
+        {
+            if ( leadsBackToThis( blocker, visited ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static WaitStrategy<AcquireLockTimeoutException> waitStrategy( ResourceType resourceType )
+    {
+        return resourceType.waitStrategy();
+    }
+
+    private void waitForActiveClientsToLeave()
+    {
+        while ( stateHolder.hasActiveClients() )
+        {
+            LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 20 ) );
+        }
+    }
+
+    private void releaseLocks()
+    {
+        exclusiveLocks.forEachValue( locks -> locks.forEachValue( hold -> releaseExclusive( hold.lock ) ) );
+        sharedLocks.forEachValue( locks -> locks.forEachValue( hold -> releaseShared( hold.lock ) ) );
+        exclusiveLocks.clear();
+        sharedLocks.clear();
+    }
+
+    private void releaseShared( ResourceLock lock )
+    {
+        if ( lock.releaseShared( this ) )
+        {
+            manager.remove( lock );
+        }
+    }
+
+    private void releaseExclusive( ResourceLock lock )
+    {
+        if ( lock.releaseExclusive() )
+        {
+            manager.remove( lock );
+        }
+    }
+
+    private Hold held( LongObjectMap<Hold> localLocks, ResourceType resourceType, long resourceId )
+    {
+        Hold hold = localLocks.get( resourceId );
+        if ( hold == null )
+        {
+            throw new IllegalStateException(
+                    format( "%s cannot release lock on %s(%d) that it does not hold.", this, resourceType,
+                            resourceId ) );
+        }
+        return hold;
+    }
+
+    private static IntObjectProcedure<LongObjectMap<Hold>> collectActiveLocks(
+            List<ActiveLock> locks, ActiveLock.Factory activeLock )
+    {
+        return ( typeId, holds ) ->
+        {
+            ResourceType resourceType = ResourceTypes.fromId( typeId );
+            holds.forEachKey( resourceId -> locks.add( activeLock.create( resourceType, resourceId ) ) );
+        };
+    }
+
+    private MutableLongObjectMap<Hold> localShared( ResourceType resourceType )
+    {
+        return sharedLocks.getIfAbsentPut( resourceType.typeId(), LongObjectHashMap::new );
+    }
+
+    private MutableLongObjectMap<Hold> localExclusive( ResourceType resourceType )
+    {
+        return exclusiveLocks.getIfAbsentPut( resourceType.typeId(), LongObjectHashMap::new );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "%s[%d]", getClass().getSimpleName(), clientId );
+    }
+
+    private static final class Hold
+    {
+        final ResourceLock lock;
+        int count = 1;
+
+        Hold( ResourceLock lock )
+        {
+            this.lock = lock;
+        }
+    }
+}
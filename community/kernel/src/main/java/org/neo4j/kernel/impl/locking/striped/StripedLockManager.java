@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.time.Clock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.storageengine.api.lock.ResourceType;
+import org.neo4j.util.FeatureToggles;
+
+/**
+ * A {@link Locks} implementation that does not synchronize on a global lock manager.
+ * <p>
+ * Locks are kept in lock tables, one per {@link ResourceType}, that are split into a number of stripes by resource
+ * id. Each stripe is a concurrent map from resource id to {@link ResourceLock}, and locks are acquired and released
+ * with compare-and-set on the lock state. Clients that cannot get a lock right away wait according to the
+ * {@link ResourceType#waitStrategy() wait strategy} of the resource type, and only then look for deadlocks, by
+ * following the wait-for graph between clients.
+ * <p>
+ * The time spent waiting for locks is recorded per resource type, and can be read with {@link #waitTimeMillis(ResourceType)}
+ * and {@link #waitCount(ResourceType)}.
+ */
+public class StripedLockManager implements Locks
+{
+    private static final int STRIPES = FeatureToggles.getInteger( StripedLockManager.class, "stripes", 64 );
+
+    private final ConcurrentMap<Long,ResourceLock>[][] lockTables;
+    private final int stripeMask;
+    private final Clock clock;
+    private final long lockAcquisitionTimeoutMillis;
+    private final LongAdder[] waitTimes;
+    private final LongAdder[] waitCounts;
+    private final AtomicInteger clientIds = new AtomicInteger();
+    private volatile boolean closed;
+
+    @SuppressWarnings( "unchecked" )
+    public StripedLockManager( Config config, Clock clock, ResourceType... resourceTypes )
+    {
+        this.clock = clock;
+        this.lockAcquisitionTimeoutMillis = config.get( GraphDatabaseSettings.lock_acquisition_timeout ).toMillis();
+
+        int stripes = STRIPES <= 1 ? 1 : Integer.highestOneBit( STRIPES - 1 ) << 1;
+        this.stripeMask = stripes - 1;
+
+        int maxTypeId = 0;
+        for ( ResourceType type : resourceTypes )
+        {
+            maxTypeId = Math.max( maxTypeId, type.typeId() );
+        }
+        this.lockTables = new ConcurrentMap[maxTypeId + 1][];
+        this.waitTimes = new LongAdder[maxTypeId + 1];
+        this.waitCounts = new LongAdder[maxTypeId + 1];
+        for ( ResourceType type : resourceTypes )
+        {
+            int typeId = type.typeId();
+            this.lockTables[typeId] = new ConcurrentMap[stripes];
+            for ( int i = 0; i < stripes; i++ )
+            {
+                this.lockTables[typeId][i] = new ConcurrentHashMap<>();
+            }
+            this.waitTimes[typeId] = new LongAdder();
+            this.waitCounts[typeId] = new LongAdder();
+        }
+    }
+
+    @Override
+    public Client newClient()
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( this + " already closed" );
+        }
+        return new StripedLockClient( this, clientIds.incrementAndGet() );
+    }
+
+    @Override
+    public void accept( Visitor visitor )
+    {
+        for ( ConcurrentMap<Long,ResourceLock>[] lockTable : lockTables )
+        {
+            if ( lockTable == null )
+            {
+                continue;
+            }
+            for ( ConcurrentMap<Long,ResourceLock> stripe : lockTable )
+            {
+                for ( ResourceLock lock : stripe.values() )
+                {
+                    if ( lock.isHeld() )
+                    {
+                        visitor.visit( lock.resourceType, lock.resourceId, lock.describe(), 0,
+                                System.identityHashCode( lock ) );
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+    }
+
+    /**
+     * @return the total time, in milliseconds, that clients have spent waiting for locks of the given type.
+     */
+    public long waitTimeMillis( ResourceType resourceType )
+    {
+        return waitTimes[resourceType.typeId()].sum();
+    }
+
+    /**
+     * @return the number of times clients had to wait for locks of the given type.
+     */
+    public long waitCount( ResourceType resourceType )
+    {
+        return waitCounts[resourceType.typeId()].sum();
+    }
+
+    /**
+     * Get the lock for the given resource, creating it if needed. The returned lock may already have been retired,
+     * in which case the caller should {@link #remove(ResourceLock) remove} it and try again.
+     */
+    ResourceLock lock( ResourceType resourceType, long resourceId )
+    {
+        ConcurrentMap<Long,ResourceLock> stripe = stripe( resourceType, resourceId );
+        ResourceLock lock = stripe.get( resourceId );
+        if ( lock == null )
+        {
+            ResourceLock created = new ResourceLock( resourceType, resourceId );
+            lock = stripe.putIfAbsent( resourceId, created );
+            if ( lock == null )
+            {
+                lock = created;
+            }
+        }
+        return lock;
+    }
+
+    void remove( ResourceLock lock )
+    {
+        stripe( lock.resourceType, lock.resourceId ).remove( lock.resourceId, lock );
+    }
+
+    void waited( ResourceType resourceType, long waitTimeMillis )
+    {
+        waitTimes[resourceType.typeId()].add( waitTimeMillis );
+        waitCounts[resourceType.typeId()].increment();
+    }
+
+    Clock clock()
+    {
+        return clock;
+    }
+
+    long lockAcquisitionTimeoutMillis()
+    {
+        return lockAcquisitionTimeoutMillis;
+    }
+
+    private ConcurrentMap<Long,ResourceLock> stripe( ResourceType resourceType, long resourceId )
+    {
+        ConcurrentMap<Long,ResourceLock>[] lockTable = lockTables[resourceType.typeId()];
+        return lockTable[(int) (resourceId ^ (resourceId >>> 32)) & stripeMask];
+    }
+}
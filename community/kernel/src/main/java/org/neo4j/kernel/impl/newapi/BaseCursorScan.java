@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.impl.iterator.ImmutableEmptyLongIterator;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.neo4j.internal.kernel.api.Cursor;
+import org.neo4j.internal.kernel.api.Scan;
+import org.neo4j.kernel.api.txstate.TransactionState;
+
+import static org.neo4j.collection.PrimitiveLongCollections.EMPTY_LONG_ARRAY;
+import static org.neo4j.collection.PrimitiveLongCollections.iterator;
+
+/**
+ * Base class for {@link Scan} implementations, handing out batches of a store scan together with chunks of the entities
+ * added in the transaction. Whether or not there are transaction changes, and which entities were added, is decided once
+ * when the scan is created so that all batches see the same transaction state, just like a single cursor would.
+ *
+ * @param <C> type of cursor initialized by this scan.
+ */
+abstract class BaseCursorScan<C extends Cursor> implements Scan<C>
+{
+    final Read read;
+    final boolean hasChanges;
+    private final long[] addedItems;
+    private final AtomicInteger addedItemsStart = new AtomicInteger();
+
+    /**
+     * @param addedInTransaction provides ids of the entities added in the transaction which this scan should see.
+     * Only called if there are transaction changes.
+     */
+    BaseCursorScan( Read read, Function<TransactionState,long[]> addedInTransaction )
+    {
+        this.read = read;
+        this.hasChanges = read.hasTxStateWithChanges();
+        this.addedItems = hasChanges ? addedInTransaction.apply( read.txState() ) : EMPTY_LONG_ARRAY;
+    }
+
+    @Override
+    public boolean reserveBatch( C cursor, int sizeHint )
+    {
+        if ( sizeHint <= 0 )
+        {
+            throw new IllegalArgumentException( "Size hint must be positive, was " + sizeHint );
+        }
+        read.ktx.assertOpen();
+        return scanStore( cursor, sizeHint, reserveAddedItems( sizeHint ) );
+    }
+
+    private LongIterator reserveAddedItems( int sizeHint )
+    {
+        // Check before reserving so that the shared counter doesn't keep growing once all added items have been handed out
+        if ( addedItemsStart.get() >= addedItems.length )
+        {
+            return ImmutableEmptyLongIterator.INSTANCE;
+        }
+        int start = addedItemsStart.getAndAdd( sizeHint );
+        if ( start >= addedItems.length )
+        {
+            return ImmutableEmptyLongIterator.INSTANCE;
+        }
+        return iterator( Arrays.copyOfRange( addedItems, start, (int) Math.min( addedItems.length, (long) start + sizeHint ) ) );
+    }
+
+    /**
+     * Initializes the cursor with the next batch of the store scan and the given chunk of entities added in the transaction.
+     *
+     * @return {@code true} if the cursor got anything to see, i.e. either added entities or a store batch, otherwise {@code false}.
+     */
+    abstract boolean scanStore( C cursor, int sizeHint, LongIterator addedItems );
+}
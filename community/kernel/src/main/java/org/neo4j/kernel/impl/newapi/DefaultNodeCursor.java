@@ -31,6 +31,7 @@ import org.neo4j.internal.kernel.api.PropertyCursor;
 import org.neo4j.internal.kernel.api.RelationshipGroupCursor;
 import org.neo4j.internal.kernel.api.RelationshipTraversalCursor;
 import org.neo4j.kernel.api.txstate.TransactionState;
+import org.neo4j.storageengine.api.AllNodeScan;
 import org.neo4j.storageengine.api.StorageNodeCursor;
 import org.neo4j.storageengine.api.txstate.LongDiffSets;
 
@@ -61,6 +62,22 @@ class DefaultNodeCursor implements NodeCursor
         this.addedNodes = ImmutableEmptyLongIterator.INSTANCE;
     }
 
+    /**
+     * Initializes this cursor with a batch of a scan. The transaction state snapshot is decided by the scan, so that it's
+     * shared by all batches: {@code addedNodes} are the nodes added in the transaction which are handed to this batch.
+     *
+     * @return {@code true} if there's anything to see in this batch, i.e. either added nodes or a store batch.
+     */
+    boolean scanBatch( Read read, AllNodeScan scan, int sizeHint, LongIterator addedNodes, boolean hasChanges )
+    {
+        boolean scanBatch = storeCursor.scanBatch( scan, sizeHint );
+        this.read = read;
+        this.single = NO_ID;
+        this.hasChanges = hasChanges ? HasChanges.YES : HasChanges.NO;
+        this.addedNodes = addedNodes;
+        return addedNodes.hasNext() || scanBatch;
+    }
+
     void single( long reference, Read read )
     {
         storeCursor.single( reference );
@@ -63,6 +63,19 @@ class DefaultNodeLabelIndexCursor extends IndexCursor<IndexProgressor>
         }
     }
 
+    /**
+     * Initializes this cursor with a batch of a label scan. The transaction state snapshot is decided by the scan, so that it's
+     * shared by all batches: {@code added} are the nodes which got the label in the transaction and which are handed to this batch,
+     * {@code removed} are the nodes which are deleted or lost the label in the transaction.
+     */
+    void scanBatch( Read read, IndexProgressor progressor, LongIterator added, LongSet removed )
+    {
+        setRead( read );
+        super.initialize( progressor );
+        this.added = added;
+        this.removed = removed;
+    }
+
     @Override
     public void unionScan( IndexProgressor progressor, boolean providesLabels, int... labels )
     {
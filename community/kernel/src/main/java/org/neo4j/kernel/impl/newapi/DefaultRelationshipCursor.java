@@ -45,6 +45,16 @@ abstract class DefaultRelationshipCursor<STORECURSOR extends StorageRelationship
         this.checkHasChanges = true;
     }
 
+    /**
+     * Initializes this cursor with a transaction state snapshot already decided by the caller, e.g. shared by all batches of a scan.
+     */
+    protected void init( Read read, boolean hasChanges )
+    {
+        this.read = read;
+        this.hasChanges = hasChanges;
+        this.checkHasChanges = false;
+    }
+
     @Override
     public long relationshipReference()
     {
@@ -20,10 +20,14 @@
 package org.neo4j.kernel.impl.newapi;
 
 import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
 import org.eclipse.collections.impl.iterator.ImmutableEmptyLongIterator;
 import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 
 import org.neo4j.internal.kernel.api.RelationshipScanCursor;
+import org.neo4j.kernel.api.txstate.TransactionState;
+import org.neo4j.storageengine.api.AllRelationshipsScan;
 import org.neo4j.storageengine.api.StorageRelationshipScanCursor;
 
 import static org.neo4j.kernel.impl.store.record.AbstractBaseRecord.NO_ID;
@@ -48,6 +52,22 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
         this.addedRelationships = ImmutableEmptyLongIterator.INSTANCE;
     }
 
+    /**
+     * Initializes this cursor with a batch of a scan. The transaction state snapshot is decided by the scan, so that it's
+     * shared by all batches: {@code addedRelationships} are the relationships added in the transaction which are handed to this batch.
+     *
+     * @return {@code true} if there's anything to see in this batch, i.e. either added relationships or a store batch.
+     */
+    boolean scanBatch( Read read, AllRelationshipsScan scan, int type, int sizeHint, LongIterator addedRelationships, boolean hasChanges )
+    {
+        boolean scanBatch = storeCursor.scanBatch( scan, type, sizeHint );
+        this.type = type;
+        this.single = NO_ID;
+        init( read, hasChanges );
+        this.addedRelationships = addedRelationships;
+        return addedRelationships.hasNext() || scanBatch;
+    }
+
     void single( long reference, Read read )
     {
         storeCursor.single( reference );
@@ -122,12 +142,33 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
                                  ? LongHashSet.newSetWith( single ).longIterator()
                                  : ImmutableEmptyLongIterator.INSTANCE;
         }
+        else if ( type != -1 )
+        {
+            addedRelationships = addedRelationshipsOfType( read.txState(), type ).longIterator();
+        }
         else
         {
             addedRelationships = read.txState().addedAndRemovedRelationships().getAdded().longIterator();
         }
     }
 
+    static LongSet addedRelationshipsOfType( TransactionState txState, int type )
+    {
+        MutableLongSet ofType = new LongHashSet();
+        LongIterator added = txState.addedAndRemovedRelationships().getAdded().longIterator();
+        while ( added.hasNext() )
+        {
+            txState.relationshipVisit( added.next(), ( relationshipId, typeId, startNodeId, endNodeId ) ->
+            {
+                if ( typeId == type )
+                {
+                    ofType.add( relationshipId );
+                }
+            } );
+        }
+        return ofType;
+    }
+
     private boolean isSingle()
     {
         return single != NO_ID;
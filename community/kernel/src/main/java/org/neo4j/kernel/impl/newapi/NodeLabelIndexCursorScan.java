@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.set.primitive.LongSet;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.internal.kernel.api.NodeLabelIndexCursor;
+import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.storageengine.api.schema.LabelScanReader;
+
+import static org.neo4j.collection.PrimitiveLongCollections.mergeToSet;
+
+/**
+ * Label scan split up into batches of node id ranges. The ranges are handed out up to the highest node id
+ * having the label at the time this scan is created.
+ */
+final class NodeLabelIndexCursorScan extends BaseCursorScan<NodeLabelIndexCursor>
+{
+    private final LabelScanReader labelScanReader;
+    private final int label;
+    private final long highestNodeId;
+    private final LongSet removed;
+    private final AtomicLong nextStart = new AtomicLong();
+
+    NodeLabelIndexCursorScan( LabelScanReader labelScanReader, int label, Read read )
+    {
+        super( read, txState -> txState.nodesWithLabelChanged( label ).getAdded().toArray() );
+        this.labelScanReader = labelScanReader;
+        this.label = label;
+        this.highestNodeId = labelScanReader.highestNodeIdWithLabel( label );
+        this.removed = hasChanges ? mergeToSet( read.txState().addedAndRemovedNodes().getRemoved(),
+                read.txState().nodesWithLabelChanged( label ).getRemoved() ) : null;
+    }
+
+    @Override
+    boolean scanStore( NodeLabelIndexCursor cursor, int sizeHint, LongIterator addedItems )
+    {
+        IndexProgressor progressor = IndexProgressor.EMPTY;
+        boolean scanBatch = false;
+        DefaultNodeLabelIndexCursor indexCursor = (DefaultNodeLabelIndexCursor) cursor;
+        if ( nextStart.get() <= highestNodeId )
+        {
+            long start = nextStart.getAndAdd( sizeHint );
+            if ( start <= highestNodeId )
+            {
+                progressor = new NodeLabelIndexProgressor( labelScanReader.nodesWithLabelInRange( label, start, start + sizeHint ), indexCursor );
+                scanBatch = true;
+            }
+        }
+        indexCursor.scanBatch( read, progressor, addedItems, removed );
+        return addedItems.hasNext() || scanBatch;
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.WarmupEvent;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+/**
+ * Keeps a profile of which pages of the database files are resident in the page cache, and uses it to warm up the page cache after a restart.
+ * <p>
+ * For every file in the database directory that is mapped by the page cache, a profile is periodically written to
+ * {@code <database directory>/profiles/<relative file path>.cacheprof}. A profile is a gzip compressed bitmap with one bit per page
+ * in the file, set if the page was resident at the time of profiling. Taking a profile uses {@link PagedFile#PF_NO_FAULT} cursors,
+ * so it does not disturb the contents of the page cache.
+ * <p>
+ * When started, the warmer loads the profiled pages of every mapped file in the background, in file order, while the database
+ * is accepting traffic. Profiling is only scheduled once the warmup has completed, so that a slow warmup does not overwrite the
+ * profiles it is loading. A final profile is written when the warmer is stopped.
+ * <p>
+ * Without profiling, e.g. for read-only databases, the page cache is still warmed up from existing profiles, but nothing is written.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    public static final String SUFFIX_CACHEPROF = ".cacheprof";
+    public static final String PROFILES_DIRECTORY = "profiles";
+    private static final String SUFFIX_TEMP = ".tmp";
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final PageCacheTracer tracer;
+    private final Path databaseDirectory;
+    private final File profilesDirectory;
+    private final long profileIntervalMillis;
+    private final boolean profiling;
+    private final Log log;
+    private volatile boolean stopped;
+    private boolean warmedUp;
+    private JobHandle warmupHandle;
+    private JobHandle profileHandle;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, PageCacheTracer tracer, File databaseDirectory,
+            long profileIntervalMillis, boolean profiling, Log log )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.tracer = tracer;
+        this.databaseDirectory = databaseDirectory.getAbsoluteFile().toPath();
+        this.profilesDirectory = new File( databaseDirectory, PROFILES_DIRECTORY );
+        this.profileIntervalMillis = profileIntervalMillis;
+        this.profiling = profiling;
+        this.log = log;
+    }
+
+    @Override
+    public synchronized void start()
+    {
+        stopped = false;
+        warmedUp = false;
+        warmupHandle = scheduler.schedule( Group.FILE_IO_HELPER, this::warmupAndScheduleProfiling );
+    }
+
+    @Override
+    public void stop()
+    {
+        stopped = true;
+        JobHandle warmup;
+        synchronized ( this )
+        {
+            warmup = warmupHandle;
+            warmupHandle = null;
+            if ( profileHandle != null )
+            {
+                profileHandle.cancel( false );
+                profileHandle = null;
+            }
+        }
+        if ( warmup != null )
+        {
+            try
+            {
+                // The warmup checks the stopped flag between every page, so this should be quick
+                warmup.waitTermination();
+            }
+            catch ( Exception e )
+            {
+                log.debug( "Page cache warmup did not complete normally", e );
+            }
+        }
+        synchronized ( this )
+        {
+            // Keep the old profiles if the warmup never completed, they are more accurate than whatever little was loaded so far
+            if ( warmedUp && profiling )
+            {
+                try
+                {
+                    profile();
+                }
+                catch ( IOException e )
+                {
+                    log.warn( "Page cache profiling failed", e );
+                }
+            }
+        }
+    }
+
+    private void warmupAndScheduleProfiling()
+    {
+        try
+        {
+            long pages = warmup();
+            if ( !stopped )
+            {
+                log.info( "Page cache warmup completed. %d pages loaded.", pages );
+            }
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Page cache warmup failed", e );
+        }
+        synchronized ( this )
+        {
+            if ( !stopped )
+            {
+                warmedUp = true;
+            }
+            if ( !stopped && profiling )
+            {
+                profileHandle = scheduler.scheduleRecurring( Group.FILE_IO_HELPER, this::profileSafely, profileIntervalMillis, TimeUnit.MILLISECONDS );
+            }
+        }
+    }
+
+    private void profileSafely()
+    {
+        try
+        {
+            synchronized ( this )
+            {
+                if ( !stopped )
+                {
+                    profile();
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Page cache profiling failed", e );
+        }
+    }
+
+    /**
+     * Load the profiled pages of all mapped database files into the page cache.
+     *
+     * @return the number of pages that were touched, or {@code 0} if there were no profiles.
+     */
+    long warmup() throws IOException
+    {
+        long pagesLoaded = 0;
+        try ( WarmupEvent event = tracer.beginWarmup() )
+        {
+            for ( PagedFile mapping : pageCache.listExistingMappings() )
+            {
+                if ( stopped )
+                {
+                    break;
+                }
+                File profile = profileFile( mapping.file() );
+                if ( profile == null || !fs.fileExists( profile ) )
+                {
+                    continue;
+                }
+                Optional<PagedFile> existing = pageCache.getExistingMapping( mapping.file() );
+                if ( existing.isPresent() )
+                {
+                    try ( PagedFile pagedFile = existing.get() )
+                    {
+                        long pages = warmupFile( pagedFile, profile );
+                        event.warmedUpFile( pagedFile.file(), pages );
+                        pagesLoaded += pages;
+                    }
+                }
+            }
+        }
+        return pagesLoaded;
+    }
+
+    private long warmupFile( PagedFile pagedFile, File profile ) throws IOException
+    {
+        long pagesLoaded = 0;
+        try ( DataInputStream in = new DataInputStream( new GZIPInputStream( fs.openAsInputStream( profile ) ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            long profiledPages = in.readLong();
+            long lastPageId = pagedFile.getLastPageId();
+            long pageId = 0;
+            while ( pageId < profiledPages && pageId <= lastPageId && !stopped )
+            {
+                int bits = in.readUnsignedByte();
+                for ( int i = 0; i < Byte.SIZE && pageId < profiledPages && pageId <= lastPageId; i++, pageId++ )
+                {
+                    if ( (bits & (1 << i)) != 0 && cursor.next( pageId ) )
+                    {
+                        pagesLoaded++;
+                    }
+                }
+            }
+        }
+        catch ( EOFException e )
+        {
+            log.warn( "Ignoring truncated page cache profile " + profile );
+        }
+        catch ( IllegalStateException e )
+        {
+            // The file was unmapped concurrently with the warmup
+        }
+        return pagesLoaded;
+    }
+
+    /**
+     * Write a profile of the resident pages of all mapped database files.
+     */
+    synchronized void profile() throws IOException
+    {
+        for ( PagedFile mapping : pageCache.listExistingMappings() )
+        {
+            File profile = profileFile( mapping.file() );
+            if ( profile == null )
+            {
+                continue;
+            }
+            Optional<PagedFile> existing = pageCache.getExistingMapping( mapping.file() );
+            if ( existing.isPresent() )
+            {
+                try ( PagedFile pagedFile = existing.get() )
+                {
+                    profileFile( pagedFile, profile );
+                }
+            }
+        }
+    }
+
+    private void profileFile( PagedFile pagedFile, File profile ) throws IOException
+    {
+        File tempProfile = new File( profile.getParentFile(), profile.getName() + SUFFIX_TEMP );
+        fs.mkdirs( profile.getParentFile() );
+        try
+        {
+            try ( OutputStream out = fs.openAsOutputStream( tempProfile, false );
+                  DataOutputStream data = new DataOutputStream( new GZIPOutputStream( out ) );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+            {
+                long pages = pagedFile.getLastPageId() + 1;
+                data.writeLong( pages );
+                int bits = 0;
+                long pageId = 0;
+                for ( ; pageId < pages; pageId++ )
+                {
+                    if ( cursor.next( pageId ) && cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                    {
+                        bits |= 1 << (pageId & 7);
+                    }
+                    if ( (pageId & 7) == 7 )
+                    {
+                        data.writeByte( bits );
+                        bits = 0;
+                    }
+                }
+                if ( (pageId & 7) != 0 )
+                {
+                    data.writeByte( bits );
+                }
+            }
+            fs.renameFile( tempProfile, profile, REPLACE_EXISTING, ATOMIC_MOVE );
+        }
+        catch ( IllegalStateException e )
+        {
+            // The file was unmapped concurrently with the profiling, keep the previous profile
+            fs.deleteFile( tempProfile );
+        }
+    }
+
+    /**
+     * @return the profile file for the given mapped file, or {@code null} if the file is not in the database directory.
+     */
+    private File profileFile( File file )
+    {
+        Path path = file.getAbsoluteFile().toPath();
+        if ( !path.startsWith( databaseDirectory ) )
+        {
+            return null;
+        }
+        return new File( profilesDirectory, databaseDirectory.relativize( path ) + SUFFIX_CACHEPROF );
+    }
+}
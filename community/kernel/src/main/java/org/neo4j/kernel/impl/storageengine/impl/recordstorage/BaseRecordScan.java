@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storageengine.impl.recordstorage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base for scans over a record store which are split up into batches of consecutive record ids.
+ * Batches are reserved from a shared id counter, so cursors on different threads each get their own range to scan.
+ */
+abstract class BaseRecordScan
+{
+    private final AtomicLong nextStart = new AtomicLong();
+
+    /**
+     * @param sizeHint number of record ids to reserve.
+     * @return the first record id of the reserved range, which spans {@code sizeHint} ids.
+     */
+    long reserveRange( int sizeHint )
+    {
+        return nextStart.getAndAdd( sizeHint );
+    }
+}
@@ -25,16 +25,19 @@ import org.neo4j.kernel.impl.store.NodeLabelsField;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.store.record.RecordLoad;
+import org.neo4j.storageengine.api.AllNodeScan;
 import org.neo4j.storageengine.api.StorageNodeCursor;
 
 public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
 {
     private NodeStore read;
     private PageCursor pageCursor;
+    private boolean scanPageCursor;
     private long next;
     private long highMark;
     private long nextStoreReference;
     private boolean open;
+    private boolean batched;
 
     RecordNodeCursor( NodeStore read )
     {
@@ -49,14 +52,44 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         {
             resetState();
         }
-        if ( pageCursor == null )
-        {
-            pageCursor = nodePage( 0 );
-        }
+        openScanPage( 0 );
         this.next = 0;
         this.highMark = nodeHighMark();
         this.nextStoreReference = NO_ID;
         this.open = true;
+        this.batched = false;
+    }
+
+    @Override
+    public boolean scanBatch( AllNodeScan scan, int sizeHint )
+    {
+        if ( getId() != NO_ID )
+        {
+            resetState();
+        }
+        return ((RecordNodeScan) scan).scanBatch( sizeHint, this );
+    }
+
+    /**
+     * Initializes this cursor to scan the node ids in the range {@code [start, stop)}, capped by the current high mark.
+     *
+     * @return {@code false} if the range starts above the high mark, i.e. there are no more nodes to scan, otherwise {@code true}.
+     */
+    boolean scanRange( long start, long stop )
+    {
+        long max = nodeHighMark();
+        this.nextStoreReference = NO_ID;
+        this.open = true;
+        this.batched = true;
+        if ( start > max )
+        {
+            this.next = NO_ID;
+            return false;
+        }
+        openScanPage( start );
+        this.next = start;
+        this.highMark = Math.min( stop - 1, max );
+        return true;
     }
 
     @Override
@@ -69,12 +102,14 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         if ( pageCursor == null )
         {
             pageCursor = nodePage( reference );
+            scanPageCursor = false;
         }
         this.next = reference >= 0 ? reference : NO_ID;
         //This marks the cursor as a "single cursor"
         this.highMark = NO_ID;
         this.nextStoreReference = NO_ID;
         this.open = true;
+        this.batched = false;
     }
 
     @Override
@@ -154,9 +189,9 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
 
             if ( next > highMark )
             {
-                if ( isSingle() )
+                if ( isSingle() || batched )
                 {
-                    //we are a "single cursor"
+                    //we are a "single cursor" or a "batched scan cursor", neither should look beyond their high mark
                     next = NO_ID;
                     return inUse();
                 }
@@ -237,6 +272,23 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         return read.openPageCursorForReading( reference );
     }
 
+    /**
+     * Scans read ahead, so a page cursor that was opened for single reads is replaced by one opened for scanning.
+     */
+    private void openScanPage( long reference )
+    {
+        if ( pageCursor != null && !scanPageCursor )
+        {
+            pageCursor.close();
+            pageCursor = null;
+        }
+        if ( pageCursor == null )
+        {
+            pageCursor = read.openPageCursorForScanning( reference );
+            scanPageCursor = true;
+        }
+    }
+
     private long nodeHighMark()
     {
         return read.getHighestPossibleIdInUse();
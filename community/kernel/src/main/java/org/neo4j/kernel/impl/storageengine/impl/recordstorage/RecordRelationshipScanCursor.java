@@ -19,24 +19,46 @@
  */
 package org.neo4j.kernel.impl.storageengine.impl.recordstorage;
 
+import java.util.function.Supplier;
+
+import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.record.RecordLoad;
 import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.storageengine.api.AllRelationshipsScan;
 import org.neo4j.storageengine.api.StorageRelationshipScanCursor;
+import org.neo4j.storageengine.api.schema.LabelScanReader;
 
 class RecordRelationshipScanCursor extends RecordRelationshipCursor implements StorageRelationshipScanCursor
 {
+    private final Supplier<LabelScanReader> typeScanReaderSupplier;
     private int filterType;
     private long next;
     private long highMark;
     private long nextStoreReference;
     private PageCursor pageCursor;
+    private boolean scanPageCursor;
     private boolean open;
+    private boolean batched;
+    private LabelScanReader typeScanReader;
+    private PrimitiveLongResourceIterator typeScanIds;
 
     RecordRelationshipScanCursor( RelationshipStore relationshipStore )
+    {
+        this( relationshipStore, null );
+    }
+
+    /**
+     * @param relationshipStore store to read relationship records from.
+     * @param typeScanReaderSupplier supplier of reader for the relationship type scan store, used by {@link #scan(int)}
+     * for looking up the relationships of a specific type instead of scanning the whole store. May be {@code null},
+     * in which case a type scan falls back to scanning the whole store, filtering on type.
+     */
+    RecordRelationshipScanCursor( RelationshipStore relationshipStore, Supplier<LabelScanReader> typeScanReaderSupplier )
     {
         super( relationshipStore );
+        this.typeScanReaderSupplier = typeScanReaderSupplier;
     }
 
     @Override
@@ -52,15 +74,56 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
         {
             resetState();
         }
-        if ( pageCursor == null )
-        {
-            pageCursor = relationshipPage( 0 );
-        }
+        openScanPage( 0 );
+        closeTypeScan();
         this.next = 0;
         this.filterType = type;
         this.highMark = relationshipHighMark();
         this.nextStoreReference = NO_ID;
         this.open = true;
+        this.batched = false;
+        if ( type != -1 && typeScanReaderSupplier != null )
+        {
+            typeScanIds = typeScanReader().nodesWithLabel( type );
+        }
+    }
+
+    @Override
+    public boolean scanBatch( AllRelationshipsScan scan, int type, int sizeHint )
+    {
+        if ( getId() != NO_ID )
+        {
+            resetState();
+        }
+        return ((RecordRelationshipScan) scan).scanBatch( sizeHint, type, this );
+    }
+
+    /**
+     * Initializes this cursor to scan the relationship ids in the range {@code [start, stop)}, capped by the current high mark.
+     *
+     * @return {@code false} if the range starts above the high mark, i.e. there are no more relationships to scan, otherwise {@code true}.
+     */
+    boolean scanRange( long start, long stop, int type )
+    {
+        long max = relationshipHighMark();
+        closeTypeScan();
+        this.filterType = type;
+        this.nextStoreReference = NO_ID;
+        this.open = true;
+        this.batched = true;
+        if ( start > max )
+        {
+            this.next = NO_ID;
+            return false;
+        }
+        openScanPage( start );
+        this.next = start;
+        this.highMark = Math.min( stop - 1, max );
+        if ( type != -1 && typeScanReaderSupplier != null )
+        {
+            typeScanIds = typeScanReader().nodesWithLabelInRange( type, start, stop );
+        }
+        return true;
     }
 
     @Override
@@ -73,17 +136,25 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
         if ( pageCursor == null )
         {
             pageCursor = relationshipPage( reference );
+            scanPageCursor = false;
         }
+        closeTypeScan();
         this.next = reference >= 0 ? reference : NO_ID;
         this.filterType = -1;
         this.highMark = NO_ID;
         this.nextStoreReference = NO_ID;
         this.open = true;
+        this.batched = false;
     }
 
     @Override
     public boolean next()
     {
+        if ( typeScanIds != null )
+        {
+            return nextFromTypeScan();
+        }
+
         if ( next == NO_ID )
         {
             resetState();
@@ -106,11 +177,11 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
 
             if ( next > highMark )
             {
-                if ( isSingle() )
+                if ( isSingle() || batched )
                 {
-                    //we are a "single cursor"
+                    //we are a "single cursor" or a "batched scan cursor", neither should look beyond their high mark
                     next = NO_ID;
-                    return inUse();
+                    return isWantedTypeAndInUse();
                 }
                 else
                 {
@@ -129,6 +200,35 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
         return true;
     }
 
+    private boolean nextFromTypeScan()
+    {
+        while ( typeScanIds.hasNext() )
+        {
+            relationship( this, typeScanIds.next(), pageCursor );
+            // Check the record as well, the relationship may have been deleted since it was read from the type scan store
+            if ( isWantedTypeAndInUse() )
+            {
+                return true;
+            }
+        }
+        resetState();
+        return false;
+    }
+
+    private LabelScanReader typeScanReader()
+    {
+        return typeScanReader != null ? typeScanReader : (typeScanReader = typeScanReaderSupplier.get());
+    }
+
+    private void closeTypeScan()
+    {
+        if ( typeScanIds != null )
+        {
+            typeScanIds.close();
+            typeScanIds = null;
+        }
+    }
+
     private boolean isWantedTypeAndInUse()
     {
         return (filterType == -1 || type() == filterType) && inUse();
@@ -147,6 +247,7 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
     private void resetState()
     {
         setId( next = NO_ID );
+        closeTypeScan();
     }
 
     @Override
@@ -171,6 +272,12 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
     @Override
     public void close()
     {
+        closeTypeScan();
+        if ( typeScanReader != null )
+        {
+            typeScanReader.close();
+            typeScanReader = null;
+        }
         if ( pageCursor != null )
         {
             pageCursor.close();
@@ -178,6 +285,23 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
         }
     }
 
+    /**
+     * Scans read ahead, so a page cursor that was opened for single reads is replaced by one opened for scanning.
+     */
+    private void openScanPage( long reference )
+    {
+        if ( pageCursor != null && !scanPageCursor )
+        {
+            pageCursor.close();
+            pageCursor = null;
+        }
+        if ( pageCursor == null )
+        {
+            pageCursor = relationshipStore.openPageCursorForScanning( reference );
+            scanPageCursor = true;
+        }
+    }
+
     private void relationshipAdvance( RelationshipRecord record, PageCursor pageCursor )
     {
         // When scanning, we inspect RelationshipRecord.inUse(), so using RecordLoad.CHECK is fine
@@ -43,10 +43,12 @@ import org.neo4j.kernel.impl.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.SchemaStorage;
 import org.neo4j.kernel.impl.store.StoreType;
-import org.neo4j.kernel.impl.store.counts.CountsTracker;
+import org.neo4j.kernel.impl.store.counts.CountsStore;
 import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.register.Register;
 import org.neo4j.register.Register.DoubleLongRegister;
+import org.neo4j.storageengine.api.AllNodeScan;
+import org.neo4j.storageengine.api.AllRelationshipsScan;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.RelationshipVisitor;
 import org.neo4j.storageengine.api.StoragePropertyCursor;
@@ -78,11 +80,12 @@ public class RecordStorageReader implements StorageReader
     private final RelationshipGroupStore relationshipGroupStore;
     private final PropertyStore propertyStore;
     private final SchemaStorage schemaStorage;
-    private final CountsTracker counts;
+    private final CountsStore counts;
     private final SchemaCache schemaCache;
 
     private final Supplier<IndexReaderFactory> indexReaderFactorySupplier;
     private final Supplier<LabelScanReader> labelScanReaderSupplier;
+    private final Supplier<LabelScanReader> relationshipTypeScanReaderSupplier;
     private final RecordStorageCommandCreationContext commandCreationContext;
 
     private IndexReaderFactory indexReaderFactory;
@@ -96,6 +99,7 @@ public class RecordStorageReader implements StorageReader
             IndexingService indexService, SchemaCache schemaCache,
             Supplier<IndexReaderFactory> indexReaderFactory,
             Supplier<LabelScanReader> labelScanReaderSupplier,
+            Supplier<LabelScanReader> relationshipTypeScanReaderSupplier,
             RecordStorageCommandCreationContext commandCreationContext )
     {
         this.tokenHolders = tokenHolders;
@@ -110,6 +114,7 @@ public class RecordStorageReader implements StorageReader
         this.schemaCache = schemaCache;
         this.indexReaderFactorySupplier = indexReaderFactory;
         this.labelScanReaderSupplier = labelScanReaderSupplier;
+        this.relationshipTypeScanReaderSupplier = relationshipTypeScanReaderSupplier;
         this.commandCreationContext = commandCreationContext;
     }
 
@@ -119,7 +124,7 @@ public class RecordStorageReader implements StorageReader
      */
     public RecordStorageReader( NeoStores stores )
     {
-        this( null, null, stores, null, null, null, null, null );
+        this( null, null, stores, null, null, null, null, null, null );
     }
 
     @Override
@@ -491,7 +496,7 @@ public class RecordStorageReader implements StorageReader
     @Override
     public RecordRelationshipScanCursor allocateRelationshipScanCursor()
     {
-        return new RecordRelationshipScanCursor( relationshipStore );
+        return new RecordRelationshipScanCursor( relationshipStore, relationshipTypeScanReaderSupplier );
     }
 
     @Override
@@ -499,4 +504,16 @@ public class RecordStorageReader implements StorageReader
     {
         return new RecordPropertyCursor( propertyStore );
     }
+
+    @Override
+    public AllNodeScan allNodeScan()
+    {
+        return new RecordNodeScan();
+    }
+
+    @Override
+    public AllRelationshipsScan allRelationshipScan()
+    {
+        return new RecordRelationshipScan();
+    }
 }
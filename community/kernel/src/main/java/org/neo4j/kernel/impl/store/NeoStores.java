@@ -43,7 +43,9 @@ import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.kernel.NeoStoresDiagnostics;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.CountsAccessor;
+import org.neo4j.kernel.impl.store.counts.CountsStore;
 import org.neo4j.kernel.impl.store.counts.CountsTracker;
+import org.neo4j.kernel.impl.store.counts.GBPTreeCountsStore;
 import org.neo4j.kernel.impl.store.counts.ReadOnlyCountsTracker;
 import org.neo4j.kernel.impl.store.format.CapabilityType;
 import org.neo4j.kernel.impl.store.format.FormatFamily;
@@ -57,6 +59,7 @@ import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.logging.Logger;
+import org.neo4j.util.FeatureToggles;
 
 import static org.neo4j.helpers.collection.Iterators.iterator;
 import static org.neo4j.helpers.collection.Iterators.loop;
@@ -91,6 +94,12 @@ public class NeoStores implements AutoCloseable
     }
 
     private static final StoreType[] STORE_TYPES = StoreType.values();
+    /**
+     * Keep the counts in a {@link GBPTreeCountsStore} rather than a {@link CountsTracker}. Read-only databases
+     * always use a {@link ReadOnlyCountsTracker}. Counts are rebuilt from the store when switching, since neither
+     * store reads the files of the other.
+     */
+    private static final boolean gbptreeCountsStore = FeatureToggles.flag( NeoStores.class, "gbptreeCountsStore", false );
 
     private final Predicate<StoreType> INSTANTIATED_RECORD_STORES = new Predicate<StoreType>()
     {
@@ -245,7 +254,7 @@ public class NeoStores implements AutoCloseable
     {
         try
         {
-            CountsTracker counts = (CountsTracker) stores[StoreType.COUNTS.ordinal()];
+            CountsStore counts = (CountsStore) stores[StoreType.COUNTS.ordinal()];
             if ( counts != null )
             {
                 counts.rotate( getMetaDataStore().getLastCommittedTransactionId() );
@@ -423,13 +432,21 @@ public class NeoStores implements AutoCloseable
         return (SchemaStore) getStore( StoreType.SCHEMA );
     }
 
-    public CountsTracker getCounts()
+    public CountsStore getCounts()
     {
-        return (CountsTracker) getStore( StoreType.COUNTS );
+        return (CountsStore) getStore( StoreType.COUNTS );
     }
 
-    private CountsTracker createWritableCountsTracker( DatabaseLayout databaseLayout )
+    private CountsStore createWritableCountsStore( DatabaseLayout databaseLayout )
     {
+        // The files of the other kind of counts store would be stale if it was ever used again, so remove them
+        if ( gbptreeCountsStore )
+        {
+            fileSystemAbstraction.deleteFile( databaseLayout.countStoreA() );
+            fileSystemAbstraction.deleteFile( databaseLayout.countStoreB() );
+            return new GBPTreeCountsStore( pageCache, fileSystemAbstraction, databaseLayout, config );
+        }
+        fileSystemAbstraction.deleteFile( databaseLayout.countStore() );
         return new CountsTracker( logProvider, fileSystemAbstraction, pageCache, config, databaseLayout,
                 versionContextSupplier );
     }
@@ -621,12 +638,12 @@ public class NeoStores implements AutoCloseable
                 TokenStore.NAME_STORE_BLOCK_SIZE );
     }
 
-    CountsTracker createCountStore()
+    CountsStore createCountStore()
     {
         boolean readOnly = config.get( GraphDatabaseSettings.read_only );
-        CountsTracker counts = readOnly
-                               ? createReadOnlyCountsTracker( layout )
-                               : createWritableCountsTracker( layout );
+        CountsStore counts = readOnly
+                             ? createReadOnlyCountsTracker( layout )
+                             : createWritableCountsStore( layout );
         NeoStores neoStores = this;
         counts.setInitializer( new DataInitializer<CountsAccessor.Updater>()
         {
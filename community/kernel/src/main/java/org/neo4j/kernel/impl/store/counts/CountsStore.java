@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+
+import org.neo4j.kernel.impl.api.CountsAccessor;
+import org.neo4j.kernel.impl.store.counts.keys.CountsKey;
+import org.neo4j.kernel.impl.store.kvstore.DataInitializer;
+import org.neo4j.kernel.lifecycle.Lifecycle;
+import org.neo4j.register.Register;
+
+/**
+ * The counts store as seen by the rest of the kernel, i.e. the transaction appliers, the storage readers and
+ * the check pointer. Implemented by {@link CountsTracker}, which keeps its state in rotating key/value files,
+ * and {@link GBPTreeCountsStore}, which keeps its state in a {@link org.neo4j.index.internal.gbptree.GBPTree}.
+ */
+public interface CountsStore extends CountsAccessor, Lifecycle
+{
+    /**
+     * @param initializer used for building the initial contents of the store if there is no store file.
+     * @return this store, for convenience.
+     */
+    CountsStore setInitializer( DataInitializer<Updater> initializer );
+
+    /**
+     * @param txId the lowest transaction id that must be included in the snapshot created by the rotation.
+     * @return the highest transaction id that was included in the snapshot created by the rotation.
+     */
+    long rotate( long txId ) throws IOException;
+
+    /**
+     * @return the transaction id of the last rotation.
+     */
+    long txId();
+
+    Register.DoubleLongRegister get( CountsKey key, Register.DoubleLongRegister target );
+
+    /**
+     * @param txId the transaction to apply counts changes for.
+     * @return an updater for the changes of the given transaction, or {@link Optional#empty()} if the changes
+     * of that transaction are already included in the store.
+     */
+    Optional<Updater> apply( long txId );
+
+    IndexStatsUpdater updateIndexCounts();
+
+    /**
+     * @param txId the transaction id the new contents of the store is consistent with.
+     * @return an updater that replaces all contents of the store.
+     */
+    Updater reset( long txId );
+
+    Iterable<File> allFiles();
+
+    @Override
+    void init() throws IOException;
+
+    @Override
+    void start() throws IOException;
+
+    @Override
+    void shutdown() throws IOException;
+}
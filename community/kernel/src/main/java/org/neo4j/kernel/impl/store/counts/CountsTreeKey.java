@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+import org.neo4j.kernel.impl.store.counts.keys.CountsKey;
+import org.neo4j.kernel.impl.store.kvstore.BigEndianByteArrayBuffer;
+import org.neo4j.kernel.impl.store.kvstore.UnknownKey;
+
+/**
+ * Keys in {@link CountsTreeLayout}. A key is the 16 byte {@linkplain KeyFormat key format} of the
+ * {@link CountsTracker}, seen as two big endian longs, so that both stores order their entries the same way.
+ * In addition to those, keys with {@link #APPLIED_TX} as the first long mark transactions that have been applied
+ * out of order, see {@link GBPTreeCountsStore}.
+ */
+class CountsTreeKey
+{
+    static final int SIZE = 2 * Long.BYTES;
+    /**
+     * First long of keys marking an applied transaction, the second long being the transaction id.
+     * The key format never has a zero entry type, which makes these sort before all counts keys.
+     */
+    static final long APPLIED_TX = 0;
+
+    long first;
+    long second;
+
+    CountsTreeKey()
+    {
+        clear();
+    }
+
+    /**
+     * Sets this key.
+     *
+     * @param first the first 8 bytes of the key format.
+     * @param second the last 8 bytes of the key format.
+     * @return this key instance, for convenience.
+     */
+    final CountsTreeKey set( long first, long second )
+    {
+        this.first = first;
+        this.second = second;
+        return this;
+    }
+
+    final CountsTreeKey set( CountsKey key )
+    {
+        BigEndianByteArrayBuffer buffer = new BigEndianByteArrayBuffer( new byte[SIZE] );
+        key.accept( new KeyFormat( buffer ), 0, 0 );
+        return set( buffer.getLong( 0 ), buffer.getLong( Long.BYTES ) );
+    }
+
+    final CountsTreeKey setAppliedTx( long txId )
+    {
+        return set( APPLIED_TX, txId );
+    }
+
+    final boolean isAppliedTx()
+    {
+        return first == APPLIED_TX;
+    }
+
+    final CountsKey toCountsKey() throws UnknownKey
+    {
+        BigEndianByteArrayBuffer buffer = new BigEndianByteArrayBuffer( new byte[SIZE] );
+        buffer.putLong( 0, first ).putLong( Long.BYTES, second );
+        return KeyFormat.readKey( buffer );
+    }
+
+    final void clear()
+    {
+        set( 0, 0 );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[" + Long.toHexString( first ) + "," + Long.toHexString( second ) + "]";
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+/**
+ * Values in {@link CountsTreeLayout}, the same two longs that {@link CountsUpdater} documents as the value format
+ * of each kind of key.
+ */
+class CountsTreeValue
+{
+    static final int SIZE = 2 * Long.BYTES;
+
+    long first;
+    long second;
+
+    CountsTreeValue set( long first, long second )
+    {
+        this.first = first;
+        this.second = second;
+        return this;
+    }
+
+    boolean isZero()
+    {
+        return first == 0 && second == 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[" + first + "," + second + "]";
+    }
+}
@@ -0,0 +1,481 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.index.internal.gbptree.ValueMerger;
+import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.CountsVisitor;
+import org.neo4j.kernel.impl.store.UnderlyingStorageException;
+import org.neo4j.kernel.impl.store.counts.keys.CountsKey;
+import org.neo4j.kernel.impl.store.kvstore.DataInitializer;
+import org.neo4j.kernel.impl.store.kvstore.RotationTimeoutException;
+import org.neo4j.kernel.impl.store.kvstore.UnknownKey;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.register.Register;
+
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.counts_store_rotation_timeout;
+import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.indexSampleKey;
+import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.indexStatisticsKey;
+import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.nodeKey;
+import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.relationshipKey;
+
+/**
+ * A {@link CountsStore} keeping its entries in a {@link GBPTree}, using the same keys and values as {@link CountsTracker}.
+ *
+ * Unlike {@link CountsTracker}, which writes all its entries to a new file on every rotation, a rotation of this store
+ * is a {@link GBPTree#checkpoint(IOLimiter, java.util.function.Consumer) checkpoint} of the tree, which only flushes
+ * the pages that changed since the last one. Lookups are a seek in the tree, i.e. page cache reads.
+ *
+ * The changes of a transaction are collected by its updater and merged into the tree when the updater is closed;
+ * counts are added to the existing values, index statistics and samples replace them. The tree only has a single
+ * writer, so updaters are merged one at a time.
+ *
+ * Since the tree goes back to its state of the last checkpoint after a crash, the tree keeps track of which
+ * transactions that are included: the header written on checkpoint has the highest transaction id below which all
+ * transactions are applied, and transactions above it that were applied out of order are marked by
+ * {@link CountsTreeKey#setAppliedTx(long) keys of their own}, written together with their changes.
+ * {@link #apply(long)} ignores all of those, which makes recovery replaying transactions from an earlier log position safe.
+ */
+public class GBPTreeCountsStore extends LifecycleAdapter implements CountsStore
+{
+    private static final ValueMerger<CountsTreeKey,CountsTreeValue> ADD_VALUES =
+            ( existingKey, newKey, existingValue, newValue ) ->
+                    newValue.set( existingValue.first + newValue.first, existingValue.second + newValue.second );
+    private static final long NO_TX_ID = -1;
+
+    private final PageCache pageCache;
+    private final FileSystemAbstraction fs;
+    private final File file;
+    private final long rotationTimeoutMillis;
+    private final CountsTreeLayout layout = new CountsTreeLayout();
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private final Condition txApplied = updateLock.newCondition();
+    // guarded by updateLock
+    private final LongHashSet strayTxIds = new LongHashSet();
+    // guarded by updateLock
+    private long highestGapFreeTxId = FileVersion.INITIAL_TX_ID;
+    private volatile long lastRotatedTxId = FileVersion.INITIAL_TX_ID;
+    private volatile boolean needsRebuild;
+    private DataInitializer<Updater> initializer;
+    private GBPTree<CountsTreeKey,CountsTreeValue> tree;
+
+    public GBPTreeCountsStore( PageCache pageCache, FileSystemAbstraction fs, DatabaseLayout databaseLayout, Config config )
+    {
+        this.pageCache = pageCache;
+        this.fs = fs;
+        this.file = databaseLayout.countStore();
+        this.rotationTimeoutMillis = config.get( counts_store_rotation_timeout ).toMillis();
+    }
+
+    @Override
+    public GBPTreeCountsStore setInitializer( DataInitializer<Updater> initializer )
+    {
+        this.initializer = initializer;
+        return this;
+    }
+
+    @Override
+    public void init() throws IOException
+    {
+        needsRebuild = !fs.fileExists( file );
+        tree = new GBPTree<>( pageCache, file, layout, 0, GBPTree.NO_MONITOR, this::readHeader, this::writeHeader,
+                RecoveryCleanupWorkCollector.immediate() );
+        updateLock.lock();
+        try ( RawCursor<Hit<CountsTreeKey,CountsTreeValue>,IOException> seek = tree.seek(
+                new CountsTreeKey().setAppliedTx( highestGapFreeTxId + 1 ), new CountsTreeKey().setAppliedTx( Long.MAX_VALUE ) ) )
+        {
+            strayTxIds.clear();
+            while ( seek.next() )
+            {
+                strayTxIds.add( seek.get().key().second );
+            }
+        }
+        finally
+        {
+            updateLock.unlock();
+        }
+    }
+
+    @Override
+    public void start() throws IOException
+    {
+        if ( needsRebuild )
+        {
+            long txId = initializer == null ? FileVersion.INITIAL_TX_ID : initializer.initialVersion();
+            try ( Updater updater = new TreeUpdater( txId, true ) )
+            {
+                if ( initializer != null )
+                {
+                    initializer.initialize( updater );
+                }
+            }
+            needsRebuild = false;
+            rotate( txId );
+        }
+    }
+
+    @Override
+    public void shutdown() throws IOException
+    {
+        if ( tree != null )
+        {
+            tree.close();
+            tree = null;
+        }
+    }
+
+    @Override
+    public long rotate( long txId ) throws IOException
+    {
+        updateLock.lock();
+        try
+        {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( rotationTimeoutMillis );
+            while ( highestGapFreeTxId < txId )
+            {
+                long remaining = deadline - System.nanoTime();
+                if ( remaining <= 0 )
+                {
+                    throw new RotationTimeoutException( txId, highestGapFreeTxId, rotationTimeoutMillis );
+                }
+                txApplied.awaitNanos( remaining );
+            }
+            tree.checkpoint( IOLimiter.UNLIMITED, this::writeHeader );
+            lastRotatedTxId = highestGapFreeTxId;
+            return lastRotatedTxId;
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for transactions up to " + txId +
+                    " to be applied to the counts store" );
+        }
+        finally
+        {
+            updateLock.unlock();
+        }
+    }
+
+    @Override
+    public long txId()
+    {
+        return lastRotatedTxId;
+    }
+
+    @Override
+    public Register.DoubleLongRegister get( CountsKey key, Register.DoubleLongRegister target )
+    {
+        CountsTreeKey treeKey = new CountsTreeKey().set( key );
+        try ( RawCursor<Hit<CountsTreeKey,CountsTreeValue>,IOException> seek = tree.seek( treeKey, treeKey ) )
+        {
+            if ( seek.next() )
+            {
+                CountsTreeValue value = seek.get().value();
+                target.write( value.first, value.second );
+            }
+            else
+            {
+                target.write( 0, 0 );
+            }
+            return target;
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
+    @Override
+    public Register.DoubleLongRegister nodeCount( int labelId, Register.DoubleLongRegister target )
+    {
+        return get( nodeKey( labelId ), target );
+    }
+
+    @Override
+    public Register.DoubleLongRegister relationshipCount( int startLabelId, int typeId, int endLabelId,
+            Register.DoubleLongRegister target )
+    {
+        return get( relationshipKey( startLabelId, typeId, endLabelId ), target );
+    }
+
+    @Override
+    public Register.DoubleLongRegister indexUpdatesAndSize( long indexId, Register.DoubleLongRegister target )
+    {
+        return get( indexStatisticsKey( indexId ), target );
+    }
+
+    @Override
+    public Register.DoubleLongRegister indexSample( long indexId, Register.DoubleLongRegister target )
+    {
+        return get( indexSampleKey( indexId ), target );
+    }
+
+    @Override
+    public Optional<Updater> apply( long txId )
+    {
+        updateLock.lock();
+        try
+        {
+            if ( needsRebuild || txId <= highestGapFreeTxId || strayTxIds.contains( txId ) )
+            {
+                // Either already in the tree, or will be included when the tree is rebuilt
+                return Optional.empty();
+            }
+        }
+        finally
+        {
+            updateLock.unlock();
+        }
+        return Optional.of( new TreeUpdater( txId, false ) );
+    }
+
+    @Override
+    public IndexStatsUpdater updateIndexCounts()
+    {
+        return new TreeUpdater( NO_TX_ID, false );
+    }
+
+    @Override
+    public Updater reset( long txId )
+    {
+        return new TreeUpdater( txId, true );
+    }
+
+    @Override
+    public void accept( CountsVisitor visitor )
+    {
+        try ( RawCursor<Hit<CountsTreeKey,CountsTreeValue>,IOException> seek = seekAll() )
+        {
+            while ( seek.next() )
+            {
+                CountsTreeValue value = seek.get().value();
+                if ( !seek.get().key().isAppliedTx() && !value.isZero() )
+                {
+                    seek.get().key().toCountsKey().accept( visitor, value.first, value.second );
+                }
+            }
+        }
+        catch ( IOException | UnknownKey e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
+    @Override
+    public Iterable<File> allFiles()
+    {
+        return fs.fileExists( file ) ? Collections.singletonList( file ) : Collections.emptyList();
+    }
+
+    private RawCursor<Hit<CountsTreeKey,CountsTreeValue>,IOException> seekAll() throws IOException
+    {
+        return tree.seek( new CountsTreeKey().set( 0, 0 ), new CountsTreeKey().set( -1, -1 ) );
+    }
+
+    private void readHeader( ByteBuffer headerData )
+    {
+        highestGapFreeTxId = headerData.getLong();
+        lastRotatedTxId = highestGapFreeTxId;
+    }
+
+    /**
+     * Header format: {@code [highestGapFreeTxId:long]}.
+     * Called while holding {@link #updateLock}, or when the tree is created.
+     */
+    private void writeHeader( PageCursor cursor )
+    {
+        cursor.putLong( highestGapFreeTxId );
+    }
+
+    private void markAsApplied( Writer<CountsTreeKey,CountsTreeValue> writer, long txId )
+    {
+        CountsTreeKey key = new CountsTreeKey();
+        if ( txId == highestGapFreeTxId + 1 )
+        {
+            highestGapFreeTxId = txId;
+            while ( strayTxIds.remove( highestGapFreeTxId + 1 ) )
+            {
+                highestGapFreeTxId++;
+                writer.remove( key.setAppliedTx( highestGapFreeTxId ) );
+            }
+        }
+        else if ( txId > highestGapFreeTxId )
+        {
+            strayTxIds.add( txId );
+            writer.put( key.setAppliedTx( txId ), new CountsTreeValue() );
+        }
+    }
+
+    private List<CountsTreeKey> allKeys() throws IOException
+    {
+        List<CountsTreeKey> keys = new ArrayList<>();
+        try ( RawCursor<Hit<CountsTreeKey,CountsTreeValue>,IOException> seek = seekAll() )
+        {
+            while ( seek.next() )
+            {
+                keys.add( layout.copyKey( seek.get().key(), new CountsTreeKey() ) );
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * A change to a single key collected by a {@link TreeUpdater}, either a delta to add to the stored value
+     * or a value to replace it with.
+     */
+    private static class Change
+    {
+        boolean replace;
+        long first;
+        long second;
+    }
+
+    private class TreeUpdater implements Updater, IndexStatsUpdater
+    {
+        private final long txId;
+        private final boolean reset;
+        private final Map<CountsKey,Change> changes = new LinkedHashMap<>();
+
+        TreeUpdater( long txId, boolean reset )
+        {
+            this.txId = txId;
+            this.reset = reset;
+        }
+
+        @Override
+        public void incrementNodeCount( long labelId, long delta )
+        {
+            change( nodeKey( labelId ) ).second += delta;
+        }
+
+        @Override
+        public void incrementRelationshipCount( long startLabelId, int typeId, long endLabelId, long delta )
+        {
+            change( relationshipKey( startLabelId, typeId, endLabelId ) ).second += delta;
+        }
+
+        @Override
+        public void replaceIndexUpdateAndSize( long indexId, long updates, long size )
+        {
+            replace( change( indexStatisticsKey( indexId ) ), updates, size );
+        }
+
+        @Override
+        public void replaceIndexSample( long indexId, long unique, long size )
+        {
+            replace( change( indexSampleKey( indexId ) ), unique, size );
+        }
+
+        @Override
+        public void incrementIndexUpdates( long indexId, long delta )
+        {
+            change( indexStatisticsKey( indexId ) ).first += delta;
+        }
+
+        private Change change( CountsKey key )
+        {
+            return changes.computeIfAbsent( key, k -> new Change() );
+        }
+
+        private void replace( Change change, long first, long second )
+        {
+            change.replace = true;
+            change.first = first;
+            change.second = second;
+        }
+
+        @Override
+        public void close()
+        {
+            updateLock.lock();
+            try
+            {
+                List<CountsTreeKey> removals = reset ? allKeys() : Collections.emptyList();
+                try ( Writer<CountsTreeKey,CountsTreeValue> writer = tree.writer() )
+                {
+                    for ( CountsTreeKey key : removals )
+                    {
+                        writer.remove( key );
+                    }
+                    CountsTreeKey key = new CountsTreeKey();
+                    CountsTreeValue value = new CountsTreeValue();
+                    for ( Map.Entry<CountsKey,Change> entry : changes.entrySet() )
+                    {
+                        Change change = entry.getValue();
+                        key.set( entry.getKey() );
+                        value.set( change.first, change.second );
+                        if ( change.replace || reset )
+                        {
+                            writer.put( key, value );
+                        }
+                        else
+                        {
+                            writer.merge( key, value, ADD_VALUES );
+                        }
+                    }
+                    if ( reset )
+                    {
+                        highestGapFreeTxId = txId;
+                        strayTxIds.clear();
+                    }
+                    else if ( txId != NO_TX_ID )
+                    {
+                        markAsApplied( writer, txId );
+                    }
+                }
+                txApplied.signalAll();
+            }
+            catch ( IOException e )
+            {
+                throw new UnderlyingStorageException( e );
+            }
+            finally
+            {
+                updateLock.unlock();
+            }
+        }
+    }
+}
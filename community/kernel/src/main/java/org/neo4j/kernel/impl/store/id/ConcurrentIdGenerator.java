@@ -0,0 +1,458 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.id;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.impl.store.id.validation.IdValidator;
+
+import static org.neo4j.kernel.impl.store.id.IdContainer.NO_RESULT;
+
+/**
+ * An {@link IdGenerator} for id types that see a lot of concurrent allocation, such as nodes, relationships and
+ * properties. It uses the same {@link IdContainer} and on-disk format as {@link IdGeneratorImpl}, but without
+ * synchronizing every call.
+ * <p>
+ * New high ids are allocated with compare-and-set on the high id. Reusable ids are handed out from a number of shards,
+ * with committing threads spread over the shards by thread id. Each shard holds a batch of reusable ids taken from the
+ * {@link FreeIdKeeper}, which is consumed without locking, and only refilled under the lock that guards the
+ * id container. Freed ids are buffered per shard and handed to the {@link FreeIdKeeper} in batches. With aggressive
+ * reuse, ids freed into a shard are reused by that shard right away, just like {@link IdGeneratorImpl} would.
+ * <p>
+ * The number of retries on the high id, and the number of times a thread had to wait for the id container lock, are
+ * available from {@link #getHighIdContention()} and {@link #getIdContainerContention()}.
+ */
+public class ConcurrentIdGenerator implements IdGenerator
+{
+    private static final int MAX_SHARD_BATCH_SIZE = 128;
+    private static final ReusableIds NO_REUSABLE_IDS = new ReusableIds( new long[0], 0 );
+
+    private final long max;
+    private final IdType idType;
+    private final boolean aggressiveReuse;
+    private final IdContainer idContainer;
+    private final ReentrantLock idContainerLock = new ReentrantLock();
+    private final AtomicLong highId;
+    private final Shard[] shards;
+    private final int shardMask;
+    private final int shardBatchSize;
+    private final LongAdder highIdContention = new LongAdder();
+    private final LongAdder idContainerContention = new LongAdder();
+
+    // Whether there might be reusable ids left in the id container. Cleared when a shard finds the container empty,
+    // and set again when freed ids are handed to the container, if they can be reused in this session.
+    private volatile boolean mayHaveReusableIds = true;
+
+    /**
+     * Opens the id generator represented by the given file, like {@link IdGeneratorImpl} does.
+     *
+     * @param shardCount the number of shards to spread concurrent id allocation over. Rounded up to a power of two.
+     * @see IdGeneratorImpl#IdGeneratorImpl(FileSystemAbstraction, File, int, long, boolean, IdType, LongSupplier)
+     */
+    public ConcurrentIdGenerator( FileSystemAbstraction fs, File file, int grabSize, long max, boolean aggressiveReuse,
+            IdType idType, LongSupplier highId, int shardCount )
+    {
+        this.max = max;
+        this.idType = idType;
+        this.aggressiveReuse = aggressiveReuse;
+        this.idContainer = new IdContainer( fs, file, grabSize, aggressiveReuse );
+        this.highId = new AtomicLong( idContainer.init() ? idContainer.getInitialHighId() : highId.getAsLong() );
+
+        int shards = shardCount <= 1 ? 1 : Integer.highestOneBit( shardCount - 1 ) << 1;
+        this.shards = new Shard[shards];
+        for ( int i = 0; i < shards; i++ )
+        {
+            this.shards[i] = new Shard();
+        }
+        this.shardMask = shards - 1;
+        this.shardBatchSize = Math.max( 1, Math.min( MAX_SHARD_BATCH_SIZE, grabSize / shards ) );
+    }
+
+    @Override
+    public long nextId()
+    {
+        assertStillOpen();
+        Shard shard = shard();
+        long id = shard.reusableIds.poll();
+        if ( id != NO_RESULT )
+        {
+            return id;
+        }
+        if ( aggressiveReuse )
+        {
+            id = shard.pollFreed();
+            if ( id != NO_RESULT )
+            {
+                return id;
+            }
+        }
+        if ( mayHaveReusableIds )
+        {
+            id = refill( shard );
+            if ( id != NO_RESULT )
+            {
+                return id;
+            }
+        }
+        return nextHighId();
+    }
+
+    private long nextHighId()
+    {
+        long current;
+        long id;
+        do
+        {
+            current = highId.get();
+            id = current;
+            if ( IdValidator.isReservedId( id ) )
+            {
+                id++;
+            }
+            IdValidator.assertValidId( idType, id, max );
+            if ( highId.compareAndSet( current, id + 1 ) )
+            {
+                return id;
+            }
+            highIdContention.increment();
+        }
+        while ( true );
+    }
+
+    private long refill( Shard shard )
+    {
+        lockIdContainer();
+        try
+        {
+            // Someone else might have refilled this shard while we were waiting for the lock.
+            long id = shard.reusableIds.poll();
+            if ( id != NO_RESULT )
+            {
+                return id;
+            }
+            long[] ids = idContainer.getReusableIdBatch( shardBatchSize ).getDefragIds();
+            if ( ids.length == 0 )
+            {
+                mayHaveReusableIds = false;
+                return NO_RESULT;
+            }
+            // Only replace the batch while holding the lock, and after it has run out, so no reusable ids are lost.
+            shard.reusableIds = new ReusableIds( ids, 1 );
+            return ids[0];
+        }
+        finally
+        {
+            idContainerLock.unlock();
+        }
+    }
+
+    @Override
+    public IdRange nextIdBatch( int size )
+    {
+        assertStillOpen();
+        long[] reusableIds;
+        lockIdContainer();
+        try
+        {
+            reusableIds = idContainer.getReusableIds( size );
+        }
+        finally
+        {
+            idContainerLock.unlock();
+        }
+        int sizeLeftForRange = size - reusableIds.length;
+        long start;
+        do
+        {
+            start = highId.get();
+            IdValidator.assertIdWithinCapacity( idType, start + sizeLeftForRange, max );
+            if ( highId.compareAndSet( start, start + sizeLeftForRange ) )
+            {
+                break;
+            }
+            highIdContention.increment();
+        }
+        while ( true );
+        return new IdRange( reusableIds, start, sizeLeftForRange );
+    }
+
+    @Override
+    public void setHighId( long id )
+    {
+        IdValidator.assertIdWithinCapacity( idType, id, max );
+        highId.set( id );
+    }
+
+    @Override
+    public long getHighId()
+    {
+        return highId.get();
+    }
+
+    @Override
+    public long getHighestPossibleIdInUse()
+    {
+        return highId.get() - 1;
+    }
+
+    @Override
+    public void freeId( long id )
+    {
+        assertStillOpen();
+
+        if ( IdValidator.isReservedId( id ) )
+        {
+            return;
+        }
+
+        long currentHighId = highId.get();
+        if ( id < 0 || id >= currentHighId )
+        {
+            throw new IllegalArgumentException( "Illegal id[" + id + "], highId is " + currentHighId );
+        }
+        Shard shard = shard();
+        long[] batch = shard.free( id, shardBatchSize );
+        if ( batch != null )
+        {
+            lockIdContainer();
+            try
+            {
+                for ( long freedId : batch )
+                {
+                    idContainer.freeId( freedId );
+                }
+                if ( aggressiveReuse )
+                {
+                    mayHaveReusableIds = true;
+                }
+            }
+            finally
+            {
+                idContainerLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Closes the id generator, after handing all ids buffered in the shards back to the id container.
+     * Like {@link IdGeneratorImpl#close()}, this must not be called concurrently with any other method.
+     */
+    @Override
+    public void close()
+    {
+        lockIdContainer();
+        try
+        {
+            if ( !idContainer.isClosed() )
+            {
+                for ( Shard shard : shards )
+                {
+                    shard.drainTo( idContainer );
+                }
+            }
+            idContainer.close( highId.get() );
+        }
+        finally
+        {
+            idContainerLock.unlock();
+        }
+    }
+
+    @Override
+    public long getNumberOfIdsInUse()
+    {
+        return highId.get() - getDefragCount();
+    }
+
+    @Override
+    public long getDefragCount()
+    {
+        long count = 0;
+        for ( Shard shard : shards )
+        {
+            count += shard.count();
+        }
+        lockIdContainer();
+        try
+        {
+            return count + idContainer.getFreeIdCount();
+        }
+        finally
+        {
+            idContainerLock.unlock();
+        }
+    }
+
+    @Override
+    public void delete()
+    {
+        lockIdContainer();
+        try
+        {
+            idContainer.delete();
+        }
+        finally
+        {
+            idContainerLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of times a thread had to retry allocating high ids, because of other threads allocating
+     * high ids at the same time.
+     */
+    public long getHighIdContention()
+    {
+        return highIdContention.sum();
+    }
+
+    /**
+     * @return the number of times a thread had to wait for another thread to finish using the id container.
+     */
+    public long getIdContainerContention()
+    {
+        return idContainerContention.sum();
+    }
+
+    private Shard shard()
+    {
+        return shards[(int) Thread.currentThread().getId() & shardMask];
+    }
+
+    private void lockIdContainer()
+    {
+        if ( !idContainerLock.tryLock() )
+        {
+            idContainerContention.increment();
+            idContainerLock.lock();
+        }
+    }
+
+    private void assertStillOpen()
+    {
+        idContainer.assertStillOpen();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConcurrentIdGenerator " + hashCode() + " [max=" + max + ", shards=" + shards.length +
+                ", highIdContention=" + getHighIdContention() + ", idContainerContention=" + getIdContainerContention() +
+                ", idContainer=" + idContainer + "]";
+    }
+
+    /**
+     * A batch of reusable ids taken from the id container, that is consumed without locking.
+     */
+    private static final class ReusableIds
+    {
+        private final long[] ids;
+        private final AtomicInteger next;
+
+        ReusableIds( long[] ids, int next )
+        {
+            this.ids = ids;
+            this.next = new AtomicInteger( next );
+        }
+
+        long poll()
+        {
+            if ( next.get() >= ids.length )
+            {
+                return NO_RESULT;
+            }
+            int index = next.getAndIncrement();
+            return index < ids.length ? ids[index] : NO_RESULT;
+        }
+
+        int remaining()
+        {
+            return Math.max( 0, ids.length - next.get() );
+        }
+
+        void drainTo( IdContainer idContainer )
+        {
+            long id;
+            while ( (id = poll()) != NO_RESULT )
+            {
+                idContainer.freeId( id );
+            }
+        }
+    }
+
+    private static final class Shard
+    {
+        volatile ReusableIds reusableIds = NO_REUSABLE_IDS;
+
+        // Guarded by synchronized( this ). Only contended by threads that happen to map to the same shard.
+        private long[] freed = new long[8];
+        private int freedCount;
+
+        /**
+         * Buffer the given freed id.
+         * @return the buffered ids that should be handed to the id container, if the buffer is now full, or
+         * {@code null} otherwise.
+         */
+        synchronized long[] free( long id, int batchSize )
+        {
+            if ( freedCount == freed.length )
+            {
+                long[] grown = new long[freed.length * 2];
+                System.arraycopy( freed, 0, grown, 0, freedCount );
+                freed = grown;
+            }
+            freed[freedCount++] = id;
+            if ( freedCount < batchSize )
+            {
+                return null;
+            }
+            long[] batch = new long[freedCount];
+            System.arraycopy( freed, 0, batch, 0, freedCount );
+            freedCount = 0;
+            return batch;
+        }
+
+        synchronized long pollFreed()
+        {
+            return freedCount == 0 ? NO_RESULT : freed[--freedCount];
+        }
+
+        synchronized long count()
+        {
+            return freedCount + reusableIds.remaining();
+        }
+
+        synchronized void drainTo( IdContainer idContainer )
+        {
+            for ( int i = 0; i < freedCount; i++ )
+            {
+                idContainer.freeId( freed[i] );
+            }
+            freedCount = 0;
+            reusableIds.drainTo( idContainer );
+        }
+    }
+}
@@ -28,8 +28,16 @@ import org.neo4j.kernel.impl.store.id.configuration.CommunityIdTypeConfiguration
 import org.neo4j.kernel.impl.store.id.configuration.IdTypeConfiguration;
 import org.neo4j.kernel.impl.store.id.configuration.IdTypeConfigurationProvider;
 
+import static org.neo4j.util.FeatureToggles.flag;
+import static org.neo4j.util.FeatureToggles.getInteger;
+
 public class DefaultIdGeneratorFactory implements IdGeneratorFactory
 {
+    private static final boolean CONCURRENT_ID_GENERATORS =
+            flag( DefaultIdGeneratorFactory.class, "concurrentIdGenerators", false );
+    private static final int CONCURRENT_ID_GENERATOR_SHARDS = getInteger( DefaultIdGeneratorFactory.class,
+            "concurrentIdGeneratorShards", Runtime.getRuntime().availableProcessors() );
+
     private final EnumMap<IdType, IdGenerator> generators = new EnumMap<>( IdType.class );
     private final FileSystemAbstraction fs;
     private final IdTypeConfigurationProvider idTypeConfigurationProvider;
@@ -66,6 +74,11 @@ public class DefaultIdGeneratorFactory implements IdGeneratorFactory
     protected IdGenerator instantiate( FileSystemAbstraction fs, File fileName, int grabSize, long maxValue,
             boolean aggressiveReuse, IdType idType, LongSupplier highId )
     {
+        if ( CONCURRENT_ID_GENERATORS )
+        {
+            return new ConcurrentIdGenerator( fs, fileName, grabSize, maxValue, aggressiveReuse, idType, highId,
+                    CONCURRENT_ID_GENERATOR_SHARDS );
+        }
         return new IdGeneratorImpl( fs, fileName, grabSize, maxValue, aggressiveReuse, idType, highId );
     }
 
@@ -30,6 +30,7 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.CompressingLogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
@@ -44,6 +45,7 @@ import org.neo4j.kernel.impl.util.IdOrderingQueue;
 import org.neo4j.kernel.internal.DatabaseHealth;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
+import static java.lang.Math.min;
 import static org.neo4j.kernel.impl.api.TransactionToApply.TRANSACTION_ID_NOT_SPECIFIED;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart.checksum;
 
@@ -67,6 +69,9 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     private final LogPositionMarker positionMarker = new LogPositionMarker();
     private final DatabaseHealth databaseHealth;
     private final Lock forceLock = new ReentrantLock();
+    private final boolean compressCommands;
+    // Guarded by the force lock
+    private final GroupCommitDelay groupCommitDelay;
 
     private FlushablePositionAwareChannel writer;
     private TransactionLogWriter transactionLogWriter;
@@ -75,6 +80,22 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation,
             TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
             IdOrderingQueue explicitIndexTransactionOrdering, DatabaseHealth databaseHealth )
+    {
+        this( logFiles, logRotation, transactionMetadataCache, transactionIdStore, explicitIndexTransactionOrdering, databaseHealth,
+                false, 0, 1 );
+    }
+
+    /**
+     * @param compressCommands whether or not to write the commands of each transaction as one compressed entry,
+     * see {@link CompressingLogEntryWriter}.
+     * @param maxCommitDelayNanos the longest time the thread forcing the log waits for more committing transactions
+     * to join its force, or zero to always force right away, see {@link GroupCommitDelay}.
+     * @param targetBatchSize number of transactions in a force at which to stop waiting for more to join.
+     */
+    public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation,
+            TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
+            IdOrderingQueue explicitIndexTransactionOrdering, DatabaseHealth databaseHealth, boolean compressCommands,
+            long maxCommitDelayNanos, int targetBatchSize )
     {
         this.logFile = logFiles.getLogFile();
         this.logRotation = logRotation;
@@ -82,6 +103,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         this.explicitIndexTransactionOrdering = explicitIndexTransactionOrdering;
         this.databaseHealth = databaseHealth;
         this.transactionMetadataCache = transactionMetadataCache;
+        this.compressCommands = compressCommands;
+        this.groupCommitDelay = new GroupCommitDelay( maxCommitDelayNanos, targetBatchSize );
     }
 
     @Override
@@ -89,7 +112,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     {
         this.writer = logFile.getWriter();
         this.indexCommandDetector = new IndexCommandDetector();
-        this.transactionLogWriter = new TransactionLogWriter( new LogEntryWriter( writer ) );
+        this.transactionLogWriter = new TransactionLogWriter(
+                compressCommands ? new CompressingLogEntryWriter( writer ) : new LogEntryWriter( writer ) );
     }
 
     @Override
@@ -186,7 +210,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             throw cause;
         }
 
-        forceAfterAppend( logCheckPointEvent );
+        // The check point is waited for by the check pointer, not by committing transactions, so don't delay it
+        forceAfterAppend( logCheckPointEvent, false );
     }
 
     /**
@@ -242,6 +267,15 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
      * @return {@code true} if we got lucky and were the ones forcing the log.
      */
     protected boolean forceAfterAppend( LogForceEvents logForceEvents ) throws IOException
+    {
+        return forceAfterAppend( logForceEvents, true );
+    }
+
+    /**
+     * @param groupCommit whether or not the thread forcing the log may wait for more committing transactions to join
+     * its force, see {@link GroupCommitDelay}.
+     */
+    private boolean forceAfterAppend( LogForceEvents logForceEvents, boolean groupCommit ) throws IOException
     {
         // There's a benign race here, where we add our link before we update our next pointer.
         // This is okay, however, because unparkAll() spins when it sees a null next pointer.
@@ -258,7 +292,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
                     attemptedForce = true;
                     try
                     {
-                        forceLog( logForceEvents );
+                        forceLog( logForceEvents, groupCommit );
                         // In the event of any failure a database panic will be raised and thrown here
                     }
                     finally
@@ -291,12 +325,21 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         return attemptedForce;
     }
 
-    private void forceLog( LogForceEvents logForceEvents ) throws IOException
+    private void forceLog( LogForceEvents logForceEvents, boolean groupCommit ) throws IOException
     {
+        long commitDelay = groupCommit ? awaitMoreCommitters() : 0;
         ThreadLink links = threadLinkHead.getAndSet( ThreadLink.END );
         try ( LogForceEvent logForceEvent = logForceEvents.beginLogForce() )
         {
+            int batchSize = countLinks( links, Integer.MAX_VALUE );
+            logForceEvent.setBatchSize( batchSize );
+            logForceEvent.setCommitDelay( commitDelay );
+            long startNanos = System.nanoTime();
             force();
+            if ( groupCommit )
+            {
+                groupCommitDelay.forced( batchSize, System.nanoTime() - startNanos );
+            }
         }
         catch ( final Throwable panic )
         {
@@ -309,6 +352,49 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         }
     }
 
+    /**
+     * Gives more committing transactions a chance to join the upcoming force, if the {@link GroupCommitDelay} says so.
+     *
+     * @return the time spent waiting, in nanoseconds.
+     */
+    private long awaitMoreCommitters()
+    {
+        long delay = groupCommitDelay.delayNanos();
+        if ( delay == 0 )
+        {
+            return 0;
+        }
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + delay;
+        int target = groupCommitDelay.targetBatchSize();
+        long now = startNanos;
+        while ( now < deadline && countLinks( threadLinkHead.get(), target ) < target )
+        {
+            // The committers that join don't wake us up, so check back every now and then
+            LockSupport.parkNanos( this, min( deadline - now, TimeUnit.MICROSECONDS.toNanos( 50 ) ) );
+            now = System.nanoTime();
+        }
+        return now - startNanos;
+    }
+
+    private static int countLinks( ThreadLink links, int limit )
+    {
+        int count = 0;
+        while ( links != ThreadLink.END && count < limit )
+        {
+            count++;
+            ThreadLink tmp;
+            do
+            {
+                // Spin because of the race:y update when consing.
+                tmp = links.next;
+            }
+            while ( tmp == null );
+            links = tmp;
+        }
+        return count;
+    }
+
     private void unparkAll( ThreadLink links )
     {
         do
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import static java.lang.Math.min;
+
+/**
+ * Decides how long the thread that is about to force the transaction log should wait for more committing
+ * transactions to join its force, so that the cost of each force is spread over more transactions.
+ * <p>
+ * The delay is tuned from the observed force latency. Waiting for a fraction of a force is cheap compared to the force
+ * itself, while waiting any longer gains little, since transactions that arrive during a force will be part of the
+ * next one anyway. No delay is used unless the previous force included more than one transaction, so that a lone
+ * committing thread never waits for company that isn't coming.
+ * <p>
+ * Not thread-safe. Each appender has its own, only used by the thread holding its force lock.
+ */
+class GroupCommitDelay
+{
+    private final long maxDelayNanos;
+    private final int targetBatchSize;
+    private long averageForceNanos;
+    private int lastBatchSize;
+
+    /**
+     * @param maxDelayNanos the longest time to wait for more transactions to join a force, or zero to never wait.
+     * @param targetBatchSize stop waiting as soon as this many transactions are part of the force.
+     */
+    GroupCommitDelay( long maxDelayNanos, int targetBatchSize )
+    {
+        this.maxDelayNanos = maxDelayNanos;
+        this.targetBatchSize = targetBatchSize;
+    }
+
+    /**
+     * @return how long to wait for more transactions to join the next force, if its batch is smaller than
+     * {@link #targetBatchSize()}.
+     */
+    long delayNanos()
+    {
+        if ( maxDelayNanos == 0 || lastBatchSize <= 1 )
+        {
+            return 0;
+        }
+        return min( maxDelayNanos, averageForceNanos / 2 );
+    }
+
+    int targetBatchSize()
+    {
+        return targetBatchSize;
+    }
+
+    /**
+     * Records the outcome of a force.
+     *
+     * @param batchSize number of transactions that were forced.
+     * @param forceNanos how long the force took.
+     */
+    void forced( int batchSize, long forceNanos )
+    {
+        lastBatchSize = batchSize;
+        // Exponentially weighted moving average, to smooth out the odd slow force
+        averageForceNanos = averageForceNanos == 0
+                            ? forceNanos
+                            : averageForceNanos + (forceNanos - averageForceNanos) / 8;
+    }
+}
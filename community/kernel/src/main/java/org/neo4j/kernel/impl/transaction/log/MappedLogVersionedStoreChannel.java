@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+
+/**
+ * A read-only {@link PhysicalLogVersionedStoreChannel} over a memory-mapped log file. Only meant for log files that
+ * have been rotated, since those are never written to again.
+ * <p>
+ * Plain {@link #read(ByteBuffer) reads} copy out of the mapping, but {@link ReadAheadChannel} will instead read
+ * straight from the mapping via {@link #mapRemaining(int)}, without copying the log contents into its read-ahead
+ * buffer first.
+ */
+public class MappedLogVersionedStoreChannel extends PhysicalLogVersionedStoreChannel
+{
+    private final MappedByteBuffer mapping;
+
+    public MappedLogVersionedStoreChannel( StoreChannel delegateChannel, FileChannel fileChannel, long version,
+            byte formatVersion ) throws IOException
+    {
+        super( delegateChannel, version, formatVersion );
+        this.mapping = fileChannel.map( FileChannel.MapMode.READ_ONLY, 0, fileChannel.size() );
+        this.mapping.position( toIntExact( delegateChannel.position() ) );
+    }
+
+    /**
+     * Returns a view of the mapped log contents from the current position to the end of the file, and moves the
+     * position of this channel to the end of the file. The returned buffer must not be used after this channel has
+     * been closed.
+     *
+     * @param minimumBytes the least number of bytes the returned buffer must contain.
+     * @return the remaining contents of this log file, or {@code null} if there are fewer than {@code minimumBytes}
+     * bytes left.
+     */
+    ByteBuffer mapRemaining( int minimumBytes )
+    {
+        if ( !isOpen() || mapping.remaining() < minimumBytes )
+        {
+            return null;
+        }
+        ByteBuffer remaining = mapping.slice();
+        mapping.position( mapping.limit() );
+        return remaining;
+    }
+
+    @Override
+    public int read( ByteBuffer dst ) throws IOException
+    {
+        if ( !isOpen() )
+        {
+            throw new ClosedChannelException();
+        }
+        if ( !mapping.hasRemaining() )
+        {
+            return -1;
+        }
+        int bytes = min( dst.remaining(), mapping.remaining() );
+        ByteBuffer source = mapping.slice();
+        source.limit( bytes );
+        dst.put( source );
+        mapping.position( mapping.position() + bytes );
+        return bytes;
+    }
+
+    @Override
+    public long read( ByteBuffer[] dsts, int offset, int length ) throws IOException
+    {
+        long bytes = 0;
+        for ( int i = offset; i < offset + length && mapping.hasRemaining(); i++ )
+        {
+            bytes += read( dsts[i] );
+        }
+        return bytes == 0 && !mapping.hasRemaining() ? -1 : bytes;
+    }
+
+    @Override
+    public long read( ByteBuffer[] dsts ) throws IOException
+    {
+        return read( dsts, 0, dsts.length );
+    }
+
+    @Override
+    public StoreChannel position( long newPosition )
+    {
+        mapping.position( toIntExact( min( newPosition, mapping.limit() ) ) );
+        return this;
+    }
+
+    @Override
+    public long position()
+    {
+        return mapping.position();
+    }
+
+    @Override
+    public long size()
+    {
+        return mapping.limit();
+    }
+
+    @Override
+    public void writeAll( ByteBuffer src )
+    {
+        throw new UnsupportedOperationException( "Mapped log files are read-only" );
+    }
+
+    @Override
+    public int write( ByteBuffer src )
+    {
+        throw new UnsupportedOperationException( "Mapped log files are read-only" );
+    }
+
+    @Override
+    public long write( ByteBuffer[] srcs, int offset, int length )
+    {
+        throw new UnsupportedOperationException( "Mapped log files are read-only" );
+    }
+
+    @Override
+    public long write( ByteBuffer[] srcs )
+    {
+        throw new UnsupportedOperationException( "Mapped log files are read-only" );
+    }
+
+    @Override
+    public StoreChannel truncate( long size )
+    {
+        throw new UnsupportedOperationException( "Mapped log files are read-only" );
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if ( isOpen() )
+        {
+            // Unmap eagerly, rather than whenever the mapping is garbage collected, so that the file can be
+            // pruned without delay. This is the reason why the mapping must not be used after close.
+            UnsafeUtil.invokeCleaner( mapping );
+        }
+        super.close();
+    }
+}
@@ -32,6 +32,9 @@ import static org.neo4j.io.ByteUnit.kibiBytes;
 /**
  * A buffering implementation of {@link ReadableClosableChannel}. This class also allows subclasses to read content
  * spanning more than one file, by properly implementing {@link #next(StoreChannel)}.
+ * <p>
+ * When reading from a {@link MappedLogVersionedStoreChannel}, the contents are read directly from the mapping, and the
+ * read-ahead buffer is only used for values that straddle the end of a file.
  * @param <T> The type of StoreChannel wrapped
  */
 public class ReadAheadChannel<T extends StoreChannel> implements ReadableClosableChannel, PositionableChannel
@@ -39,8 +42,10 @@ public class ReadAheadChannel<T extends StoreChannel> implements ReadableClosabl
     public static final int DEFAULT_READ_AHEAD_SIZE = toIntExact( kibiBytes( 4 ) );
 
     protected T channel;
-    private final ByteBuffer aheadBuffer;
+    private final ByteBuffer readAheadBuffer;
     private final int readAheadSize;
+    // Either the read-ahead buffer, or a view of the remaining contents of a mapped channel
+    private ByteBuffer aheadBuffer;
 
     public ReadAheadChannel( T channel )
     {
@@ -54,8 +59,9 @@ public class ReadAheadChannel<T extends StoreChannel> implements ReadableClosabl
 
     public ReadAheadChannel( T channel, ByteBuffer byteBuffer )
     {
-        this.aheadBuffer = byteBuffer;
-        this.aheadBuffer.position( aheadBuffer.capacity() );
+        this.readAheadBuffer = byteBuffer;
+        this.readAheadBuffer.position( readAheadBuffer.capacity() );
+        this.aheadBuffer = readAheadBuffer;
         this.channel = channel;
         this.readAheadSize = byteBuffer.capacity();
     }
@@ -132,6 +138,9 @@ public class ReadAheadChannel<T extends StoreChannel> implements ReadableClosabl
     @Override
     public void close() throws IOException
     {
+        // The mapping backing the ahead buffer goes away with the channel
+        aheadBuffer = readAheadBuffer;
+        aheadBuffer.position( aheadBuffer.limit() );
         channel.close();
     }
 
@@ -143,7 +152,19 @@ public class ReadAheadChannel<T extends StoreChannel> implements ReadableClosabl
             return;
         }
 
-        // We ran out, try to read some more
+        // We ran out of mapped content, or buffered content
+        useReadAheadBuffer();
+        if ( remaining == 0 && channel instanceof MappedLogVersionedStoreChannel )
+        {
+            ByteBuffer mapped = ((MappedLogVersionedStoreChannel) channel).mapRemaining( requestedNumberOfBytes );
+            if ( mapped != null )
+            {
+                aheadBuffer = mapped.order( readAheadBuffer.order() );
+                return;
+            }
+        }
+
+        // Try to read some more
         // start by copying the remaining bytes to the beginning
         aheadBuffer.compact();
 
@@ -174,6 +195,19 @@ public class ReadAheadChannel<T extends StoreChannel> implements ReadableClosabl
         aheadBuffer.flip();
     }
 
+    private void useReadAheadBuffer()
+    {
+        if ( aheadBuffer != readAheadBuffer )
+        {
+            // Carry over whatever is left of the mapped content, so that the read-ahead buffer is positioned as if
+            // it had been read into it
+            readAheadBuffer.clear();
+            readAheadBuffer.put( aheadBuffer );
+            readAheadBuffer.flip();
+            aheadBuffer = readAheadBuffer;
+        }
+    }
+
     /**
      * Hook for allowing subclasses to read content spanning a sequence of files. This method is called when the current
      * file channel is exhausted and a new channel is required for reading. The default implementation returns the
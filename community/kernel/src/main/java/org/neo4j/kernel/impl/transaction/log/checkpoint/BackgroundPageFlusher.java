@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import org.neo4j.function.Predicates;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.api.LogForceMonitor;
+import org.neo4j.kernel.impl.transaction.tracing.CheckPointTracer;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Trickles dirty pages out to the store files in between check points. A check point then only has to flush the
+ * pages dirtied since the last background flush, which makes for a much smaller IO spike.
+ * <p>
+ * Each background flush writes out the dirty pages of all mapped files in file page order, without forcing them, see
+ * {@link PageCache#flush(IOLimiter)}. The flush paces itself, up to a max number of pages per second. The rate is
+ * halved whenever transaction log forces get noticeably slower than the fastest recently seen, which is taken as a
+ * sign that the flushing competes with committing transactions for IO. The rate then slowly recovers while commits
+ * stay fast.
+ */
+public class BackgroundPageFlusher extends LifecycleAdapter implements IOLimiter
+{
+    private static final long RATE_ADJUSTMENT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos( 1 );
+    // Force latency jitter below this is not considered a slowdown
+    private static final long FORCE_LATENCY_SLACK_MICROS = 100;
+    private static final int MIN_RATE_DIVISOR = 16;
+
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final long intervalMillis;
+    private final int maxPagesPerSecond;
+    private final LogForceMonitor logForceMonitor;
+    private final CheckPointTracer tracer;
+    private final Log log;
+
+    private volatile JobHandle handle;
+    private volatile boolean stopped;
+    private volatile boolean flushing;
+    private final BooleanSupplier notFlushing = () -> !flushing;
+
+    // Only accessed by the flushing thread
+    private int pagesPerSecond;
+    private long lastRateAdjustmentNanos;
+    private long lastLogForces;
+    private long lastLogForceMicros;
+    private long fastestForceMicros = Long.MAX_VALUE;
+
+    public BackgroundPageFlusher( PageCache pageCache, JobScheduler scheduler, long intervalMillis,
+            int maxPagesPerSecond, LogForceMonitor logForceMonitor, CheckPointTracer tracer, LogProvider logProvider )
+    {
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.intervalMillis = intervalMillis;
+        this.maxPagesPerSecond = maxPagesPerSecond;
+        this.logForceMonitor = logForceMonitor;
+        this.tracer = tracer;
+        this.log = logProvider.getLog( BackgroundPageFlusher.class );
+        this.pagesPerSecond = maxPagesPerSecond;
+    }
+
+    @Override
+    public void start()
+    {
+        stopped = false;
+        handle = scheduler.schedule( Group.CHECKPOINT, this::flush, intervalMillis, MILLISECONDS );
+    }
+
+    @Override
+    public void stop()
+    {
+        stopped = true;
+        if ( handle != null )
+        {
+            handle.cancel( false );
+        }
+        // An ongoing flush stops pacing itself once stopped, so this won't take long
+        Predicates.awaitForever( notFlushing, 10, MILLISECONDS );
+    }
+
+    private void flush()
+    {
+        try
+        {
+            flushing = true;
+            if ( stopped )
+            {
+                return;
+            }
+            adjustRate();
+            pageCache.flush( this );
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Background flushing of dirty pages failed. They will be flushed by the next check point.", e );
+        }
+        finally
+        {
+            flushing = false;
+        }
+
+        if ( !stopped )
+        {
+            handle = scheduler.schedule( Group.CHECKPOINT, this::flush, intervalMillis, MILLISECONDS );
+        }
+    }
+
+    @Override
+    public long maybeLimitIO( long previousStamp, int recentlyCompletedIOs, Flushable flushable )
+    {
+        tracer.pagesFlushedInBackground( recentlyCompletedIOs );
+        long now = System.nanoTime();
+        if ( stopped )
+        {
+            return now;
+        }
+        if ( now - lastRateAdjustmentNanos >= RATE_ADJUSTMENT_INTERVAL_NANOS )
+        {
+            adjustRate();
+        }
+
+        long expectedNanos = TimeUnit.SECONDS.toNanos( recentlyCompletedIOs ) / pagesPerSecond;
+        long elapsedNanos = previousStamp == INITIAL_STAMP ? 0 : now - previousStamp;
+        if ( expectedNanos > elapsedNanos )
+        {
+            LockSupport.parkNanos( this, expectedNanos - elapsedNanos );
+            now = System.nanoTime();
+        }
+        return now;
+    }
+
+    @Override
+    public boolean isLimited()
+    {
+        return true;
+    }
+
+    /**
+     * Lowers or raises the flush rate, based on how the average transaction log force latency since the last
+     * adjustment compares to the fastest seen.
+     */
+    void adjustRate()
+    {
+        lastRateAdjustmentNanos = System.nanoTime();
+        long forces = logForceMonitor.numberOfLogForces();
+        long forceMicros = logForceMonitor.logForceAccumulatedTotalTimeMicros();
+        long newForces = forces - lastLogForces;
+        if ( newForces > 0 )
+        {
+            long averageForceMicros = (forceMicros - lastLogForceMicros) / newForces;
+            if ( averageForceMicros < fastestForceMicros )
+            {
+                fastestForceMicros = averageForceMicros;
+            }
+            else
+            {
+                // Let the fastest force drift towards the average, so that a lasting change in force latency,
+                // for reasons other than our flushing, doesn't keep us throttled forever
+                fastestForceMicros += (averageForceMicros - fastestForceMicros) / 32;
+            }
+            if ( averageForceMicros > fastestForceMicros * 2 + FORCE_LATENCY_SLACK_MICROS )
+            {
+                pagesPerSecond = max( max( 1, maxPagesPerSecond / MIN_RATE_DIVISOR ), pagesPerSecond / 2 );
+            }
+            else
+            {
+                pagesPerSecond = min( maxPagesPerSecond, pagesPerSecond + max( 1, pagesPerSecond / 4 ) );
+            }
+        }
+        lastLogForces = forces;
+        lastLogForceMicros = forceMicros;
+    }
+
+    int pagesPerSecond()
+    {
+        return pagesPerSecond;
+    }
+}
@@ -44,6 +44,7 @@ public class DefaultCheckPointerTracer implements CheckPointTracer, CheckPointer
 
     private final AtomicLong counter = new AtomicLong();
     private final AtomicLong accumulatedTotalTimeNanos = new AtomicLong();
+    private final AtomicLong pagesFlushedInBackground = new AtomicLong();
 
     private volatile long startTimeNanos;
 
@@ -87,6 +88,12 @@ public class DefaultCheckPointerTracer implements CheckPointTracer, CheckPointer
         return logCheckPointEvent;
     }
 
+    @Override
+    public void pagesFlushedInBackground( long pages )
+    {
+        pagesFlushedInBackground.addAndGet( pages );
+    }
+
     @Override
     public long numberOfCheckPointEvents()
     {
@@ -99,6 +106,12 @@ public class DefaultCheckPointerTracer implements CheckPointTracer, CheckPointer
         return TimeUnit.NANOSECONDS.toMillis( accumulatedTotalTimeNanos.get() );
     }
 
+    @Override
+    public long numberOfPagesFlushedInBackground()
+    {
+        return pagesFlushedInBackground.get();
+    }
+
     private void updateCountersAndNotifyListeners()
     {
         final long lastEventTime = clock.nanos() - startTimeNanos;
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.storageengine.api.WritableChannel;
+
+import static java.lang.Math.max;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.COMPRESSED_COMMANDS;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.V3_5;
+
+/**
+ * {@link LogEntryWriter} which writes the commands of a transaction as one zstd compressed
+ * {@link LogEntryCompressedCommands} entry, instead of one {@link LogEntryCommand} entry per command.
+ * <p>
+ * Start, commit and check point entries are written as usual, which means that positions of transactions in the log
+ * work the same way as for uncompressed logs. The compressed data is the same sequence of command entries that would
+ * otherwise have been written. If compression doesn't make the commands smaller, which is typically the case for
+ * small transactions, those command entries are written as they are.
+ * <p>
+ * Instances are not thread-safe, like the channel they write to.
+ */
+public class CompressingLogEntryWriter extends LogEntryWriter
+{
+    private static final int COMPRESSION_LEVEL = 3;
+    // version, type, uncompressed length and compressed length
+    private static final int COMPRESSED_ENTRY_HEADER_SIZE = 2 + 4 + 4;
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+    // Buffers that have grown beyond this size, for a very large transaction, are not kept around
+    private static final int MAX_RETAINED_BUFFER_SIZE = 8 * 1024 * 1024;
+
+    private final GrowableBufferChannel commands = new GrowableBufferChannel();
+    private final StorageCommandSerializer commandSerializer = new StorageCommandSerializer( commands );
+    private byte[] compressed = new byte[0];
+
+    public CompressingLogEntryWriter( WritableChannel channel )
+    {
+        super( channel );
+    }
+
+    @Override
+    public void serialize( TransactionRepresentation tx ) throws IOException
+    {
+        try
+        {
+            commands.clear();
+            tx.accept( commandSerializer );
+            int length = commands.length();
+            if ( length > 0 )
+            {
+                writeCommands( commands.array(), length );
+            }
+        }
+        finally
+        {
+            if ( commands.array().length > MAX_RETAINED_BUFFER_SIZE )
+            {
+                commands.reset();
+                compressed = new byte[0];
+            }
+        }
+    }
+
+    private void writeCommands( byte[] uncompressed, int length ) throws IOException
+    {
+        int bound = (int) Zstd.compressBound( length );
+        if ( compressed.length < bound )
+        {
+            compressed = new byte[bound];
+        }
+        long compressedLength = Zstd.compressByteArray( compressed, 0, compressed.length, uncompressed, 0, length, COMPRESSION_LEVEL );
+        if ( Zstd.isError( compressedLength ) || compressedLength + COMPRESSED_ENTRY_HEADER_SIZE >= length )
+        {
+            channel.put( uncompressed, length );
+            return;
+        }
+
+        channel.put( V3_5.byteCode() ).put( COMPRESSED_COMMANDS );
+        channel.putInt( length ).putInt( (int) compressedLength ).put( compressed, (int) compressedLength );
+    }
+
+    private static class GrowableBufferChannel implements WritableChannel
+    {
+        private ByteBuffer buffer = ByteBuffer.allocate( INITIAL_BUFFER_SIZE );
+
+        void clear()
+        {
+            buffer.clear();
+        }
+
+        void reset()
+        {
+            buffer = ByteBuffer.allocate( INITIAL_BUFFER_SIZE );
+        }
+
+        byte[] array()
+        {
+            return buffer.array();
+        }
+
+        int length()
+        {
+            return buffer.position();
+        }
+
+        private ByteBuffer ensureRemaining( int bytes )
+        {
+            if ( buffer.remaining() < bytes )
+            {
+                ByteBuffer grown = ByteBuffer.allocate( max( buffer.capacity() * 2, buffer.position() + bytes ) );
+                buffer.flip();
+                grown.put( buffer );
+                buffer = grown;
+            }
+            return buffer;
+        }
+
+        @Override
+        public WritableChannel put( byte value )
+        {
+            ensureRemaining( Byte.BYTES ).put( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel putShort( short value )
+        {
+            ensureRemaining( Short.BYTES ).putShort( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel putInt( int value )
+        {
+            ensureRemaining( Integer.BYTES ).putInt( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel putLong( long value )
+        {
+            ensureRemaining( Long.BYTES ).putLong( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel putFloat( float value )
+        {
+            ensureRemaining( Float.BYTES ).putFloat( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel putDouble( double value )
+        {
+            ensureRemaining( Double.BYTES ).putDouble( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel put( byte[] value, int length )
+        {
+            ensureRemaining( length ).put( value, 0, length );
+            return this;
+        }
+    }
+}
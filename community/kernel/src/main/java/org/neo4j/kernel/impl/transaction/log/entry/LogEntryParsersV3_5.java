@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
+import org.neo4j.kernel.impl.transaction.log.ReadableClosableChannel;
+import org.neo4j.storageengine.api.CommandReaderFactory;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.unsafe.impl.batchimport.input.ByteBufferReadableChannel;
+
+import static java.lang.String.format;
+
+/**
+ * Same entries as {@link LogEntryParsersV2_3}, with the addition of {@link LogEntryCompressedCommands}.
+ */
+public enum LogEntryParsersV3_5 implements LogEntryParser<LogEntry>
+{
+    TX_START( LogEntryParsersV2_3.TX_START ),
+
+    COMMAND( LogEntryParsersV2_3.COMMAND ),
+
+    TX_COMMIT( LogEntryParsersV2_3.TX_COMMIT ),
+
+    CHECK_POINT( LogEntryParsersV2_3.CHECK_POINT ),
+
+    COMPRESSED_COMMANDS( null )
+            {
+                @Override
+                public LogEntry parse( LogEntryVersion version, ReadableClosableChannel channel, LogPositionMarker marker,
+                                       CommandReaderFactory commandReader ) throws IOException
+                {
+                    int uncompressedLength = channel.getInt();
+                    int compressedLength = channel.getInt();
+                    if ( uncompressedLength < 0 || compressedLength < 0 )
+                    {
+                        throw new IOException( format( "Invalid compressed commands lengths, uncompressed:%d, compressed:%d",
+                                uncompressedLength, compressedLength ) );
+                    }
+                    byte[] compressed = new byte[compressedLength];
+                    channel.get( compressed, compressedLength );
+
+                    byte[] uncompressed = new byte[uncompressedLength];
+                    long result = Zstd.decompressByteArray( uncompressed, 0, uncompressedLength, compressed, 0, compressedLength );
+                    if ( Zstd.isError( result ) || result != uncompressedLength )
+                    {
+                        throw new IOException( format( "Unable to decompress commands, expected %d bytes, got %s",
+                                uncompressedLength, Zstd.isError( result ) ? Zstd.getErrorName( result ) : result + " bytes" ) );
+                    }
+
+                    // The uncompressed data is a sequence of ordinary command entries
+                    ByteBuffer buffer = ByteBuffer.wrap( uncompressed );
+                    ReadableClosableChannel commands = new ByteBufferReadableChannel( buffer );
+                    List<StorageCommand> parsed = new ArrayList<>();
+                    while ( buffer.hasRemaining() )
+                    {
+                        LogEntryVersion commandVersion = LogEntryVersion.byVersion( commands.get() );
+                        byte type = commands.get();
+                        if ( type != LogEntryByteCodes.COMMAND )
+                        {
+                            throw new IOException( "Expected only command entries in compressed commands, but got entry type " + type );
+                        }
+                        LogEntry entry = commandVersion.entryParser( type ).parse( commandVersion, commands, marker, commandReader );
+                        if ( entry != null )
+                        {
+                            parsed.add( entry.<LogEntryCommand>as().getCommand() );
+                        }
+                    }
+                    return new LogEntryCompressedCommands( version, parsed );
+                }
+
+                @Override
+                public byte byteCode()
+                {
+                    return LogEntryByteCodes.COMPRESSED_COMMANDS;
+                }
+
+                @Override
+                public boolean skip()
+                {
+                    return false;
+                }
+            };
+
+    private final LogEntryParser<LogEntry> delegate;
+
+    LogEntryParsersV3_5( LogEntryParser<LogEntry> delegate )
+    {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public LogEntry parse( LogEntryVersion version, ReadableClosableChannel channel, LogPositionMarker marker,
+                           CommandReaderFactory commandReader ) throws IOException
+    {
+        return delegate.parse( version, channel, marker, commandReader );
+    }
+
+    @Override
+    public byte byteCode()
+    {
+        return delegate.byteCode();
+    }
+
+    @Override
+    public boolean skip()
+    {
+        return delegate.skip();
+    }
+}
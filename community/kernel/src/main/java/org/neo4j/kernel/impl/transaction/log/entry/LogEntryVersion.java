@@ -79,8 +79,13 @@ public enum LogEntryVersion
     // as of 2017-05-26: the records in command log entries include a bit that specifies if the command is serialised
     // using a fixed-width reference format, or not. This change is technically backwards compatible, so we bump the
     // log version to prevent mixed-version clusters from forming.
-    V3_0_10( -10, LogEntryParsersV2_3.class );
-    // Method moreRecentVersionExists() relies on the fact that we have negative numbers, thus next version to use is -11
+    V3_0_10( -10, LogEntryParsersV2_3.class ),
+    // as of 2026-10-16: adds the compressed commands entry, which holds all command entries of a transaction
+    // compressed into one entry. This version is only used for that entry and only when log compression is enabled,
+    // all other entries are still written as CURRENT, so that logs written without compression stay readable
+    // by versions that don't know about it.
+    V3_5( -11, LogEntryParsersV3_5.class );
+    // Method moreRecentVersionExists() relies on the fact that we have negative numbers, thus next version to use is -12
 
     public static final LogEntryVersion CURRENT = V3_0_10;
     private static final byte LOWEST_VERSION = (byte)-V2_3.byteCode();
@@ -88,7 +93,7 @@ public enum LogEntryVersion
     private static final LogEntryVersion[] LOOKUP_BY_VERSION;
     static
     {
-        LOOKUP_BY_VERSION = new LogEntryVersion[(-CURRENT.byteCode()) + 1]; // pessimistic size
+        LOOKUP_BY_VERSION = new LogEntryVersion[(-ALL[ALL.length - 1].byteCode()) + 1]; // pessimistic size
         for ( LogEntryVersion version : ALL )
         {
             put( LOOKUP_BY_VERSION, -version.byteCode(), version );
@@ -158,7 +163,7 @@ public enum LogEntryVersion
         {
             return LOOKUP_BY_VERSION[positiveVersion];
         }
-        byte positiveCurrentVersion = (byte) -CURRENT.byteCode();
+        byte positiveCurrentVersion = (byte) (LOOKUP_BY_VERSION.length - 1);
         if ( positiveVersion > positiveCurrentVersion )
         {
             throw new UnsupportedLogVersionException( String.format(
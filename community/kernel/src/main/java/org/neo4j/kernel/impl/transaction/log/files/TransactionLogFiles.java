@@ -29,8 +29,11 @@ import java.util.function.LongSupplier;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.OpenMode;
 import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.fs.StoreFileChannel;
+import org.neo4j.io.fs.StoreFileChannelUnwrapper;
 import org.neo4j.kernel.impl.transaction.log.LogHeaderCache;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.MappedLogVersionedStoreChannel;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
@@ -42,6 +45,7 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_S
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderWriter.writeLogHeader;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_LOG_VERSION;
+import static org.neo4j.util.FeatureToggles.flag;
 
 /**
  * Used to figure out what logical log file to open when the database
@@ -52,6 +56,11 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
     public static final String DEFAULT_NAME = "neostore.transaction.db";
     public static final FilenameFilter DEFAULT_FILENAME_FILTER = TransactionLogFilesHelper.DEFAULT_FILENAME_FILTER;
     private static final File[] EMPTY_FILES_ARRAY = {};
+    /**
+     * Whether or not to memory-map rotated log files when opening them for reading. Rotated log files are never
+     * written to again, so reading them via the mapping avoids copying the log contents into heap buffers.
+     */
+    private static final boolean MAP_ROTATED_LOG_FILES = flag( TransactionLogFiles.class, "mapRotatedLogFiles", false );
 
     private final TransactionLogFilesContext logFilesContext;
     private final TransactionLogFileInformation logFileInformation;
@@ -205,6 +214,11 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
                         format( "Unexpected log file header. Expected header version: %d, actual header: %s", version,
                                 header != null ? header.toString() : "null header." ) );
             }
+            if ( MAP_ROTATED_LOG_FILES && isMappable( rawChannel, version ) )
+            {
+                return new MappedLogVersionedStoreChannel( rawChannel, StoreFileChannelUnwrapper.unwrap( rawChannel ),
+                        version, header.logFormatVersion );
+            }
             return new PhysicalLogVersionedStoreChannel( rawChannel, version, header.logFormatVersion );
         }
         catch ( FileNotFoundException cause )
@@ -308,6 +322,13 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
         return logFileInformation;
     }
 
+    private boolean isMappable( StoreChannel channel, long version ) throws IOException
+    {
+        // Only rotated log files are immutable, and a single mapping can only cover 2GiB
+        return channel instanceof StoreFileChannel && channel.size() <= Integer.MAX_VALUE &&
+               version < getHighestLogVersion();
+    }
+
     private StoreChannel openLogFileChannel( File file, OpenMode mode ) throws IOException
     {
         return fileSystem.open( file, mode );
@@ -22,6 +22,9 @@ package org.neo4j.kernel.impl.transaction.state.storeview;
 import org.apache.commons.lang3.ArrayUtils;
 import org.eclipse.collections.api.set.primitive.MutableIntSet;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
 import java.util.function.IntPredicate;
 
 import org.neo4j.helpers.collection.Visitor;
@@ -81,6 +84,24 @@ public class DynamicIndexStoreView implements IndexStoreView
                 propertyUpdatesVisitor, labelIds, propertyKeyIdFilter );
     }
 
+    @Override
+    public <FAILURE extends Exception> List<StoreScan<FAILURE>> visitNodesInPartitions( int numberOfPartitions, int[] labelIds,
+            IntPredicate propertyKeyIdFilter, IntFunction<Visitor<EntityUpdates,FAILURE>> propertyUpdateVisitors )
+    {
+        if ( !USE_LABEL_INDEX_FOR_SCHEMA_INDEX_POPULATION || useAllNodeStoreScan( labelIds ) )
+        {
+            return neoStoreIndexStoreView.visitNodesInPartitions( numberOfPartitions, labelIds, propertyKeyIdFilter, propertyUpdateVisitors );
+        }
+        long[] boundaries = NeoStoreIndexStoreView.partitionBoundaries( numberOfPartitions, neoStores.getNodeStore().getHighId() );
+        List<StoreScan<FAILURE>> scans = new ArrayList<>();
+        for ( int i = 0; i < boundaries.length - 1; i++ )
+        {
+            scans.add( new LabelScanViewNodeStoreScan<>( new RecordStorageReader( neoStores ), locks, labelScanStore, null,
+                    propertyUpdateVisitors.apply( i ), labelIds, propertyKeyIdFilter, boundaries[i], boundaries[i + 1] ) );
+        }
+        return scans;
+    }
+
     @Override
     public <FAILURE extends Exception> StoreScan<FAILURE> visitRelationships( int[] relationshipTypeIds, IntPredicate propertyKeyIdFilter,
             Visitor<EntityUpdates,FAILURE> propertyUpdateVisitor )
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.state.storeview;
+
+import java.util.NoSuchElementException;
+import java.util.function.LongSupplier;
+
+import org.neo4j.storageengine.api.StorageEntityScanCursor;
+
+/**
+ * Iterates over the entities in use in a range of entity ids, placing the given cursor at each returned entity.
+ * The range is bounded by the high id of the store, which is read again when reaching it so that entities created
+ * during the iteration are also returned, as long as they are inside the range.
+ */
+class EntityIdRangeIterator<CURSOR extends StorageEntityScanCursor> implements EntityIdIterator
+{
+    private final CURSOR entityCursor;
+    private final long toId;
+    private final LongSupplier highEntityId;
+    private long currentId;
+    private long highId;
+    private boolean hasNext;
+    private boolean hasFetchedNext;
+
+    EntityIdRangeIterator( CURSOR entityCursor, long fromId, long toId, LongSupplier highEntityId )
+    {
+        this.entityCursor = entityCursor;
+        this.toId = toId;
+        this.highEntityId = highEntityId;
+        this.currentId = fromId;
+        this.highId = Math.min( toId, highEntityId.getAsLong() );
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if ( !hasFetchedNext )
+        {
+            hasNext = fetchNext();
+            hasFetchedNext = true;
+        }
+        return hasNext;
+    }
+
+    private boolean fetchNext()
+    {
+        while ( true )
+        {
+            if ( currentId >= highId )
+            {
+                highId = Math.min( toId, highEntityId.getAsLong() );
+                if ( currentId >= highId )
+                {
+                    return false;
+                }
+            }
+            entityCursor.single( currentId++ );
+            if ( entityCursor.next() )
+            {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public long next()
+    {
+        if ( !hasNext() )
+        {
+            throw new NoSuchElementException();
+        }
+        hasFetchedNext = false;
+        return entityCursor.entityReference();
+    }
+
+    @Override
+    public void invalidateCache()
+    {
+        // Nothing to invalidate, entities are read from the store one by one
+    }
+
+    @Override
+    public void close()
+    {
+        // Nothing to close, the cursor is owned by the scan
+    }
+}
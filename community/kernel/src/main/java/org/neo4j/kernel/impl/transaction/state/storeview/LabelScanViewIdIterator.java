@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.transaction.state.storeview;
 
+import java.util.NoSuchElementException;
+
 import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.storageengine.api.StorageEntityScanCursor;
 import org.neo4j.storageengine.api.schema.LabelScanReader;
@@ -31,15 +33,27 @@ class LabelScanViewIdIterator<CURSOR extends StorageEntityScanCursor> implements
     private final int[] labelIds;
     private final LabelScanReader labelScanReader;
     private final CURSOR entityCursor;
+    private final long toId;
 
     private PrimitiveLongResourceIterator idIterator;
-    private long lastReturnedId = -1;
+    private long lastReturnedId;
+    private long nextId = LabelScanReader.NO_ID;
 
     LabelScanViewIdIterator( LabelScanReader labelScanReader, int[] labelIds, CURSOR entityCursor )
+    {
+        this( labelScanReader, labelIds, entityCursor, 0, Long.MAX_VALUE );
+    }
+
+    /**
+     * Iterates over the nodes with any of the given labels in the range of node ids [{@code fromId}, {@code toId}).
+     */
+    LabelScanViewIdIterator( LabelScanReader labelScanReader, int[] labelIds, CURSOR entityCursor, long fromId, long toId )
     {
         this.labelScanReader = labelScanReader;
         this.entityCursor = entityCursor;
-        this.idIterator = labelScanReader.nodesWithAnyOfLabels( labelIds );
+        this.toId = toId;
+        this.lastReturnedId = fromId - 1;
+        this.idIterator = fromId == 0 ? labelScanReader.nodesWithAnyOfLabels( labelIds ) : labelScanReader.nodesWithAnyOfLabels( lastReturnedId, labelIds );
         this.labelIds = labelIds;
     }
 
@@ -52,13 +66,22 @@ class LabelScanViewIdIterator<CURSOR extends StorageEntityScanCursor> implements
     @Override
     public boolean hasNext()
     {
-        return idIterator.hasNext();
+        if ( nextId == LabelScanReader.NO_ID && idIterator.hasNext() )
+        {
+            nextId = idIterator.next();
+        }
+        return nextId != LabelScanReader.NO_ID && nextId < toId;
     }
 
     @Override
     public long next()
     {
-        long next = idIterator.next();
+        if ( !hasNext() )
+        {
+            throw new NoSuchElementException();
+        }
+        long next = nextId;
+        nextId = LabelScanReader.NO_ID;
         entityCursor.single( next );
         entityCursor.next();
         lastReturnedId = next;
@@ -69,6 +92,7 @@ class LabelScanViewIdIterator<CURSOR extends StorageEntityScanCursor> implements
     public void invalidateCache()
     {
         this.idIterator.close();
+        this.nextId = LabelScanReader.NO_ID;
         this.idIterator = labelScanReader.nodesWithAnyOfLabels( lastReturnedId, labelIds );
     }
 }
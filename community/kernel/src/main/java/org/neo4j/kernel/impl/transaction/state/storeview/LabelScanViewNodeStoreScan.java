@@ -47,9 +47,23 @@ public class LabelScanViewNodeStoreScan<FAILURE extends Exception> extends Store
         this.labelScanStore = labelScanStore;
     }
 
+    /**
+     * Scans the nodes with any of the given labels in the range of node ids [{@code fromId}, {@code toId}),
+     * as one out of several scans running in parallel.
+     */
+    public LabelScanViewNodeStoreScan( StorageReader storageReader, LockService locks,
+            LabelScanStore labelScanStore, Visitor<NodeLabelUpdate,FAILURE> labelUpdateVisitor,
+            Visitor<EntityUpdates,FAILURE> propertyUpdatesVisitor, int[] labelIds,
+            IntPredicate propertyKeyIdFilter, long fromId, long toId )
+    {
+        super( storageReader, locks, labelUpdateVisitor, propertyUpdatesVisitor, labelIds,
+                propertyKeyIdFilter, fromId, toId, () -> Long.MAX_VALUE );
+        this.labelScanStore = labelScanStore;
+    }
+
     @Override
     public EntityIdIterator getEntityIdIterator()
     {
-        return new LabelScanViewIdIterator<>( labelScanStore.newReader(), labelIds, entityCursor );
+        return new LabelScanViewIdIterator<>( labelScanStore.newReader(), labelIds, entityCursor, fromId, toId );
     }
 }
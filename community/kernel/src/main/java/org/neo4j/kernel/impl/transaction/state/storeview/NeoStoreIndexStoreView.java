@@ -21,6 +21,9 @@ package org.neo4j.kernel.impl.transaction.state.storeview;
 
 import org.eclipse.collections.api.set.primitive.MutableIntSet;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
 import java.util.function.IntPredicate;
 
 import org.neo4j.helpers.collection.Visitor;
@@ -36,7 +39,7 @@ import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
-import org.neo4j.kernel.impl.store.counts.CountsTracker;
+import org.neo4j.kernel.impl.store.counts.CountsStore;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
 import org.neo4j.kernel.impl.store.record.PropertyBlock;
@@ -47,6 +50,7 @@ import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.Values;
 
+import static org.neo4j.collection.PrimitiveLongCollections.EMPTY_LONG_ARRAY;
 import static org.neo4j.kernel.impl.store.NodeLabelsField.parseLabelsField;
 import static org.neo4j.kernel.impl.store.record.RecordLoad.FORCE;
 
@@ -55,11 +59,16 @@ import static org.neo4j.kernel.impl.store.record.RecordLoad.FORCE;
  */
 public class NeoStoreIndexStoreView implements IndexStoreView
 {
+    /**
+     * Scanning a partition of nodes in its own thread only pays off if there's a fair amount of nodes in it.
+     */
+    static final long MINIMUM_NODES_PER_PARTITION = 10_000;
+
     protected final PropertyStore propertyStore;
     protected final NodeStore nodeStore;
     protected final RelationshipStore relationshipStore;
     protected final LockService locks;
-    private final CountsTracker counts;
+    private final CountsStore counts;
     private final NeoStores neoStores;
 
     public NeoStoreIndexStoreView( LockService locks, NeoStores neoStores )
@@ -114,6 +123,43 @@ public class NeoStoreIndexStoreView implements IndexStoreView
                 propertyUpdatesVisitor, labelIds, propertyKeyIdFilter );
     }
 
+    @Override
+    public <FAILURE extends Exception> List<StoreScan<FAILURE>> visitNodesInPartitions( int numberOfPartitions, int[] labelIds,
+            IntPredicate propertyKeyIdFilter, IntFunction<Visitor<EntityUpdates,FAILURE>> propertyUpdateVisitors )
+    {
+        long[] boundaries = partitionBoundaries( numberOfPartitions, nodeStore.getHighId() );
+        List<StoreScan<FAILURE>> scans = new ArrayList<>();
+        for ( int i = 0; i < boundaries.length - 1; i++ )
+        {
+            scans.add( new StoreViewNodeStoreScan<>( new RecordStorageReader( neoStores ), locks, null, propertyUpdateVisitors.apply( i ),
+                    labelIds, propertyKeyIdFilter, boundaries[i], boundaries[i + 1], nodeStore::getHighId ) );
+        }
+        return scans;
+    }
+
+    /**
+     * Splits the node ids up to {@code highId} into ranges of roughly equal size, each with at least {@link #MINIMUM_NODES_PER_PARTITION} ids.
+     * The last range is open ended, so that it also covers nodes created after this call.
+     *
+     * @return the boundaries of the ranges, where range {@code i} is [{@code boundaries[i]}, {@code boundaries[i + 1]}),
+     * or no boundaries at all if there would only be a single range.
+     */
+    static long[] partitionBoundaries( int numberOfPartitions, long highId )
+    {
+        int partitions = (int) Math.min( numberOfPartitions, highId / MINIMUM_NODES_PER_PARTITION );
+        if ( partitions <= 1 )
+        {
+            return EMPTY_LONG_ARRAY;
+        }
+        long[] boundaries = new long[partitions + 1];
+        for ( int i = 0; i < partitions; i++ )
+        {
+            boundaries[i] = highId * i / partitions;
+        }
+        boundaries[partitions] = Long.MAX_VALUE;
+        return boundaries;
+    }
+
     @Override
     public <FAILURE extends Exception> StoreScan<FAILURE> visitRelationships( final int[] relationshipTypeIds, IntPredicate propertyKeyIdFilter,
             final Visitor<EntityUpdates,FAILURE> propertyUpdatesVisitor )
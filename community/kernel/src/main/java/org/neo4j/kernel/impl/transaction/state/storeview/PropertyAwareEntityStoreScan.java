@@ -21,8 +21,10 @@ package org.neo4j.kernel.impl.transaction.state.storeview;
 
 import org.apache.commons.lang3.ArrayUtils;
 
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.IntPredicate;
 import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
 
 import org.neo4j.io.IOUtils;
 import org.neo4j.kernel.api.index.IndexEntryUpdate;
@@ -49,8 +51,30 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
     private final LongFunction<Lock> lockFunction;
     private PhaseTracker phaseTracker;
 
+    // Range of entity ids this scan covers, [fromId, toId). A scan over all entities reads them with a regular scan of the store,
+    // a scan over a part of them is one of several scans running in parallel, see IndexStoreView#visitNodesInPartitions.
+    final long fromId;
+    final long toId;
+    private final LongSupplier highEntityId;
+    // Held while reading and processing an entity, so that runInBetweenEntities can apply external updates from another thread.
+    private final ReentrantLock entityLock = new ReentrantLock();
+    // The highest entity id this scan has locked and read, i.e. the id up to which external updates must be applied by the populator.
+    private volatile long currentEntityId;
+    private volatile boolean externalUpdatesApplied;
+
     protected PropertyAwareEntityStoreScan( StorageReader storageReader, long totalEntityCount, IntPredicate propertyKeyIdFilter,
             LongFunction<Lock> lockFunction )
+    {
+        this( storageReader, totalEntityCount, propertyKeyIdFilter, lockFunction, 0, Long.MAX_VALUE, () -> Long.MAX_VALUE );
+    }
+
+    /**
+     * @param fromId first entity id to scan.
+     * @param toId entity id to stop scanning at, exclusive, or {@link Long#MAX_VALUE} for scanning up to the last entity in the store.
+     * @param highEntityId supplies the current high id of the store, which entity ids are scanned up to when they are also below {@code toId}.
+     */
+    protected PropertyAwareEntityStoreScan( StorageReader storageReader, long totalEntityCount, IntPredicate propertyKeyIdFilter,
+            LongFunction<Lock> lockFunction, long fromId, long toId, LongSupplier highEntityId )
     {
         this.storageReader = storageReader;
         this.entityCursor = allocateCursor( storageReader );
@@ -59,6 +83,15 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         this.lockFunction = lockFunction;
         this.totalCount = totalEntityCount;
         this.phaseTracker = PhaseTracker.nullInstance;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.highEntityId = highEntityId;
+        this.currentEntityId = fromId - 1;
+    }
+
+    private boolean isPartition()
+    {
+        return fromId != 0 || toId != Long.MAX_VALUE;
     }
 
     protected abstract CURSOR allocateCursor( StorageReader storageReader );
@@ -103,27 +136,55 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
     @Override
     public void run() throws FAILURE
     {
-        entityCursor.scan();
+        if ( !isPartition() )
+        {
+            entityCursor.scan();
+        }
         try ( EntityIdIterator entityIdIterator = getEntityIdIterator() )
         {
             continueScanning = true;
-            while ( continueScanning && entityIdIterator.hasNext() )
+            while ( continueScanning && scanNext( entityIdIterator ) )
             {
-                phaseTracker.enterPhase( PhaseTracker.Phase.SCAN );
-                long id = entityIdIterator.next();
-                try ( Lock ignored = lockFunction.apply( id ) )
+                // just keep on scanning
+            }
+            currentEntityId = Long.MAX_VALUE;
+        }
+        finally
+        {
+            IOUtils.closeAllUnchecked( propertyCursor, entityCursor, storageReader );
+        }
+    }
+
+    private boolean scanNext( EntityIdIterator entityIdIterator ) throws FAILURE
+    {
+        entityLock.lock();
+        try
+        {
+            if ( externalUpdatesApplied )
+            {
+                externalUpdatesApplied = false;
+                entityIdIterator.invalidateCache();
+            }
+            if ( !entityIdIterator.hasNext() )
+            {
+                return false;
+            }
+            phaseTracker.enterPhase( PhaseTracker.Phase.SCAN );
+            long id = entityIdIterator.next();
+            try ( Lock ignored = lockFunction.apply( id ) )
+            {
+                currentEntityId = id;
+                count++;
+                if ( process( entityCursor ) )
                 {
-                    count++;
-                    if ( process( entityCursor ) )
-                    {
-                        entityIdIterator.invalidateCache();
-                    }
+                    entityIdIterator.invalidateCache();
                 }
             }
+            return true;
         }
         finally
         {
-            IOUtils.closeAllUnchecked( propertyCursor, entityCursor, storageReader );
+            entityLock.unlock();
         }
     }
 
@@ -131,12 +192,30 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
     public void acceptUpdate( MultipleIndexPopulator.MultipleIndexUpdater updater, IndexEntryUpdate<?> update,
             long currentlyIndexedNodeId )
     {
-        if ( update.getEntityId() <= currentlyIndexedNodeId )
+        long entityId = update.getEntityId();
+        // A single scan is told how far it has come by the populator, a partition keeps track of that itself
+        long scannedUpTo = isPartition() ? Math.min( currentlyIndexedNodeId, currentEntityId ) : currentlyIndexedNodeId;
+        if ( entityId >= fromId && entityId < toId && entityId <= scannedUpTo )
         {
             updater.process( update );
         }
     }
 
+    @Override
+    public void runInBetweenEntities( Runnable action )
+    {
+        entityLock.lock();
+        try
+        {
+            action.run();
+            externalUpdatesApplied = true;
+        }
+        finally
+        {
+            entityLock.unlock();
+        }
+    }
+
     /**
      * Process the given {@code record}.
      *
@@ -173,6 +252,10 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
 
     protected EntityIdIterator getEntityIdIterator()
     {
+        if ( isPartition() )
+        {
+            return new EntityIdRangeIterator<>( entityCursor, fromId, toId, highEntityId );
+        }
         return new EntityIdIterator()
         {
             private boolean hasSeenNext;
@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.transaction.state.storeview;
 
 import java.util.function.IntPredicate;
+import java.util.function.LongSupplier;
 
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
@@ -42,7 +43,19 @@ public class StoreViewNodeStoreScan<FAILURE extends Exception> extends PropertyA
             Visitor<EntityUpdates,FAILURE> propertyUpdatesVisitor,
             int[] labelIds, IntPredicate propertyKeyIdFilter )
     {
-        super( storageReader, storageReader.nodesGetCount(), propertyKeyIdFilter, id -> locks.acquireNodeLock( id, LockService.LockType.READ_LOCK ) );
+        this( storageReader, locks, labelUpdateVisitor, propertyUpdatesVisitor, labelIds, propertyKeyIdFilter, 0, Long.MAX_VALUE, () -> Long.MAX_VALUE );
+    }
+
+    /**
+     * Scans the nodes in the range of node ids [{@code fromId}, {@code toId}), as one out of several scans running in parallel.
+     */
+    public StoreViewNodeStoreScan( StorageReader storageReader, LockService locks,
+            Visitor<NodeLabelUpdate,FAILURE> labelUpdateVisitor,
+            Visitor<EntityUpdates,FAILURE> propertyUpdatesVisitor,
+            int[] labelIds, IntPredicate propertyKeyIdFilter, long fromId, long toId, LongSupplier highNodeId )
+    {
+        super( storageReader, storageReader.nodesGetCount(), propertyKeyIdFilter, id -> locks.acquireNodeLock( id, LockService.LockType.READ_LOCK ),
+                fromId, toId, highNodeId );
         this.labelUpdateVisitor = labelUpdateVisitor;
         this.propertyUpdatesVisitor = propertyUpdatesVisitor;
         this.labelIds = labelIds;
@@ -21,10 +21,29 @@ package org.neo4j.kernel.impl.transaction.tracing;
 
 public interface CheckPointTracer
 {
-    CheckPointTracer NULL = () -> LogCheckPointEvent.NULL;
+    CheckPointTracer NULL = new CheckPointTracer()
+    {
+        @Override
+        public LogCheckPointEvent beginCheckPoint()
+        {
+            return LogCheckPointEvent.NULL;
+        }
+
+        @Override
+        public void pagesFlushedInBackground( long pages )
+        {
+        }
+    };
 
     /**
      * Begin a check point write to the log
      */
     LogCheckPointEvent beginCheckPoint();
+
+    /**
+     * Note that dirty pages have been written out by the background flushing that happens in between check points.
+     *
+     * @param pages the number of pages written since the last call.
+     */
+    void pagesFlushedInBackground( long pages );
 }
@@ -26,10 +26,34 @@ package org.neo4j.kernel.impl.transaction.tracing;
  */
 public interface LogForceEvent extends AutoCloseable
 {
-    LogForceEvent NULL = () ->
+    LogForceEvent NULL = new LogForceEvent()
     {
+        @Override
+        public void setBatchSize( int transactions )
+        {
+        }
+
+        @Override
+        public void setCommitDelay( long nanos )
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
     };
 
+    /**
+     * Note the number of committing transactions that will be considered forced by this force.
+     */
+    void setBatchSize( int transactions );
+
+    /**
+     * Note the time spent waiting for more committing transactions to join this force, before it was performed.
+     */
+    void setCommitDelay( long nanos );
+
     /**
      * Marks the end of the force call on the transaction log file.
      */
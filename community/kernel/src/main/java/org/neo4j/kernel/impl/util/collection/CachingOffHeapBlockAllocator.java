@@ -149,7 +149,7 @@ public class CachingOffHeapBlockAllocator implements OffHeapBlockAllocator
     @VisibleForTesting
     MemoryBlock allocateNew( long size, MemoryAllocationTracker tracker )
     {
-        final long unalignedSize = requirePositive( size ) + Long.BYTES - 1;
+        final long unalignedSize = OffHeapBlockAllocator.reservedSize( requirePositive( size ) );
         final long unalignedAddr = UnsafeUtil.allocateMemory( unalignedSize, tracker );
         final long addr = UnsafeUtil.alignedMemory( unalignedAddr, Long.BYTES );
         return new MemoryBlock( addr, size, unalignedAddr, unalignedSize );
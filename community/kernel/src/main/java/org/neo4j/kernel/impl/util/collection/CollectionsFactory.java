@@ -41,6 +41,17 @@ public interface CollectionsFactory
 
     MemoryTracker getMemoryTracker();
 
+    /**
+     * Sets the action to run when collections created by this factory fail to allocate memory because of
+     * a limit on the memory they can use, see {@link MemoryLimitExceededException}. Since that happens in
+     * the middle of changing them, the state they hold is left inconsistent and its transaction must be failed.
+     *
+     * @param action to run when the memory limit is exceeded.
+     */
+    default void setMemoryLimitExceededListener( Runnable action )
+    {   // no limit
+    }
+
     /**
      * Release previously created collections. This method does not invalidate the factory.
      */
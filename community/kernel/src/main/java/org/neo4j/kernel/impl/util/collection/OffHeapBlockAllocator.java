@@ -28,6 +28,15 @@ public interface OffHeapBlockAllocator
      */
     MemoryBlock allocate( long size, MemoryAllocationTracker tracker );
 
+    /**
+     * @return the number of bytes actually reserved, and reported to the tracker, when allocating a block of the given size,
+     * which is more than the requested size to be able to align the block.
+     */
+    static long reservedSize( long size )
+    {
+        return size + Long.BYTES - 1;
+    }
+
     void free( MemoryBlock block, MemoryAllocationTracker tracker );
 
     void release();
@@ -35,6 +35,8 @@ import org.neo4j.memory.MemoryAllocationTracker;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.values.storable.Value;
 
+import static java.util.Objects.requireNonNull;
+
 public class OffHeapCollectionsFactory implements CollectionsFactory
 {
     private final MemoryAllocationTracker memoryTracker = new LocalMemoryTracker();
@@ -42,10 +44,26 @@ public class OffHeapCollectionsFactory implements CollectionsFactory
 
     private final Collection<Resource> resources = new ArrayList<>();
     private ValuesContainer valuesContainer;
+    private volatile Runnable memoryLimitExceededListener = () -> {};
 
     public OffHeapCollectionsFactory( OffHeapBlockAllocator blockAllocator )
     {
-        this.allocator = new OffHeapMemoryAllocator( memoryTracker, blockAllocator );
+        this( blockAllocator, 0 );
+    }
+
+    /**
+     * @param maxMemory the maximum amount of off-heap memory collections created by this factory can use before
+     * {@link #release() released}; zero means unlimited.
+     */
+    public OffHeapCollectionsFactory( OffHeapBlockAllocator blockAllocator, long maxMemory )
+    {
+        this.allocator = new OffHeapMemoryAllocator( memoryTracker, blockAllocator, maxMemory, () -> memoryLimitExceededListener.run() );
+    }
+
+    @Override
+    public void setMemoryLimitExceededListener( Runnable action )
+    {
+        this.memoryLimitExceededListener = requireNonNull( action );
     }
 
     @Override
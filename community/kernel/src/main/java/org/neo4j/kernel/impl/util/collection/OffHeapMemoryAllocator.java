@@ -32,22 +32,38 @@ import static org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.newDirectByteBuf
 import static org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.putLong;
 import static org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.setMemory;
 import static org.neo4j.util.Preconditions.checkState;
+import static org.neo4j.util.Preconditions.requireNonNegative;
 
 public class OffHeapMemoryAllocator implements MemoryAllocator
 {
     private final MemoryAllocationTracker tracker;
     private final OffHeapBlockAllocator blockAllocator;
+    private final long maxMemory;
+    private final Runnable limitExceededListener;
 
     public OffHeapMemoryAllocator( MemoryAllocationTracker tracker, OffHeapBlockAllocator blockAllocator )
+    {
+        this( tracker, blockAllocator, 0, () -> {} );
+    }
+
+    /**
+     * @param maxMemory the maximum number of bytes that can be allocated through this allocator at any one time,
+     * as seen by the given tracker; zero means unlimited.
+     * @param limitExceededListener called before failing an allocation which would exceed {@code maxMemory}.
+     */
+    public OffHeapMemoryAllocator( MemoryAllocationTracker tracker, OffHeapBlockAllocator blockAllocator, long maxMemory,
+            Runnable limitExceededListener )
     {
         this.tracker = requireNonNull( tracker );
         this.blockAllocator = requireNonNull( blockAllocator );
+        this.maxMemory = requireNonNegative( maxMemory );
+        this.limitExceededListener = requireNonNull( limitExceededListener );
     }
 
     @Override
     public Memory allocate( long size, boolean zeroed )
     {
-        final MemoryBlock block = blockAllocator.allocate( size, tracker );
+        final MemoryBlock block = allocateBlock( size );
         if ( zeroed )
         {
             setMemory( block.unalignedAddr, block.unalignedSize, (byte) 0 );
@@ -55,6 +71,21 @@ public class OffHeapMemoryAllocator implements MemoryAllocator
         return new OffHeapMemory( block );
     }
 
+    private MemoryBlock allocateBlock( long size )
+    {
+        if ( maxMemory > 0 )
+        {
+            final long usedMemory = tracker.usedDirectMemory();
+            final long reservedSize = OffHeapBlockAllocator.reservedSize( size );
+            if ( usedMemory + reservedSize > maxMemory )
+            {
+                limitExceededListener.run();
+                throw new MemoryLimitExceededException( reservedSize, usedMemory, maxMemory );
+            }
+        }
+        return blockAllocator.allocate( size, tracker );
+    }
+
     class OffHeapMemory implements Memory
     {
         final MemoryBlock block;
@@ -97,7 +128,7 @@ public class OffHeapMemoryAllocator implements MemoryAllocator
         @Override
         public Memory copy()
         {
-            final MemoryBlock copy = blockAllocator.allocate( block.size, tracker );
+            final MemoryBlock copy = allocateBlock( block.size );
             copyMemory( block.addr, copy.addr, block.size );
             return new OffHeapMemory( copy );
         }
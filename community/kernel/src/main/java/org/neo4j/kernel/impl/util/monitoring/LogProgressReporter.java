@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.util.monitoring;
 
+import java.util.concurrent.TimeUnit;
+
 import org.neo4j.logging.Log;
 
 import static java.lang.String.format;
@@ -27,6 +29,7 @@ import static java.lang.String.format;
  * Progress reporter that reports its progress into provided log.
  * Progress measured in percents (from 0 till 100) where just started reporter is at 0 percents and
  * completed is at 100. Progress reporter each 10 percents.
+ * If a unit is given, each report also includes the throughput, in units per second, since the reporter was started.
  */
 public class LogProgressReporter implements ProgressReporter
 {
@@ -34,14 +37,22 @@ public class LogProgressReporter implements ProgressReporter
     private static final int HUNDRED = 100;
 
     private final Log log;
+    private final String unit;
 
     private long current;
     private int currentPercent;
     private long max;
+    private long startNanos;
 
     public LogProgressReporter( Log log )
+    {
+        this( log, null );
+    }
+
+    public LogProgressReporter( Log log, String unit )
     {
         this.log = log;
+        this.unit = unit;
     }
 
     @Override
@@ -64,14 +75,28 @@ public class LogProgressReporter implements ProgressReporter
     {
         if ( percent % STRIDE == 0 )
         {
-            log.info( format( "  %d%% completed", percent ) );
+            if ( unit == null )
+            {
+                log.info( format( "  %d%% completed", percent ) );
+            }
+            else
+            {
+                log.info( format( "  %d%% completed, %d %s/s", percent, throughput(), unit ) );
+            }
         }
     }
 
+    private long throughput()
+    {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return elapsedNanos <= 0 ? current : current * TimeUnit.SECONDS.toNanos( 1 ) / elapsedNanos;
+    }
+
     @Override
     public void start( long max )
     {
         this.max = max;
+        this.startNanos = System.nanoTime();
     }
 
     @Override
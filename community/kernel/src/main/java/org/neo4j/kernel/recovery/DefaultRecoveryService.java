@@ -33,11 +33,24 @@ import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
+import org.neo4j.util.FeatureToggles;
 
 import static org.neo4j.kernel.impl.transaction.log.Commitment.NO_COMMITMENT;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
 
 public class DefaultRecoveryService implements RecoveryService
 {
+    /**
+     * Number of transactions to apply to the store in one go when recovering forwards. A value of 1, the default,
+     * applies the recovered transactions one by one, as they are read from the log.
+     */
+    static final int BATCH_SIZE = FeatureToggles.getInteger( DefaultRecoveryService.class, "batchSize", 1 );
+    /**
+     * Number of transactions that are read and decoded ahead of the one being applied when recovering forwards,
+     * by a separate reader thread. A value of 0, the default, reads the log in the recovering thread.
+     */
+    static final int READ_AHEAD = FeatureToggles.getInteger( DefaultRecoveryService.class, "readAhead", 0 );
+
     private final RecoveryStartInformationProvider recoveryStartInformationProvider;
     private final StorageEngine storageEngine;
     private final TransactionIdStore transactionIdStore;
@@ -75,13 +88,18 @@ public class DefaultRecoveryService implements RecoveryService
     @Override
     public RecoveryApplier getRecoveryApplier( TransactionApplicationMode mode ) throws Exception
     {
+        if ( mode == RECOVERY && BATCH_SIZE > 1 )
+        {
+            return new BatchingRecoveryVisitor( storageEngine, mode, BATCH_SIZE );
+        }
         return new RecoveryVisitor( storageEngine, mode );
     }
 
     @Override
     public TransactionCursor getTransactions( LogPosition position ) throws IOException
     {
-        return logicalTransactionStore.getTransactions( position );
+        TransactionCursor transactions = logicalTransactionStore.getTransactions( position );
+        return READ_AHEAD > 0 ? new ReadAheadTransactionCursor( transactions, READ_AHEAD ) : transactions;
     }
 
     @Override
@@ -123,12 +141,7 @@ public class DefaultRecoveryService implements RecoveryService
         @Override
         public boolean visit( CommittedTransactionRepresentation transaction ) throws Exception
         {
-            TransactionRepresentation txRepresentation = transaction.getTransactionRepresentation();
-            long txId = transaction.getCommitEntry().getTxId();
-            TransactionToApply tx = new TransactionToApply( txRepresentation, txId );
-            tx.commitment( NO_COMMITMENT, txId );
-            tx.logPosition( transaction.getStartEntry().getStartPosition() );
-            storageEngine.apply( tx, mode );
+            storageEngine.apply( toApply( transaction ), mode );
             return false;
         }
 
@@ -137,4 +150,82 @@ public class DefaultRecoveryService implements RecoveryService
         {   // nothing to close
         }
     }
+
+    /**
+     * Links recovered transactions together and applies them to the store in batches, which amortizes the cost of
+     * setting up and closing the appliers over many transactions, the same way batches of committed transactions
+     * are applied. Transactions visited since the last batch are applied on {@link #close()}.
+     * <p>
+     * A transaction which has been visited isn't necessarily applied yet, see {@link #pendingTransactions()}, and
+     * a failure to apply a batch is thrown from the visit, or close, completing that batch.
+     */
+    static class BatchingRecoveryVisitor implements RecoveryApplier
+    {
+        private final StorageEngine storageEngine;
+        private final TransactionApplicationMode mode;
+        private final int batchSize;
+        private TransactionToApply first;
+        private TransactionToApply last;
+        private int size;
+
+        BatchingRecoveryVisitor( StorageEngine storageEngine, TransactionApplicationMode mode, int batchSize )
+        {
+            this.storageEngine = storageEngine;
+            this.mode = mode;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public boolean visit( CommittedTransactionRepresentation transaction ) throws Exception
+        {
+            TransactionToApply tx = toApply( transaction );
+            if ( first == null )
+            {
+                first = tx;
+            }
+            else
+            {
+                last.next( tx );
+            }
+            last = tx;
+            if ( ++size >= batchSize )
+            {
+                applyBatch();
+            }
+            return false;
+        }
+
+        private void applyBatch() throws Exception
+        {
+            TransactionToApply batch = first;
+            first = last = null;
+            size = 0;
+            if ( batch != null )
+            {
+                storageEngine.apply( batch, mode );
+            }
+        }
+
+        @Override
+        public int pendingTransactions()
+        {
+            return size;
+        }
+
+        @Override
+        public void close() throws Exception
+        {
+            applyBatch();
+        }
+    }
+
+    private static TransactionToApply toApply( CommittedTransactionRepresentation transaction )
+    {
+        TransactionRepresentation txRepresentation = transaction.getTransactionRepresentation();
+        long txId = transaction.getCommitEntry().getTxId();
+        TransactionToApply tx = new TransactionToApply( txRepresentation, txId );
+        tx.commitment( NO_COMMITMENT, txId );
+        tx.logPosition( transaction.getStartEntry().getStartPosition() );
+        return tx;
+    }
 }
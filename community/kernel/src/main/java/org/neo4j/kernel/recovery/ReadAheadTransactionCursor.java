@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.helpers.NamedThreadFactory;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+
+/**
+ * {@link TransactionCursor} which reads and decodes transactions from another cursor in a separate thread,
+ * up to a fixed number of transactions ahead of the consumer. This lets recovery decode the commands of
+ * the next transactions in the log while the current ones are being applied to the store.
+ * <p>
+ * Failures from the wrapped cursor are rethrown from {@link #next()} at the point in the stream where they
+ * happened, i.e. after all transactions read before the failure have been returned, so that recovery sees
+ * the same sequence of transactions and failures as it would have when reading the log itself.
+ * <p>
+ * The wrapped cursor is owned by the reader thread, which closes it when it's done. {@link #close()} stops
+ * the reader thread and waits for it to finish.
+ */
+class ReadAheadTransactionCursor implements TransactionCursor
+{
+    private final BlockingQueue<Entry> queue;
+    private final Thread reader;
+    private volatile boolean closed;
+    private Entry current;
+    private boolean exhausted;
+
+    ReadAheadTransactionCursor( TransactionCursor source, int readAhead )
+    {
+        this.queue = new ArrayBlockingQueue<>( readAhead );
+        this.reader = NamedThreadFactory.daemon( "recovery-read-ahead" ).newThread( () -> read( source ) );
+        this.reader.start();
+    }
+
+    private void read( TransactionCursor source )
+    {
+        try ( TransactionCursor cursor = source )
+        {
+            while ( cursor.next() )
+            {
+                if ( !offer( new Entry( cursor.get(), cursor.position(), null ) ) )
+                {
+                    return;
+                }
+            }
+            offer( new Entry( null, cursor.position(), null ) );
+        }
+        catch ( Throwable t )
+        {
+            offer( new Entry( null, null, t ) );
+        }
+    }
+
+    private boolean offer( Entry entry )
+    {
+        try
+        {
+            while ( !closed )
+            {
+                if ( queue.offer( entry, 10, TimeUnit.MILLISECONDS ) )
+                {
+                    return true;
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        if ( exhausted )
+        {
+            return false;
+        }
+
+        Entry entry;
+        try
+        {
+            entry = queue.take();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while waiting for the next transaction to recover", e );
+        }
+
+        if ( entry.failure != null )
+        {
+            exhausted = true;
+            throwFailure( entry.failure );
+        }
+        if ( entry.transaction == null )
+        {
+            // End of the log, keep the position after the last transaction read
+            exhausted = true;
+            current = entry;
+            return false;
+        }
+        current = entry;
+        return true;
+    }
+
+    private static void throwFailure( Throwable failure ) throws IOException
+    {
+        if ( failure instanceof IOException )
+        {
+            throw (IOException) failure;
+        }
+        if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+        throw new IOException( failure );
+    }
+
+    @Override
+    public CommittedTransactionRepresentation get()
+    {
+        return current != null ? current.transaction : null;
+    }
+
+    @Override
+    public LogPosition position()
+    {
+        return current != null ? current.position : null;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        queue.clear();
+        try
+        {
+            reader.join();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while waiting for the recovery read-ahead thread to stop", e );
+        }
+    }
+
+    private static class Entry
+    {
+        private final CommittedTransactionRepresentation transaction;
+        private final LogPosition position;
+        private final Throwable failure;
+
+        Entry( CommittedTransactionRepresentation transaction, LogPosition position, Throwable failure )
+        {
+            this.transaction = transaction;
+            this.position = position;
+            this.failure = failure;
+        }
+    }
+}
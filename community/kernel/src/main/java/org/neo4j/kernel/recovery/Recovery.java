@@ -21,6 +21,8 @@ package org.neo4j.kernel.recovery;
 
 import java.io.IOException;
 import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
@@ -107,21 +109,55 @@ public class Recovery extends LifecycleAdapter
             // of the schema life until after we've done the reverse recovery.
             schemaLife.init();
 
+            // Transactions are only considered recovered, and logs only kept up to them, once they've been applied
+            Deque<VisitedTransaction> notYetApplied = new ArrayDeque<>();
+            LogPosition endOfRecoveredTransactions;
+            Throwable readFailure = null;
             try ( TransactionCursor transactionsToRecover = recoveryService.getTransactions( recoveryPosition );
                     RecoveryApplier recoveryVisitor = recoveryService.getRecoveryApplier( RECOVERY ) )
             {
-                while ( transactionsToRecover.next() )
+                while ( true )
                 {
-                    lastTransaction = transactionsToRecover.get();
-                    long txId = lastTransaction.getCommitEntry().getTxId();
-                    recoveryVisitor.visit( lastTransaction );
-                    monitor.transactionRecovered( txId );
-                    numberOfRecoveredTransactions++;
-                    recoveryToPosition = transactionsToRecover.position();
-                    reportProgress();
+                    try
+                    {
+                        if ( !transactionsToRecover.next() )
+                        {
+                            break;
+                        }
+                    }
+                    catch ( Throwable t )
+                    {
+                        // The transactions read before the corrupt part of the log are intact. Those still pending are applied
+                        // when closing the applier below, so they must be considered recovered before failing, or the logs of
+                        // transactions already in the store would be truncated.
+                        readFailure = t;
+                        break;
+                    }
+                    CommittedTransactionRepresentation transaction = transactionsToRecover.get();
+                    recoveryVisitor.visit( transaction );
+                    notYetApplied.add( new VisitedTransaction( transaction, transactionsToRecover.position() ) );
+                    while ( notYetApplied.size() > recoveryVisitor.pendingTransactions() )
+                    {
+                        VisitedTransaction applied = notYetApplied.poll();
+                        lastTransaction = applied.transaction;
+                        recoveryToPosition = applied.positionAfter;
+                        transactionRecovered( lastTransaction );
+                    }
                 }
-                recoveryToPosition = transactionsToRecover.position();
+                endOfRecoveredTransactions = transactionsToRecover.position();
+            }
+            // Closing the applier has applied all remaining transactions
+            for ( VisitedTransaction applied : notYetApplied )
+            {
+                lastTransaction = applied.transaction;
+                recoveryToPosition = applied.positionAfter;
+                transactionRecovered( lastTransaction );
             }
+            if ( readFailure != null )
+            {
+                throw readFailure;
+            }
+            recoveryToPosition = endOfRecoveredTransactions;
         }
         catch ( Error | ClosedByInterruptException e )
         {
@@ -172,6 +208,13 @@ public class Recovery extends LifecycleAdapter
         progressReporter.start( numberOfTransactionToRecover * 2 );
     }
 
+    private void transactionRecovered( CommittedTransactionRepresentation transaction )
+    {
+        monitor.transactionRecovered( transaction.getCommitEntry().getTxId() );
+        numberOfRecoveredTransactions++;
+        reportProgress();
+    }
+
     private void reportProgress()
     {
         progressReporter.progress( 1 );
@@ -201,4 +244,16 @@ public class Recovery extends LifecycleAdapter
     {
         schemaLife.shutdown();
     }
+
+    private static class VisitedTransaction
+    {
+        private final CommittedTransactionRepresentation transaction;
+        private final LogPosition positionAfter;
+
+        VisitedTransaction( CommittedTransactionRepresentation transaction, LogPosition positionAfter )
+        {
+            this.transaction = transaction;
+            this.positionAfter = positionAfter;
+        }
+    }
 }
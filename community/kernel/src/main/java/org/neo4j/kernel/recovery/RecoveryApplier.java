@@ -27,4 +27,15 @@ import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
  */
 public interface RecoveryApplier extends Visitor<CommittedTransactionRepresentation,Exception>, AutoCloseable
 {
+    /**
+     * Visited transactions are applied in the order they are visited, although not necessarily by the time
+     * the visit returns. Recovery must not consider a transaction recovered before it has been applied.
+     *
+     * @return the number of the most recently visited transactions that have yet to be applied to the store.
+     * They will be applied by subsequent visits, or at the latest by {@link #close()}.
+     */
+    default int pendingTransactions()
+    {
+        return 0;
+    }
 }
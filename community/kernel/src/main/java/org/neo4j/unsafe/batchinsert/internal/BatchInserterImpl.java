@@ -125,7 +125,7 @@ import org.neo4j.kernel.impl.store.RelationshipTypeTokenStore;
 import org.neo4j.kernel.impl.store.SchemaStore;
 import org.neo4j.kernel.impl.store.StoreFactory;
 import org.neo4j.kernel.impl.store.UnderlyingStorageException;
-import org.neo4j.kernel.impl.store.counts.CountsTracker;
+import org.neo4j.kernel.impl.store.counts.CountsStore;
 import org.neo4j.kernel.impl.store.format.RecordFormatSelector;
 import org.neo4j.kernel.impl.store.format.RecordFormats;
 import org.neo4j.kernel.impl.store.id.DefaultIdGeneratorFactory;
@@ -206,6 +206,7 @@ public class BatchInserterImpl implements BatchInserter, IndexConfigStoreProvide
     private final Monitors monitors;
     private final JobScheduler jobScheduler;
     private boolean labelsTouched;
+    private boolean relationshipsTouched;
     private boolean isShutdown;
 
     private final LongFunction<Label> labelIdToLabelFunction = new LongFunction<Label>()
@@ -562,7 +563,7 @@ public class BatchInserterImpl implements BatchInserter, IndexConfigStoreProvide
 
     private void rebuildCounts()
     {
-        CountsTracker counts = neoStores.getCounts();
+        CountsStore counts = neoStores.getCounts();
         try
         {
             counts.start();
@@ -840,6 +841,7 @@ public class BatchInserterImpl implements BatchInserter, IndexConfigStoreProvide
         long id = relationshipStore.nextId();
         int typeId = getOrCreateRelationshipTypeId( type.name() );
         relationshipCreator.relationshipCreate( id, typeId, node1, node2, recordAccess, noopLockClient );
+        relationshipsTouched = true;
         if ( properties != null && !properties.isEmpty() )
         {
             RelationshipRecord record = recordAccess.getRelRecords().getOrLoad( id, null ).forChangingData();
@@ -968,6 +970,7 @@ public class BatchInserterImpl implements BatchInserter, IndexConfigStoreProvide
 
         try
         {
+            dropRelationshipTypeIndexIfTouched();
             NativeLabelScanStore labelIndex = buildLabelIndex();
             repopulateAllIndexes( labelIndex );
         }
@@ -993,6 +996,16 @@ public class BatchInserterImpl implements BatchInserter, IndexConfigStoreProvide
         }
     }
 
+    private void dropRelationshipTypeIndexIfTouched()
+    {
+        if ( relationshipsTouched )
+        {
+            // The relationship type scan store isn't maintained by the batch inserter,
+            // it will be rebuilt from the relationship store the next time the database starts
+            fileSystem.deleteFile( databaseLayout.relationshipTypeScanStore() );
+        }
+    }
+
     private NativeLabelScanStore buildLabelIndex() throws IOException
     {
         NativeLabelScanStore labelIndex =
@@ -78,7 +78,7 @@ public class ReadRecordsStep<RECORD extends AbstractBaseRecord> extends Processo
         int i = 0;
         // Just use the first record in the batch here to satisfy the record cursor.
         // The truth is that we'll be using the read method which accepts an external record anyway so it doesn't matter.
-        try ( PageCursor cursor = store.openPageCursorForReading( id ) )
+        try ( PageCursor cursor = store.openPageCursorForScanning( id ) )
         {
             boolean hasNext = true;
             while ( hasNext )
@@ -190,6 +190,12 @@ public class RecoveryTest
 
                     return new RecoveryApplier()
                     {
+                        @Override
+                        public int pendingTransactions()
+                        {
+                            return actual.pendingTransactions();
+                        }
+
                         @Override
                         public void close() throws Exception
                         {
@@ -27,6 +27,7 @@ import java.util.concurrent.TimeUnit;
 import org.neo4j.kernel.impl.api.DefaultTransactionTracer.Monitor;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogRotateEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionEvent;
 import org.neo4j.test.OnDemandJobScheduler;
@@ -76,6 +77,31 @@ public class DefaultTransactionTracerTest
         verifyZeroInteractions( monitor );
     }
 
+    @Test
+    public void shouldCountForcedTransactionsCommitDelayAndForceTime()
+    {
+        DefaultTransactionTracer tracer = new DefaultTransactionTracer( clock, monitor, jobScheduler );
+
+        triggerForce( tracer, 3, 200_000 );
+        triggerForce( tracer, 5, 0 );
+
+        assertEquals( 2, tracer.numberOfLogForces() );
+        assertEquals( 8, tracer.numberOfForcedTransactions() );
+        assertEquals( 200, tracer.logForceAccumulatedCommitDelayMicros() );
+        assertEquals( 2_000, tracer.logForceAccumulatedTotalTimeMicros() );
+    }
+
+    private void triggerForce( DefaultTransactionTracer tracer, int batchSize, long commitDelayNanos )
+    {
+        try ( LogAppendEvent logAppendEvent = tracer.beginTransaction().beginCommitEvent().beginLogAppend();
+              LogForceEvent event = logAppendEvent.beginLogForce() )
+        {
+            event.setBatchSize( batchSize );
+            event.setCommitDelay( commitDelayNanos );
+            clock.forward( 1, TimeUnit.MILLISECONDS );
+        }
+    }
+
     private void triggerEvent( DefaultTransactionTracer tracer, int eventDuration )
     {
         try ( TransactionEvent txEvent = tracer.beginTransaction() )
@@ -40,6 +40,7 @@ import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.internal.kernel.api.security.LoginContext;
 import org.neo4j.internal.kernel.api.security.SecurityContext;
+import org.neo4j.io.ByteUnit;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.exceptions.Status;
@@ -52,6 +53,9 @@ import org.neo4j.kernel.impl.locking.NoOpClient;
 import org.neo4j.kernel.impl.locking.SimpleStatementLocks;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
 import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.kernel.impl.util.collection.CachingOffHeapBlockAllocator;
+import org.neo4j.kernel.impl.util.collection.MemoryLimitExceededException;
+import org.neo4j.kernel.impl.util.collection.OffHeapCollectionsFactory;
 import org.neo4j.resources.CpuClock;
 import org.neo4j.resources.HeapAllocation;
 import org.neo4j.storageengine.api.StorageCommand;
@@ -286,6 +290,51 @@ public class KernelTransactionImplementationTest extends KernelTransactionTestBa
         verifyExtraInteractionWithTheMonitor( transactionMonitor, isWriteTx );
     }
 
+    @Test
+    public void shouldFailCommitOfTransactionExceedingItsStateMemoryLimit() throws Exception
+    {
+        // GIVEN
+        CachingOffHeapBlockAllocator blockAllocator = new CachingOffHeapBlockAllocator();
+        collectionsFactory = new OffHeapCollectionsFactory( blockAllocator, ByteUnit.kibiBytes( 16 ) );
+        try
+        {
+            KernelTransactionImplementation transaction = newTransaction( loginContext() );
+            transactionInitializer.accept( transaction );
+
+            // WHEN
+            try
+            {
+                for ( long nodeId = 0; nodeId < 100_000; nodeId++ )
+                {
+                    transaction.txState().nodeDoCreate( nodeId );
+                }
+                fail( "Memory limit should have been exceeded" );
+            }
+            catch ( MemoryLimitExceededException e )
+            {
+                // expected
+            }
+            transaction.success();
+
+            // THEN
+            assertEquals( Status.General.TransactionOutOfMemoryError, transaction.getReasonIfTerminated().get() );
+            try
+            {
+                transaction.close();
+                fail( "Exception expected" );
+            }
+            catch ( TransactionTerminatedException e )
+            {
+                assertEquals( Status.General.TransactionOutOfMemoryError, e.status() );
+            }
+            verify( transactionMonitor, times( 1 ) ).transactionFinished( false, true );
+        }
+        finally
+        {
+            blockAllocator.release();
+        }
+    }
+
     @Test
     public void shouldNotDowngradeFailureState() throws Exception
     {
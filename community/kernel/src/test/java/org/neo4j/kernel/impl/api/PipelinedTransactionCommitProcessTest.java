@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.TestableTransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.helpers.Exceptions.contains;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.INTERNAL;
+
+public class PipelinedTransactionCommitProcessTest
+{
+    private final CommitEvent commitEvent = CommitEvent.NULL;
+    private final AtomicLong lastTxId = new AtomicLong( TransactionIdStore.BASE_TX_ID );
+    private final TransactionIdStore transactionIdStore = mock( TransactionIdStore.class );
+    private final TransactionAppender appender = new TestableTransactionAppender( transactionIdStore );
+
+    {
+        when( transactionIdStore.nextCommittingTransactionId() ).thenAnswer( invocation -> lastTxId.incrementAndGet() );
+    }
+
+    @Test
+    public void shouldApplyConcurrentlyCommittedTransactionsAsOneChainInTransactionIdOrder() throws Exception
+    {
+        // GIVEN
+        int followers = 5;
+        CountDownLatch applying = new CountDownLatch( 1 );
+        CountDownLatch releaseApply = new CountDownLatch( 1 );
+        List<List<Long>> appliedChains = new CopyOnWriteArrayList<>();
+        StorageEngine storageEngine = mock( StorageEngine.class );
+        doAnswer( invocation ->
+        {
+            List<Long> chain = new ArrayList<>();
+            for ( TransactionToApply tx = invocation.getArgument( 0 ); tx != null; tx = tx.next() )
+            {
+                chain.add( tx.transactionId() );
+            }
+            appliedChains.add( chain );
+            applying.countDown();
+            releaseApply.await();
+            return null;
+        } ).when( storageEngine ).apply( any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+        TransactionCommitProcess commitProcess = new PipelinedTransactionCommitProcess( appender, storageEngine );
+        ExecutorService executor = Executors.newFixedThreadPool( followers + 1 );
+
+        try
+        {
+            // WHEN
+            List<TransactionToApply> transactions = new ArrayList<>();
+            List<Future<Long>> commits = new ArrayList<>();
+            TransactionToApply leaderTransaction = mockedTransaction();
+            transactions.add( leaderTransaction );
+            commits.add( executor.submit( () -> commitProcess.commit( leaderTransaction, commitEvent, INTERNAL ) ) );
+            applying.await();
+            List<Thread> followerThreads = new CopyOnWriteArrayList<>();
+            for ( int i = 0; i < followers; i++ )
+            {
+                TransactionToApply transaction = mockedTransaction();
+                transactions.add( transaction );
+                commits.add( executor.submit( () ->
+                {
+                    followerThreads.add( Thread.currentThread() );
+                    return commitProcess.commit( transaction, commitEvent, INTERNAL );
+                } ) );
+            }
+            awaitParked( followerThreads, followers );
+            releaseApply.countDown();
+            for ( Future<Long> commit : commits )
+            {
+                commit.get();
+            }
+
+            // THEN
+            assertEquals( 2, appliedChains.size() );
+            List<Long> followerChain = appliedChains.get( 1 );
+            assertEquals( followers, followerChain.size() );
+            for ( int i = 1; i < followerChain.size(); i++ )
+            {
+                assertTrue( followerChain.get( i - 1 ) < followerChain.get( i ) );
+            }
+            for ( TransactionToApply transaction : transactions )
+            {
+                assertNull( transaction.next() );
+                verify( transactionIdStore ).transactionClosed( eq( transaction.transactionId() ), anyLong(), anyLong() );
+            }
+        }
+        finally
+        {
+            releaseApply.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldFailCommitIfApplyFails() throws Exception
+    {
+        // GIVEN
+        IOException rootCause = new IOException( "Mock exception" );
+        StorageEngine storageEngine = mock( StorageEngine.class );
+        doThrow( new IOException( rootCause ) ).when( storageEngine ).apply(
+                any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+        TransactionCommitProcess commitProcess = new PipelinedTransactionCommitProcess( appender, storageEngine );
+        TransactionToApply transaction = mockedTransaction();
+
+        // WHEN
+        try
+        {
+            commitProcess.commit( transaction, commitEvent, INTERNAL );
+            fail( "Should have failed" );
+        }
+        catch ( TransactionFailureException e )
+        {
+            // THEN
+            assertThat( e.getMessage(), containsString( "Could not apply the transaction to the store" ) );
+            assertTrue( contains( e, rootCause.getMessage(), rootCause.getClass() ) );
+        }
+        verify( transactionIdStore ).transactionClosed( eq( transaction.transactionId() ), anyLong(), anyLong() );
+    }
+
+    private static void awaitParked( List<Thread> threads, int count ) throws InterruptedException
+    {
+        boolean allParked;
+        do
+        {
+            Thread.sleep( 10 );
+            allParked = threads.size() == count;
+            for ( Thread thread : threads )
+            {
+                allParked &= thread.getState() == Thread.State.TIMED_WAITING;
+            }
+        }
+        while ( !allParked );
+    }
+
+    private TransactionToApply mockedTransaction()
+    {
+        TransactionRepresentation transaction = mock( TransactionRepresentation.class );
+        when( transaction.additionalHeader() ).thenReturn( new byte[0] );
+        return new TransactionToApply( transaction );
+    }
+}
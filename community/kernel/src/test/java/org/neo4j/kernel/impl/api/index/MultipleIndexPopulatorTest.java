@@ -22,20 +22,34 @@ package org.neo4j.kernel.impl.api.index;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
 import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
 
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.internal.kernel.api.InternalIndexState;
 import org.neo4j.internal.kernel.api.schema.LabelSchemaDescriptor;
 import org.neo4j.kernel.api.exceptions.index.FlipFailedKernelException;
 import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
+import org.neo4j.kernel.api.exceptions.index.IndexPopulationFailedKernelException;
 import org.neo4j.kernel.api.index.IndexEntryUpdate;
 import org.neo4j.kernel.api.index.IndexPopulator;
 import org.neo4j.kernel.api.index.IndexUpdater;
@@ -44,19 +58,27 @@ import org.neo4j.kernel.api.schema.index.TestIndexDescriptorFactory;
 import org.neo4j.kernel.impl.api.SchemaState;
 import org.neo4j.kernel.impl.api.index.MultipleIndexPopulator.IndexPopulation;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.IndexSample;
+import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
+import org.neo4j.values.storable.Values;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -65,6 +87,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
+import static org.neo4j.helpers.collection.Iterators.asSet;
 import static org.neo4j.kernel.api.index.IndexQueryHelper.add;
 
 @RunWith( MockitoJUnitRunner.class )
@@ -476,6 +499,125 @@ public class MultipleIndexPopulatorTest
         verify( indexPopulator ).close( true );
     }
 
+    @Test
+    public void shouldPopulateFromAllPartitionsOfNodeScan() throws Exception
+    {
+        // given
+        IndexPopulator indexPopulator = createIndexPopulator();
+        MultipleIndexPopulator populator = partitionedPopulator();
+        addPopulator( populator, indexPopulator, 1, mock( FlippableIndexProxy.class ), mock( FailedIndexProxyFactory.class ) );
+        when( indexStoreView.visitNodesInPartitions( eq( 2 ), any(), any(), any() ) ).thenAnswer( invocation ->
+        {
+            IntFunction<Visitor<EntityUpdates,IndexPopulationFailedKernelException>> visitors = invocation.getArgument( 3 );
+            Visitor<EntityUpdates,IndexPopulationFailedKernelException> visitor0 = visitors.apply( 0 );
+            Visitor<EntityUpdates,IndexPopulationFailedKernelException> visitor1 = visitors.apply( 1 );
+            return Arrays.asList(
+                    new PartitionScan( 0, 10, partition -> visitor0.visit( nodeUpdates( 1 ) ) ),
+                    new PartitionScan( 10, Long.MAX_VALUE, partition -> visitor1.visit( nodeUpdates( 11 ) ) ) );
+        } );
+
+        // when
+        populator.indexAllEntities().run();
+
+        // then
+        ArgumentCaptor<IndexEntryUpdate<?>> updates = ArgumentCaptor.forClass( IndexEntryUpdate.class );
+        verify( indexPopulator, times( 2 ) ).includeSample( updates.capture() );
+        assertEquals( asSet( 1L, 11L ), updates.getAllValues().stream().map( IndexEntryUpdate::getEntityId ).collect( Collectors.toSet() ) );
+        verify( indexPopulator, atLeastOnce() ).add( anyCollection() );
+    }
+
+    @Test
+    public void shouldApplyExternalUpdatesInBetweenEntitiesOfAllPartitions() throws Exception
+    {
+        // given
+        IndexUpdater indexUpdater = mock( IndexUpdater.class );
+        IndexPopulator indexPopulator = createIndexPopulator( indexUpdater );
+        MultipleIndexPopulator populator = partitionedPopulator();
+        addPopulator( populator, indexPopulator, 1, mock( FlippableIndexProxy.class ), mock( FailedIndexProxyFactory.class ) );
+        PartitionScan partition0 = new PartitionScan( 0, 10, partition -> await( partition.heldInBetweenEntities ) );
+        PartitionScan partition1 = new PartitionScan( 10, Long.MAX_VALUE, partition -> await( partition.heldInBetweenEntities ) );
+        when( indexStoreView.visitNodesInPartitions( eq( 2 ), any(), any(), any() ) ).thenAnswer( partitions( partition0, partition1 ) );
+        List<Boolean> processedWhileAllPartitionsHeld = new CopyOnWriteArrayList<>();
+        doAnswer( invocation -> processedWhileAllPartitionsHeld.add( partition0.held && partition1.held ) )
+                .when( indexUpdater ).process( any( IndexEntryUpdate.class ) );
+        StoreScan<IndexPopulationFailedKernelException> storeScan = populator.indexAllEntities();
+        for ( int i = 0; i < populator.QUEUE_THRESHOLD; i++ )
+        {
+            populator.queueUpdate( add( i % 2 == 0 ? 5 : 15, index1, "value" + i ) );
+        }
+
+        // when
+        storeScan.run();
+
+        // then each update is applied once, by the partition covering its node, while all partitions are held in between entities
+        verify( indexUpdater, times( populator.QUEUE_THRESHOLD ) ).process( any( IndexEntryUpdate.class ) );
+        assertFalse( processedWhileAllPartitionsHeld.contains( false ) );
+    }
+
+    @Test
+    public void shouldStopOtherPartitionsWhenOnePartitionFails() throws Exception
+    {
+        // given
+        MultipleIndexPopulator populator = partitionedPopulator();
+        addPopulator( populator, createIndexPopulator(), 1, mock( FlippableIndexProxy.class ), mock( FailedIndexProxyFactory.class ) );
+        IndexPopulationFailedKernelException failure = new IndexPopulationFailedKernelException( "index", "partition failed" );
+        PartitionScan failingPartition = new PartitionScan( 0, 10, partition ->
+        {
+            throw failure;
+        } );
+        AtomicBoolean otherPartitionCompleted = new AtomicBoolean();
+        PartitionScan otherPartition = new PartitionScan( 10, Long.MAX_VALUE, partition ->
+        {
+            while ( !partition.stopped )
+            {
+                LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 1 ) );
+            }
+            otherPartitionCompleted.set( true );
+        } );
+        when( indexStoreView.visitNodesInPartitions( eq( 2 ), any(), any(), any() ) ).thenAnswer( partitions( failingPartition, otherPartition ) );
+
+        // when
+        try
+        {
+            populator.indexAllEntities().run();
+            fail( "Should have failed" );
+        }
+        catch ( IndexPopulationFailedKernelException e )
+        {
+            // then
+            assertSame( failure, e );
+        }
+        assertTrue( otherPartition.stopped );
+        assertTrue( otherPartitionCompleted.get() );
+    }
+
+    @Test
+    public void shouldCompleteScansOfAllPopulationsInParallelFailingOnlyTheFailingOne() throws Exception
+    {
+        // given
+        CyclicBarrier allCompleting = new CyclicBarrier( 2 );
+        IndexPopulator indexPopulator1 = createIndexPopulator();
+        IndexPopulator indexPopulator2 = createIndexPopulator();
+        IndexPopulator indexPopulator3 = createIndexPopulator();
+        doAnswer( invocation -> allCompleting.await( 1, TimeUnit.MINUTES ) ).when( indexPopulator1 ).scanCompleted( any( PhaseTracker.class ) );
+        doThrow( getPopulatorException() ).when( indexPopulator2 ).scanCompleted( any( PhaseTracker.class ) );
+        doAnswer( invocation -> allCompleting.await( 1, TimeUnit.MINUTES ) ).when( indexPopulator3 ).scanCompleted( any( PhaseTracker.class ) );
+        addPopulator( indexPopulator1, 1 );
+        addPopulator( indexPopulator2, 2 );
+        addPopulator( indexPopulator3, 3 );
+
+        // when
+        multipleIndexPopulator.flipAfterPopulation( false );
+
+        // then
+        verify( indexPopulator1 ).scanCompleted( any( PhaseTracker.class ) );
+        verify( indexPopulator1 ).close( true );
+        verify( indexPopulator2 ).scanCompleted( any( PhaseTracker.class ) );
+        checkPopulatorFailure( indexPopulator2 );
+        verify( indexPopulator3 ).scanCompleted( any( PhaseTracker.class ) );
+        verify( indexPopulator3 ).close( true );
+    }
+
     private IndexEntryUpdate<?> createIndexEntryUpdate( LabelSchemaDescriptor schemaDescriptor )
     {
         return add( 1, schemaDescriptor, "theValue" );
@@ -542,4 +684,113 @@ public class MultipleIndexPopulatorTest
         } ).when( indexProxy ).flip( any( Callable.class ), any( FailedIndexProxyFactory.class ) );
         return addPopulator( indexPopulator, id, indexProxy, mock( FailedIndexProxyFactory.class ) );
     }
+
+    private MultipleIndexPopulator partitionedPopulator()
+    {
+        return new MultipleIndexPopulator( indexStoreView, logProvider, EntityType.NODE, schemaState )
+        {
+            @Override
+            int numberOfScanPartitions()
+            {
+                return 2;
+            }
+        };
+    }
+
+    private static Answer<List<StoreScan<IndexPopulationFailedKernelException>>> partitions( PartitionScan... partitions )
+    {
+        return invocation ->
+        {
+            IntFunction<?> visitors = invocation.getArgument( 3 );
+            for ( int i = 0; i < partitions.length; i++ )
+            {
+                visitors.apply( i );
+            }
+            return new ArrayList<>( Arrays.asList( partitions ) );
+        };
+    }
+
+    private static EntityUpdates nodeUpdates( long nodeId )
+    {
+        return EntityUpdates.forEntity( nodeId, true ).withTokens( 1 ).added( 1, Values.of( "value" + nodeId ) ).build();
+    }
+
+    private static void await( CountDownLatch latch )
+    {
+        try
+        {
+            assertTrue( latch.await( 1, TimeUnit.MINUTES ) );
+        }
+        catch ( InterruptedException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+    private interface PartitionBody
+    {
+        void run( PartitionScan partition ) throws IndexPopulationFailedKernelException;
+    }
+
+    /**
+     * One of the partitions of a node scan, covering the node ids [fromId, toId) and accepting external updates for all of them.
+     */
+    private static class PartitionScan implements StoreScan<IndexPopulationFailedKernelException>
+    {
+        private final long fromId;
+        private final long toId;
+        private final PartitionBody body;
+        private final CountDownLatch heldInBetweenEntities = new CountDownLatch( 1 );
+        private volatile boolean held;
+        private volatile boolean stopped;
+
+        PartitionScan( long fromId, long toId, PartitionBody body )
+        {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.body = body;
+        }
+
+        @Override
+        public void run() throws IndexPopulationFailedKernelException
+        {
+            body.run( this );
+        }
+
+        @Override
+        public void stop()
+        {
+            stopped = true;
+        }
+
+        @Override
+        public void acceptUpdate( MultipleIndexPopulator.MultipleIndexUpdater updater, IndexEntryUpdate<?> update, long currentlyIndexedNodeId )
+        {
+            if ( update.getEntityId() >= fromId && update.getEntityId() < toId )
+            {
+                updater.process( update );
+            }
+        }
+
+        @Override
+        public PopulationProgress getProgress()
+        {
+            return PopulationProgress.DONE;
+        }
+
+        @Override
+        public void runInBetweenEntities( Runnable action )
+        {
+            held = true;
+            try
+            {
+                action.run();
+            }
+            finally
+            {
+                held = false;
+                heldInBetweenEntities.countDown();
+            }
+        }
+    }
 }
@@ -30,6 +30,7 @@ import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Hit;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -170,6 +171,61 @@ public class NativeLabelScanReaderTest
         }
     }
 
+    @Test
+    public void shouldOnlyFindNodesWithinGivenRange() throws IOException
+    {
+        // given
+        GBPTree<LabelScanKey,LabelScanValue> index = mock( GBPTree.class );
+        RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor = mock( RawCursor.class );
+        when( cursor.next() ).thenReturn( true, true, false );
+        when( cursor.get() ).thenReturn(
+                // range, bits
+                hit( 1, 0b0001_1000__0101_1110L ),
+                hit( 2, 0b0010_0000__1010_0001L ),
+                null );
+        when( index.seek( any( LabelScanKey.class ), any( LabelScanKey.class ) ) )
+                .thenReturn( cursor );
+
+        // when
+        long fromId = LabelScanValue.RANGE_SIZE + 3;
+        long toId = 2 * LabelScanValue.RANGE_SIZE + 7;
+        try ( NativeLabelScanReader reader = new NativeLabelScanReader( index );
+              PrimitiveLongResourceIterator iterator = reader.nodesWithLabelInRange( LABEL_ID, fromId, toId ) )
+        {
+            // then
+            assertArrayEquals( new long[] {
+                            // base 1*64 = 64
+                            64 + 3, 64 + 4, 64 + 6, 64 + 11, 64 + 12,
+                            // base 2*64 = 128
+                            128 + 0, 128 + 5 },
+
+                    asArray( iterator ) );
+        }
+    }
+
+    @Test
+    public void shouldFindHighestNodeIdWithLabel() throws IOException
+    {
+        // given
+        GBPTree<LabelScanKey,LabelScanValue> index = mock( GBPTree.class );
+        RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor = mock( RawCursor.class );
+        when( cursor.next() ).thenReturn( true, true, false );
+        when( cursor.get() ).thenReturn(
+                // range, bits, in descending order of range
+                hit( 3, 0b0000_0000__0000_0000L ),
+                hit( 2, 0b0010_0000__1010_0001L ),
+                null );
+        when( index.seek( any( LabelScanKey.class ), any( LabelScanKey.class ) ) )
+                .thenReturn( cursor );
+
+        // when
+        try ( NativeLabelScanReader reader = new NativeLabelScanReader( index ) )
+        {
+            // then
+            assertEquals( 128 + 13, reader.highestNodeIdWithLabel( LABEL_ID ) );
+        }
+    }
+
     private static Hit<LabelScanKey,LabelScanValue> hit( long baseNodeId, long bits )
     {
         LabelScanKey key = new LabelScanKey( LABEL_ID, baseNodeId );
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.labelscan;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.util.Arrays;
+
+import org.neo4j.collection.PrimitiveLongCollections;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.api.labelscan.LabelScanWriter;
+import org.neo4j.kernel.impl.api.scan.FullStoreChangeStream;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.storageengine.api.schema.LabelScanReader;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+import org.neo4j.test.rule.fs.FileSystemRule;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.kernel.api.labelscan.NodeLabelUpdate.labelChanges;
+import static org.neo4j.kernel.impl.api.scan.FullStoreChangeStream.asStream;
+
+public class NativeRelationshipTypeScanStoreTest
+{
+    private static final long[] NO_TYPES = new long[0];
+
+    private final PageCacheRule pageCacheRule = new PageCacheRule();
+    private final FileSystemRule fileSystemRule = new DefaultFileSystemRule();
+    private final TestDirectory testDirectory = TestDirectory.testDirectory();
+
+    @Rule
+    public RuleChain ruleChain = RuleChain.outerRule( fileSystemRule ).around( pageCacheRule ).around( testDirectory );
+
+    @Test
+    public void shouldKeepItsOwnStoreFileApartFromLabelScanStore() throws Exception
+    {
+        // given
+        DatabaseLayout databaseLayout = testDirectory.databaseLayout();
+        NativeRelationshipTypeScanStore store = newStore( pageCacheRule.getPageCache( fileSystemRule.get() ),
+                asStream( Arrays.asList( labelChanges( 1, NO_TYPES, new long[]{0} ) ) ) );
+
+        // when
+        store.init();
+        store.start();
+        store.shutdown();
+
+        // then
+        assertTrue( fileSystemRule.get().fileExists( databaseLayout.relationshipTypeScanStore() ) );
+        assertFalse( fileSystemRule.get().fileExists( databaseLayout.labelScanStore() ) );
+    }
+
+    @Test
+    public void shouldRebuildFromFullStoreChangeStreamAndApplyUpdates() throws Exception
+    {
+        // given
+        NativeRelationshipTypeScanStore store = newStore( pageCacheRule.getPageCache( fileSystemRule.get() ), asStream( Arrays.asList(
+                labelChanges( 1, NO_TYPES, new long[]{0} ),
+                labelChanges( 2, NO_TYPES, new long[]{1} ),
+                labelChanges( 3, NO_TYPES, new long[]{0} ) ) ) );
+        store.init();
+        store.start();
+        try
+        {
+            // when
+            try ( LabelScanWriter writer = store.newWriter() )
+            {
+                writer.write( labelChanges( 1, new long[]{0}, NO_TYPES ) );
+                writer.write( labelChanges( 4, NO_TYPES, new long[]{0} ) );
+            }
+
+            // then
+            try ( LabelScanReader reader = store.newReader() )
+            {
+                assertArrayEquals( new long[]{3, 4}, PrimitiveLongCollections.asArray( reader.nodesWithLabel( 0 ) ) );
+                assertArrayEquals( new long[]{2}, PrimitiveLongCollections.asArray( reader.nodesWithLabel( 1 ) ) );
+            }
+        }
+        finally
+        {
+            store.shutdown();
+        }
+    }
+
+    private NativeRelationshipTypeScanStore newStore( PageCache pageCache, FullStoreChangeStream fullStoreChangeStream )
+    {
+        return new NativeRelationshipTypeScanStore( pageCache, testDirectory.databaseLayout(), fileSystemRule.get(), fullStoreChangeStream, false,
+                new Monitors(), LabelScanStore.Monitor.EMPTY, immediate() );
+    }
+}
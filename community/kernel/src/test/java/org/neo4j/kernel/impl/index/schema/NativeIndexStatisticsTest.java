@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.neo4j.hashing.HashFunction;
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.storageengine.api.schema.IndexSample;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+
+class NativeIndexStatisticsTest
+{
+    private static final HashFunction HASH = HashFunction.incrementalXXH64();
+
+    @Test
+    void shouldEstimateDistinctValues()
+    {
+        // given
+        NativeIndexStatistics statistics = new NativeIndexStatistics();
+        statistics.clear();
+
+        // when
+        int values = 1_000_000;
+        for ( int i = 0; i < values; i++ )
+        {
+            statistics.added( HASH.hashSingleValue( i ) );
+        }
+
+        // then
+        IndexSample sample = statistics.sample( false );
+        assertEquals( values, sample.indexSize() );
+        assertEquals( values, sample.sampleSize() );
+        assertEstimate( values, sample.uniqueValues() );
+        assertTrue( statistics.isUsableForSampling() );
+    }
+
+    @Test
+    void shouldEstimateDistinctValuesWithDuplicates()
+    {
+        // given
+        NativeIndexStatistics statistics = new NativeIndexStatistics();
+        statistics.clear();
+
+        // when
+        int values = 5_000;
+        int duplicates = 40;
+        for ( int i = 0; i < values; i++ )
+        {
+            for ( int j = 0; j < duplicates; j++ )
+            {
+                statistics.added( HASH.hashSingleValue( i ) );
+            }
+        }
+
+        // then
+        IndexSample sample = statistics.sample( false );
+        assertEquals( values * duplicates, sample.indexSize() );
+        assertEstimate( values, sample.uniqueValues() );
+    }
+
+    @Test
+    void shouldSampleUniqueIndexFromEntryCount()
+    {
+        // given
+        NativeIndexStatistics statistics = new NativeIndexStatistics();
+        statistics.clear();
+        for ( int i = 0; i < 1_000; i++ )
+        {
+            statistics.added( HASH.hashSingleValue( i ) );
+        }
+        statistics.removed();
+
+        // when
+        IndexSample sample = statistics.sample( true );
+
+        // then
+        assertEquals( 999, sample.indexSize() );
+        assertEquals( 999, sample.uniqueValues() );
+    }
+
+    @Test
+    void shouldNotBeUsableForSamplingWhenUnknownSmallOrChurned()
+    {
+        NativeIndexStatistics statistics = new NativeIndexStatistics();
+        assertFalse( statistics.isUsableForSampling() );
+
+        statistics.clear();
+        for ( int i = 0; i < 10; i++ )
+        {
+            statistics.added( HASH.hashSingleValue( i ) );
+        }
+        assertFalse( statistics.isUsableForSampling() );
+
+        for ( int i = 0; i < 300_000; i++ )
+        {
+            statistics.added( HASH.hashSingleValue( i ) );
+        }
+        assertTrue( statistics.isUsableForSampling() );
+
+        for ( int i = 0; i < 110_000; i++ )
+        {
+            statistics.removed();
+        }
+        assertFalse( statistics.isUsableForSampling() );
+    }
+
+    @Test
+    void shouldWriteAndReadStatisticsAfterOtherHeaderData()
+    {
+        // given
+        NativeIndexStatistics statistics = new NativeIndexStatistics();
+        statistics.clear();
+        for ( int i = 0; i < 150_000; i++ )
+        {
+            statistics.added( HASH.hashSingleValue( i ) );
+        }
+        statistics.removed();
+        byte[] data = new byte[PAGE_SIZE];
+        PageCursor cursor = ByteArrayPageCursor.wrap( data );
+        cursor.putByte( (byte) 1 );
+        cursor.putInt( 1234 );
+        statistics.write( cursor );
+
+        // when
+        NativeIndexStatistics read = new NativeIndexStatistics();
+        read.read( ByteBuffer.wrap( Arrays.copyOf( data, cursor.getOffset() ) ) );
+
+        // then
+        assertTrue( read.isUsableForSampling() );
+        IndexSample expected = statistics.sample( false );
+        IndexSample actual = read.sample( false );
+        assertEquals( expected.indexSize(), actual.indexSize() );
+        assertEquals( expected.uniqueValues(), actual.uniqueValues() );
+    }
+
+    @Test
+    void shouldNotReadStatisticsFromHeaderWithoutThem()
+    {
+        // given
+        byte[] data = new byte[PAGE_SIZE];
+        PageCursor cursor = ByteArrayPageCursor.wrap( data );
+        cursor.putByte( (byte) 1 );
+        for ( int i = 0; i < 200; i++ )
+        {
+            cursor.putLong( i );
+        }
+
+        // when
+        NativeIndexStatistics statistics = new NativeIndexStatistics();
+        statistics.read( ByteBuffer.wrap( Arrays.copyOf( data, cursor.getOffset() ) ) );
+        statistics.read( ByteBuffer.wrap( new byte[1] ) );
+
+        // then
+        assertFalse( statistics.isUsableForSampling() );
+        assertEquals( 0, statistics.sample( false ).indexSize() );
+    }
+
+    private static void assertEstimate( long expected, long actual )
+    {
+        assertTrue( Math.abs( expected - actual ) <= expected * 0.1, "Expected about " + expected + " distinct values, but estimated " + actual );
+    }
+}
@@ -22,21 +22,27 @@ package org.neo4j.kernel.impl.index.schema;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Writer;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.storageengine.api.schema.IndexSample;
+import org.neo4j.test.Race;
 import org.neo4j.values.storable.NumberValue;
 import org.neo4j.values.storable.RandomValues;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.ValueType;
+import org.neo4j.values.storable.Values;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.neo4j.kernel.api.schema.index.TestIndexDescriptorFactory.forLabel;
 import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.NEUTRAL;
 import static org.neo4j.kernel.impl.index.schema.ValueCreatorUtil.FRACTION_DUPLICATE_NON_UNIQUE;
 import static org.neo4j.kernel.impl.index.schema.ValueCreatorUtil.countUniqueValues;
+import static org.neo4j.test.Race.throwing;
 import static org.neo4j.values.storable.RandomValues.typesOfGroup;
 import static org.neo4j.values.storable.ValueGroup.NUMBER;
 
@@ -64,6 +70,107 @@ public class NumberFullScanNonUniqueIndexSamplerTest extends NativeIndexTestUtil
         assertEquals( values.length, sample.indexSize() );
     }
 
+    @Test
+    public void shouldRebuildStatisticsFromScan() throws Exception
+    {
+        // GIVEN
+        int entries = 120_000;
+        NativeIndexStatistics statistics = new NativeIndexStatistics();
+        statistics.clear();
+        try ( GBPTree<NumberIndexKey,NativeIndexValue> gbpTree = getTree() )
+        {
+            try ( Writer<NumberIndexKey,NativeIndexValue> writer = writer( gbpTree, statistics ) )
+            {
+                for ( int i = 0; i < entries; i++ )
+                {
+                    writer.put( key( i ), NativeIndexValue.INSTANCE );
+                    writer.put( key( entries + i ), NativeIndexValue.INSTANCE );
+                    writer.remove( key( entries + i ) );
+                }
+            }
+            assertFalse( statistics.isUsableForSampling() );
+
+            // WHEN
+            IndexSample scanned = new FullScanNonUniqueIndexSampler<>( gbpTree, layout, statistics ).result();
+
+            // THEN
+            assertEquals( entries, scanned.indexSize() );
+            assertTrue( statistics.isUsableForSampling() );
+            IndexSample sample = statistics.sample( false );
+            assertEquals( entries, sample.indexSize() );
+            assertEquals( 1_000, sample.uniqueValues(), 100 );
+        }
+    }
+
+    @Test
+    public void shouldRebuildStatisticsMatchingTreeWhileWritersChangeIt() throws Throwable
+    {
+        // GIVEN
+        int initialEntries = 10_000;
+        NativeIndexStatistics statistics = new NativeIndexStatistics();
+        statistics.clear();
+        try ( GBPTree<NumberIndexKey,NativeIndexValue> gbpTree = getTree() )
+        {
+            try ( Writer<NumberIndexKey,NativeIndexValue> writer = writer( gbpTree, statistics ) )
+            {
+                for ( int i = 0; i < initialEntries; i++ )
+                {
+                    writer.put( key( i ), NativeIndexValue.INSTANCE );
+                }
+            }
+
+            // WHEN
+            AtomicBoolean samplingDone = new AtomicBoolean();
+            Race race = new Race().withEndCondition( samplingDone::get );
+            race.addContestant( throwing( () ->
+            {
+                try ( Writer<NumberIndexKey,NativeIndexValue> writer = writer( gbpTree, statistics ) )
+                {
+                    for ( int i = 0; i < 100; i++ )
+                    {
+                        NumberIndexKey key = key( random.nextInt( initialEntries * 2 ) );
+                        if ( random.nextBoolean() )
+                        {
+                            writer.put( key, NativeIndexValue.INSTANCE );
+                        }
+                        else
+                        {
+                            writer.remove( key );
+                        }
+                    }
+                }
+            } ) );
+            race.addContestant( () ->
+            {
+                for ( int i = 0; i < 10; i++ )
+                {
+                    new FullScanNonUniqueIndexSampler<>( gbpTree, layout, statistics ).result();
+                }
+                samplingDone.set( true );
+            }, 1 );
+            race.go();
+
+            // THEN
+            IndexSample actual = new FullScanNonUniqueIndexSampler<>( gbpTree, layout ).result();
+            assertEquals( actual.indexSize(), statistics.sample( false ).indexSize() );
+        }
+    }
+
+    private static Writer<NumberIndexKey,NativeIndexValue> writer( GBPTree<NumberIndexKey,NativeIndexValue> gbpTree,
+            NativeIndexStatistics statistics ) throws IOException
+    {
+        statistics.beginWrite();
+        return new StatisticsTrackingWriter<>( gbpTree.writer(), statistics );
+    }
+
+    private NumberIndexKey key( long nodeId )
+    {
+        NumberIndexKey key = layout.newKey();
+        key.initialize( nodeId );
+        key.initFromValue( 0, Values.longValue( nodeId % 1_000 ), NEUTRAL );
+        return key;
+    }
+
     private Value[] generateNumberValues()
     {
         ValueType[] numberTypes = RandomValues.including( t -> t.valueGroup == NUMBER );
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.values.storable.Values;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramsTest
+{
+    @Test
+    void shouldSplitIntoDistinctTrigrams()
+    {
+        // "banana" -> ban, ana, nan, ana
+        assertEquals( 3, Trigrams.of( "banana", false ).size() );
+        // ... and also "na" followed by the end anchor
+        assertEquals( 4, Trigrams.of( "banana", true ).size() );
+    }
+
+    @Test
+    void shouldNotHaveTrigramsForShortStrings()
+    {
+        assertTrue( Trigrams.of( "", false ).isEmpty() );
+        assertTrue( Trigrams.of( "ab", false ).isEmpty() );
+        assertTrue( Trigrams.of( "a", true ).isEmpty() );
+        assertEquals( 1, Trigrams.of( "ab", true ).size() );
+    }
+
+    @Test
+    void shouldContainTrigramsOfAnySubstring()
+    {
+        LongSet indexed = Trigrams.of( "the quick brown fox", true );
+        assertContainsAll( indexed, Trigrams.of( "quick", false ) );
+        assertContainsAll( indexed, Trigrams.of( "k brown f", false ) );
+        assertContainsAll( indexed, Trigrams.of( "n fox", true ) );
+        assertContainsAll( indexed, Trigrams.of( "ox", true ) );
+    }
+
+    @Test
+    void shouldOnlyMatchSuffixAtEnd()
+    {
+        LongSet indexed = Trigrams.of( "fox and dog", true );
+        assertFalse( indexed.containsAll( Trigrams.of( "fox", true ) ) );
+        assertTrue( indexed.containsAll( Trigrams.of( "fox", false ) ) );
+    }
+
+    @Test
+    void shouldHandleCodePointsOutsideBasicMultilingualPlane()
+    {
+        String string = "a😀b😁c";
+        assertEquals( 3, Trigrams.of( string, false ).size() );
+        assertContainsAll( Trigrams.of( string, true ), Trigrams.of( "😁c", true ) );
+        assertFalse( Trigrams.of( string, false ).containsAll( Trigrams.of( "a😁c", false ) ) );
+    }
+
+    @Test
+    void shouldOnlyHaveTrigramsForTextValues()
+    {
+        assertTrue( Trigrams.ofIndexedValue( Values.intValue( 12345 ) ).isEmpty() );
+        assertTrue( Trigrams.ofIndexedValue( Values.stringArray( "abc", "def" ) ).isEmpty() );
+        assertEquals( Trigrams.of( "abcd", true ), Trigrams.ofIndexedValue( Values.stringValue( "abcd" ) ) );
+    }
+
+    private static void assertContainsAll( LongSet set, LongSet subset )
+    {
+        assertFalse( subset.isEmpty() );
+        assertTrue( set.containsAll( subset ) );
+    }
+}
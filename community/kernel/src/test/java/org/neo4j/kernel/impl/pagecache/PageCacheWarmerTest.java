@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracerSupplier;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.logging.NullLog;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.test.OnDemandJobScheduler;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.VerboseTimeout;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+public class PageCacheWarmerTest
+{
+    private static final int PAGE_SIZE = 8192;
+    private static final int PAGES = 100;
+
+    @Rule
+    public VerboseTimeout timeout = VerboseTimeout.builder().withTimeout( 60, TimeUnit.SECONDS ).build();
+    @Rule
+    public TestDirectory testDirectory = TestDirectory.testDirectory();
+
+    @Test
+    public void warmupMustLoadProfiledPages() throws Exception
+    {
+        try ( FileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+              JobScheduler jobScheduler = new ThreadPoolJobScheduler() )
+        {
+            File databaseDirectory = testDirectory.directory( "db" ).getCanonicalFile();
+            File file = new File( databaseDirectory, "neostore.nodestore.db" );
+            try ( PageCache cache = createPageCache( fs, PageCacheTracer.NULL, jobScheduler );
+                  PagedFile pf = cache.map( file, PAGE_SIZE, CREATE ) )
+            {
+                try ( PageCursor cursor = pf.io( 0, PF_SHARED_WRITE_LOCK ) )
+                {
+                    for ( int i = 0; i < PAGES; i++ )
+                    {
+                        assertTrue( cursor.next() );
+                    }
+                }
+            }
+
+            try ( PageCache cache = createPageCache( fs, PageCacheTracer.NULL, jobScheduler );
+                  PagedFile pf = cache.map( file, PAGE_SIZE ) )
+            {
+                touch( pf, 3, 10, 42, 99 );
+                new PageCacheWarmer( fs, cache, jobScheduler, PageCacheTracer.NULL, databaseDirectory, 1000, true, NullLog.getInstance() ).profile();
+            }
+            assertTrue( fs.fileExists( new File( new File( databaseDirectory, PageCacheWarmer.PROFILES_DIRECTORY ),
+                    file.getName() + PageCacheWarmer.SUFFIX_CACHEPROF ) ) );
+
+            // Page cursor tracers are per thread, so report what was traced above before counting the faults of the warmup
+            DefaultPageCursorTracerSupplier.INSTANCE.get().reportEvents();
+            DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+            try ( PageCache cache = createPageCache( fs, tracer, jobScheduler );
+                  PagedFile ignore = cache.map( file, PAGE_SIZE ) )
+            {
+                PageCacheWarmer warmer = new PageCacheWarmer( fs, cache, jobScheduler, tracer, databaseDirectory, 1000, true, NullLog.getInstance() );
+                assertEquals( 4, warmer.warmup() );
+                DefaultPageCursorTracerSupplier.INSTANCE.get().reportEvents();
+                assertEquals( 4, tracer.pagesWarmedUp() );
+                assertEquals( 4, tracer.faults() );
+            }
+        }
+    }
+
+    @Test
+    public void mustIgnoreFilesOutsideOfDatabaseDirectory() throws Exception
+    {
+        try ( FileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+              JobScheduler jobScheduler = new ThreadPoolJobScheduler() )
+        {
+            File databaseDirectory = testDirectory.directory( "db" ).getCanonicalFile();
+            File file = new File( testDirectory.directory( "other" ).getCanonicalFile(), "a" );
+            try ( PageCache cache = createPageCache( fs, PageCacheTracer.NULL, jobScheduler );
+                  PagedFile pf = cache.map( file, PAGE_SIZE, CREATE ) )
+            {
+                try ( PageCursor cursor = pf.io( 0, PF_SHARED_WRITE_LOCK ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+                new PageCacheWarmer( fs, cache, jobScheduler, PageCacheTracer.NULL, databaseDirectory, 1000, true, NullLog.getInstance() ).profile();
+            }
+            assertFalse( fs.fileExists( new File( databaseDirectory, PageCacheWarmer.PROFILES_DIRECTORY ) ) );
+        }
+    }
+
+    @Test
+    public void mustWriteProfileWhenStoppedAfterWarmup() throws Exception
+    {
+        try ( FileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+              JobScheduler jobScheduler = new ThreadPoolJobScheduler() )
+        {
+            File databaseDirectory = testDirectory.directory( "db" ).getCanonicalFile();
+            File file = new File( databaseDirectory, "a" );
+            OnDemandJobScheduler warmerScheduler = new OnDemandJobScheduler();
+            try ( PageCache cache = createPageCache( fs, PageCacheTracer.NULL, jobScheduler );
+                  PagedFile pf = cache.map( file, PAGE_SIZE, CREATE ) )
+            {
+                try ( PageCursor cursor = pf.io( 0, PF_SHARED_WRITE_LOCK ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+                PageCacheWarmer warmer = new PageCacheWarmer( fs, cache, warmerScheduler, PageCacheTracer.NULL, databaseDirectory, 1000, true,
+                        NullLog.getInstance() );
+                warmer.start();
+                warmerScheduler.runJob();
+                warmer.stop();
+            }
+            assertTrue( fs.fileExists( new File( new File( databaseDirectory, PageCacheWarmer.PROFILES_DIRECTORY ),
+                    file.getName() + PageCacheWarmer.SUFFIX_CACHEPROF ) ) );
+        }
+    }
+
+    @Test
+    public void mustWarmupButNotWriteProfilesWithoutProfiling() throws Exception
+    {
+        try ( FileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+              JobScheduler jobScheduler = new ThreadPoolJobScheduler() )
+        {
+            File databaseDirectory = testDirectory.directory( "db" ).getCanonicalFile();
+            File file = new File( databaseDirectory, "a" );
+            File profile = new File( new File( databaseDirectory, PageCacheWarmer.PROFILES_DIRECTORY ), file.getName() + PageCacheWarmer.SUFFIX_CACHEPROF );
+            OnDemandJobScheduler warmerScheduler = new OnDemandJobScheduler();
+            try ( PageCache cache = createPageCache( fs, PageCacheTracer.NULL, jobScheduler );
+                  PagedFile pf = cache.map( file, PAGE_SIZE, CREATE ) )
+            {
+                try ( PageCursor cursor = pf.io( 0, PF_SHARED_WRITE_LOCK ) )
+                {
+                    for ( int i = 0; i < PAGES; i++ )
+                    {
+                        assertTrue( cursor.next() );
+                    }
+                }
+                PageCacheWarmer warmer = new PageCacheWarmer( fs, cache, warmerScheduler, PageCacheTracer.NULL, databaseDirectory, 1000, false,
+                        NullLog.getInstance() );
+                warmer.start();
+                warmerScheduler.runJob();
+                assertNull( warmerScheduler.getJob() );
+                warmer.stop();
+            }
+            assertFalse( fs.fileExists( new File( databaseDirectory, PageCacheWarmer.PROFILES_DIRECTORY ) ) );
+
+            // given a profile from when the database was writable
+            try ( PageCache cache = createPageCache( fs, PageCacheTracer.NULL, jobScheduler );
+                  PagedFile pf = cache.map( file, PAGE_SIZE ) )
+            {
+                touch( pf, 1, 2 );
+                new PageCacheWarmer( fs, cache, jobScheduler, PageCacheTracer.NULL, databaseDirectory, 1000, true, NullLog.getInstance() ).profile();
+            }
+            byte[] profiled = Files.readAllBytes( profile.toPath() );
+
+            DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+            try ( PageCache cache = createPageCache( fs, tracer, jobScheduler );
+                  PagedFile pf = cache.map( file, PAGE_SIZE ) )
+            {
+                PageCacheWarmer warmer = new PageCacheWarmer( fs, cache, warmerScheduler, tracer, databaseDirectory, 1000, false,
+                        NullLog.getInstance() );
+                warmer.start();
+                warmerScheduler.runJob();
+                assertEquals( 2, tracer.pagesWarmedUp() );
+                assertNull( warmerScheduler.getJob() );
+                // with more pages loaded than profiled before stopping
+                touch( pf, 3, 4, 5 );
+                warmer.stop();
+            }
+            assertArrayEquals( profiled, Files.readAllBytes( profile.toPath() ) );
+            assertEquals( 1, fs.listFiles( profile.getParentFile() ).length );
+        }
+    }
+
+    private static void touch( PagedFile pf, long... pageIds ) throws IOException
+    {
+        try ( PageCursor cursor = pf.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            for ( long pageId : pageIds )
+            {
+                assertTrue( cursor.next( pageId ) );
+            }
+        }
+    }
+
+    private static PageCache createPageCache( FileSystemAbstraction fs, PageCacheTracer tracer, JobScheduler jobScheduler )
+    {
+        return ConfigurableStandalonePageCacheFactory.createPageCache( fs, tracer, DefaultPageCursorTracerSupplier.INSTANCE, Config.defaults(),
+                EmptyVersionContextSupplier.EMPTY, jobScheduler );
+    }
+}
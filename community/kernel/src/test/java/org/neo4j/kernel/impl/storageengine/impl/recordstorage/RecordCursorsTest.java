@@ -63,6 +63,48 @@ class RecordCursorsTest
         verify( pageCursor ).close();
     }
 
+    @Test
+    void nodeCursorShouldScanWithScanPageCursor()
+    {
+        NodeStore store = mock( NodeStore.class );
+        PageCursor pageCursor = mock( PageCursor.class );
+        PageCursor scanPageCursor = mock( PageCursor.class );
+        when( store.openPageCursorForReading( anyLong() ) ).thenReturn( pageCursor );
+        when( store.openPageCursorForScanning( anyLong() ) ).thenReturn( scanPageCursor );
+
+        try ( RecordNodeCursor cursor = new RecordNodeCursor( store ) )
+        {
+            cursor.single( 0 );
+            cursor.scan();
+            verify( pageCursor ).close();
+            cursor.single( 0 );
+        }
+        verify( scanPageCursor ).close();
+        verify( store ).openPageCursorForReading( anyLong() );
+        verify( store ).openPageCursorForScanning( anyLong() );
+    }
+
+    @Test
+    void relationshipScanCursorShouldScanWithScanPageCursor()
+    {
+        RelationshipStore store = mock( RelationshipStore.class );
+        PageCursor pageCursor = mock( PageCursor.class );
+        PageCursor scanPageCursor = mock( PageCursor.class );
+        when( store.openPageCursorForReading( anyLong() ) ).thenReturn( pageCursor );
+        when( store.openPageCursorForScanning( anyLong() ) ).thenReturn( scanPageCursor );
+
+        try ( RecordRelationshipScanCursor cursor = new RecordRelationshipScanCursor( store ) )
+        {
+            cursor.single( 0 );
+            cursor.scan();
+            verify( pageCursor ).close();
+            cursor.single( 0 );
+        }
+        verify( scanPageCursor ).close();
+        verify( store ).openPageCursorForReading( anyLong() );
+        verify( store ).openPageCursorForScanning( anyLong() );
+    }
+
     @Test
     void relationshipTraversalCursorShouldClosePageCursor()
     {
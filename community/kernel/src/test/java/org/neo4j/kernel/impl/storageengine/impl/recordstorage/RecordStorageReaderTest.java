@@ -43,7 +43,7 @@ public class RecordStorageReaderTest
 
         when( scanStore.get() ).thenReturn( scanReader );
         RecordStorageReader statement = new RecordStorageReader( null, null, MockedNeoStores.basicMockedNeoStores(), null, null,
-                mock( Supplier.class ), scanStore, mock( RecordStorageCommandCreationContext.class ) );
+                mock( Supplier.class ), scanStore, mock( Supplier.class ), mock( RecordStorageCommandCreationContext.class ) );
         statement.acquire();
 
         // when
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.CountsAccessor;
+import org.neo4j.kernel.impl.store.CountsOracle;
+import org.neo4j.kernel.impl.store.kvstore.DataInitializer;
+import org.neo4j.kernel.lifecycle.Lifespan;
+import org.neo4j.register.Register;
+import org.neo4j.register.Registers;
+import org.neo4j.test.rule.Resources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.test.rule.Resources.InitialLifecycle.STARTED;
+
+public class GBPTreeCountsStoreTest
+{
+    @Rule
+    public final Resources resourceManager = new Resources();
+
+    @Test
+    @Resources.Life( STARTED )
+    public void shouldBeAbleToWriteDataToCountsStore() throws Exception
+    {
+        // given
+        GBPTreeCountsStore store = resourceManager.managed( newStore() );
+        long indexId = 0;
+        CountsOracle oracle = someData( indexId );
+
+        // when
+        oracle.update( store, 2 );
+
+        // then
+        oracle.verify( store );
+
+        // when
+        store.rotate( 2 );
+        try ( CountsAccessor.IndexStatsUpdater updater = store.updateIndexCounts() )
+        {
+            updater.incrementIndexUpdates( indexId, 2 );
+        }
+
+        // then
+        oracle.indexUpdatesAndSize( indexId, 12, 2 );
+        oracle.verify( store );
+    }
+
+    @Test
+    public void shouldStoreCountsOnRotation() throws Exception
+    {
+        // given
+        CountsOracle oracle = someData( 0 );
+
+        // when
+        try ( Lifespan life = new Lifespan() )
+        {
+            GBPTreeCountsStore store = life.add( newStore() );
+            oracle.update( store, 2 );
+            assertEquals( 2, store.rotate( 2 ) );
+        }
+
+        // then
+        try ( Lifespan life = new Lifespan() )
+        {
+            GBPTreeCountsStore store = life.add( newStore() );
+            assertEquals( 2, store.txId() );
+            oracle.verify( store );
+        }
+    }
+
+    @Test
+    public void shouldAddCountsAndReplaceIndexStatistics() throws Exception
+    {
+        try ( Lifespan life = new Lifespan() )
+        {
+            // given
+            GBPTreeCountsStore store = life.add( newStore() );
+            try ( CountsAccessor.Updater updater = store.apply( 2 ).get();
+                  CountsAccessor.IndexStatsUpdater stats = store.updateIndexCounts() )
+            {
+                updater.incrementNodeCount( 1, 5 );
+                stats.replaceIndexUpdateAndSize( 0, 10, 100 );
+            }
+
+            // when
+            try ( CountsAccessor.Updater updater = store.apply( 3 ).get();
+                  CountsAccessor.IndexStatsUpdater stats = store.updateIndexCounts() )
+            {
+                updater.incrementNodeCount( 1, -2 );
+                stats.replaceIndexUpdateAndSize( 0, 1, 50 );
+                stats.incrementIndexUpdates( 0, 2 );
+            }
+
+            // then
+            assertEquals( 3, store.nodeCount( 1, Registers.newDoubleLongRegister() ).readSecond() );
+            Register.DoubleLongRegister stats = store.indexUpdatesAndSize( 0, Registers.newDoubleLongRegister() );
+            assertEquals( 3, stats.readFirst() );
+            assertEquals( 50, stats.readSecond() );
+            Register.DoubleLongRegister sample = store.indexSample( 0, Registers.newDoubleLongRegister( 1, 1 ) );
+            assertEquals( 0, sample.readFirst() );
+            assertEquals( 0, sample.readSecond() );
+        }
+    }
+
+    @Test
+    public void shouldIgnoreTransactionsIncludedInLastRotation() throws Exception
+    {
+        // given transaction 4 applied before transaction 3
+        try ( Lifespan life = new Lifespan() )
+        {
+            GBPTreeCountsStore store = life.add( newStore() );
+            incrementNodeCount( store, 2 );
+            incrementNodeCount( store, 4 );
+            store.rotate( 2 );
+        }
+
+        // when
+        try ( Lifespan life = new Lifespan() )
+        {
+            GBPTreeCountsStore store = life.add( newStore() );
+
+            // then
+            assertFalse( store.apply( 2 ).isPresent() );
+            assertFalse( store.apply( 4 ).isPresent() );
+            incrementNodeCount( store, 3 );
+            assertEquals( 4, store.rotate( 3 ) );
+            assertEquals( 3, store.nodeCount( 1, Registers.newDoubleLongRegister() ).readSecond() );
+        }
+    }
+
+    @Test
+    public void shouldBuildContentsWithInitializerWhenThereIsNoStoreFile() throws Exception
+    {
+        try ( Lifespan life = new Lifespan() )
+        {
+            // given
+            GBPTreeCountsStore store = newStore();
+            store.setInitializer( new DataInitializer<CountsAccessor.Updater>()
+            {
+                @Override
+                public void initialize( CountsAccessor.Updater updater )
+                {
+                    updater.incrementNodeCount( 1, 7 );
+                    updater.incrementRelationshipCount( 1, 2, 1, 3 );
+                }
+
+                @Override
+                public long initialVersion()
+                {
+                    return 5;
+                }
+            } );
+
+            // when
+            life.add( store );
+
+            // then
+            assertEquals( 5, store.txId() );
+            assertFalse( store.apply( 5 ).isPresent() );
+            assertEquals( 7, store.nodeCount( 1, Registers.newDoubleLongRegister() ).readSecond() );
+            assertEquals( 3, store.relationshipCount( 1, 2, 1, Registers.newDoubleLongRegister() ).readSecond() );
+        }
+    }
+
+    @Test
+    public void shouldRemoveAllEntriesOnReset() throws Exception
+    {
+        try ( Lifespan life = new Lifespan() )
+        {
+            // given
+            GBPTreeCountsStore store = life.add( newStore() );
+            someData( 0 ).update( store, 2 );
+
+            // when
+            try ( CountsAccessor.Updater updater = store.reset( 7 ) )
+            {
+                updater.incrementNodeCount( 3, 1 );
+            }
+
+            // then
+            assertEquals( 0, store.nodeCount( 1, Registers.newDoubleLongRegister() ).readSecond() );
+            assertEquals( 0, store.relationshipCount( 1, 1, 1, Registers.newDoubleLongRegister() ).readSecond() );
+            assertEquals( 1, store.nodeCount( 3, Registers.newDoubleLongRegister() ).readSecond() );
+            assertFalse( store.apply( 7 ).isPresent() );
+            Optional<CountsAccessor.Updater> next = store.apply( 8 );
+            assertTrue( next.isPresent() );
+            next.get().close();
+        }
+    }
+
+    private static void incrementNodeCount( CountsStore store, long txId )
+    {
+        try ( CountsAccessor.Updater updater = store.apply( txId ).get() )
+        {
+            updater.incrementNodeCount( 1, 1 );
+        }
+    }
+
+    private static CountsOracle someData( long indexId )
+    {
+        CountsOracle oracle = new CountsOracle();
+        CountsOracle.Node a = oracle.node( 1 );
+        CountsOracle.Node b = oracle.node( 1 );
+        oracle.relationship( a, 1, b );
+        oracle.indexSampling( indexId, 2, 2 );
+        oracle.indexUpdatesAndSize( indexId, 10, 2 );
+        return oracle;
+    }
+
+    private GBPTreeCountsStore newStore()
+    {
+        return new GBPTreeCountsStore( resourceManager.pageCache(), resourceManager.fileSystem(),
+                resourceManager.testDirectory().databaseLayout(), Config.defaults() );
+    }
+}
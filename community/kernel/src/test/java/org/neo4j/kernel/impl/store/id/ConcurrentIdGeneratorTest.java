@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.id;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.kernel.impl.store.id.validation.IdCapacityExceededException;
+import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.kernel.impl.store.id.IdGeneratorImpl.INTEGER_MINUS_ONE;
+
+public class ConcurrentIdGeneratorTest
+{
+    @Rule
+    public final EphemeralFileSystemRule fsr = new EphemeralFileSystemRule();
+
+    private final File file = new File( "ids" );
+
+    @Test
+    public void shouldHandOutHighIdsInOrder()
+    {
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        try ( ConcurrentIdGenerator idGenerator = openGenerator( 100, false, 4 ) )
+        {
+            for ( long i = 0; i < 10; i++ )
+            {
+                assertEquals( i, idGenerator.nextId() );
+            }
+            assertEquals( 10, idGenerator.getHighId() );
+        }
+    }
+
+    @Test
+    public void shouldSkipReservedId()
+    {
+        IdGeneratorImpl.createGenerator( fsr.get(), file, INTEGER_MINUS_ONE, false );
+        try ( ConcurrentIdGenerator idGenerator = new ConcurrentIdGenerator( fsr.get(), file, 100, Long.MAX_VALUE,
+                false, IdType.NODE, () -> 0L, 4 ) )
+        {
+            assertEquals( INTEGER_MINUS_ONE + 1, idGenerator.nextId() );
+        }
+    }
+
+    @Test
+    public void throwsWhenNextIdIsTooHigh()
+    {
+        long maxId = 10;
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        try ( ConcurrentIdGenerator idGenerator = new ConcurrentIdGenerator( fsr.get(), file, 1, maxId, false,
+                IdType.NODE, () -> 0L, 2 ) )
+        {
+            for ( long i = 0; i <= maxId; i++ )
+            {
+                idGenerator.nextId();
+            }
+            try
+            {
+                idGenerator.nextId();
+                fail( "Should have failed" );
+            }
+            catch ( IdCapacityExceededException e )
+            {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void shouldReuseFreedIdsInSameSessionWhenAggressive()
+    {
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        try ( ConcurrentIdGenerator idGenerator = openGenerator( 100, true, 1 ) )
+        {
+            long id = idGenerator.nextId();
+            idGenerator.nextId();
+            idGenerator.freeId( id );
+            assertEquals( 1, idGenerator.getDefragCount() );
+            assertEquals( id, idGenerator.nextId() );
+        }
+    }
+
+    @Test
+    public void shouldReuseFreedIdsInNextSession()
+    {
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        Set<Long> freed = new HashSet<>();
+        try ( ConcurrentIdGenerator idGenerator = openGenerator( 100, false, 4 ) )
+        {
+            for ( int i = 0; i < 20; i++ )
+            {
+                long id = idGenerator.nextId();
+                if ( i % 2 == 0 )
+                {
+                    idGenerator.freeId( id );
+                    freed.add( id );
+                }
+            }
+            // Not reused in this session
+            assertEquals( 20, idGenerator.nextId() );
+        }
+
+        try ( ConcurrentIdGenerator idGenerator = openGenerator( 100, false, 4 ) )
+        {
+            assertEquals( freed.size(), idGenerator.getDefragCount() );
+            Set<Long> reused = new HashSet<>();
+            for ( int i = 0; i < freed.size(); i++ )
+            {
+                reused.add( idGenerator.nextId() );
+            }
+            assertEquals( freed, reused );
+            assertEquals( 21, idGenerator.nextId() );
+        }
+    }
+
+    @Test
+    public void shouldKeepUnconsumedReusableIdsOverRestart()
+    {
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        try ( ConcurrentIdGenerator idGenerator = openGenerator( 100, false, 1 ) )
+        {
+            for ( int i = 0; i < 10; i++ )
+            {
+                idGenerator.freeId( idGenerator.nextId() );
+            }
+        }
+        try ( ConcurrentIdGenerator idGenerator = openGenerator( 100, false, 1 ) )
+        {
+            // Pulls a batch of reusable ids into the shard, but only consumes one
+            assertNotEquals( 10, idGenerator.nextId() );
+        }
+        try ( ConcurrentIdGenerator idGenerator = openGenerator( 100, false, 1 ) )
+        {
+            assertEquals( 9, idGenerator.getDefragCount() );
+        }
+    }
+
+    @Test
+    public void shouldRejectFreeingIdsAboveHighId()
+    {
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        try ( ConcurrentIdGenerator idGenerator = openGenerator( 100, false, 1 ) )
+        {
+            idGenerator.nextId();
+            try
+            {
+                idGenerator.freeId( 1 );
+                fail( "Should have failed" );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotHandOutSameIdTwiceUnderConcurrentAllocation() throws Exception
+    {
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        int threads = 8;
+        int idsPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try ( ConcurrentIdGenerator idGenerator = openGenerator( 1024, true, 4 ) )
+        {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for ( int t = 0; t < threads; t++ )
+            {
+                futures.add( executor.submit( allocateAndFree( idGenerator, idsPerThread ) ) );
+            }
+            Set<Long> kept = new HashSet<>();
+            for ( Future<List<Long>> future : futures )
+            {
+                for ( long id : future.get() )
+                {
+                    assertTrue( "Id " + id + " handed out twice", kept.add( id ) );
+                }
+            }
+            assertEquals( threads * idsPerThread / 2, kept.size() );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static Callable<List<Long>> allocateAndFree( IdGenerator idGenerator, int count )
+    {
+        return () ->
+        {
+            List<Long> kept = new ArrayList<>();
+            for ( int i = 0; i < count; i++ )
+            {
+                long id = idGenerator.nextId();
+                if ( i % 2 == 0 )
+                {
+                    idGenerator.freeId( id );
+                }
+                else
+                {
+                    kept.add( id );
+                }
+            }
+            return kept;
+        };
+    }
+
+    private ConcurrentIdGenerator openGenerator( int grabSize, boolean aggressiveReuse, int shards )
+    {
+        return new ConcurrentIdGenerator( fsr.get(), file, grabSize, 1000_000, aggressiveReuse, IdType.NODE,
+                () -> 0L, shards );
+    }
+}
@@ -41,7 +41,9 @@ import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.record.DynamicRecord;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.kernel.impl.transaction.command.Command.NodeCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.RelationshipCommand;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.schema.SchemaRule;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
@@ -51,6 +53,7 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -62,6 +65,9 @@ import static org.neo4j.storageengine.api.schema.IndexDescriptorFactory.uniqueFo
 
 public class IndexBatchTransactionApplierTest
 {
+    private final WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> relationshipTypeScanStoreSync =
+            new WorkSync<>( () -> LabelScanWriter.EMPTY );
+
     @Test
     public void shouldProvideLabelScanStoreUpdatesSortedByNodeId() throws Exception
     {
@@ -74,7 +80,8 @@ public class IndexBatchTransactionApplierTest
         WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync = new WorkSync<>( indexing );
         TransactionToApply tx = mock( TransactionToApply.class );
         PropertyStore propertyStore = mock( PropertyStore.class );
-        try ( IndexBatchTransactionApplier applier = new IndexBatchTransactionApplier( indexing, labelScanSync, indexUpdatesSync, mock( NodeStore.class ),
+        try ( IndexBatchTransactionApplier applier = new IndexBatchTransactionApplier( indexing, labelScanSync, relationshipTypeScanStoreSync,
+                indexUpdatesSync, mock( NodeStore.class ),
                 mock( RelationshipStore.class ), propertyStore, new IndexActivator( indexing ) ) )
         {
             try ( TransactionApplier txApplier = applier.startTx( tx ) )
@@ -89,6 +96,38 @@ public class IndexBatchTransactionApplierTest
         verify( labelScanSync ).applyAsync( any() );
     }
 
+    @Test
+    public void shouldProvideRelationshipTypeScanStoreUpdatesSortedByRelationshipId() throws Exception
+    {
+        // GIVEN
+        IndexingService indexing = mock( IndexingService.class );
+        when( indexing.convertToIndexUpdates( any(), eq( EntityType.RELATIONSHIP ) ) ).thenAnswer( o -> Iterables.empty() );
+        LabelScanWriter labelWriter = new OrderVerifyingLabelScanWriter();
+        WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanSync =
+                spy( new WorkSync<>( singletonProvider( labelWriter ) ) );
+        LabelScanWriter typeWriter = new OrderVerifyingLabelScanWriter( 10, 15, 20 );
+        WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> typeScanSync =
+                spy( new WorkSync<>( singletonProvider( typeWriter ) ) );
+        WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync = new WorkSync<>( indexing );
+        TransactionToApply tx = mock( TransactionToApply.class );
+        PropertyStore propertyStore = mock( PropertyStore.class );
+        try ( IndexBatchTransactionApplier applier = new IndexBatchTransactionApplier( indexing, labelScanSync, typeScanSync, indexUpdatesSync,
+                mock( NodeStore.class ), mock( RelationshipStore.class ), propertyStore, new IndexActivator( indexing ) ) )
+        {
+            try ( TransactionApplier txApplier = applier.startTx( tx ) )
+            {
+                // WHEN
+                txApplier.visitRelationshipCommand( createdRelationship( 15 ) );
+                txApplier.visitRelationshipCommand( updatedRelationship( 17 ) );
+                txApplier.visitRelationshipCommand( deletedRelationship( 20 ) );
+                txApplier.visitRelationshipCommand( createdRelationship( 10 ) );
+            }
+        }
+        // THEN all assertions happen inside the LabelScanWriter#write and #close
+        verify( typeScanSync ).applyAsync( any() );
+        verify( labelScanSync, never() ).applyAsync( any() );
+    }
+
     @Test
     public void shouldRegisterIndexesToActivateIntoTheActivator() throws Exception
     {
@@ -111,7 +150,7 @@ public class IndexBatchTransactionApplierTest
         StoreIndexDescriptor rule1 = uniqueForSchema( forLabel( 1, 1 ), providerDescriptor ).withIds( indexId1, constraintId1 );
         StoreIndexDescriptor rule2 = uniqueForSchema( forLabel( 2, 1 ), providerDescriptor ).withIds( indexId2, constraintId2 );
         StoreIndexDescriptor rule3 = uniqueForSchema( forLabel( 3, 1 ), providerDescriptor ).withIds( indexId3, constraintId3 );
-        try ( IndexBatchTransactionApplier applier = new IndexBatchTransactionApplier( indexing, labelScanSync,
+        try ( IndexBatchTransactionApplier applier = new IndexBatchTransactionApplier( indexing, labelScanSync, relationshipTypeScanStoreSync,
                 indexUpdatesSync, mock( NodeStore.class ), mock( RelationshipStore.class ),
                 propertyStore, indexActivator ) )
         {
@@ -163,6 +202,30 @@ public class IndexBatchTransactionApplierTest
         return new NodeCommand( new NodeRecord( nodeId ), after );
     }
 
+    private RelationshipCommand createdRelationship( long relationshipId )
+    {
+        return new RelationshipCommand( new RelationshipRecord( relationshipId ), relationship( relationshipId ) );
+    }
+
+    private RelationshipCommand updatedRelationship( long relationshipId )
+    {
+        return new RelationshipCommand( relationship( relationshipId ), relationship( relationshipId ) );
+    }
+
+    private RelationshipCommand deletedRelationship( long relationshipId )
+    {
+        RelationshipRecord after = relationship( relationshipId );
+        after.setInUse( false );
+        return new RelationshipCommand( relationship( relationshipId ), after );
+    }
+
+    private RelationshipRecord relationship( long relationshipId )
+    {
+        RelationshipRecord record = new RelationshipRecord( relationshipId, 1, 2, 3 );
+        record.setInUse( true );
+        return record;
+    }
+
     private static class OrderVerifyingLabelScanWriter implements LabelScanWriter
     {
         private final long[] expectedNodeIds;
@@ -110,6 +110,8 @@ public class NeoStoreTransactionApplierTest
     private final DynamicRecord three = DynamicRecord.dynamicRecord( 3, true );
     private final WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork>
             labelScanStoreSynchronizer = new WorkSync<>( labelScanStore );
+    private final WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> relationshipTypeScanStoreSync =
+            new WorkSync<>( () -> LabelScanWriter.EMPTY );
     private final TransactionToApply transactionToApply = mock( TransactionToApply.class );
     private final WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync = new WorkSync<>( indexingService );
     private final IndexActivator indexActivator = new IndexActivator( indexingService );
@@ -906,7 +908,7 @@ public class NeoStoreTransactionApplierTest
 
     private BatchTransactionApplier newIndexApplier()
     {
-        return new IndexBatchTransactionApplier( indexingService, labelScanStoreSynchronizer,
+        return new IndexBatchTransactionApplier( indexingService, labelScanStoreSynchronizer, relationshipTypeScanStoreSync,
                 indexUpdatesSync, nodeStore, neoStores.getRelationshipStore(), propertyStore, indexActivator );
     }
 
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GroupCommitDelayTest
+{
+    @Test
+    void shouldNeverDelayWhenDisabled()
+    {
+        GroupCommitDelay delay = new GroupCommitDelay( 0, 16 );
+        delay.forced( 10, MILLISECONDS.toNanos( 4 ) );
+
+        assertEquals( 0, delay.delayNanos() );
+    }
+
+    @Test
+    void shouldNotDelayUntilTransactionsHaveBeenSeenCommittingConcurrently()
+    {
+        GroupCommitDelay delay = new GroupCommitDelay( MILLISECONDS.toNanos( 1 ), 16 );
+        assertEquals( 0, delay.delayNanos() );
+
+        delay.forced( 1, MILLISECONDS.toNanos( 4 ) );
+        assertEquals( 0, delay.delayNanos() );
+
+        delay.forced( 2, MILLISECONDS.toNanos( 4 ) );
+        assertEquals( MILLISECONDS.toNanos( 1 ), delay.delayNanos() );
+
+        delay.forced( 1, MILLISECONDS.toNanos( 4 ) );
+        assertEquals( 0, delay.delayNanos() );
+    }
+
+    @Test
+    void shouldDelayForAFractionOfTheAverageForceLatency()
+    {
+        GroupCommitDelay delay = new GroupCommitDelay( MILLISECONDS.toNanos( 10 ), 16 );
+
+        delay.forced( 4, MICROSECONDS.toNanos( 800 ) );
+        assertEquals( MICROSECONDS.toNanos( 400 ), delay.delayNanos() );
+
+        // a single slow force only moves the average a bit
+        delay.forced( 4, MICROSECONDS.toNanos( 8_800 ) );
+        assertEquals( MICROSECONDS.toNanos( 900 ), delay.delayNanos() );
+    }
+}
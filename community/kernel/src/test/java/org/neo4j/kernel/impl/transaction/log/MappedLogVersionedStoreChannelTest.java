@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.OpenMode;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.fs.StoreFileChannelUnwrapper;
+import org.neo4j.storageengine.api.ReadPastEndException;
+import org.neo4j.test.extension.DefaultFileSystemExtension;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_LOG_VERSION;
+
+@ExtendWith( {DefaultFileSystemExtension.class, TestDirectoryExtension.class} )
+class MappedLogVersionedStoreChannelTest
+{
+    private static final int LONGS = 1_000;
+    // Not a multiple of Long.BYTES, so that one value straddles the two files
+    private static final int SPLIT = 4_003;
+
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private DefaultFileSystemAbstraction fileSystem;
+
+    @Test
+    void shouldReadValuesAcrossMappedFiles() throws Exception
+    {
+        ByteBuffer contents = longs();
+        MappedLogVersionedStoreChannel first = mapped( "log.0", contents, 0, SPLIT, 0 );
+        MappedLogVersionedStoreChannel second = mapped( "log.1", contents, SPLIT, contents.capacity(), 1 );
+
+        ReadAheadChannel<LogVersionedStoreChannel> channel = new ReadAheadChannel<LogVersionedStoreChannel>( first, 64 )
+        {
+            @Override
+            protected LogVersionedStoreChannel next( LogVersionedStoreChannel channel ) throws IOException
+            {
+                if ( channel == first )
+                {
+                    channel.close();
+                    return second;
+                }
+                return channel;
+            }
+        };
+
+        for ( int i = 0; i < LONGS; i++ )
+        {
+            assertEquals( i, channel.getLong() );
+        }
+        assertEquals( contents.capacity() - SPLIT, channel.position() );
+        assertThrows( ReadPastEndException.class, channel::get );
+        channel.close();
+    }
+
+    @Test
+    void shouldRepositionWithinMapping() throws Exception
+    {
+        ByteBuffer contents = longs();
+        ReadAheadChannel<LogVersionedStoreChannel> channel =
+                new ReadAheadChannel<>( mapped( "log.0", contents, 0, contents.capacity(), 0 ), 64 );
+
+        for ( int i = 0; i < 100; i++ )
+        {
+            channel.getLong();
+        }
+        channel.setCurrentPosition( 10 * Long.BYTES );
+        assertEquals( 10, channel.getLong() );
+        channel.setCurrentPosition( 900 * Long.BYTES );
+        assertEquals( 900, channel.getLong() );
+        assertEquals( 901 * Long.BYTES, channel.position() );
+        channel.close();
+    }
+
+    @Test
+    void shouldReadPlainlyFromMappingAndRefuseToReadAfterClose() throws Exception
+    {
+        ByteBuffer contents = longs();
+        MappedLogVersionedStoreChannel channel = mapped( "log.0", contents, 0, contents.capacity(), 0 );
+
+        ByteBuffer buffer = ByteBuffer.allocate( contents.capacity() + 1 );
+        assertEquals( contents.capacity(), channel.read( buffer ) );
+        assertEquals( -1, channel.read( buffer ) );
+        buffer.flip();
+        assertEquals( LONGS - 1, buffer.getLong( (LONGS - 1) * Long.BYTES ) );
+
+        channel.close();
+        assertThrows( ClosedChannelException.class, () -> channel.read( ByteBuffer.allocate( 8 ) ) );
+    }
+
+    private MappedLogVersionedStoreChannel mapped( String name, ByteBuffer contents, int from, int to, long version )
+            throws IOException
+    {
+        File file = testDirectory.file( name );
+        try ( StoreChannel channel = fileSystem.open( file, OpenMode.READ_WRITE ) )
+        {
+            ByteBuffer part = contents.duplicate();
+            part.limit( to ).position( from );
+            channel.writeAll( part );
+        }
+        StoreChannel channel = fileSystem.open( file, OpenMode.READ );
+        return new MappedLogVersionedStoreChannel( channel, StoreFileChannelUnwrapper.unwrap( channel ), version,
+                CURRENT_LOG_VERSION );
+    }
+
+    private static ByteBuffer longs()
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( LONGS * Long.BYTES );
+        for ( int i = 0; i < LONGS; i++ )
+        {
+            buffer.putLong( i );
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import org.junit.Test;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.api.LogForceMonitor;
+import org.neo4j.kernel.impl.transaction.tracing.CheckPointTracer;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.test.OnDemandJobScheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class BackgroundPageFlusherTest
+{
+    private final PageCache pageCache = mock( PageCache.class );
+    private final OnDemandJobScheduler jobScheduler = new OnDemandJobScheduler();
+    private final FakeLogForceMonitor logForces = new FakeLogForceMonitor();
+
+    @Test
+    public void shouldFlushPageCacheAndReschedule() throws Exception
+    {
+        BackgroundPageFlusher flusher = flusher( 1000, CheckPointTracer.NULL );
+        flusher.start();
+
+        jobScheduler.runJob();
+
+        verify( pageCache ).flush( flusher );
+        assertNotNull( jobScheduler.getJob() );
+
+        flusher.stop();
+        assertNull( jobScheduler.getJob() );
+    }
+
+    @Test
+    public void shouldReportFlushedPages()
+    {
+        DefaultCheckPointerTracer tracer = new DefaultCheckPointerTracer( mock( DefaultCheckPointerTracer.Monitor.class ),
+                jobScheduler );
+        BackgroundPageFlusher flusher = flusher( 100_000, tracer );
+
+        long stamp = flusher.maybeLimitIO( IOLimiter.INITIAL_STAMP, 3, null );
+        flusher.maybeLimitIO( stamp, 4, null );
+
+        assertEquals( 7, tracer.numberOfPagesFlushedInBackground() );
+    }
+
+    @Test
+    public void shouldHalveRateWhileLogForcesAreSlowAndRecoverWhenTheyAreFastAgain()
+    {
+        BackgroundPageFlusher flusher = flusher( 1600, CheckPointTracer.NULL );
+
+        logForces.force( 10, 100 );
+        flusher.adjustRate();
+        assertEquals( 1600, flusher.pagesPerSecond() );
+
+        logForces.force( 10, 500 );
+        flusher.adjustRate();
+        assertEquals( 800, flusher.pagesPerSecond() );
+        logForces.force( 10, 500 );
+        flusher.adjustRate();
+        assertEquals( 400, flusher.pagesPerSecond() );
+        logForces.force( 10, 500 );
+        flusher.adjustRate();
+        logForces.force( 10, 500 );
+        flusher.adjustRate();
+        logForces.force( 10, 500 );
+        flusher.adjustRate();
+        // never slower than a sixteenth of the max rate
+        assertEquals( 100, flusher.pagesPerSecond() );
+
+        logForces.force( 10, 100 );
+        flusher.adjustRate();
+        assertEquals( 125, flusher.pagesPerSecond() );
+    }
+
+    @Test
+    public void shouldKeepRateWhenThereAreNoLogForces()
+    {
+        BackgroundPageFlusher flusher = flusher( 1600, CheckPointTracer.NULL );
+
+        flusher.adjustRate();
+        flusher.adjustRate();
+
+        assertEquals( 1600, flusher.pagesPerSecond() );
+    }
+
+    private BackgroundPageFlusher flusher( int maxPagesPerSecond, CheckPointTracer tracer )
+    {
+        return new BackgroundPageFlusher( pageCache, jobScheduler, 100, maxPagesPerSecond, logForces, tracer,
+                NullLogProvider.getInstance() );
+    }
+
+    private static class FakeLogForceMonitor implements LogForceMonitor
+    {
+        private long forces;
+        private long totalTimeMicros;
+
+        void force( int count, long micros )
+        {
+            forces += count;
+            totalTimeMicros += count * micros;
+        }
+
+        @Override
+        public long numberOfLogForces()
+        {
+            return forces;
+        }
+
+        @Override
+        public long numberOfForcedTransactions()
+        {
+            return forces;
+        }
+
+        @Override
+        public long logForceAccumulatedCommitDelayMicros()
+        {
+            return 0;
+        }
+
+        @Override
+        public long logForceAccumulatedTotalTimeMicros()
+        {
+            return totalTimeMicros;
+        }
+    }
+}
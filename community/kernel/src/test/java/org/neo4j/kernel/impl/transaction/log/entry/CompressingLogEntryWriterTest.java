@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.kernel.impl.transaction.log.InMemoryClosableChannel;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionCursor;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
+import org.neo4j.kernel.impl.transaction.log.TransactionLogWriter;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CompressingLogEntryWriterTest
+{
+    private final LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader = new VersionAwareLogEntryReader<>();
+    private final InMemoryClosableChannel channel = new InMemoryClosableChannel( 1_000_000 );
+
+    @Test
+    public void shouldWriteCommandsOfLargeTransactionAsOneCompressedEntry() throws IOException
+    {
+        // given
+        PhysicalTransactionRepresentation transaction = transaction( 1_000 );
+
+        // when
+        new TransactionLogWriter( new CompressingLogEntryWriter( channel ) ).append( transaction, 42 );
+
+        // then
+        assertTrue( logEntryReader.readLogEntry( channel ) instanceof LogEntryStart );
+        LogEntry commands = logEntryReader.readLogEntry( channel );
+        assertTrue( commands instanceof LogEntryCompressedCommands );
+        assertEquals( LogEntryVersion.V3_5, commands.getVersion() );
+        assertEquals( commandsOf( transaction ), commands.<LogEntryCompressedCommands>as().getCommands() );
+        assertEquals( 42, logEntryReader.readLogEntry( channel ).<LogEntryCommit>as().getTxId() );
+        assertNull( logEntryReader.readLogEntry( channel ) );
+        assertTrue( channel.writerPosition() < uncompressedSize( transaction ) );
+    }
+
+    @Test
+    public void shouldWriteCommandsUncompressedIfCompressionDoesNotMakeThemSmaller() throws IOException
+    {
+        // given
+        PhysicalTransactionRepresentation transaction = transaction( 1 );
+
+        // when
+        new TransactionLogWriter( new CompressingLogEntryWriter( channel ) ).append( transaction, 42 );
+
+        // then
+        assertTrue( logEntryReader.readLogEntry( channel ) instanceof LogEntryStart );
+        LogEntry command = logEntryReader.readLogEntry( channel );
+        assertEquals( new LogEntryCommand( commandsOf( transaction ).get( 0 ) ), command );
+        assertEquals( LogEntryVersion.CURRENT, command.getVersion() );
+        assertTrue( logEntryReader.readLogEntry( channel ) instanceof LogEntryCommit );
+        assertEquals( uncompressedSize( transaction ), channel.writerPosition() );
+    }
+
+    @Test
+    public void shouldReadCompressedTransactionsWithTransactionCursor() throws IOException
+    {
+        // given
+        TransactionLogWriter writer = new TransactionLogWriter( new CompressingLogEntryWriter( channel ) );
+        PhysicalTransactionRepresentation large = transaction( 1_000 );
+        PhysicalTransactionRepresentation small = transaction( 1 );
+        writer.append( large, 2 );
+        writer.append( small, 3 );
+        writer.append( large, 4 );
+
+        // when
+        try ( PhysicalTransactionCursor<ReadableClosablePositionAwareChannel> cursor =
+                new PhysicalTransactionCursor<>( channel, logEntryReader ) )
+        {
+            // then
+            assertTransaction( cursor, 2, large );
+            assertTransaction( cursor, 3, small );
+            assertTransaction( cursor, 4, large );
+            assertFalse( cursor.next() );
+        }
+    }
+
+    private static void assertTransaction( PhysicalTransactionCursor<?> cursor, long txId,
+            PhysicalTransactionRepresentation expected ) throws IOException
+    {
+        assertTrue( cursor.next() );
+        assertEquals( txId, cursor.get().getCommitEntry().getTxId() );
+        assertEquals( commandsOf( expected ), commandsOf( cursor.get().getTransactionRepresentation() ) );
+    }
+
+    private static PhysicalTransactionRepresentation transaction( int numberOfCommands )
+    {
+        List<StorageCommand> commands = new ArrayList<>();
+        for ( int i = 0; i < numberOfCommands; i++ )
+        {
+            NodeRecord after = new NodeRecord( i, false, 10, 20 );
+            after.setInUse( true );
+            commands.add( new Command.NodeCommand( new NodeRecord( i ), after ) );
+        }
+        PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation( commands );
+        transaction.setHeader( new byte[0], 1, 2, 3, 4, 5, -1 );
+        return transaction;
+    }
+
+    private static long uncompressedSize( PhysicalTransactionRepresentation transaction ) throws IOException
+    {
+        InMemoryClosableChannel uncompressed = new InMemoryClosableChannel( 1_000_000 );
+        new TransactionLogWriter( new LogEntryWriter( uncompressed ) ).append( transaction, 42 );
+        return uncompressed.writerPosition();
+    }
+
+    private static List<StorageCommand> commandsOf( TransactionRepresentation transaction ) throws IOException
+    {
+        List<StorageCommand> commands = new ArrayList<>();
+        transaction.accept( command ->
+        {
+            commands.add( command );
+            return false;
+        } );
+        return commands;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.state.storeview;
+
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class EntityIdRangeIteratorTest
+{
+    private final MutableLongSet inUse = new LongHashSet();
+    private final AtomicLong highId = new AtomicLong();
+
+    @Test
+    public void shouldReturnEntitiesInUseInRange()
+    {
+        createEntities( 0, 1, 3, 4, 7, 9, 10 );
+
+        EntityIdRangeIterator<?> iterator = new EntityIdRangeIterator<>( new InUseEntityScanCursor( inUse::contains ), 1, 9, highId::get );
+
+        assertEquals( LongArrayList.newListWith( 1, 3, 4, 7 ), idsOf( iterator ) );
+    }
+
+    @Test
+    public void shouldStopAtHighIdWhenRangeIsOpenEnded()
+    {
+        createEntities( 2, 5, 8 );
+
+        EntityIdRangeIterator<?> iterator = new EntityIdRangeIterator<>( new InUseEntityScanCursor( inUse::contains ), 3, Long.MAX_VALUE, highId::get );
+
+        assertEquals( LongArrayList.newListWith( 5, 8 ), idsOf( iterator ) );
+    }
+
+    @Test
+    public void shouldReturnEntitiesCreatedPastHighIdDuringIteration()
+    {
+        createEntities( 0, 1 );
+        EntityIdRangeIterator<?> iterator = new EntityIdRangeIterator<>( new InUseEntityScanCursor( inUse::contains ), 0, Long.MAX_VALUE, highId::get );
+        MutableLongList ids = new LongArrayList();
+        ids.add( iterator.next() );
+
+        createEntities( 2, 5 );
+        while ( iterator.hasNext() )
+        {
+            ids.add( iterator.next() );
+        }
+
+        assertEquals( LongArrayList.newListWith( 0, 1, 2, 5 ), ids );
+    }
+
+    @Test
+    public void shouldNotReturnEntitiesCreatedPastHighIdOutsideOfRange()
+    {
+        createEntities( 0, 1 );
+        EntityIdRangeIterator<?> iterator = new EntityIdRangeIterator<>( new InUseEntityScanCursor( inUse::contains ), 0, 4, highId::get );
+        assertEquals( 0, iterator.next() );
+
+        createEntities( 3, 4, 6 );
+
+        assertEquals( LongArrayList.newListWith( 1, 3 ), idsOf( iterator ) );
+    }
+
+    @Test
+    public void shouldThrowWhenThereAreNoMoreEntities()
+    {
+        createEntities( 4 );
+        EntityIdRangeIterator<?> iterator = new EntityIdRangeIterator<>( new InUseEntityScanCursor( inUse::contains ), 0, 10, highId::get );
+        assertEquals( 4, iterator.next() );
+        assertFalse( iterator.hasNext() );
+
+        try
+        {
+            iterator.next();
+            fail( "Should have failed" );
+        }
+        catch ( NoSuchElementException e )
+        {
+            // good
+        }
+    }
+
+    private void createEntities( long... ids )
+    {
+        for ( long id : ids )
+        {
+            inUse.add( id );
+            highId.set( Math.max( highId.get(), id + 1 ) );
+        }
+    }
+
+    private static MutableLongList idsOf( EntityIdIterator iterator )
+    {
+        MutableLongList ids = new LongArrayList();
+        while ( iterator.hasNext() )
+        {
+            ids.add( iterator.next() );
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.state.storeview;
+
+import java.util.function.LongPredicate;
+
+import org.neo4j.storageengine.api.StorageEntityScanCursor;
+
+/**
+ * Cursor reading single entities without any properties, finding the ids accepted by the given predicate to be in use.
+ */
+class InUseEntityScanCursor implements StorageEntityScanCursor
+{
+    private final LongPredicate inUse;
+    private long reference = -1;
+    private long current = -1;
+
+    InUseEntityScanCursor( LongPredicate inUse )
+    {
+        this.inUse = inUse;
+    }
+
+    @Override
+    public void scan()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void single( long reference )
+    {
+        this.reference = reference;
+    }
+
+    @Override
+    public boolean next()
+    {
+        current = reference != -1 && inUse.test( reference ) ? reference : -1;
+        reference = -1;
+        return current != -1;
+    }
+
+    @Override
+    public long entityReference()
+    {
+        return current;
+    }
+
+    @Override
+    public boolean hasProperties()
+    {
+        return false;
+    }
+
+    @Override
+    public long propertiesReference()
+    {
+        return -1;
+    }
+
+    @Override
+    public void reset()
+    {
+        reference = -1;
+        current = -1;
+    }
+
+    @Override
+    public void close()
+    {
+    }
+}
@@ -77,6 +77,24 @@ public class LabelScanViewNodeStoreScanTest
         assertThat( visitedNodeIds, Matchers.hasItems( 1L, 2L, 4L, 8L ) );
     }
 
+    @Test
+    public void iterateOverLabeledNodeIdsInPartition()
+    {
+        PrimitiveLongResourceIterator labeledNodes = PrimitiveLongResourceCollections.iterator( null, 2, 4, 8, 16 );
+
+        when( nodeStore.getHighId() ).thenReturn( 20L );
+        int[] labelIds = new int[]{1, 2};
+        when( labelScanReader.nodesWithAnyOfLabels( 1, labelIds ) ).thenReturn( labeledNodes );
+
+        LabelScanViewNodeStoreScan<Exception> storeScan = new LabelScanViewNodeStoreScan<>( new RecordStorageReader( neoStores ),
+                LockService.NO_LOCK_SERVICE, labelScanStore, labelUpdateVisitor, propertyUpdateVisitor, labelIds, propertyKeyIdFilter, 2, 10 );
+        PrimitiveLongResourceIterator idIterator = storeScan.getEntityIdIterator();
+        List<Long> visitedNodeIds = PrimitiveLongCollections.asList( idIterator );
+
+        assertThat( visitedNodeIds, Matchers.hasSize( 3 ) );
+        assertThat( visitedNodeIds, Matchers.hasItems( 2L, 4L, 8L ) );
+    }
+
     private LabelScanViewNodeStoreScan<Exception> getLabelScanViewStoreScan( int[] labelIds )
     {
         return new LabelScanViewNodeStoreScan<>( new RecordStorageReader( neoStores ), LockService.NO_LOCK_SERVICE,
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.state.storeview;
+
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.schema.SchemaDescriptorFactory;
+import org.neo4j.kernel.impl.api.index.MultipleIndexPopulator.MultipleIndexUpdater;
+import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.storageengine.api.StorageEntityScanCursor;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
+import org.neo4j.storageengine.api.StorageReader;
+import org.neo4j.values.storable.Values;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PartitionedEntityStoreScanTest
+{
+    private static final long HIGH_ID = 30;
+
+    private final MultipleIndexUpdater updater = mock( MultipleIndexUpdater.class );
+
+    @Test
+    public void shouldScanOnlyEntitiesInPartition()
+    {
+        // given
+        MutableLongList scanned = new LongArrayList();
+        PartitionScan scan = new PartitionScan( 10, 20, scanned::add );
+
+        // when
+        scan.run();
+
+        // then
+        assertEquals( LongArrayList.newListWith( 10, 11, 12, 13, 14, 15, 16, 17, 18, 19 ), scanned );
+    }
+
+    @Test
+    public void shouldAcceptExternalUpdatesOnlyForEntitiesInPartitionBelowItsCursor()
+    {
+        // given a partition which, while at entity 15, gets external updates below and above its cursor and outside of its range
+        IndexEntryUpdate<?>[] updates = {update( 5 ), update( 12 ), update( 15 ), update( 16 ), update( 25 )};
+        PartitionScan[] scan = new PartitionScan[1];
+        scan[0] = new PartitionScan( 10, 20, id ->
+        {
+            if ( id == 15 )
+            {
+                for ( IndexEntryUpdate<?> update : updates )
+                {
+                    scan[0].acceptUpdate( updater, update, Long.MAX_VALUE );
+                }
+            }
+        } );
+
+        // when
+        scan[0].run();
+
+        // then only the updates of entities it has already scanned are applied, the others are seen by the scan itself
+        verify( updater ).process( updates[1] );
+        verify( updater ).process( updates[2] );
+        verify( updater, never() ).process( updates[0] );
+        verify( updater, never() ).process( updates[3] );
+        verify( updater, never() ).process( updates[4] );
+    }
+
+    @Test
+    public void shouldNotAcceptExternalUpdatesBeyondCurrentlyIndexedEntity()
+    {
+        // given
+        PartitionScan scan = new PartitionScan( 10, 20, id -> {} );
+        scan.run();
+
+        // when
+        scan.acceptUpdate( updater, update( 12 ), 11 );
+        scan.acceptUpdate( updater, update( 11 ), 11 );
+
+        // then
+        verify( updater ).process( update( 11 ) );
+        verify( updater, never() ).process( update( 12 ) );
+    }
+
+    @Test
+    public void shouldAcceptExternalUpdatesForAllEntitiesInPartitionWhenScanIsDone()
+    {
+        // given
+        PartitionScan scan = new PartitionScan( 10, Long.MAX_VALUE, id -> {} );
+        scan.acceptUpdate( updater, update( 10 ), Long.MAX_VALUE );
+        verify( updater, never() ).process( any() );
+
+        // when
+        scan.run();
+        scan.acceptUpdate( updater, update( 10 ), Long.MAX_VALUE );
+        scan.acceptUpdate( updater, update( 100 ), Long.MAX_VALUE );
+        scan.acceptUpdate( updater, update( 9 ), Long.MAX_VALUE );
+
+        // then the open ended last partition also accepts updates of entities created after it was done
+        verify( updater ).process( update( 10 ) );
+        verify( updater ).process( update( 100 ) );
+        verify( updater, never() ).process( update( 9 ) );
+    }
+
+    @Test
+    public void shouldRunActionInBetweenEntities() throws Exception
+    {
+        // given
+        List<Long> events = Collections.synchronizedList( new ArrayList<>() );
+        Thread[] actionThread = new Thread[1];
+        PartitionScan[] scan = new PartitionScan[1];
+        scan[0] = new PartitionScan( 10, 13, id ->
+        {
+            events.add( id );
+            if ( id == 11 )
+            {
+                actionThread[0] = new Thread( () -> scan[0].runInBetweenEntities( () -> events.add( -1L ) ) );
+                actionThread[0].start();
+                while ( actionThread[0].getState() != Thread.State.WAITING )
+                {
+                    LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 1 ) );
+                }
+                events.add( id );
+            }
+        } );
+
+        // when
+        scan[0].run();
+        actionThread[0].join();
+
+        // then the action waits for the scan to be done processing the entity it's at
+        assertEquals( Arrays.asList( 10L, 11L, 11L ), events.subList( 0, 3 ) );
+        assertEquals( 5, events.size() );
+        assertTrue( events.containsAll( Arrays.asList( -1L, 12L ) ) );
+    }
+
+    private static IndexEntryUpdate<?> update( long entityId )
+    {
+        return IndexEntryUpdate.add( entityId, SchemaDescriptorFactory.forLabel( 1, 1 ), Values.of( entityId ) );
+    }
+
+    private static StorageReader storageReader()
+    {
+        StorageReader storageReader = mock( StorageReader.class );
+        when( storageReader.allocatePropertyCursor() ).thenReturn( mock( StoragePropertyCursor.class ) );
+        return storageReader;
+    }
+
+    /**
+     * Partition of a scan over entities with all ids up to {@link #HIGH_ID} in use, where processing an entity means calling the given consumer.
+     */
+    private static class PartitionScan extends PropertyAwareEntityStoreScan<StorageEntityScanCursor,RuntimeException>
+    {
+        private final LongConsumer processor;
+
+        PartitionScan( long fromId, long toId, LongConsumer processor )
+        {
+            super( storageReader(), HIGH_ID, id -> true, id -> LockService.NO_LOCK, fromId, toId, () -> HIGH_ID );
+            this.processor = processor;
+        }
+
+        @Override
+        protected StorageEntityScanCursor allocateCursor( StorageReader storageReader )
+        {
+            return new InUseEntityScanCursor( id -> id < HIGH_ID );
+        }
+
+        @Override
+        protected boolean process( StorageEntityScanCursor cursor )
+        {
+            processor.accept( cursor.entityReference() );
+            return false;
+        }
+    }
+}
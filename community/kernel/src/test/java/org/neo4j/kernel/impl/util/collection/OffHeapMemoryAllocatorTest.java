@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.memory.MemoryAllocationTracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OffHeapMemoryAllocatorTest
+{
+    private final MemoryAllocationTracker memoryTracker = new LocalMemoryTracker();
+    private final CachingOffHeapBlockAllocator blockAllocator = new CachingOffHeapBlockAllocator();
+    private final List<Memory> allocated = new ArrayList<>();
+
+    @AfterEach
+    void afterEach()
+    {
+        allocated.forEach( Memory::free );
+        blockAllocator.release();
+        assertEquals( 0, memoryTracker.usedDirectMemory(), "Native memory is leaking" );
+    }
+
+    @Test
+    void maxMemoryLimit()
+    {
+        final AtomicInteger limitExceeded = new AtomicInteger();
+        final OffHeapMemoryAllocator allocator = new OffHeapMemoryAllocator( memoryTracker, blockAllocator, 1100, limitExceeded::incrementAndGet );
+
+        final Memory first = allocator.allocate( 512, true );
+        final Memory second = allocate( allocator, 256 );
+        final long usedMemory = memoryTracker.usedDirectMemory();
+
+        final MemoryLimitExceededException e = assertThrows( MemoryLimitExceededException.class, () -> allocator.allocate( 512, true ) );
+        assertEquals( Status.General.TransactionOutOfMemoryError, e.status() );
+        assertThrows( MemoryLimitExceededException.class, first::copy );
+        assertEquals( usedMemory, memoryTracker.usedDirectMemory() );
+        assertEquals( 2, limitExceeded.get() );
+
+        first.free();
+        allocate( allocator, 512 );
+        allocated.add( second.copy() );
+    }
+
+    @Test
+    void maxMemoryLimitIncludesAlignmentOfBlocks()
+    {
+        final OffHeapMemoryAllocator allocator = new OffHeapMemoryAllocator( memoryTracker, blockAllocator, 1024, () -> {} );
+
+        assertThrows( MemoryLimitExceededException.class, () -> allocator.allocate( 1024, true ) );
+        assertEquals( 0, memoryTracker.usedDirectMemory() );
+
+        allocate( allocator, 1024 - Long.BYTES + 1 );
+        assertEquals( 1024, memoryTracker.usedDirectMemory() );
+    }
+
+    @Test
+    void noLimitByDefault()
+    {
+        final OffHeapMemoryAllocator allocator = new OffHeapMemoryAllocator( memoryTracker, blockAllocator );
+
+        for ( int i = 0; i < 16; i++ )
+        {
+            allocate( allocator, 1024 );
+        }
+    }
+
+    private Memory allocate( OffHeapMemoryAllocator allocator, long size )
+    {
+        final Memory memory = allocator.allocate( size, true );
+        allocated.add( memory );
+        return memory;
+    }
+}
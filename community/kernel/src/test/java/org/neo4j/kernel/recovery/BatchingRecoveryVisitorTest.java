@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.store.UnderlyingStorageException;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+import org.neo4j.kernel.impl.util.monitoring.SilentProgressReporter;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.storageengine.api.CommandsToApply;
+import org.neo4j.storageengine.api.StorageEngine;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.REVERSE_RECOVERY;
+
+public class BatchingRecoveryVisitorTest
+{
+    private final List<List<Long>> batches = new ArrayList<>();
+    private final StorageEngine storageEngine = mock( StorageEngine.class );
+    private final RecoveryService recoveryService = mock( RecoveryService.class );
+    private final RecoveryMonitor monitor = mock( RecoveryMonitor.class );
+    private final CorruptedLogsTruncator logsTruncator = mock( CorruptedLogsTruncator.class );
+    private final List<CommittedTransactionRepresentation> transactions = new ArrayList<>();
+
+    @Test
+    public void shouldApplyTransactionsInBatchesOfGivenSize() throws Exception
+    {
+        // given
+        recordAppliedBatches();
+
+        // when
+        try ( RecoveryApplier visitor = new DefaultRecoveryService.BatchingRecoveryVisitor( storageEngine, RECOVERY, 3 ) )
+        {
+            for ( long txId = 2; txId <= 9; txId++ )
+            {
+                visitor.visit( transaction( txId ) );
+            }
+        }
+
+        // then
+        assertEquals( asList( asList( 2L, 3L, 4L ), asList( 5L, 6L, 7L ), asList( 8L, 9L ) ), batches );
+    }
+
+    @Test
+    public void shouldNotApplyAnythingOnCloseIfNothingVisited() throws Exception
+    {
+        // given
+        recordAppliedBatches();
+
+        // when
+        new DefaultRecoveryService.BatchingRecoveryVisitor( storageEngine, RECOVERY, 3 ).close();
+
+        // then
+        assertEquals( emptyList(), batches );
+    }
+
+    @Test
+    public void shouldOnlyConsiderAppliedBatchesRecoveredWhenBatchFails() throws Throwable
+    {
+        // given a second batch failing to be applied
+        failOnBatch( 2 );
+
+        // when
+        recover( 8, 3 );
+
+        // then
+        verifyRecoveredUpTo( 4 );
+    }
+
+    @Test
+    public void shouldOnlyConsiderAppliedBatchesRecoveredWhenLastBatchFailsOnClose() throws Throwable
+    {
+        // given the last, partially filled, batch failing to be applied
+        failOnBatch( 3 );
+
+        // when
+        recover( 8, 3 );
+
+        // then
+        verifyRecoveredUpTo( 7 );
+    }
+
+    @Test
+    public void shouldConsiderAllTransactionsRecoveredWhenAllBatchesApplied() throws Throwable
+    {
+        // given
+        recordAppliedBatches();
+
+        // when
+        recover( 8, 3 );
+
+        // then
+        verifyRecoveredUpTo( 9 );
+    }
+
+    @Test
+    public void shouldConsiderPendingTransactionsRecoveredWhenReadingCorruptLogTail() throws Throwable
+    {
+        // given a log where reading fails after the 5th transaction, in the middle of the second batch
+        recordAppliedBatches();
+
+        // when
+        recover( 8, 3, 5 );
+
+        // then the transactions read before the corrupt tail have all been applied, and are considered recovered
+        assertEquals( asList( asList( 2L, 3L, 4L ), asList( 5L, 6L ) ), batches );
+        verifyRecoveredUpTo( 6 );
+        verify( monitor ).failToRecoverTransactionsAfterCommit( any( IOException.class ), eq( transactions.get( 4 ).getCommitEntry() ),
+                eq( positionAfter( 6 ) ) );
+    }
+
+    private void recover( int numberOfTransactions, int batchSize ) throws Throwable
+    {
+        recover( numberOfTransactions, batchSize, numberOfTransactions );
+    }
+
+    private void recover( int numberOfTransactions, int batchSize, int readableTransactions ) throws Throwable
+    {
+        for ( long txId = 2; txId < 2 + numberOfTransactions; txId++ )
+        {
+            transactions.add( transaction( txId ) );
+        }
+        LogPosition recoveryPosition = new LogPosition( 0, 0 );
+        when( recoveryService.getRecoveryStartInformation() ).thenReturn( new RecoveryStartInformation( recoveryPosition, 2 ) );
+        when( recoveryService.getTransactionsInReverseOrder( recoveryPosition ) ).thenReturn( new ListTransactionCursor( emptyList(), 0 ) );
+        when( recoveryService.getTransactions( recoveryPosition ) ).thenReturn( new ListTransactionCursor( transactions, readableTransactions ) );
+        when( recoveryService.getRecoveryApplier( REVERSE_RECOVERY ) ).thenReturn( mock( RecoveryApplier.class ) );
+        when( recoveryService.getRecoveryApplier( RECOVERY ) ).thenReturn(
+                new DefaultRecoveryService.BatchingRecoveryVisitor( storageEngine, RECOVERY, batchSize ) );
+
+        new Recovery( recoveryService, logsTruncator, new LifecycleAdapter(), monitor, SilentProgressReporter.INSTANCE, false ).init();
+    }
+
+    private void verifyRecoveredUpTo( long lastAppliedTxId ) throws IOException
+    {
+        CommittedTransactionRepresentation lastApplied = transactions.get( (int) lastAppliedTxId - 2 );
+        LogPosition positionAfterLastApplied = positionAfter( lastAppliedTxId );
+        verify( logsTruncator ).truncate( positionAfterLastApplied );
+        verify( recoveryService ).transactionsRecovered( lastApplied, positionAfterLastApplied );
+        for ( CommittedTransactionRepresentation transaction : transactions )
+        {
+            long txId = transaction.getCommitEntry().getTxId();
+            verify( monitor, times( txId <= lastAppliedTxId ? 1 : 0 ) ).transactionRecovered( txId );
+        }
+        verify( monitor ).recoveryCompleted( (int) lastAppliedTxId - 1 );
+    }
+
+    private void failOnBatch( int failingBatch ) throws Exception
+    {
+        doAnswer( invocation ->
+        {
+            if ( batches.size() + 1 == failingBatch )
+            {
+                throw new UnderlyingStorageException( "Failed to apply batch" );
+            }
+            batches.add( emptyList() );
+            return null;
+        } ).when( storageEngine ).apply( any( TransactionToApply.class ), eq( RECOVERY ) );
+    }
+
+    private void recordAppliedBatches() throws Exception
+    {
+        doAnswer( invocation ->
+        {
+            List<Long> batch = new ArrayList<>();
+            CommandsToApply tx = invocation.getArgument( 0 );
+            while ( tx != null )
+            {
+                batch.add( tx.transactionId() );
+                tx = tx.next();
+            }
+            batches.add( batch );
+            return null;
+        } ).when( storageEngine ).apply( any( TransactionToApply.class ), eq( RECOVERY ) );
+    }
+
+    private static LogPosition positionAfter( long txId )
+    {
+        return new LogPosition( 0, txId + 1 );
+    }
+
+    private static CommittedTransactionRepresentation transaction( long txId )
+    {
+        LogEntryStart start = new LogEntryStart( 0, 0, 0, txId - 1, new byte[0], new LogPosition( 0, txId ) );
+        return new CommittedTransactionRepresentation( start, new PhysicalTransactionRepresentation( emptyList() ),
+                new LogEntryCommit( txId, 0 ) );
+    }
+
+    private static class ListTransactionCursor implements TransactionCursor
+    {
+        private final Iterator<CommittedTransactionRepresentation> transactions;
+        private int readableTransactions;
+        private CommittedTransactionRepresentation current;
+
+        /**
+         * @param readableTransactions number of transactions which can be read before the log is found to be corrupt,
+         * if there are more transactions than that.
+         */
+        ListTransactionCursor( List<CommittedTransactionRepresentation> transactions, int readableTransactions )
+        {
+            this.transactions = transactions.iterator();
+            this.readableTransactions = readableTransactions;
+        }
+
+        @Override
+        public boolean next() throws IOException
+        {
+            if ( transactions.hasNext() && readableTransactions-- == 0 )
+            {
+                throw new IOException( "Corrupt log" );
+            }
+            if ( transactions.hasNext() )
+            {
+                current = transactions.next();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public CommittedTransactionRepresentation get()
+        {
+            return current;
+        }
+
+        @Override
+        public LogPosition position()
+        {
+            return current == null ? new LogPosition( 0, 0 ) : positionAfter( current.getCommitEntry().getTxId() );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReadAheadTransactionCursorTest
+{
+    @Test
+    public void shouldReturnTransactionsAndPositionsInLogOrder() throws Exception
+    {
+        // given
+        ListTransactionCursor source = new ListTransactionCursor( 100, null );
+
+        // when
+        try ( TransactionCursor cursor = new ReadAheadTransactionCursor( source, 4 ) )
+        {
+            // then
+            for ( int i = 0; i < 100; i++ )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( i + 1, cursor.get().getCommitEntry().getTxId() );
+                assertEquals( new LogPosition( 0, i + 1 ), cursor.position() );
+            }
+            assertFalse( cursor.next() );
+            assertEquals( new LogPosition( 0, 100 ), cursor.position() );
+            assertFalse( cursor.next() );
+        }
+        assertTrue( source.closed.get() );
+    }
+
+    @Test
+    public void shouldThrowReadFailureAfterTransactionsReadBeforeIt() throws Exception
+    {
+        // given
+        IOException failure = new IOException( "corrupt" );
+        ListTransactionCursor source = new ListTransactionCursor( 10, failure );
+
+        // when
+        try ( TransactionCursor cursor = new ReadAheadTransactionCursor( source, 2 ) )
+        {
+            for ( int i = 0; i < 10; i++ )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( i + 1, cursor.get().getCommitEntry().getTxId() );
+            }
+            cursor.next();
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {
+            // then
+            assertSame( failure, e );
+        }
+        assertTrue( source.closed.get() );
+    }
+
+    @Test
+    public void shouldStopReadingWhenClosedBeforeEndOfLog() throws Exception
+    {
+        // given
+        ListTransactionCursor source = new ListTransactionCursor( 1_000, null );
+
+        // when
+        try ( TransactionCursor cursor = new ReadAheadTransactionCursor( source, 2 ) )
+        {
+            assertTrue( cursor.next() );
+        }
+
+        // then
+        assertTrue( source.closed.get() );
+        assertTrue( source.read < 1_000 );
+    }
+
+    private static class ListTransactionCursor implements TransactionCursor
+    {
+        private final List<CommittedTransactionRepresentation> transactions = new ArrayList<>();
+        private final IOException failure;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile int read;
+
+        ListTransactionCursor( int count, IOException failure )
+        {
+            for ( int i = 1; i <= count; i++ )
+            {
+                LogEntryStart start = new LogEntryStart( 0, 0, 0, i - 1, new byte[0], new LogPosition( 0, i - 1 ) );
+                transactions.add( new CommittedTransactionRepresentation( start,
+                        new PhysicalTransactionRepresentation( emptyList() ), new LogEntryCommit( i, 0 ) ) );
+            }
+            this.failure = failure;
+        }
+
+        @Override
+        public boolean next() throws IOException
+        {
+            if ( read < transactions.size() )
+            {
+                read++;
+                return true;
+            }
+            if ( failure != null )
+            {
+                throw failure;
+            }
+            return false;
+        }
+
+        @Override
+        public CommittedTransactionRepresentation get()
+        {
+            return transactions.get( read - 1 );
+        }
+
+        @Override
+        public LogPosition position()
+        {
+            return new LogPosition( 0, read );
+        }
+
+        @Override
+        public void close()
+        {
+            closed.set( true );
+        }
+    }
+}
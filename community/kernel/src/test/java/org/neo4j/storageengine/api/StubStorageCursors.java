@@ -414,6 +414,18 @@ public class StubStorageCursors implements StorageReader
         return new StubStorageRelationshipScanCursor();
     }
 
+    @Override
+    public AllNodeScan allNodeScan()
+    {
+        throw new UnsupportedOperationException( "Not implemented yet" );
+    }
+
+    @Override
+    public AllRelationshipsScan allRelationshipScan()
+    {
+        throw new UnsupportedOperationException( "Not implemented yet" );
+    }
+
     private static class NodeData
     {
         private final long id;
@@ -470,6 +482,12 @@ public class StubStorageCursors implements StorageReader
             this.iterator = nodeData.keySet().iterator();
         }
 
+        @Override
+        public boolean scanBatch( AllNodeScan scan, int sizeHint )
+        {
+            throw new UnsupportedOperationException( "Not implemented yet" );
+        }
+
         @Override
         public void single( long reference )
         {
@@ -585,6 +603,12 @@ public class StubStorageCursors implements StorageReader
             next = NO_ID;
         }
 
+        @Override
+        public boolean scanBatch( AllRelationshipsScan scan, int type, int sizeHint )
+        {
+            throw new UnsupportedOperationException( "Not implemented yet" );
+        }
+
         @Override
         public void single( long reference )
         {
@@ -23,8 +23,10 @@ import sun.misc.Unsafe;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -69,6 +71,7 @@ public final class UnsafeUtil
 
     private static final Unsafe unsafe;
     private static final MethodHandle sharedStringConstructor;
+    private static final MethodHandle byteBufferCleaner;
     private static final String allowUnalignedMemoryAccessProperty =
             "org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.allowUnalignedMemoryAccess";
 
@@ -96,6 +99,7 @@ public final class UnsafeUtil
 
         MethodHandles.Lookup lookup = MethodHandles.lookup();
         sharedStringConstructor = getSharedStringConstructorMethodHandle( lookup );
+        byteBufferCleaner = getByteBufferCleanerMethodHandle( lookup );
 
         Class<?> dbbClass = null;
         Constructor<?> ctor = null;
@@ -355,6 +359,31 @@ public final class UnsafeUtil
         while ( !UnsafeUtil.compareAndSwapLong( object, fieldOffset, currentValue, newValue ) );
     }
 
+    private static MethodHandle getByteBufferCleanerMethodHandle( MethodHandles.Lookup lookup )
+    {
+        MethodType type = MethodType.methodType( void.class, ByteBuffer.class );
+        try
+        {
+            // Java 9 and newer
+            return lookup.findVirtual( Unsafe.class, "invokeCleaner", type ).bindTo( unsafe );
+        }
+        catch ( Exception e )
+        {
+            try
+            {
+                // Java 8: ((sun.nio.ch.DirectBuffer) buffer).cleaner().clean()
+                Method cleaner = Class.forName( "sun.nio.ch.DirectBuffer" ).getMethod( "cleaner" );
+                Method clean = Class.forName( "sun.misc.Cleaner" ).getMethod( "clean" );
+                return MethodHandles.filterReturnValue( lookup.unreflect( cleaner ), lookup.unreflect( clean ) )
+                        .asType( type );
+            }
+            catch ( Exception e1 )
+            {
+                return null;
+            }
+        }
+    }
+
     /**
      * Create a string with a char[] that you know is not going to be modified, so avoid the copy constructor.
      *
@@ -980,6 +1009,35 @@ public final class UnsafeUtil
         return (ByteBuffer) directByteBufferCtor.newInstance( addr, cap );
     }
 
+    /**
+     * Release the native memory, or file mapping, of the given direct ByteBuffer right away, instead of waiting for
+     * the buffer to be garbage collected.
+     * <p>
+     * <strong>NOTE:</strong> the buffer, and any slices or duplicates of it, must not be accessed after this call.
+     * Doing so will crash the JVM. The buffer must also be the one that owns the memory, rather than a slice or a
+     * duplicate of it.
+     *
+     * @param dbb The direct byte buffer to release.
+     * @return {@code true} if the memory was released, or {@code false} if this is not supported on this JVM, in
+     * which case the memory will be released whenever the buffer is garbage collected.
+     */
+    public static boolean invokeCleaner( ByteBuffer dbb )
+    {
+        if ( byteBufferCleaner == null || !dbb.isDirect() )
+        {
+            return false;
+        }
+        try
+        {
+            byteBufferCleaner.invokeExact( dbb );
+            return true;
+        }
+        catch ( Throwable throwable )
+        {
+            return false;
+        }
+    }
+
     /**
      * Initialize (simulate calling the constructor of) the given DirectByteBuffer.
      */